@@ -0,0 +1,22 @@
+package se.devscout.achievements.server.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * The people to award an achievement to, either listed one by one or as all the members of a group.
+ */
+public class AwardsDTO {
+    public List<Integer> people;
+    public Integer group;
+
+    public AwardsDTO() {
+    }
+
+    public AwardsDTO(@JsonProperty("people") List<Integer> people,
+                     @JsonProperty("group") Integer group) {
+        this.people = people;
+        this.group = group;
+    }
+}
@@ -0,0 +1,20 @@
+package se.devscout.achievements.server.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A person who has completed an achievement but not yet been awarded it.
+ */
+public class EligibleAwardDTO {
+    public AchievementBaseDTO achievement;
+    public PersonBaseDTO person;
+
+    public EligibleAwardDTO() {
+    }
+
+    public EligibleAwardDTO(@JsonProperty("achievement") AchievementBaseDTO achievement,
+                            @JsonProperty("person") PersonBaseDTO person) {
+        this.achievement = achievement;
+        this.person = person;
+    }
+}
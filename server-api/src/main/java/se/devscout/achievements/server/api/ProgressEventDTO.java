@@ -0,0 +1,23 @@
+package se.devscout.achievements.server.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ProgressEventDTO {
+    public String achievement;
+    public Integer step;
+    public Integer person;
+    public Integer progress;
+    public Boolean awarded;
+
+    public ProgressEventDTO(@JsonProperty("achievement") String achievement,
+                            @JsonProperty("step") Integer step,
+                            @JsonProperty("person") Integer person,
+                            @JsonProperty("progress") Integer progress,
+                            @JsonProperty("awarded") Boolean awarded) {
+        this.achievement = achievement;
+        this.step = step;
+        this.person = person;
+        this.progress = progress;
+        this.awarded = awarded;
+    }
+}
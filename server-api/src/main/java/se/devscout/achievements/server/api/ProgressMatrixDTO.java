@@ -0,0 +1,20 @@
+package se.devscout.achievements.server.api;
+
+/**
+ * Progress for a set of people and steps in columnar form. The progress for person {@code people[p]} and step
+ * {@code steps[s]} is {@code values[p * steps.length + s]}, or -1 if the person has not started the step.
+ */
+public class ProgressMatrixDTO {
+    public int[] steps;
+    public int[] people;
+    public int[] values;
+
+    public ProgressMatrixDTO() {
+    }
+
+    public ProgressMatrixDTO(int[] steps, int[] people, int[] values) {
+        this.steps = steps;
+        this.people = people;
+        this.values = values;
+    }
+}
@@ -0,0 +1,21 @@
+package se.devscout.achievements.server.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class StepProgressDTO extends ProgressDTO {
+    public Integer step;
+    public Integer person;
+
+    public StepProgressDTO() {
+    }
+
+    public StepProgressDTO(@JsonProperty("step") Integer step,
+                           @JsonProperty("person") Integer person,
+                           @JsonProperty("completed") Boolean completed,
+                           @JsonProperty("progress") Integer value,
+                           @JsonProperty("note") String note) {
+        super(completed, value, note);
+        this.step = step;
+        this.person = person;
+    }
+}
@@ -0,0 +1,20 @@
+package se.devscout.achievements.server.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class StepProgressResultDTO {
+    public Integer step;
+    public Integer person;
+    public int status;
+    public String message;
+
+    public StepProgressResultDTO(@JsonProperty("step") Integer step,
+                                 @JsonProperty("person") Integer person,
+                                 @JsonProperty("status") int status,
+                                 @JsonProperty("message") String message) {
+        this.step = step;
+        this.person = person;
+        this.status = status;
+        this.message = message;
+    }
+}
@@ -3,6 +3,7 @@ package se.devscout.achievements.server;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import io.dropwizard.Application;
 import io.dropwizard.assets.AssetsBundle;
 import io.dropwizard.auth.*;
@@ -24,6 +25,8 @@ import liquibase.Liquibase;
 import liquibase.database.jvm.JdbcConnection;
 import liquibase.resource.ClassLoaderResourceAccessor;
 import org.eclipse.jetty.servlets.CrossOriginFilter;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.glassfish.jersey.media.sse.SseFeature;
 import org.glassfish.jersey.server.filter.RolesAllowedDynamicFeature;
 import org.hibernate.SessionFactory;
 import se.devscout.achievements.server.api.UnsuccessfulDTO;
@@ -39,9 +42,23 @@ import se.devscout.achievements.server.cli.BoostrapDataTask;
 import se.devscout.achievements.server.cli.HttpAuditTask;
 import se.devscout.achievements.server.cli.ImportScoutBadgesTask;
 import se.devscout.achievements.server.cli.ImportScouternaBadgesTask;
+import se.devscout.achievements.server.cli.RebuildProgressRollupTask;
+import se.devscout.achievements.server.data.AchievementCatalogHolder;
+import se.devscout.achievements.server.data.AwardEligibility;
+import se.devscout.achievements.server.data.CacheRegionFactory;
+import se.devscout.achievements.server.data.CacheRegionMetrics;
+import se.devscout.achievements.server.data.OrganizationVersions;
+import se.devscout.achievements.server.data.OrganizationVersionsEventListener;
+import se.devscout.achievements.server.data.ProgressEventPublisher;
+import se.devscout.achievements.server.data.ProgressEvents;
+import se.devscout.achievements.server.data.ProgressMatrices;
+import se.devscout.achievements.server.data.ProgressMatrixEventListener;
 import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.data.search.AchievementSearchIndex;
+import se.devscout.achievements.server.data.search.TrigramIndex;
 import se.devscout.achievements.server.filter.audit.AuditFeature;
+import se.devscout.achievements.server.filter.etag.ConditionalGetFeature;
 import se.devscout.achievements.server.health.IsAliveHealthcheck;
 import se.devscout.achievements.server.mail.SmtpSender;
 import se.devscout.achievements.server.resources.*;
@@ -56,10 +73,15 @@ import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.container.DynamicFeature;
 import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.sql.Connection;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class AchievementsApplication extends Application<AchievementsApplicationConfiguration> {
     private final HibernateBundle<AchievementsApplicationConfiguration> hibernate = new HibernateBundle<AchievementsApplicationConfiguration>(
@@ -72,10 +94,17 @@ public class AchievementsApplication extends Application<AchievementsApplication
             AchievementStep.class,
             AchievementStepProgress.class,
             HttpAuditRecord.class,
-            StepProgressAuditRecord.class
+            StepProgressAuditRecord.class,
+            AchievementProgressRollup.class
     ) {
         public DataSourceFactory getDataSourceFactory(AchievementsApplicationConfiguration configuration) {
-            return configuration.getDataSourceFactory();
+            final DataSourceFactory dataSourceFactory = configuration.getDataSourceFactory();
+            if (configuration.getSecondLevelCache().isEnabled()) {
+                // Settings in the configuration file take precedence
+                getSecondLevelCacheProperties(configuration.getSecondLevelCache()).forEach(dataSourceFactory.getProperties()::putIfAbsent);
+            }
+            getJdbcBatchingProperties(configuration.getJdbcBatching()).forEach(dataSourceFactory.getProperties()::putIfAbsent);
+            return dataSourceFactory;
         }
     };
 
@@ -90,15 +119,34 @@ public class AchievementsApplication extends Application<AchievementsApplication
             }
         }
 
-        final OrganizationsDao organizationsDao = new OrganizationsDaoImpl(sessionFactory, config.getMaxOrganizationCount());
-        final AchievementsDao achievementsDao = new AchievementsDaoImpl(sessionFactory);
-        final AchievementStepsDao achievementStepsDao = new AchievementStepsDaoImpl(sessionFactory);
-        final AchievementStepProgressDao progressDao = new AchievementStepProgressDaoImpl(sessionFactory);
+        final OrganizationsDao organizationsDao = new OrganizationsDaoImpl(sessionFactory, config.getMaxOrganizationCount(), new TrigramIndex(), config.isDatabaseSearch());
+        final ProgressEvents progressEvents = createProgressEvents(config.getProgressEvents(), environment);
+        final AwardEligibility awardEligibility = new AwardEligibility(config.getAwardEligibilityCacheSize(), environment.metrics());
+        final ProgressEventPublisher progressEventPublisher = ProgressEventPublisher.of(progressEvents, awardEligibility);
+        final AchievementCatalogHolder achievementCatalog = new AchievementCatalogHolder(environment.metrics());
+        final AchievementsDao achievementsDao = new AchievementsDaoImpl(sessionFactory, new AchievementSearchIndex(), config.isDatabaseSearch(), achievementCatalog, progressEventPublisher);
+        final AchievementStepsDao achievementStepsDao = new AchievementStepsDaoImpl(sessionFactory, achievementCatalog);
+        final ProgressMatrices progressMatrices = new ProgressMatrices(config.getProgressMatrixCacheSize(), environment.metrics());
+        final AchievementStepProgressDao progressDao = new AchievementStepProgressDaoImpl(sessionFactory, progressMatrices, progressEventPublisher);
         final PeopleDao peopleDao = new PeopleDaoImpl(sessionFactory);
         final GroupsDao groupsDao = new GroupsDaoImpl(sessionFactory);
         final AuditingDao auditingDao = new AuditingDaoImpl(sessionFactory);
         final GroupMembershipsDao membershipsDao = new GroupMembershipsDaoImpl(sessionFactory);
         final CredentialsDao credentialsDao = getCredentialsDao(sessionFactory);
+        final AchievementSummaryDao summaryDao = new AchievementSummaryDaoImpl(sessionFactory);
+
+        if (config.getSecondLevelCache().isEnabled()) {
+            final Set<String> regionNames = Sets.difference(config.getSecondLevelCache().getRegions().keySet(), Collections.singleton(CacheRegionFactory.DEFAULT_REGION));
+            CacheRegionMetrics.register(sessionFactory, regionNames, environment.metrics());
+        }
+
+        final OrganizationVersions organizationVersions = new OrganizationVersions();
+        OrganizationVersionsEventListener.register(sessionFactory, organizationVersions);
+        final AchievementSummaryCache summaryCache = new AchievementSummaryCache(organizationVersions, config.getSummaryCacheSize(), environment.metrics());
+        final TypeaheadCache typeaheadCache = new TypeaheadCache(organizationVersions, config.getTypeaheadCacheSize(), environment.metrics());
+        final SerializedResponseCache responseCache = new SerializedResponseCache(organizationVersions, environment.getObjectMapper(), config.getResponseCacheMaxBytes(), environment.metrics());
+
+        ProgressMatrixEventListener.register(sessionFactory, progressMatrices);
 
         environment.jersey().register(new CallbackResourceExceptionMapper(config.getGuiApplicationHost()));
         environment.jersey().register(ValidationExceptionMapper.class);
@@ -118,6 +166,7 @@ public class AchievementsApplication extends Application<AchievementsApplication
             initFilterRateLimiter(environment, config.getRateLimiting());
         }
         environment.jersey().register(new AuditFeature(auditingDao, hibernate));
+        environment.jersey().register(new ConditionalGetFeature(organizationVersions, peopleDao, hibernate));
 
         environment.jersey().register(RolesAllowedDynamicFeature.class);
         //If you want to use @Auth to inject a custom Principal type into your resource
@@ -128,15 +177,19 @@ public class AchievementsApplication extends Application<AchievementsApplication
 
         environment.getObjectMapper().configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
 
-        environment.jersey().register(new OrganizationsResource(organizationsDao, achievementsDao, peopleDao));
-        environment.jersey().register(new AchievementsResource(achievementsDao, progressDao, auditingDao, peopleDao));
+        environment.jersey().register(new OrganizationsResource(organizationsDao, achievementsDao, peopleDao, summaryDao, summaryCache, responseCache));
+        environment.jersey().register(new AchievementsResource(achievementsDao, progressDao, auditingDao, peopleDao, groupsDao, membershipsDao, progressMatrices, awardEligibility, typeaheadCache, responseCache));
         environment.jersey().register(new AchievementStepsResource(achievementStepsDao, achievementsDao));
         environment.jersey().register(new AchievementStepProgressResource(achievementStepsDao, achievementsDao, peopleDao, progressDao));
-        environment.jersey().register(new PeopleResource(peopleDao, organizationsDao, achievementsDao, environment.getObjectMapper(), groupsDao, membershipsDao, config.getGuiApplicationHost(), emailSender, i18n));
-        environment.jersey().register(new GroupsResource(groupsDao, organizationsDao, achievementsDao, environment.getObjectMapper()));
+        environment.jersey().register(new PeopleResource(peopleDao, organizationsDao, achievementsDao, environment.getObjectMapper(), groupsDao, membershipsDao, config.getGuiApplicationHost(), emailSender, i18n, summaryDao, summaryCache, typeaheadCache));
+        environment.jersey().register(new GroupsResource(groupsDao, organizationsDao, achievementsDao, environment.getObjectMapper(), summaryDao, summaryCache));
         environment.jersey().register(new GroupMembershipsResource(groupsDao, peopleDao, organizationsDao, membershipsDao));
-        environment.jersey().register(new MyResource(peopleDao, groupsDao, achievementsDao, credentialsDao, emailSender, config.getGuiApplicationHost(), signInTokenService, i18n));
+        environment.jersey().register(new MyResource(peopleDao, groupsDao, achievementsDao, credentialsDao, emailSender, config.getGuiApplicationHost(), signInTokenService, i18n, summaryDao, summaryCache));
         environment.jersey().register(new StatsResource(organizationsDao));
+        environment.jersey().register(SseFeature.class);
+        environment.jersey().register(new ProgressEventsResource(
+                progressEvents,
+                new UnitOfWorkAwareProxyFactory(hibernate).create(OrganizationMembership.class, PeopleDao.class, peopleDao)));
         environment.jersey().register(new SignInResource(signInTokenService, credentialsDao));
         environment.jersey().register(new ExternalIdpResource(
                 ImmutableMap.of("google",
@@ -177,6 +230,48 @@ public class AchievementsApplication extends Application<AchievementsApplication
         environment.admin().addTask(new ImportScoutBadgesTask(sessionFactory, achievementsDao, achievementStepsDao));
         environment.admin().addTask(new ImportScouternaBadgesTask(sessionFactory, achievementsDao, achievementStepsDao));
         environment.admin().addTask(new HttpAuditTask(sessionFactory, auditingDao));
+        environment.admin().addTask(new RebuildProgressRollupTask(sessionFactory, achievementsDao, new AchievementProgressRollupDaoImpl(sessionFactory)));
+    }
+
+    private static Map<String, String> getJdbcBatchingProperties(AchievementsApplicationConfiguration.JdbcBatching config) {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("hibernate.jdbc.batch_size", String.valueOf(config.getBatchSize()));
+        properties.put("hibernate.order_inserts", String.valueOf(config.isOrderInserts()));
+        properties.put("hibernate.order_updates", String.valueOf(config.isOrderUpdates()));
+        return properties;
+    }
+
+    private static Map<String, String> getSecondLevelCacheProperties(AchievementsApplicationConfiguration.SecondLevelCache config) {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "true");
+        properties.put("hibernate.cache.region.factory_class", CacheRegionFactory.class.getName());
+        properties.put("hibernate.javax.cache.provider", EhcacheCachingProvider.class.getName());
+        // Steps are added to achievements through AchievementStep.achievement, the inverse side of Achievement.steps
+        properties.put("hibernate.cache.auto_evict_collection_cache", "true");
+        properties.put("hibernate.generate_statistics", "true");
+        config.getRegions().forEach((regionName, region) -> {
+            properties.put(CacheRegionFactory.maxEntriesProperty(regionName), String.valueOf(region.getMaxEntries()));
+            if (region.getTimeToLive() != null) {
+                properties.put(CacheRegionFactory.timeToLiveProperty(regionName), String.valueOf(region.getTimeToLive().toSeconds()));
+            }
+        });
+        return properties;
+    }
+
+    private static ProgressEvents createProgressEvents(AchievementsApplicationConfiguration.ProgressEvents config, Environment environment) {
+        final ProgressEvents progressEvents = new ProgressEvents(
+                config.getCoalesceWindow(),
+                config.getQueueSize(),
+                config.getHeartbeatInterval(),
+                environment.lifecycle().scheduledExecutorService("progress-events-%d").build(),
+                environment.lifecycle().executorService("progress-events-writer-%d")
+                        .minThreads(config.getWriterThreads())
+                        .maxThreads(config.getWriterThreads())
+                        .build(),
+                environment.metrics());
+        environment.lifecycle().manage(progressEvents);
+        return progressEvents;
     }
 
     private void initSentry() {
@@ -222,6 +317,8 @@ public class AchievementsApplication extends Application<AchievementsApplication
 
         final UnauthorizedHandler unauthorizedHandler = (prefix, realm) -> Response
                 .status(Response.Status.UNAUTHORIZED.getStatusCode())
+                // Explicit since the error is JSON also for resources which produce something else, like event streams
+                .type(MediaType.APPLICATION_JSON_TYPE)
                 .entity(new UnsuccessfulDTO(
                         "Not good enough. You need credentials for this request.",
                         Response.Status.UNAUTHORIZED.getStatusCode()))
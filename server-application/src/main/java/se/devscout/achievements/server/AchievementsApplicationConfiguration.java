@@ -1,13 +1,16 @@
 package se.devscout.achievements.server;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
 import io.dropwizard.Configuration;
 import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.util.Duration;
 import se.devscout.achievements.server.mail.SmtpSenderConfiguration;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import java.net.URI;
+import java.util.Map;
 
 public class AchievementsApplicationConfiguration extends Configuration {
     private Long maxOrganizationCount;
@@ -17,6 +20,15 @@ public class AchievementsApplicationConfiguration extends Configuration {
     private URI guiApplicationHost;
     private boolean autoMigrateDatabase;
     private RateLimiting rateLimiting;
+    private SecondLevelCache secondLevelCache = new SecondLevelCache();
+    private JdbcBatching jdbcBatching = new JdbcBatching();
+    private ProgressEvents progressEvents = new ProgressEvents();
+    private long summaryCacheSize = 1000;
+    private long progressMatrixCacheSize = 100;
+    private long awardEligibilityCacheSize = 100;
+    private long typeaheadCacheSize = 100;
+    private long responseCacheMaxBytes = 16 * 1024 * 1024;
+    private boolean databaseSearch;
 
     public URI getServerApplicationHost() {
         return serverApplicationHost;
@@ -83,6 +95,54 @@ public class AchievementsApplicationConfiguration extends Configuration {
         this.autoMigrateDatabase = autoMigrateDatabase;
     }
 
+    public boolean isDatabaseSearch() {
+        return databaseSearch;
+    }
+
+    public void setDatabaseSearch(boolean databaseSearch) {
+        this.databaseSearch = databaseSearch;
+    }
+
+    public long getSummaryCacheSize() {
+        return summaryCacheSize;
+    }
+
+    public void setSummaryCacheSize(long summaryCacheSize) {
+        this.summaryCacheSize = summaryCacheSize;
+    }
+
+    public long getProgressMatrixCacheSize() {
+        return progressMatrixCacheSize;
+    }
+
+    public void setProgressMatrixCacheSize(long progressMatrixCacheSize) {
+        this.progressMatrixCacheSize = progressMatrixCacheSize;
+    }
+
+    public long getAwardEligibilityCacheSize() {
+        return awardEligibilityCacheSize;
+    }
+
+    public void setAwardEligibilityCacheSize(long awardEligibilityCacheSize) {
+        this.awardEligibilityCacheSize = awardEligibilityCacheSize;
+    }
+
+    public long getTypeaheadCacheSize() {
+        return typeaheadCacheSize;
+    }
+
+    public void setTypeaheadCacheSize(long typeaheadCacheSize) {
+        this.typeaheadCacheSize = typeaheadCacheSize;
+    }
+
+    public long getResponseCacheMaxBytes() {
+        return responseCacheMaxBytes;
+    }
+
+    public void setResponseCacheMaxBytes(long responseCacheMaxBytes) {
+        this.responseCacheMaxBytes = responseCacheMaxBytes;
+    }
+
     public RateLimiting getRateLimiting() {
         return rateLimiting;
     }
@@ -91,6 +151,30 @@ public class AchievementsApplicationConfiguration extends Configuration {
         this.rateLimiting = rateLimiting;
     }
 
+    public SecondLevelCache getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
+    public void setSecondLevelCache(SecondLevelCache secondLevelCache) {
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    public JdbcBatching getJdbcBatching() {
+        return jdbcBatching;
+    }
+
+    public void setJdbcBatching(JdbcBatching jdbcBatching) {
+        this.jdbcBatching = jdbcBatching;
+    }
+
+    public ProgressEvents getProgressEvents() {
+        return progressEvents;
+    }
+
+    public void setProgressEvents(ProgressEvents progressEvents) {
+        this.progressEvents = progressEvents;
+    }
+
     public static class AuthConfig {
         private String googleClientId;
         private String googleClientSecret;
@@ -160,4 +244,145 @@ public class AchievementsApplicationConfiguration extends Configuration {
             this.burstLimit = burstLimit;
         }
     }
+
+    /**
+     * Hibernate second-level cache. Regions are named in the @Cache annotations on the entities and the cacheRegion
+     * hints on the named queries. Regions which are not listed use the settings for the "default" region.
+     */
+    public static class SecondLevelCache {
+        private boolean enabled = true;
+        private Map<String, CacheRegion> regions = ImmutableMap.<String, CacheRegion>builder()
+                .put("default", new CacheRegion(1000, Duration.hours(1)))
+                .put("organization", new CacheRegion(1000, Duration.hours(1)))
+                .put("achievement", new CacheRegion(1000, Duration.hours(1)))
+                .put("achievement.steps", new CacheRegion(1000, Duration.hours(1)))
+                .put("achievement.tags", new CacheRegion(1000, Duration.hours(1)))
+                .put("achievement_step", new CacheRegion(10000, Duration.hours(1)))
+                .put("credentials", new CacheRegion(10000, Duration.minutes(10)))
+                .put("person", new CacheRegion(10000, Duration.minutes(10)))
+                .put("group", new CacheRegion(1000, Duration.minutes(10)))
+                .put("queries", new CacheRegion(1000, Duration.minutes(10)))
+                .build();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Map<String, CacheRegion> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, CacheRegion> regions) {
+            this.regions = regions;
+        }
+    }
+
+    /**
+     * Hibernate JDBC batching of inserts and updates. Batching is turned off by setting the batch size to 0.
+     */
+    public static class JdbcBatching {
+        private int batchSize = 50;
+        private boolean orderInserts = true;
+        private boolean orderUpdates = true;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public boolean isOrderInserts() {
+            return orderInserts;
+        }
+
+        public void setOrderInserts(boolean orderInserts) {
+            this.orderInserts = orderInserts;
+        }
+
+        public boolean isOrderUpdates() {
+            return orderUpdates;
+        }
+
+        public void setOrderUpdates(boolean orderUpdates) {
+            this.orderUpdates = orderUpdates;
+        }
+    }
+
+    /**
+     * Server-Sent Events about progress changes. Events for the same step and person are coalesced within the window,
+     * and a client with more than queueSize events waiting to be written is disconnected.
+     */
+    public static class ProgressEvents {
+        private Duration coalesceWindow = Duration.milliseconds(250);
+        private int queueSize = 1000;
+        private Duration heartbeatInterval = Duration.seconds(30);
+        private int writerThreads = 4;
+
+        public Duration getCoalesceWindow() {
+            return coalesceWindow;
+        }
+
+        public void setCoalesceWindow(Duration coalesceWindow) {
+            this.coalesceWindow = coalesceWindow;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public int getWriterThreads() {
+            return writerThreads;
+        }
+
+        public void setWriterThreads(int writerThreads) {
+            this.writerThreads = writerThreads;
+        }
+    }
+
+    public static class CacheRegion {
+        private long maxEntries;
+        private Duration timeToLive;
+
+        public CacheRegion() {
+        }
+
+        public CacheRegion(long maxEntries, Duration timeToLive) {
+            this.maxEntries = maxEntries;
+            this.timeToLive = timeToLive;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package se.devscout.achievements.server.cli;
+
+import com.google.common.collect.ImmutableMultimap;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import se.devscout.achievements.server.data.dao.AchievementProgressRollupDao;
+import se.devscout.achievements.server.data.dao.AchievementsDao;
+import se.devscout.achievements.server.data.model.Achievement;
+
+import java.io.PrintWriter;
+
+/**
+ * Recalculates the whole achievement progress rollup from the progress and award records. Only needed if the rollup
+ * has drifted, for example after the database has been modified by hand.
+ */
+public class RebuildProgressRollupTask extends DatabaseTask {
+    private final AchievementsDao achievementsDao;
+    private final AchievementProgressRollupDao rollupDao;
+
+    public RebuildProgressRollupTask(SessionFactory sessionFactory, AchievementsDao achievementsDao, AchievementProgressRollupDao rollupDao) {
+        super("rebuild-progress-rollup", sessionFactory);
+        this.achievementsDao = achievementsDao;
+        this.rollupDao = rollupDao;
+    }
+
+    @Override
+    protected void execute(ImmutableMultimap<String, String> parameters, PrintWriter output, Session session) throws Exception {
+        int total = 0;
+        for (Achievement achievement : achievementsDao.readAll()) {
+            total += rollupDao.refresh(achievement);
+        }
+        output.printf("Rebuilt progress rollup. %d rows.%n", total);
+    }
+}
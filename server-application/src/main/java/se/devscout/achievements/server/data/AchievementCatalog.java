@@ -0,0 +1,154 @@
+package se.devscout.achievements.server.data;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Ordering;
+import se.devscout.achievements.server.data.model.Achievement;
+import se.devscout.achievements.server.data.model.AchievementStep;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of all achievements, with their steps, prerequisites and tags. The catalog is read-mostly data which
+ * every organization shares, so a single instance can be used by all threads without any locking. Changes are never
+ * applied to an existing catalog; a new one is loaded instead, see {@link AchievementCatalogHolder}.
+ */
+public final class AchievementCatalog {
+
+    public static final class Entry {
+        private final UUID id;
+        private final String name;
+        private final String description;
+        private final URI image;
+        private final List<String> tags;
+        private final List<Step> steps;
+
+        private Entry(Achievement achievement) {
+            this(achievement.getId(),
+                    achievement.getName(),
+                    achievement.getDescription(),
+                    achievement.getImage(),
+                    achievement.getTags(),
+                    achievement.getSteps().stream().map(step -> new Step(achievement.getId(), step)).collect(Collectors.toList()));
+        }
+
+        public Entry(UUID id, String name, String description, URI image, Collection<String> tags, List<Step> steps) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.image = image;
+            this.tags = tags != null ? Ordering.natural().immutableSortedCopy(tags) : ImmutableList.of();
+            this.steps = ImmutableList.copyOf(steps);
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public URI getImage() {
+            return image;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public List<Step> getSteps() {
+            return steps;
+        }
+    }
+
+    public static final class Step {
+        private final Integer id;
+        private final UUID achievementId;
+        private final String description;
+        private final UUID prerequisiteAchievementId;
+
+        private Step(UUID achievementId, AchievementStep step) {
+            this(step.getId(),
+                    achievementId,
+                    step.getDescription(),
+                    step.getPrerequisiteAchievement() != null ? step.getPrerequisiteAchievement().getId() : null);
+        }
+
+        public Step(Integer id, UUID achievementId, String description, UUID prerequisiteAchievementId) {
+            this.id = id;
+            this.achievementId = achievementId;
+            this.description = description;
+            this.prerequisiteAchievementId = prerequisiteAchievementId;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public UUID getAchievementId() {
+            return achievementId;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public UUID getPrerequisiteAchievementId() {
+            return prerequisiteAchievementId;
+        }
+    }
+
+    private final List<Entry> achievements;
+    private final Map<UUID, Entry> achievementsById;
+    private final Map<Integer, Step> stepsById;
+
+    private AchievementCatalog(List<Entry> achievements) {
+        this.achievements = achievements;
+
+        final Map<UUID, Entry> achievementsById = new HashMap<>();
+        final Map<Integer, Step> stepsById = new HashMap<>();
+        for (Entry achievement : achievements) {
+            achievementsById.put(achievement.getId(), achievement);
+            for (Step step : achievement.getSteps()) {
+                stepsById.put(step.getId(), step);
+            }
+        }
+        this.achievementsById = ImmutableMap.copyOf(achievementsById);
+        this.stepsById = ImmutableMap.copyOf(stepsById);
+    }
+
+    public static AchievementCatalog of(Collection<Achievement> achievements) {
+        return ofEntries(achievements.stream().map(Entry::new).collect(Collectors.toList()));
+    }
+
+    /**
+     * Creates a catalog from entries which have been read without loading any entities.
+     */
+    public static AchievementCatalog ofEntries(Collection<Entry> achievements) {
+        return new AchievementCatalog(ImmutableList.copyOf(achievements.stream()
+                .sorted(Comparator.comparing(Entry::getName).thenComparing(Entry::getId))
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Returns all achievements, sorted by name.
+     */
+    public List<Entry> getAchievements() {
+        return achievements;
+    }
+
+    public Optional<Entry> get(UUID achievementId) {
+        return Optional.ofNullable(achievementsById.get(achievementId));
+    }
+
+    public Optional<Step> getStep(Integer stepId) {
+        return Optional.ofNullable(stepsById.get(stepId));
+    }
+}
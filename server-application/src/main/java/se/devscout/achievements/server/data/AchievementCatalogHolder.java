@@ -0,0 +1,66 @@
+package se.devscout.achievements.server.data;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current {@link AchievementCatalog}. The catalog is loaded the first time it is needed after it has been
+ * invalidated, and the new catalog then replaces the old one in a single atomic operation. Readers therefore always
+ * see a complete catalog, either the old or the new one, and never have to wait for one to be loaded by someone else.
+ */
+public class AchievementCatalogHolder {
+
+    private static class Loaded {
+        private final AchievementCatalog catalog;
+        private final long generation;
+
+        Loaded(AchievementCatalog catalog, long generation) {
+            this.catalog = catalog;
+            this.generation = generation;
+        }
+    }
+
+    private final AtomicReference<Loaded> current = new AtomicReference<>();
+
+    /**
+     * Incremented every time the catalog is invalidated. A catalog is only used as long as the counter has the value it
+     * had when the catalog started loading.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter loads;
+
+    public AchievementCatalogHolder(MetricRegistry metrics) {
+        loads = metrics.counter(MetricRegistry.name(AchievementCatalogHolder.class, "loads"));
+        metrics.register(MetricRegistry.name(AchievementCatalogHolder.class, "achievements"), (Gauge<Integer>) () -> {
+            final Loaded loaded = current.get();
+            return loaded != null ? loaded.catalog.getAchievements().size() : 0;
+        });
+    }
+
+    public AchievementCatalog get(Supplier<AchievementCatalog> loader) {
+        final Loaded existing = current.get();
+        final long generation = this.generation.get();
+        if (existing != null && existing.generation == generation) {
+            return existing.catalog;
+        }
+
+        final AchievementCatalog catalog = loader.get();
+        loads.inc();
+
+        // A catalog loaded before a later invalidation is stored with an outdated generation, and will be loaded again
+        // on next use. An older catalog never replaces a newer one.
+        final Loaded loaded = new Loaded(catalog, generation);
+        current.accumulateAndGet(loaded, (previous, candidate) ->
+                previous == null || candidate.generation > previous.generation ? candidate : previous);
+        return catalog;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+}
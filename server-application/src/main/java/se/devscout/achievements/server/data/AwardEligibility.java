@@ -0,0 +1,338 @@
+package se.devscout.achievements.server.data;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import se.devscout.achievements.server.data.model.AchievementStepProgressProperties;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps track of the people who have completed achievements they have not yet been awarded, one queue per
+ * organization.
+ * <p>
+ * An achievement is completed when all its steps are completed. A step which refers to a prerequisite achievement also
+ * counts as completed if the person has completed, or been awarded, the prerequisite. Completing one achievement can
+ * therefore complete others. The prerequisite graph of the catalog is kept in topological order, and a change is
+ * propagated in that order to the achievements which depend on the changed one, for the affected person only. The work
+ * done for a change is proportional to the number of achievements it affects, not to the size of the catalog.
+ * <p>
+ * The state of an organization is loaded the first time it is needed, and then kept up-to-date from the changes
+ * published by the DAOs after commit. The number of resident organizations is bounded; the least recently used are
+ * dropped first.
+ */
+public class AwardEligibility implements ProgressEventPublisher {
+
+    /**
+     * The completed steps and the awards of everyone in an organization, by person id.
+     */
+    public static class Progress {
+        private final Map<Integer, Set<Integer>> completedSteps;
+        private final Map<Integer, Set<UUID>> awards;
+
+        public Progress(Map<Integer, Set<Integer>> completedSteps, Map<Integer, Set<UUID>> awards) {
+            this.completedSteps = completedSteps;
+            this.awards = awards;
+        }
+    }
+
+    public static class Candidate {
+        private final int personId;
+        private final UUID achievementId;
+
+        Candidate(int personId, UUID achievementId) {
+            this.personId = personId;
+            this.achievementId = achievementId;
+        }
+
+        public int getPersonId() {
+            return personId;
+        }
+
+        public UUID getAchievementId() {
+            return achievementId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Candidate that = (Candidate) o;
+            return personId == that.personId &&
+                    Objects.equal(achievementId, that.achievementId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(personId, achievementId);
+        }
+    }
+
+    /**
+     * The prerequisite graph of one catalog. Achievements come before the achievements which have them as
+     * prerequisites. Achievements which are part of a prerequisite cycle come last, in catalog order.
+     */
+    static class Graph {
+        private final AchievementCatalog catalog;
+        private final List<AchievementCatalog.Entry> ordered = new ArrayList<>();
+        private final Map<UUID, Integer> positions = new HashMap<>();
+        private final Map<UUID, List<UUID>> dependents = new HashMap<>();
+
+        Graph(AchievementCatalog catalog) {
+            this.catalog = catalog;
+
+            final Map<UUID, Integer> prerequisiteCounts = new HashMap<>();
+            for (AchievementCatalog.Entry achievement : catalog.getAchievements()) {
+                final Set<UUID> prerequisites = achievement.getSteps().stream()
+                        .map(AchievementCatalog.Step::getPrerequisiteAchievementId)
+                        .filter(id -> id != null && catalog.get(id).isPresent())
+                        .collect(Collectors.toSet());
+                prerequisites.forEach(id -> dependents.computeIfAbsent(id, key -> new ArrayList<>()).add(achievement.getId()));
+                prerequisiteCounts.put(achievement.getId(), prerequisites.size());
+            }
+
+            final Deque<UUID> ready = catalog.getAchievements().stream()
+                    .map(AchievementCatalog.Entry::getId)
+                    .filter(id -> prerequisiteCounts.get(id) == 0)
+                    .collect(Collectors.toCollection(ArrayDeque::new));
+            while (!ready.isEmpty()) {
+                final UUID id = ready.poll();
+                add(id);
+                for (UUID dependent : getDependents(id)) {
+                    if (prerequisiteCounts.merge(dependent, -1, Integer::sum) == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+            catalog.getAchievements().stream()
+                    .map(AchievementCatalog.Entry::getId)
+                    .filter(id -> !positions.containsKey(id))
+                    .forEach(this::add);
+        }
+
+        private void add(UUID id) {
+            positions.put(id, ordered.size());
+            ordered.add(catalog.get(id).get());
+        }
+
+        List<AchievementCatalog.Entry> getOrdered() {
+            return ordered;
+        }
+
+        int getPosition(UUID achievementId) {
+            return positions.get(achievementId);
+        }
+
+        List<UUID> getDependents(UUID achievementId) {
+            return dependents.getOrDefault(achievementId, Collections.emptyList());
+        }
+    }
+
+    /**
+     * All methods are synchronized since the state is updated from the threads committing transactions.
+     */
+    private class State {
+        private final Graph graph;
+        private final Map<Integer, Set<Integer>> completedSteps;
+        private final Map<Integer, Set<UUID>> awards;
+        private final Map<Integer, Set<UUID>> completed = new HashMap<>();
+
+        // In the order the achievements were completed, except for those found when the state was loaded
+        private final Set<Candidate> eligible = new LinkedHashSet<>();
+
+        State(Graph graph, Progress progress) {
+            this.graph = graph;
+            this.completedSteps = progress.completedSteps;
+            this.awards = progress.awards;
+
+            final Set<Integer> personIds = new HashSet<>(completedSteps.keySet());
+            personIds.addAll(awards.keySet());
+            for (Integer personId : personIds) {
+                for (AchievementCatalog.Entry achievement : graph.getOrdered()) {
+                    update(personId, achievement.getId(), evaluate(personId, achievement));
+                }
+            }
+        }
+
+        synchronized void apply(ProgressEvent event) {
+            final int personId = event.getPersonId();
+            if (event.getType() == ProgressEvent.Type.PROGRESS) {
+                final Optional<AchievementCatalog.Step> step = graph.catalog.getStep(event.getStepId());
+                if (step.isPresent()) {
+                    final boolean isCompleted = event.getValue() != null && event.getValue() == AchievementStepProgressProperties.PROGRESS_COMPLETED;
+                    final UUID achievementId = step.get().getAchievementId();
+                    final boolean wasSatisfied = isSatisfied(personId, achievementId);
+                    if (setMember(completedSteps, personId, step.get().getId(), isCompleted)) {
+                        propagate(personId, achievementId, wasSatisfied);
+                    }
+                }
+            } else if (graph.catalog.get(event.getAchievementId()).isPresent()) {
+                final boolean wasSatisfied = isSatisfied(personId, event.getAchievementId());
+                if (setMember(awards, personId, event.getAchievementId(), event.getAwarded())) {
+                    propagate(personId, event.getAchievementId(), wasSatisfied);
+                }
+            }
+        }
+
+        synchronized List<Candidate> getEligible() {
+            return new ArrayList<>(eligible);
+        }
+
+        synchronized int getEligibleCount() {
+            return eligible.size();
+        }
+
+        /**
+         * Re-evaluates the achievement, and the achievements depending on it as long as something changes. Each
+         * achievement is evaluated at most once, after all of its prerequisites which are affected by the change.
+         *
+         * @param wasSatisfied whether the achievement was completed or awarded before the change, since an award
+         *                     changes this before the achievement is evaluated.
+         */
+        private void propagate(int personId, UUID achievementId, boolean wasSatisfied) {
+            final PriorityQueue<UUID> queue = new PriorityQueue<>(Comparator.comparingInt(graph::getPosition));
+            final Set<UUID> evaluated = new HashSet<>();
+            queue.add(achievementId);
+            while (!queue.isEmpty()) {
+                final UUID id = queue.poll();
+                if (!evaluated.add(id)) {
+                    continue;
+                }
+                final boolean before = id.equals(achievementId) ? wasSatisfied : isSatisfied(personId, id);
+                update(personId, id, evaluate(personId, graph.catalog.get(id).get()));
+                if (isSatisfied(personId, id) != before) {
+                    queue.addAll(graph.getDependents(id));
+                }
+            }
+            evaluations.mark(evaluated.size());
+        }
+
+        private boolean evaluate(int personId, AchievementCatalog.Entry achievement) {
+            if (achievement.getSteps().isEmpty()) {
+                return false;
+            }
+            final Set<Integer> personSteps = completedSteps.getOrDefault(personId, Collections.emptySet());
+            for (AchievementCatalog.Step step : achievement.getSteps()) {
+                final boolean isStepCompleted = personSteps.contains(step.getId())
+                        || (step.getPrerequisiteAchievementId() != null && isSatisfied(personId, step.getPrerequisiteAchievementId()));
+                if (!isStepCompleted) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void update(int personId, UUID achievementId, boolean isCompleted) {
+            setMember(completed, personId, achievementId, isCompleted);
+            final Candidate candidate = new Candidate(personId, achievementId);
+            if (isCompleted && !isAwarded(personId, achievementId)) {
+                eligible.add(candidate);
+            } else {
+                eligible.remove(candidate);
+            }
+        }
+
+        private boolean isSatisfied(int personId, UUID achievementId) {
+            return isAwarded(personId, achievementId) || completed.getOrDefault(personId, Collections.emptySet()).contains(achievementId);
+        }
+
+        private boolean isAwarded(int personId, UUID achievementId) {
+            return awards.getOrDefault(personId, Collections.emptySet()).contains(achievementId);
+        }
+    }
+
+    private final Cache<UUID, State> states;
+
+    /**
+     * Incremented for an organization before a committed change is applied to its state. A state which was loaded while
+     * the counter changed might have missed the change, and is therefore not kept. See {@link ProgressMatrices}.
+     */
+    private final ConcurrentMap<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private volatile Graph graph;
+
+    private final Counter loads;
+    private final Counter discardedLoads;
+    private final Meter evaluations;
+
+    public AwardEligibility(long maximumSize, MetricRegistry metrics) {
+        this.states = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+
+        loads = metrics.counter(MetricRegistry.name(AwardEligibility.class, "loads"));
+        discardedLoads = metrics.counter(MetricRegistry.name(AwardEligibility.class, "discarded-loads"));
+        evaluations = metrics.meter(MetricRegistry.name(AwardEligibility.class, "evaluations"));
+        metrics.register(MetricRegistry.name(AwardEligibility.class, "organizations"), (Gauge<Long>) states::size);
+        metrics.register(MetricRegistry.name(AwardEligibility.class, "eligible"), (Gauge<Long>) () -> states.asMap().values().stream()
+                .mapToLong(State::getEligibleCount)
+                .sum());
+    }
+
+    /**
+     * Returns the people in the organization who have completed an achievement without having been awarded it. The
+     * state of the organization is loaded if it is not resident, or if it was loaded using another catalog.
+     */
+    public List<Candidate> getEligible(UUID organizationId, AchievementCatalog catalog, Supplier<Progress> loader) {
+        final State existing = states.getIfPresent(organizationId);
+        if (existing != null && existing.graph.catalog == catalog) {
+            return existing.getEligible();
+        }
+
+        final long generation = generation(organizationId).get();
+        final State loaded = new State(getGraph(catalog), loader.get());
+        loads.inc();
+
+        states.put(organizationId, loaded);
+        // The state is made resident before the generation is checked. A change committed after this point is
+        // therefore either applied to the state, or detected here.
+        if (generation(organizationId).get() != generation) {
+            states.asMap().remove(organizationId, loaded);
+            discardedLoads.inc();
+        }
+        return loaded.getEligible();
+    }
+
+    @Override
+    public void publish(UUID organizationId, ProgressEvent event) {
+        generation(organizationId).incrementAndGet();
+        final State state = states.getIfPresent(organizationId);
+        if (state != null) {
+            state.apply(event);
+        }
+    }
+
+    private Graph getGraph(AchievementCatalog catalog) {
+        final Graph current = graph;
+        if (current != null && current.catalog == catalog) {
+            return current;
+        }
+        final Graph created = new Graph(catalog);
+        graph = created;
+        return created;
+    }
+
+    private AtomicLong generation(UUID organizationId) {
+        return generations.computeIfAbsent(organizationId, id -> new AtomicLong());
+    }
+
+    /**
+     * Adds or removes the value from the set of the key.
+     *
+     * @return true if the set was changed.
+     */
+    private static <K, V> boolean setMember(Map<K, Set<V>> map, K key, V value, boolean isMember) {
+        if (isMember) {
+            return map.computeIfAbsent(key, k -> new HashSet<>()).add(value);
+        }
+        final Set<V> set = map.get(key);
+        return set != null && set.remove(value);
+    }
+}
@@ -0,0 +1,60 @@
+package se.devscout.achievements.server.data;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.JCacheRegionFactory;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
+
+import javax.cache.Cache;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Second-level cache regions backed by Ehcache, through JCache. Unlike the plain {@link JCacheRegionFactory}, which
+ * creates unbounded caches, every region gets a maximum number of entries and an optional time-to-live. These are read
+ * from the Hibernate properties, see {@link #maxEntriesProperty(String)} and {@link #timeToLiveProperty(String)}, and
+ * regions without their own settings use the settings for {@link #DEFAULT_REGION}.
+ * <p>
+ * The update timestamps region is always unbounded since query results cannot be validated once a timestamp has been
+ * evicted.
+ */
+public class CacheRegionFactory extends JCacheRegionFactory {
+
+    public static final String DEFAULT_REGION = "default";
+
+    private static final String PROPERTY_PREFIX = "achievements.cache.region.";
+    private static final long DEFAULT_MAX_ENTRIES = 1000;
+
+    public static String maxEntriesProperty(String regionName) {
+        return PROPERTY_PREFIX + regionName + ".max_entries";
+    }
+
+    public static String timeToLiveProperty(String regionName) {
+        return PROPERTY_PREFIX + regionName + ".time_to_live_seconds";
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName, Properties properties, CacheDataDescription metadata) {
+        final CacheConfigurationBuilder<Object, Object> configuration;
+        if (UpdateTimestampsCache.REGION_NAME.equals(regionName)) {
+            configuration = CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(Long.MAX_VALUE));
+        } else {
+            final long maxEntries = getLong(properties, maxEntriesProperty(regionName), getLong(properties, maxEntriesProperty(DEFAULT_REGION), DEFAULT_MAX_ENTRIES));
+            final long timeToLive = getLong(properties, timeToLiveProperty(regionName), getLong(properties, timeToLiveProperty(DEFAULT_REGION), 0));
+            configuration = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                    .withExpiry(timeToLive > 0
+                            ? ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLive))
+                            : ExpiryPolicyBuilder.noExpiration());
+        }
+        return getCacheManager().createCache(regionName, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+
+    private static long getLong(Properties properties, String name, long defaultValue) {
+        final String value = properties.getProperty(name);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+}
@@ -0,0 +1,54 @@
+package se.devscout.achievements.server.data;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+/**
+ * Reports the Hibernate second-level and query cache statistics as metrics. Requires hibernate.generate_statistics.
+ */
+public class CacheRegionMetrics {
+
+    private CacheRegionMetrics() {
+    }
+
+    /**
+     * Registers hits, misses, puts and hit ratio for each region, and totals for the query cache. Query result regions
+     * are only created when a query first uses them, so the region names are given rather than read from Hibernate.
+     */
+    public static void register(SessionFactory sessionFactory, Collection<String> regionNames, MetricRegistry metrics) {
+        final Statistics statistics = sessionFactory.getStatistics();
+
+        for (String regionName : regionNames) {
+            register(metrics, statistics, regionName, "hits", SecondLevelCacheStatistics::getHitCount);
+            register(metrics, statistics, regionName, "misses", SecondLevelCacheStatistics::getMissCount);
+            register(metrics, statistics, regionName, "puts", SecondLevelCacheStatistics::getPutCount);
+            metrics.register(MetricRegistry.name("hibernate.cache.region", regionName, "hit-ratio"), new RatioGauge() {
+                @Override
+                protected Ratio getRatio() {
+                    final SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics(regionName);
+                    return regionStatistics != null
+                            ? Ratio.of(regionStatistics.getHitCount(), regionStatistics.getHitCount() + regionStatistics.getMissCount())
+                            : Ratio.of(0, 0);
+                }
+            });
+        }
+
+        metrics.register(MetricRegistry.name("hibernate.cache.query", "hits"), (Gauge<Long>) statistics::getQueryCacheHitCount);
+        metrics.register(MetricRegistry.name("hibernate.cache.query", "misses"), (Gauge<Long>) statistics::getQueryCacheMissCount);
+        metrics.register(MetricRegistry.name("hibernate.cache.query", "puts"), (Gauge<Long>) statistics::getQueryCachePutCount);
+    }
+
+    private static void register(MetricRegistry metrics, Statistics statistics, String regionName, String name, ToLongFunction<SecondLevelCacheStatistics> value) {
+        metrics.register(MetricRegistry.name("hibernate.cache.region", regionName, name), (Gauge<Long>) () -> {
+            final SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics(regionName);
+            return regionStatistics != null ? value.applyAsLong(regionStatistics) : 0L;
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package se.devscout.achievements.server.data;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of a version number per organization. The version is increased whenever data which affects the
+ * organization, like progress, awards, people or group memberships, has been changed. Changes to the achievements
+ * themselves affect all organizations.
+ * <p>
+ * There is also a separate version per organization which only changes when the people in the organization have been
+ * changed. It is meant for data derived from the people alone, which would otherwise be thrown away every time someone
+ * makes progress.
+ * <p>
+ * The version numbers only live in memory and are only meant to be used as part of cache keys.
+ */
+public class OrganizationVersions {
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final ConcurrentMap<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, AtomicLong> peopleVersions = new ConcurrentHashMap<>();
+
+    public long get(UUID organizationId) {
+        // Both counters only ever increase so their sum changes every time one of them does.
+        return globalVersion.get() + current(versions, organizationId);
+    }
+
+    /**
+     * Returns the version number which only changes when data shared by all organizations, i.e. the achievements, has
+     * been changed.
+     */
+    public long getGlobal() {
+        return globalVersion.get();
+    }
+
+    /**
+     * Returns the version number which only changes when a person in the organization has been added, changed or
+     * removed.
+     */
+    public long getPeople(UUID organizationId) {
+        return current(peopleVersions, organizationId);
+    }
+
+    public void increment(UUID organizationId) {
+        counter(organizationId).incrementAndGet();
+    }
+
+    /**
+     * Increments both the organization version and the people version.
+     */
+    public void incrementPeople(UUID organizationId) {
+        counter(peopleVersions, organizationId).incrementAndGet();
+        increment(organizationId);
+    }
+
+    public void incrementAll() {
+        globalVersion.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of organizations which have a version of their own, i.e. which have been changed since startup.
+     */
+    public int getOrganizationCount() {
+        return versions.size();
+    }
+
+    /**
+     * Organizations without a counter are at version zero. Reading never creates a counter, since the organization
+     * identifiers may come straight from requests for organizations which do not exist.
+     */
+    private static long current(ConcurrentMap<UUID, AtomicLong> counters, UUID organizationId) {
+        final AtomicLong counter = counters.get(organizationId);
+        return counter != null ? counter.get() : 0L;
+    }
+
+    private AtomicLong counter(UUID organizationId) {
+        return counter(versions, organizationId);
+    }
+
+    private static AtomicLong counter(ConcurrentMap<UUID, AtomicLong> counters, UUID organizationId) {
+        return counters.computeIfAbsent(organizationId, id -> new AtomicLong());
+    }
+}
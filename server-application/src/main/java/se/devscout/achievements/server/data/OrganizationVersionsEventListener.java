@@ -0,0 +1,117 @@
+package se.devscout.achievements.server.data;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import se.devscout.achievements.server.data.model.*;
+
+/**
+ * Increments the {@link OrganizationVersions} after changes to the database have been committed. Doing it after the
+ * commit, rather than when the change is made, guarantees that anyone who reads the new version number also sees the
+ * committed data.
+ * <p>
+ * Changes to collections, like the attributes of a person or the tags of an achievement, do not always cause an update
+ * event for the owning entity. They are therefore handled as changes to the owner once the transaction has committed.
+ */
+public class OrganizationVersionsEventListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+    private final OrganizationVersions versions;
+
+    public OrganizationVersionsEventListener(OrganizationVersions versions) {
+        this.versions = versions;
+    }
+
+    public static void register(SessionFactory sessionFactory, OrganizationVersions versions) {
+        final OrganizationVersionsEventListener listener = new OrganizationVersionsEventListener(versions);
+        final EventListenerRegistry registry = sessionFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onChange(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onChange(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onChange(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // Deprecated in favour of requiresPostCommitHandling, but Hibernate 5.2 still requires it to be implemented
+    @SuppressWarnings("deprecation")
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        onCollectionChange(event);
+    }
+
+    private void onCollectionChange(AbstractCollectionEvent event) {
+        final Object owner = event.getAffectedOwnerOrNull();
+        if (owner != null) {
+            event.getSession().getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, session) -> {
+                if (success) {
+                    onChange(owner);
+                }
+            });
+        }
+    }
+
+    private void onChange(Object entity) {
+        if (entity instanceof AchievementProgressRollup) {
+            // Progress and awards are always reflected in the rollup
+            versions.increment(((AchievementProgressRollup) entity).getOrganization().getId());
+        } else if (entity instanceof Person) {
+            versions.incrementPeople(((Person) entity).getOrganization().getId());
+        } else if (entity instanceof GroupMembership) {
+            versions.increment(((GroupMembership) entity).getGroup().getOrganization().getId());
+        } else if (entity instanceof Group) {
+            versions.increment(((Group) entity).getOrganization().getId());
+        } else if (entity instanceof Organization) {
+            versions.increment(((Organization) entity).getId());
+        } else if (entity instanceof Achievement || entity instanceof AchievementStep) {
+            versions.incrementAll();
+        }
+    }
+}
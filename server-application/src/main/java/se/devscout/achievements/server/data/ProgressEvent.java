@@ -0,0 +1,100 @@
+package se.devscout.achievements.server.data;
+
+import com.google.common.base.Objects;
+
+import java.util.UUID;
+
+/**
+ * A committed change to the progress of a person, either for a single step or for the award of an achievement.
+ */
+public class ProgressEvent {
+    public enum Type {
+        PROGRESS,
+        AWARD
+    }
+
+    private final Type type;
+    private final UUID achievementId;
+    private final Integer stepId;
+    private final int personId;
+    private final Integer value;
+    private final Boolean awarded;
+
+    private ProgressEvent(Type type, UUID achievementId, Integer stepId, int personId, Integer value, Boolean awarded) {
+        this.type = type;
+        this.achievementId = achievementId;
+        this.stepId = stepId;
+        this.personId = personId;
+        this.value = value;
+        this.awarded = awarded;
+    }
+
+    /**
+     * @param value the new progress, or null if the progress has been removed.
+     */
+    public static ProgressEvent progress(UUID achievementId, int stepId, int personId, Integer value) {
+        return new ProgressEvent(Type.PROGRESS, achievementId, stepId, personId, value, null);
+    }
+
+    public static ProgressEvent award(UUID achievementId, int personId, boolean awarded) {
+        return new ProgressEvent(Type.AWARD, achievementId, null, personId, null, awarded);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UUID getAchievementId() {
+        return achievementId;
+    }
+
+    public Integer getStepId() {
+        return stepId;
+    }
+
+    public int getPersonId() {
+        return personId;
+    }
+
+    public Integer getValue() {
+        return value;
+    }
+
+    public Boolean getAwarded() {
+        return awarded;
+    }
+
+    /**
+     * Events with the same key are about the same thing, and only the latest of them is of interest.
+     */
+    Key getKey() {
+        return new Key(type, type == Type.PROGRESS ? stepId : achievementId, personId);
+    }
+
+    static class Key {
+        private final Type type;
+        private final Object subject;
+        private final int personId;
+
+        Key(Type type, Object subject, int personId) {
+            this.type = type;
+            this.subject = subject;
+            this.personId = personId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return personId == key.personId &&
+                    type == key.type &&
+                    Objects.equal(subject, key.subject);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(type, subject, personId);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package se.devscout.achievements.server.data;
+
+import java.util.UUID;
+
+/**
+ * Receives progress changes once they have been committed.
+ */
+public interface ProgressEventPublisher {
+    ProgressEventPublisher NONE = (organizationId, event) -> {
+    };
+
+    void publish(UUID organizationId, ProgressEvent event);
+
+    /**
+     * Returns a publisher which passes each event on to all of the given publishers, in order.
+     */
+    static ProgressEventPublisher of(ProgressEventPublisher... publishers) {
+        return (organizationId, event) -> {
+            for (ProgressEventPublisher publisher : publishers) {
+                publisher.publish(organizationId, event);
+            }
+        };
+    }
+}
@@ -0,0 +1,212 @@
+package se.devscout.achievements.server.data;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.util.Duration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Passes committed progress changes on to subscribers, per organization, within this process.
+ * <p>
+ * Published events are held for a short window before they are passed on. An event replaces an earlier event for the
+ * same step and person (or achievement and person, for awards) in the same window, so that a leader clicking through
+ * the values of a step only causes one event. Each subscriber has a bounded queue, and is written to by the writer
+ * threads. A subscriber which does not keep up is closed rather than allowed to fall behind. Clients are expected to
+ * reload what they show when they reconnect, so closing is safer than skipping events.
+ */
+public class ProgressEvents implements ProgressEventPublisher, Managed {
+
+    public interface Subscriber {
+        void onEvents(List<ProgressEvent> events) throws IOException;
+
+        /**
+         * Called when there has been no events for a while. Writing something is the only way to find out that the
+         * client has gone away.
+         */
+        void onHeartbeat() throws IOException;
+
+        void onClose();
+    }
+
+    private final Duration window;
+    private final int queueSize;
+    private final Duration heartbeatInterval;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService writers;
+
+    private final ConcurrentMap<UUID, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private Map<UUID, Map<ProgressEvent.Key, ProgressEvent>> pending = new HashMap<>();
+
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+    private final Meter published;
+    private final Meter delivered;
+    private final Counter overflows;
+
+    public ProgressEvents(Duration window, int queueSize, Duration heartbeatInterval, ScheduledExecutorService scheduler, ExecutorService writers, MetricRegistry metrics) {
+        this.window = window;
+        this.queueSize = queueSize;
+        this.heartbeatInterval = heartbeatInterval;
+        this.scheduler = scheduler;
+        this.writers = writers;
+
+        published = metrics.meter(MetricRegistry.name(ProgressEvents.class, "published"));
+        delivered = metrics.meter(MetricRegistry.name(ProgressEvents.class, "delivered"));
+        overflows = metrics.counter(MetricRegistry.name(ProgressEvents.class, "overflows"));
+        metrics.register(MetricRegistry.name(ProgressEvents.class, "subscribers"), (Gauge<Integer>) () -> subscriptions.values().stream()
+                .mapToInt(Set::size)
+                .sum());
+    }
+
+    @Override
+    public void start() {
+        tasks.add(scheduler.scheduleWithFixedDelay(this::flush, window.toMilliseconds(), window.toMilliseconds(), TimeUnit.MILLISECONDS));
+        tasks.add(scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMilliseconds(), heartbeatInterval.toMilliseconds(), TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public void stop() {
+        tasks.forEach(task -> task.cancel(false));
+        tasks.clear();
+        subscriptions.values().stream()
+                .flatMap(Set::stream)
+                .forEach(Subscription::close);
+    }
+
+    @Override
+    public void publish(UUID organizationId, ProgressEvent event) {
+        if (!subscriptions.containsKey(organizationId)) {
+            return;
+        }
+        synchronized (this) {
+            pending.computeIfAbsent(organizationId, id -> new LinkedHashMap<>()).put(event.getKey(), event);
+        }
+        published.mark();
+    }
+
+    public Subscription subscribe(UUID organizationId, Subscriber subscriber) {
+        final Subscription subscription = new Subscription(organizationId, subscriber);
+        subscriptions.compute(organizationId, (id, existing) -> {
+            final Set<Subscription> set = existing != null ? existing : ConcurrentHashMap.newKeySet();
+            set.add(subscription);
+            return set;
+        });
+        return subscription;
+    }
+
+    /**
+     * Passes the events published since the last call on to the subscribers.
+     */
+    void flush() {
+        final Map<UUID, Map<ProgressEvent.Key, ProgressEvent>> events;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            events = pending;
+            pending = new HashMap<>();
+        }
+        events.forEach((organizationId, organizationEvents) -> {
+            final Set<Subscription> organizationSubscriptions = subscriptions.get(organizationId);
+            if (organizationSubscriptions != null) {
+                final List<ProgressEvent> list = new ArrayList<>(organizationEvents.values());
+                organizationSubscriptions.forEach(subscription -> subscription.offer(list));
+            }
+        });
+    }
+
+    void heartbeat() {
+        subscriptions.values().stream()
+                .flatMap(Set::stream)
+                .forEach(Subscription::heartbeat);
+    }
+
+    public class Subscription implements Closeable {
+        private final UUID organizationId;
+        private final Subscriber subscriber;
+        private final BlockingQueue<ProgressEvent> queue = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(UUID organizationId, Subscriber subscriber) {
+            this.organizationId = organizationId;
+            this.subscriber = subscriber;
+        }
+
+        private void offer(List<ProgressEvent> events) {
+            for (ProgressEvent event : events) {
+                if (!queue.offer(event)) {
+                    overflows.inc();
+                    close();
+                    return;
+                }
+            }
+            scheduleWrite();
+        }
+
+        private void heartbeat() {
+            heartbeatDue.set(true);
+            scheduleWrite();
+        }
+
+        /**
+         * Makes sure that a writer thread is working on this subscriber. Only one thread at a time writes to a
+         * subscriber, so a slow client only holds up one writer.
+         */
+        private void scheduleWrite() {
+            if (!closed.get() && writing.compareAndSet(false, true)) {
+                writers.execute(this::write);
+            }
+        }
+
+        private void write() {
+            try {
+                final List<ProgressEvent> events = new ArrayList<>();
+                queue.drainTo(events);
+                if (!closed.get()) {
+                    if (!events.isEmpty()) {
+                        heartbeatDue.set(false);
+                        subscriber.onEvents(events);
+                        delivered.mark(events.size());
+                    } else if (heartbeatDue.getAndSet(false)) {
+                        subscriber.onHeartbeat();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+            } finally {
+                writing.set(false);
+            }
+            if (!queue.isEmpty()) {
+                scheduleWrite();
+            }
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.computeIfPresent(organizationId, (id, set) -> {
+                    set.remove(this);
+                    return set.isEmpty() ? null : set;
+                });
+                queue.clear();
+                writers.execute(subscriber::onClose);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package se.devscout.achievements.server.data;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Resident {@link ProgressMatrix} instances, one per organization. A matrix is loaded from the database the first time
+ * it is needed and is then kept up-to-date by {@link ProgressMatrixEventListener} as progress changes are committed.
+ * The number of resident organizations is bounded; the least recently used matrices are dropped first.
+ */
+public class ProgressMatrices {
+
+    private final Cache<UUID, ProgressMatrix> matrices;
+
+    /**
+     * Incremented for an organization before a committed change is applied to its matrix. A matrix which was loaded
+     * while the counter changed might have missed the change, and is therefore not kept.
+     */
+    private final ConcurrentMap<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+    private final Counter discardedLoads;
+
+    public ProgressMatrices(long maximumSize, MetricRegistry metrics) {
+        this.matrices = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+
+        loads = metrics.counter(MetricRegistry.name(ProgressMatrices.class, "loads"));
+        discardedLoads = metrics.counter(MetricRegistry.name(ProgressMatrices.class, "discarded-loads"));
+        metrics.register(MetricRegistry.name(ProgressMatrices.class, "organizations"), (Gauge<Long>) matrices::size);
+        metrics.register(MetricRegistry.name(ProgressMatrices.class, "values"), (Gauge<Long>) () -> matrices.asMap().values().stream()
+                .mapToLong(ProgressMatrix::getValueCount)
+                .sum());
+        metrics.register(MetricRegistry.name(ProgressMatrices.class, "footprint"), (Gauge<Long>) () -> matrices.asMap().values().stream()
+                .mapToLong(ProgressMatrix::getFootprint)
+                .sum());
+    }
+
+    public ProgressMatrix get(UUID organizationId, Supplier<ProgressMatrix> loader) {
+        final ProgressMatrix existing = matrices.getIfPresent(organizationId);
+        if (existing != null) {
+            return existing;
+        }
+
+        final long generation = generation(organizationId).get();
+        final ProgressMatrix loaded = loader.get();
+        loads.inc();
+
+        final ProgressMatrix resident = matrices.asMap().putIfAbsent(organizationId, loaded);
+        if (resident != null) {
+            return resident;
+        }
+        // The matrix is made resident before the generation is checked. A change committed after this point is
+        // therefore either applied to the matrix by the listener, or detected here.
+        if (generation(organizationId).get() != generation) {
+            matrices.asMap().remove(organizationId, loaded);
+            discardedLoads.inc();
+        }
+        return loaded;
+    }
+
+    public void set(UUID organizationId, int stepId, int personId, int value) {
+        generation(organizationId).incrementAndGet();
+        final ProgressMatrix matrix = matrices.getIfPresent(organizationId);
+        if (matrix != null) {
+            matrix.set(stepId, personId, value);
+        }
+    }
+
+    public void unset(UUID organizationId, int stepId, int personId) {
+        generation(organizationId).incrementAndGet();
+        final ProgressMatrix matrix = matrices.getIfPresent(organizationId);
+        if (matrix != null) {
+            matrix.unset(stepId, personId);
+        }
+    }
+
+    private AtomicLong generation(UUID organizationId) {
+        return generations.computeIfAbsent(organizationId, id -> new AtomicLong());
+    }
+}
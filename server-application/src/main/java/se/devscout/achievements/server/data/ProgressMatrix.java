@@ -0,0 +1,182 @@
+package se.devscout.achievements.server.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory copy of the step progress for all people in one organization.
+ * <p>
+ * People and steps are given dense indexes in the order they are first seen. Each step has a column with one byte per
+ * person, since progress values are always between 0 and 100, and a bit set which tells whether or not the person has
+ * any progress at all for the step. A column for an organization with a thousand people therefore needs about 1.1 kB.
+ * <p>
+ * All methods are synchronized. The matrix is updated from the threads committing transactions and read by the threads
+ * serving requests, and neither operation takes long.
+ */
+public class ProgressMatrix {
+
+    private static final int INITIAL_PERSON_CAPACITY = 16;
+
+    private static class Column {
+        private byte[] values;
+        private final BitSet present = new BitSet();
+
+        Column(int capacity) {
+            values = new byte[capacity];
+        }
+    }
+
+    /**
+     * Progress for the selected steps and people. The value for person {@code personIds[p]} and step number {@code s}
+     * is {@code values[p * stepCount + s]}, or -1 if the person has no progress for the step.
+     */
+    public static class Slice {
+        private final int[] personIds;
+        private final int[] values;
+
+        Slice(int[] personIds, int[] values) {
+            this.personIds = personIds;
+            this.values = values;
+        }
+
+        public int[] getPersonIds() {
+            return personIds;
+        }
+
+        public int[] getValues() {
+            return values;
+        }
+    }
+
+    private final Map<Integer, Integer> personIndexes = new HashMap<>();
+    private int[] personIds = new int[INITIAL_PERSON_CAPACITY];
+
+    private final Map<Integer, Column> columns = new HashMap<>();
+
+    private int valueCount;
+
+    public synchronized void set(int stepId, int personId, int value) {
+        if (value < 0 || value > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Progress value out of range: " + value);
+        }
+        final int personIndex = personIndex(personId);
+        Column column = columns.get(stepId);
+        if (column == null) {
+            column = new Column(personIds.length);
+            columns.put(stepId, column);
+        }
+        if (column.values.length <= personIndex) {
+            column.values = Arrays.copyOf(column.values, personIds.length);
+        }
+        if (!column.present.get(personIndex)) {
+            column.present.set(personIndex);
+            valueCount++;
+        }
+        column.values[personIndex] = (byte) value;
+    }
+
+    public synchronized void unset(int stepId, int personId) {
+        final Integer personIndex = personIndexes.get(personId);
+        final Column column = columns.get(stepId);
+        if (personIndex == null || column == null || !column.present.get(personIndex)) {
+            return;
+        }
+        column.present.clear(personIndex);
+        column.values[personIndex] = 0;
+        valueCount--;
+        // The column is kept, even if empty, since the step is likely to get progress again
+    }
+
+    /**
+     * Returns the progress value, or -1 if the person has no progress for the step.
+     */
+    public synchronized int get(int stepId, int personId) {
+        final Integer personIndex = personIndexes.get(personId);
+        final Column column = columns.get(stepId);
+        if (personIndex == null || column == null || !column.present.get(personIndex)) {
+            return -1;
+        }
+        return column.values[personIndex];
+    }
+
+    /**
+     * Returns the progress for the given steps for everyone accepted by the person filter who has progress for at
+     * least one of the steps. People are returned in the order they were added to the matrix.
+     */
+    public synchronized Slice slice(int[] stepIds, IntPredicate personFilter) {
+        final Column[] selected = new Column[stepIds.length];
+        final BitSet anyProgress = new BitSet();
+        for (int s = 0; s < stepIds.length; s++) {
+            selected[s] = columns.get(stepIds[s]);
+            if (selected[s] != null) {
+                anyProgress.or(selected[s].present);
+            }
+        }
+
+        int[] slicePersonIds = new int[anyProgress.cardinality()];
+        int[] sliceValues = new int[slicePersonIds.length * stepIds.length];
+        int count = 0;
+        for (int personIndex = anyProgress.nextSetBit(0); personIndex >= 0; personIndex = anyProgress.nextSetBit(personIndex + 1)) {
+            if (!personFilter.test(personIds[personIndex])) {
+                continue;
+            }
+            slicePersonIds[count] = personIds[personIndex];
+            for (int s = 0; s < selected.length; s++) {
+                final Column column = selected[s];
+                sliceValues[count * stepIds.length + s] = column != null && column.present.get(personIndex)
+                        ? column.values[personIndex]
+                        : -1;
+            }
+            count++;
+        }
+        if (count < slicePersonIds.length) {
+            slicePersonIds = Arrays.copyOf(slicePersonIds, count);
+            sliceValues = Arrays.copyOf(sliceValues, count * stepIds.length);
+        }
+        return new Slice(slicePersonIds, sliceValues);
+    }
+
+    /**
+     * Number of (person, step) pairs with progress.
+     */
+    public synchronized int getValueCount() {
+        return valueCount;
+    }
+
+    public synchronized int getPersonCount() {
+        return personIndexes.size();
+    }
+
+    public synchronized int getStepCount() {
+        return columns.size();
+    }
+
+    /**
+     * Estimated number of bytes used by the matrix. The estimate covers the arrays and bit sets and uses a rough fixed
+     * cost for each entry in the hash maps which translate ids into indexes.
+     */
+    public synchronized long getFootprint() {
+        final long mapEntrySize = 48;
+        long size = 4L * personIds.length + mapEntrySize * personIndexes.size();
+        for (Column column : columns.values()) {
+            size += mapEntrySize + column.values.length + column.present.size() / 8;
+        }
+        return size;
+    }
+
+    private int personIndex(int personId) {
+        Integer index = personIndexes.get(personId);
+        if (index == null) {
+            index = personIndexes.size();
+            if (index == personIds.length) {
+                personIds = Arrays.copyOf(personIds, personIds.length * 2);
+            }
+            personIds[index] = personId;
+            personIndexes.put(personId, index);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,82 @@
+package se.devscout.achievements.server.data;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import se.devscout.achievements.server.data.model.AchievementStepProgress;
+
+/**
+ * Applies committed progress changes to the resident {@link ProgressMatrices}. Rolled back changes are never seen by
+ * the matrices since only post-commit events are handled.
+ */
+public class ProgressMatrixEventListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    private final ProgressMatrices matrices;
+
+    public ProgressMatrixEventListener(ProgressMatrices matrices) {
+        this.matrices = matrices;
+    }
+
+    public static void register(SessionFactory sessionFactory, ProgressMatrices matrices) {
+        final ProgressMatrixEventListener listener = new ProgressMatrixEventListener(matrices);
+        final EventListenerRegistry registry = sessionFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onSet(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onSet(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof AchievementStepProgress) {
+            final AchievementStepProgress progress = (AchievementStepProgress) event.getEntity();
+            matrices.unset(
+                    progress.getPerson().getOrganization().getId(),
+                    progress.getStep().getId(),
+                    progress.getPerson().getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // Deprecated in favour of requiresPostCommitHandling, but Hibernate 5.2 still requires it to be implemented
+    @SuppressWarnings("deprecation")
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return AchievementStepProgress.class.equals(persister.getMappedClass());
+    }
+
+    private void onSet(Object entity) {
+        if (entity instanceof AchievementStepProgress) {
+            final AchievementStepProgress progress = (AchievementStepProgress) entity;
+            matrices.set(
+                    progress.getPerson().getOrganization().getId(),
+                    progress.getStep().getId(),
+                    progress.getPerson().getId(),
+                    progress.getValue());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package se.devscout.achievements.server.data.dao;
+
+import se.devscout.achievements.server.data.model.Achievement;
+import se.devscout.achievements.server.data.model.Person;
+
+import java.util.Collection;
+
+/**
+ * Maintains the pre-aggregated rows in the achievement_progress_rollup table.
+ */
+public interface AchievementProgressRollupDao {
+    /**
+     * Recalculates the rollup for a single person and achievement, e.g. after progress has been set or an award has
+     * been given.
+     */
+    void refresh(Achievement achievement, Person person);
+
+    /**
+     * Recalculates the rollups for a number of people and one achievement using a fixed number of queries, e.g. after
+     * progress has been set for a whole group.
+     */
+    void refresh(Achievement achievement, Collection<Person> people);
+
+    /**
+     * Recalculates the rollup for everyone who has made progress on, or been awarded, the achievement.
+     *
+     * @return the number of rollup rows for the achievement after the refresh.
+     */
+    int refresh(Achievement achievement);
+}
@@ -0,0 +1,162 @@
+package se.devscout.achievements.server.data.dao;
+
+import io.dropwizard.hibernate.AbstractDAO;
+import org.hibernate.SessionFactory;
+import se.devscout.achievements.server.data.model.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class AchievementProgressRollupDaoImpl extends AbstractDAO<AchievementProgressRollup> implements AchievementProgressRollupDao {
+    public AchievementProgressRollupDaoImpl(SessionFactory sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public void refresh(Achievement achievement, Person person) {
+        final Object[] sum = currentSession()
+                .createNamedQuery("AchievementStepProgress.sumByAchievementAndPerson", Object[].class)
+                .setParameter("achievement", achievement)
+                .setParameter("person", person)
+                .getSingleResult();
+
+        final AchievementProgressRollup rollup = get(new AchievementProgressRollup.Key(achievement, person));
+        apply(
+                rollup != null ? rollup : new AchievementProgressRollup(achievement, person, person.getOrganization()),
+                toInt(sum[0]),
+                toInt(sum[1]),
+                achievement.getSteps().size(),
+                // Person.getAwards() would load all awards of the person, and is not updated when awards are written
+                // directly to the join table
+                !currentSession()
+                        .createNamedQuery("Person.awardedByAchievementAndPeople", Integer.class)
+                        .setParameter("achievement", achievement)
+                        .setParameter("people", Collections.singletonList(person))
+                        .getResultList()
+                        .isEmpty());
+    }
+
+    @Override
+    public void refresh(Achievement achievement, Collection<Person> people) {
+        if (people.isEmpty()) {
+            return;
+        }
+        final Map<Integer, AchievementProgressRollup> existing = currentSession()
+                .createNamedQuery("AchievementProgressRollup.getByAchievementAndPeople", AchievementProgressRollup.class)
+                .setParameter("achievement", achievement)
+                .setParameter("people", people)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(rollup -> rollup.getId().getPersonId(), Function.identity()));
+
+        // Person id -> [person id, sum, count]
+        final Map<Integer, Object[]> sums = currentSession()
+                .createNamedQuery("AchievementStepProgress.sumByAchievementAndPeople", Object[].class)
+                .setParameter("achievement", achievement)
+                .setParameter("people", people)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(row -> (Integer) row[0], Function.identity()));
+
+        final Set<Integer> awarded = new HashSet<>(currentSession()
+                .createNamedQuery("Person.awardedByAchievementAndPeople", Integer.class)
+                .setParameter("achievement", achievement)
+                .setParameter("people", people)
+                .getResultList());
+
+        final int stepCount = achievement.getSteps().size();
+        for (Person person : people) {
+            final Object[] sum = sums.get(person.getId());
+            final AchievementProgressRollup rollup = existing.get(person.getId());
+            apply(
+                    rollup != null ? rollup : new AchievementProgressRollup(achievement, person, person.getOrganization()),
+                    sum != null ? toInt(sum[1]) : 0,
+                    sum != null ? toInt(sum[2]) : 0,
+                    stepCount,
+                    awarded.contains(person.getId()));
+        }
+    }
+
+    @Override
+    public int refresh(Achievement achievement) {
+        final Map<Integer, AchievementProgressRollup> existing = currentSession()
+                .createNamedQuery("AchievementProgressRollup.getByAchievement", AchievementProgressRollup.class)
+                .setParameter("achievement", achievement)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(rollup -> rollup.getId().getPersonId(), Function.identity()));
+
+        // Person id -> [person id, organization id, sum, count]
+        final Map<Integer, Object[]> sums = currentSession()
+                .createNamedQuery("AchievementStepProgress.sumByAchievement", Object[].class)
+                .setParameter("achievement", achievement)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(row -> (Integer) row[0], Function.identity()));
+
+        // Person id -> organization id
+        final Map<Integer, UUID> awarded = currentSession()
+                .createNamedQuery("Person.awardedByAchievement", Object[].class)
+                .setParameter("achievement", achievement)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(row -> (Integer) row[0], row -> (UUID) row[1]));
+
+        final Set<Integer> personIds = new HashSet<>(existing.keySet());
+        personIds.addAll(sums.keySet());
+        personIds.addAll(awarded.keySet());
+
+        final int stepCount = achievement.getSteps().size();
+        int count = 0;
+        for (Integer personId : personIds) {
+            final Object[] sum = sums.get(personId);
+            AchievementProgressRollup rollup = existing.get(personId);
+            if (rollup == null) {
+                rollup = new AchievementProgressRollup(
+                        achievement,
+                        currentSession().load(Person.class, personId),
+                        currentSession().load(Organization.class, sum != null ? (UUID) sum[1] : awarded.get(personId)));
+            }
+            if (apply(
+                    rollup,
+                    sum != null ? toInt(sum[2]) : 0,
+                    sum != null ? toInt(sum[3]) : 0,
+                    stepCount,
+                    awarded.containsKey(personId))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Stores the new values, or deletes the row if the person has neither made any progress nor been awarded the
+     * achievement.
+     *
+     * @return true if the row is kept.
+     */
+    private boolean apply(AchievementProgressRollup rollup, int progressSum, int progressCount, int stepCount, boolean awarded) {
+        final boolean isPersistent = currentSession().contains(rollup);
+        if (progressCount == 0 && !awarded) {
+            if (isPersistent) {
+                currentSession().delete(rollup);
+            }
+            return false;
+        }
+        rollup.setProgressSum(progressSum);
+        rollup.setProgressCount(progressCount);
+        rollup.setStepCount(stepCount);
+        rollup.setAwarded(awarded);
+        if (!isPersistent) {
+            // Person.getProgressRollups() is deliberately not updated, since adding to it would load it. Session.save
+            // does not select the row first, which AbstractDAO.persist does for entities with assigned ids.
+            currentSession().save(rollup);
+        }
+        return true;
+    }
+
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+}
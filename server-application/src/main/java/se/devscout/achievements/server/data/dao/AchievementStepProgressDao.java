@@ -1,15 +1,64 @@
 package se.devscout.achievements.server.data.dao;
 
+import se.devscout.achievements.server.data.ProgressMatrix;
 import se.devscout.achievements.server.data.model.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface AchievementStepProgressDao {
     List<AchievementStepProgress> get(Achievement achievement) throws ObjectNotFoundException;
 
     AchievementStepProgress get(AchievementStep achievementStep, Person person) throws ObjectNotFoundException;
 
+    /**
+     * Sets the progress using a single insert-or-update statement. The returned progress is not attached to the
+     * session, and progress for the same step and person which has already been loaded into the session is not
+     * refreshed.
+     */
     AchievementStepProgress set(AchievementStep achievementStep, Person person, AchievementStepProgressProperties properties) throws ObjectNotFoundException;
 
     void unset(AchievementStep achievementStep, Person person) throws ObjectNotFoundException;
+
+    /**
+     * Sets the progress for a number of steps and people in one achievement. The existing progress is read using one
+     * query, the progress rows are written in JDBC batches (when hibernate.jdbc.batch_size is set) and the rollups are
+     * refreshed once for all the people.
+     */
+    List<AchievementStepProgress> set(Achievement achievement, List<ProgressUpdate> updates);
+
+    /**
+     * Loads the progress of all people in an organization using a single query.
+     */
+    ProgressMatrix getMatrix(Organization organization);
+
+    /**
+     * Returns the ids of the completed steps of everyone in an organization, by person id, using a single query.
+     */
+    Map<Integer, Set<Integer>> getCompletedSteps(Organization organization);
+
+    class ProgressUpdate {
+        private final AchievementStep step;
+        private final Person person;
+        private final AchievementStepProgressProperties properties;
+
+        public ProgressUpdate(AchievementStep step, Person person, AchievementStepProgressProperties properties) {
+            this.step = step;
+            this.person = person;
+            this.properties = properties;
+        }
+
+        public AchievementStep getStep() {
+            return step;
+        }
+
+        public Person getPerson() {
+            return person;
+        }
+
+        public AchievementStepProgressProperties getProperties() {
+            return properties;
+        }
+    }
 }
@@ -1,14 +1,49 @@
 package se.devscout.achievements.server.data.dao;
 
-import io.dropwizard.hibernate.AbstractDAO;
 import org.hibernate.SessionFactory;
+import org.hibernate.type.BooleanType;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.StringType;
+import se.devscout.achievements.server.data.ProgressEvent;
+import se.devscout.achievements.server.data.ProgressEventPublisher;
+import se.devscout.achievements.server.data.ProgressMatrices;
+import se.devscout.achievements.server.data.ProgressMatrix;
 import se.devscout.achievements.server.data.model.*;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-public class AchievementStepProgressDaoImpl extends AbstractDAO<AchievementStepProgress> implements AchievementStepProgressDao {
-    public AchievementStepProgressDaoImpl(SessionFactory sessionFactory) {
+public class AchievementStepProgressDaoImpl extends DaoImpl<AchievementStepProgress, AchievementStepProgress.Key> implements AchievementStepProgressDao {
+    private static final String UPSERT_POSTGRESQL = "" +
+            "INSERT INTO achievement_step_progress (step_id, person_id, completed, value, note) " +
+            "VALUES (:stepId, :personId, :completed, :value, :note) " +
+            "ON CONFLICT (step_id, person_id) DO UPDATE " +
+            "SET completed = EXCLUDED.completed, value = EXCLUDED.value, note = EXCLUDED.note";
+    private static final String UPSERT_H2 = "" +
+            "MERGE INTO achievement_step_progress (step_id, person_id, completed, value, note) " +
+            "KEY (step_id, person_id) " +
+            "VALUES (:stepId, :personId, :completed, :value, :note)";
+    private static final String DELETE = "" +
+            "DELETE FROM achievement_step_progress WHERE step_id = :stepId AND person_id = :personId";
+
+    private final AchievementProgressRollupDao rollupDao;
+    private final ProgressMatrices matrices;
+    private final ProgressEventPublisher events;
+    private final String upsert;
+
+    /**
+     * @param matrices the resident matrices to update when progress is set or unset. Progress written through
+     *                 Hibernate entities is handled by {@link se.devscout.achievements.server.data.ProgressMatrixEventListener}
+     *                 but the single-step writes bypass the entity events.
+     * @param events   told about all progress changes once they have been committed.
+     */
+    public AchievementStepProgressDaoImpl(SessionFactory sessionFactory, ProgressMatrices matrices, ProgressEventPublisher events) {
         super(sessionFactory);
+        this.rollupDao = new AchievementProgressRollupDaoImpl(sessionFactory);
+        this.matrices = matrices;
+        this.events = events;
+        this.upsert = isPostgreSQL(sessionFactory) ? UPSERT_POSTGRESQL : UPSERT_H2;
     }
 
     @Override
@@ -29,22 +64,29 @@ public class AchievementStepProgressDaoImpl extends AbstractDAO<AchievementStepP
 
     @Override
     public AchievementStepProgress set(AchievementStep achievementStep, Person person, AchievementStepProgressProperties properties) throws ObjectNotFoundException {
-        try {
-            final AchievementStepProgress progress = get(achievementStep, person);
-            progress.setNote(properties.getNote());
-            progress.setValue(properties.getValue());
-            person.getAchievementStepProgress().add(progress);
-            return progress;
-        } catch (ObjectNotFoundException e) {
-            final AchievementStepProgress progress = new AchievementStepProgress(
-                    properties.getValue(),
-                    properties.getNote(),
-                    achievementStep,
-                    person);
-            persist(progress);
-            person.getAchievementStepProgress().add(progress);
-            return progress;
-        }
+        // One statement whether or not there is progress already, so that concurrent requests for the same step and
+        // person cannot both try to insert. Person.achievementStepProgress is not touched since adding to it would load
+        // all the progress of the person. The session is flushed first since the step or the person may not have been
+        // inserted yet, and the native statement only causes changes to progress to be flushed.
+        currentSession().flush();
+        currentSession().createNativeQuery(upsert)
+                .addSynchronizedEntityClass(AchievementStepProgress.class)
+                .setParameter("stepId", achievementStep.getId(), IntegerType.INSTANCE)
+                .setParameter("personId", person.getId(), IntegerType.INSTANCE)
+                .setParameter("completed", properties.isCompleted(), BooleanType.INSTANCE)
+                .setParameter("value", properties.getValue(), IntegerType.INSTANCE)
+                .setParameter("note", properties.getNote(), StringType.INSTANCE)
+                .executeUpdate();
+        rollupDao.refresh(achievementStep.getAchievement(), person);
+
+        final UUID organizationId = person.getOrganization().getId();
+        final UUID achievementId = achievementStep.getAchievement().getId();
+        afterCommit(() -> {
+            matrices.set(organizationId, achievementStep.getId(), person.getId(), properties.getValue());
+            events.publish(organizationId, ProgressEvent.progress(achievementId, achievementStep.getId(), person.getId(), properties.getValue()));
+        });
+
+        return new AchievementStepProgress(properties.getValue(), properties.getNote(), achievementStep, person);
     }
 
     @Override
@@ -52,8 +94,95 @@ public class AchievementStepProgressDaoImpl extends AbstractDAO<AchievementStepP
         if (achievementStep == null || person == null) {
             throw new IllegalArgumentException("Both achievement step and person must be specified.");
         }
-        final AchievementStepProgress progress = get(achievementStep, person);
-        person.getAchievementStepProgress().remove(progress);
-        currentSession().delete(progress);
+        currentSession().flush();
+        final int deleted = currentSession().createNativeQuery(DELETE)
+                .addSynchronizedEntityClass(AchievementStepProgress.class)
+                .setParameter("stepId", achievementStep.getId(), IntegerType.INSTANCE)
+                .setParameter("personId", person.getId(), IntegerType.INSTANCE)
+                .executeUpdate();
+        if (deleted == 0) {
+            throw new ObjectNotFoundException();
+        }
+        rollupDao.refresh(achievementStep.getAchievement(), person);
+
+        final UUID organizationId = person.getOrganization().getId();
+        final UUID achievementId = achievementStep.getAchievement().getId();
+        afterCommit(() -> {
+            matrices.unset(organizationId, achievementStep.getId(), person.getId());
+            events.publish(organizationId, ProgressEvent.progress(achievementId, achievementStep.getId(), person.getId(), null));
+        });
+    }
+
+    @Override
+    public List<AchievementStepProgress> set(Achievement achievement, List<ProgressUpdate> updates) {
+        if (updates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Set<AchievementStep> steps = updates.stream().map(ProgressUpdate::getStep).collect(Collectors.toSet());
+        final Set<Person> people = updates.stream().map(ProgressUpdate::getPerson).collect(Collectors.toSet());
+
+        final Map<AchievementStepProgress.Key, AchievementStepProgress> existing = currentSession()
+                .createNamedQuery("AchievementStepProgress.byStepsAndPeople", AchievementStepProgress.class)
+                .setParameter("steps", steps)
+                .setParameter("people", people)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(AchievementStepProgress::getId, Function.identity()));
+
+        final List<AchievementStepProgress> result = new ArrayList<>(updates.size());
+        for (ProgressUpdate update : updates) {
+            final AchievementStepProgressProperties properties = update.getProperties();
+            AchievementStepProgress progress = existing.get(new AchievementStepProgress.Key(update.getStep(), update.getPerson()));
+            if (progress != null) {
+                progress.setNote(properties.getNote());
+                progress.setValue(properties.getValue());
+            } else {
+                // The progress is not added to Person.achievementStepProgress since that would load the collection
+                // for every person. It is the inverse side of the association and not needed to store the row.
+                // Session.save is used rather than AbstractDAO.persist, whose saveOrUpdate would select the row first
+                // since the id is assigned.
+                progress = new AchievementStepProgress(
+                        properties.getValue(),
+                        properties.getNote(),
+                        update.getStep(),
+                        update.getPerson());
+                currentSession().save(progress);
+            }
+            result.add(progress);
+        }
+        rollupDao.refresh(achievement, people);
+        currentSession().flush();
+
+        final Map<ProgressEvent, UUID> changes = new LinkedHashMap<>();
+        for (ProgressUpdate update : updates) {
+            changes.put(
+                    ProgressEvent.progress(achievement.getId(), update.getStep().getId(), update.getPerson().getId(), update.getProperties().getValue()),
+                    update.getPerson().getOrganization().getId());
+        }
+        afterCommit(() -> changes.forEach((event, organizationId) -> events.publish(organizationId, event)));
+        return result;
+    }
+
+    @Override
+    public ProgressMatrix getMatrix(Organization organization) {
+        final ProgressMatrix matrix = new ProgressMatrix();
+        currentSession()
+                .createNamedQuery("AchievementStepProgress.valuesByOrganization", Object[].class)
+                .setParameter("organization", organization)
+                .getResultList()
+                .forEach(row -> matrix.set((Integer) row[0], (Integer) row[1], (Integer) row[2]));
+        return matrix;
+    }
+
+    @Override
+    public Map<Integer, Set<Integer>> getCompletedSteps(Organization organization) {
+        final Map<Integer, Set<Integer>> completedSteps = new HashMap<>();
+        currentSession()
+                .createNamedQuery("AchievementStepProgress.completedByOrganization", Object[].class)
+                .setParameter("organization", organization)
+                .setParameter("completed", AchievementStepProgressProperties.PROGRESS_COMPLETED)
+                .getResultList()
+                .forEach(row -> completedSteps.computeIfAbsent((Integer) row[0], id -> new HashSet<>()).add((Integer) row[1]));
+        return completedSteps;
     }
 }
@@ -1,7 +1,7 @@
 package se.devscout.achievements.server.data.dao;
 
 import org.hibernate.SessionFactory;
-import org.modelmapper.ModelMapper;
+import se.devscout.achievements.server.data.AchievementCatalogHolder;
 import se.devscout.achievements.server.data.model.Achievement;
 import se.devscout.achievements.server.data.model.AchievementStep;
 import se.devscout.achievements.server.data.model.AchievementStepProperties;
@@ -9,8 +9,13 @@ import se.devscout.achievements.server.data.model.AchievementStepProperties;
 import java.util.List;
 
 public class AchievementStepsDaoImpl extends DaoImpl<AchievementStep, Integer> implements AchievementStepsDao {
-    public AchievementStepsDaoImpl(SessionFactory sessionFactory) {
+    private final AchievementProgressRollupDao rollupDao;
+    private final AchievementCatalogHolder catalog;
+
+    public AchievementStepsDaoImpl(SessionFactory sessionFactory, AchievementCatalogHolder catalog) {
         super(sessionFactory);
+        this.rollupDao = new AchievementProgressRollupDaoImpl(sessionFactory);
+        this.catalog = catalog;
     }
 
     @Override
@@ -30,17 +35,22 @@ public class AchievementStepsDaoImpl extends DaoImpl<AchievementStep, Integer> i
 
     @Override
     public AchievementStep create(Achievement parent, AchievementStepProperties properties) {
-        final AchievementStep step = new ModelMapper().map(properties, AchievementStep.class);
+        final AchievementStep step = new AchievementStep();
+        step.apply(properties);
         //TODO: Do this dual-linking of parent and child for all entity collections:
         step.setAchievement(parent);
         parent.getSteps().add(step);
-        return persist(step);
+        persist(step);
+        rollupDao.refresh(parent);
+        invalidateCatalog();
+        return step;
     }
 
     @Override
     public AchievementStep update(Integer id, AchievementStepProperties properties) throws ObjectNotFoundException {
         final AchievementStep step = read(id);
         step.apply(properties);
+        invalidateCatalog();
         return super.persist(step);
     }
 
@@ -49,6 +59,8 @@ public class AchievementStepsDaoImpl extends DaoImpl<AchievementStep, Integer> i
         final AchievementStep step = read(id);
         step.getAchievement().getSteps().remove(step);
         super.currentSession().delete(step);
+        rollupDao.refresh(step.getAchievement());
+        invalidateCatalog();
     }
 
     @Override
@@ -57,4 +69,10 @@ public class AchievementStepsDaoImpl extends DaoImpl<AchievementStep, Integer> i
                 .setParameter("achievement", parent)
                 .getResultList();
     }
+
+    private void invalidateCatalog() {
+        // See AchievementsDaoImpl
+        catalog.invalidate();
+        afterCompletion(catalog::invalidate);
+    }
 }
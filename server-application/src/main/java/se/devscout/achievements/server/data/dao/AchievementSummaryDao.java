@@ -0,0 +1,115 @@
+package se.devscout.achievements.server.data.dao;
+
+import se.devscout.achievements.server.data.model.Group;
+import se.devscout.achievements.server.data.model.Organization;
+import se.devscout.achievements.server.data.model.Person;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Read-only projections used to build achievement summaries, and other read-only views of achievements, without loading
+ * any entities.
+ */
+public interface AchievementSummaryDao {
+    List<PersonProgress> getProgress(Organization organization);
+
+    List<PersonProgress> getProgress(Person person);
+
+    /**
+     * Progress made by the members of a group. People who are not members of the group are never read.
+     */
+    List<PersonProgress> getProgress(Group group);
+
+    List<AchievementInfo> getAchievements(Collection<UUID> achievementIds);
+
+    /**
+     * The progress one person has made on one achievement, as stored in the achievement progress rollup.
+     */
+    class PersonProgress {
+        private final UUID achievementId;
+        private final Integer personId;
+        private final String personName;
+        private final long sum;
+        private final boolean started;
+        private final int stepCount;
+        private final boolean awarded;
+
+        public PersonProgress(UUID achievementId, Integer personId, String personName, long sum, boolean started, int stepCount, boolean awarded) {
+            this.achievementId = achievementId;
+            this.personId = personId;
+            this.personName = personName;
+            this.sum = sum;
+            this.started = started;
+            this.stepCount = stepCount;
+            this.awarded = awarded;
+        }
+
+        public UUID getAchievementId() {
+            return achievementId;
+        }
+
+        public Integer getPersonId() {
+            return personId;
+        }
+
+        public String getPersonName() {
+            return personName;
+        }
+
+        /**
+         * The sum of all step progress values.
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * True if there is progress information for at least one step, regardless of the progress value.
+         */
+        public boolean isStarted() {
+            return started;
+        }
+
+        public int getStepCount() {
+            return stepCount;
+        }
+
+        public boolean isAwarded() {
+            return awarded;
+        }
+    }
+
+    class AchievementInfo {
+        private final UUID id;
+        private final String name;
+        private final URI image;
+        private final Set<String> tags;
+
+        public AchievementInfo(UUID id, String name, URI image, Set<String> tags) {
+            this.id = id;
+            this.name = name;
+            this.image = image;
+            this.tags = tags;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public URI getImage() {
+            return image;
+        }
+
+        public Set<String> getTags() {
+            return tags;
+        }
+    }
+}
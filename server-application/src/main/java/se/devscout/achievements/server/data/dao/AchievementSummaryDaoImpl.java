@@ -0,0 +1,87 @@
+package se.devscout.achievements.server.data.dao;
+
+import io.dropwizard.hibernate.AbstractDAO;
+import org.hibernate.SessionFactory;
+import se.devscout.achievements.server.data.model.AchievementProgressRollup;
+import se.devscout.achievements.server.data.model.Group;
+import se.devscout.achievements.server.data.model.Organization;
+import se.devscout.achievements.server.data.model.Person;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+public class AchievementSummaryDaoImpl extends AbstractDAO<AchievementProgressRollup> implements AchievementSummaryDao {
+    public AchievementSummaryDaoImpl(SessionFactory sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public List<PersonProgress> getProgress(Organization organization) {
+        requireNonNull(organization);
+
+        return toPersonProgress(rows("AchievementProgressRollup.byOrganization", "organization", organization));
+    }
+
+    @Override
+    public List<PersonProgress> getProgress(Person person) {
+        requireNonNull(person);
+
+        return toPersonProgress(rows("AchievementProgressRollup.byPerson", "person", person));
+    }
+
+    @Override
+    public List<PersonProgress> getProgress(Group group) {
+        requireNonNull(group);
+
+        return toPersonProgress(rows("AchievementProgressRollup.byGroup", "group", group));
+    }
+
+    @Override
+    public List<AchievementInfo> getAchievements(Collection<UUID> achievementIds) {
+        if (achievementIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return toAchievementInfo(
+                rows("Achievement.summaryInfoById", "ids", achievementIds),
+                rows("Achievement.tagsById", "ids", achievementIds));
+    }
+
+    private List<Object[]> rows(String queryName, String parameterName, Object parameterValue) {
+        return currentSession()
+                .createNamedQuery(queryName, Object[].class)
+                .setParameter(parameterName, parameterValue)
+                .getResultList();
+    }
+
+    private static List<AchievementInfo> toAchievementInfo(List<Object[]> achievementRows, List<Object[]> tagRows) {
+        final Map<UUID, Set<String>> tagsByAchievement = tagRows.stream()
+                .collect(Collectors.groupingBy(
+                        row -> (UUID) row[0],
+                        Collectors.mapping(row -> (String) row[1], Collectors.toSet())));
+
+        return achievementRows.stream()
+                .map(row -> new AchievementInfo(
+                        (UUID) row[0],
+                        (String) row[1],
+                        (URI) row[2],
+                        tagsByAchievement.getOrDefault((UUID) row[0], Collections.emptySet())))
+                .collect(Collectors.toList());
+    }
+
+    private static List<PersonProgress> toPersonProgress(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> new PersonProgress(
+                        (UUID) row[0],
+                        (Integer) row[1],
+                        (String) row[2],
+                        ((Number) row[3]).longValue(),
+                        ((Number) row[4]).intValue() > 0,
+                        ((Number) row[5]).intValue(),
+                        (Boolean) row[6]))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,11 +1,15 @@
 package se.devscout.achievements.server.data.dao;
 
+import se.devscout.achievements.server.data.AchievementCatalog;
 import se.devscout.achievements.server.data.model.Achievement;
 import se.devscout.achievements.server.data.model.AchievementProperties;
 import se.devscout.achievements.server.data.model.Organization;
 import se.devscout.achievements.server.data.model.Person;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public interface AchievementsDao extends CrudRootDao<Achievement, AchievementProperties, UUID> {
@@ -18,4 +22,27 @@ public interface AchievementsDao extends CrudRootDao<Achievement, AchievementPro
     void addAwardedTo(Achievement achievement, Person person);
 
     void removeAwardedTo(Achievement achievement, Person person);
+
+    /**
+     * Awards the achievement to everyone in the list who has not already been awarded it. Only the join table is
+     * written, so {@link Achievement#getAwardedTo()} and {@link Person#getAwards()} are not refreshed if they have
+     * already been loaded in the current session.
+     */
+    void addAwardedTo(Achievement achievement, Collection<Person> people);
+
+    /**
+     * Takes the award back from everyone in the list. See {@link #addAwardedTo(Achievement, Collection)}.
+     */
+    void removeAwardedTo(Achievement achievement, Collection<Person> people);
+
+    /**
+     * Returns an immutable copy of all achievements. The copy is only read from the database when achievements or
+     * steps have been changed since it was last read.
+     */
+    AchievementCatalog getCatalog();
+
+    /**
+     * Returns the ids of the achievements awarded to everyone in an organization, by person id, using a single query.
+     */
+    Map<Integer, Set<UUID>> getAwards(Organization organization);
 }
@@ -3,22 +3,59 @@ package se.devscout.achievements.server.data.dao;
 import com.google.common.base.Strings;
 import org.apache.commons.lang3.text.StrTokenizer;
 import org.hibernate.SessionFactory;
-import org.hibernate.query.Query;
-import org.modelmapper.ModelMapper;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.UUIDBinaryType;
+import se.devscout.achievements.server.data.AchievementCatalog;
+import se.devscout.achievements.server.data.AchievementCatalogHolder;
+import se.devscout.achievements.server.data.ProgressEvent;
+import se.devscout.achievements.server.data.ProgressEventPublisher;
 import se.devscout.achievements.server.data.model.Achievement;
 import se.devscout.achievements.server.data.model.AchievementProperties;
 import se.devscout.achievements.server.data.model.Organization;
 import se.devscout.achievements.server.data.model.Person;
+import se.devscout.achievements.server.data.search.AchievementSearchIndex;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.net.URI;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
 public class AchievementsDaoImpl extends DaoImpl<Achievement, UUID> implements AchievementsDao {
-    public AchievementsDaoImpl(SessionFactory sessionFactory) {
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String INSERT_AWARDS = "" +
+            "INSERT INTO person_awardedachievements (person_id, achievement_id) " +
+            "SELECT p.id, :achievementId FROM person p " +
+            "WHERE p.id IN (:personIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM person_awardedachievements pa WHERE pa.person_id = p.id AND pa.achievement_id = :achievementId)";
+    // Concurrent requests awarding the same person might both find that the row does not exist
+    private static final String INSERT_AWARDS_POSTGRESQL = INSERT_AWARDS + " ON CONFLICT DO NOTHING";
+    private static final String DELETE_AWARDS = "" +
+            "DELETE FROM person_awardedachievements WHERE achievement_id = :achievementId AND person_id IN (:personIds)";
+    private static final String AWARDS_TABLE = "person_awardedachievements";
+
+    private final AchievementProgressRollupDao rollupDao;
+    private final AchievementSearchIndex searchIndex;
+    private final boolean databaseSearch;
+    private final AchievementCatalogHolder catalog;
+    private final ProgressEventPublisher events;
+    private final String insertAwards;
+
+    /**
+     * @param databaseSearch use the full-text search features of the database instead of the in-memory search index.
+     *                       Only supported on PostgreSQL, the in-memory index is used for other databases.
+     * @param catalog        shared with {@link AchievementStepsDaoImpl} so that changes to steps are also seen.
+     * @param events         told about awards being given and taken back once they have been committed.
+     */
+    public AchievementsDaoImpl(SessionFactory sessionFactory, AchievementSearchIndex searchIndex, boolean databaseSearch, AchievementCatalogHolder catalog, ProgressEventPublisher events) {
         super(sessionFactory);
+        this.rollupDao = new AchievementProgressRollupDaoImpl(sessionFactory);
+        this.searchIndex = searchIndex;
+        this.databaseSearch = databaseSearch && isPostgreSQL(sessionFactory);
+        this.catalog = catalog;
+        this.events = events;
+        this.insertAwards = isPostgreSQL(sessionFactory) ? INSERT_AWARDS_POSTGRESQL : INSERT_AWARDS;
     }
 
     @Override
@@ -33,70 +70,184 @@ public class AchievementsDaoImpl extends DaoImpl<Achievement, UUID> implements A
 
     @Override
     public Achievement create(AchievementProperties properties) {
-        return persist(new ModelMapper().map(properties, Achievement.class));
+        final Achievement achievement = new Achievement();
+        achievement.apply(properties);
+        persist(achievement);
+        final AchievementSearchIndex.Document document = toDocument(achievement);
+        // The search index must never contain data which has been rolled back
+        afterCommit(() -> searchIndex.put(document));
+        invalidateCatalog();
+        return achievement;
     }
 
     @Override
     public Achievement update(UUID id, AchievementProperties properties) throws ObjectNotFoundException {
         final Achievement achievement = read(id);
         achievement.apply(properties);
-        return super.persist(achievement);
+        final Achievement updated = super.persist(achievement);
+        final AchievementSearchIndex.Document document = toDocument(updated);
+        afterCommit(() -> searchIndex.put(document));
+        invalidateCatalog();
+        return updated;
     }
 
     @Override
     public void delete(UUID id) throws ObjectNotFoundException {
         final Achievement achievement = read(id);
+        super.currentSession()
+                .createNamedQuery("AchievementProgressRollup.deleteByAchievement")
+                .setParameter("achievement", achievement)
+                .executeUpdate();
         super.currentSession().delete(achievement);
+        afterCommit(() -> searchIndex.remove(id));
+        invalidateCatalog();
+    }
+
+    @Override
+    public AchievementCatalog getCatalog() {
+        return catalog.get(this::loadCatalog);
+    }
+
+    /**
+     * Reads the catalog using three projection queries, one each for achievements, tags and steps. Unlike
+     * {@link #readAll()}, no entities are loaded, and the eagerly fetched steps and the tags are therefore not read one
+     * achievement at a time.
+     */
+    private AchievementCatalog loadCatalog() {
+        final Map<UUID, List<String>> tags = new HashMap<>();
+        currentSession()
+                .createNamedQuery("Achievement.tags", Object[].class)
+                .getResultList()
+                .forEach(row -> tags.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((String) row[1]));
+
+        final Map<UUID, List<AchievementCatalog.Step>> steps = new HashMap<>();
+        currentSession()
+                .createNamedQuery("AchievementStep.catalog", Object[].class)
+                .getResultList()
+                .forEach(row -> steps.computeIfAbsent((UUID) row[1], id -> new ArrayList<>()).add(new AchievementCatalog.Step(
+                        (Integer) row[0],
+                        (UUID) row[1],
+                        (String) row[2],
+                        (UUID) row[3])));
+
+        return AchievementCatalog.ofEntries(currentSession()
+                .createNamedQuery("Achievement.catalog", Object[].class)
+                .getResultList()
+                .stream()
+                .map(row -> new AchievementCatalog.Entry(
+                        (UUID) row[0],
+                        (String) row[1],
+                        (String) row[2],
+                        (URI) row[3],
+                        tags.getOrDefault((UUID) row[0], Collections.emptyList()),
+                        steps.getOrDefault((UUID) row[0], Collections.emptyList())))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Map<Integer, Set<UUID>> getAwards(Organization organization) {
+        requireNonNull(organization);
+
+        final Map<Integer, Set<UUID>> awards = new HashMap<>();
+        currentSession()
+                .createNamedQuery("Person.awardsByOrganization", Object[].class)
+                .setParameter("organization", organization)
+                .getResultList()
+                .forEach(row -> awards.computeIfAbsent((Integer) row[0], id -> new HashSet<>()).add((UUID) row[1]));
+        return awards;
+    }
+
+    private void invalidateCatalog() {
+        // The catalog is invalidated both now and when the transaction completes. A catalog loaded in between, which
+        // might contain changes which are later rolled back, is therefore never used after the transaction.
+        catalog.invalidate();
+        afterCompletion(catalog::invalidate);
     }
 
     @Override
     public List<Achievement> find(String searchQuery) {
         final String[] tokens = getSearchTokens(searchQuery);
 
-        final Query<Achievement> dbQuery = getSearchQuery(tokens);
+        if (databaseSearch) {
+            return findInDatabase(tokens);
+        }
+
+        if (!searchIndex.isLoaded()) {
+            searchIndex.load(() -> readAll().stream().map(AchievementsDaoImpl::toDocument).collect(Collectors.toList()));
+        }
+        final List<UUID> ids = searchIndex.search(tokens);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        return dbQuery.getResultList();
+        // Achievements deleted in the current transaction remain in the index until the transaction is committed
+        return currentSession()
+                .byMultipleIds(Achievement.class)
+                .multiLoad(ids)
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
-    private String[] getSearchTokens(String searchQuery) {
-        searchQuery = Strings.nullToEmpty(searchQuery).trim().toLowerCase();
-        if (Strings.isNullOrEmpty(searchQuery)) {
-            throw new IllegalArgumentException("Search condition was not specified.");
+    /**
+     * Searches the search_vector column, which is maintained by database triggers, and ranks the results using the
+     * weights assigned to name, tags and description when the vector was computed.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Achievement> findInDatabase(String[] tokens) {
+        final String tsQuery = toTsQuery(tokens);
+        if (tsQuery.isEmpty()) {
+            return Collections.emptyList();
         }
-        return new StrTokenizer(searchQuery, ' ', '"').getTokenArray();
+        return currentSession()
+                .createNativeQuery("" +
+                        "SELECT " +
+                        "   a.* " +
+                        "FROM " +
+                        "   achievements a, " +
+                        "   to_tsquery('swedish', :query) q " +
+                        "WHERE " +
+                        "   a.search_vector @@ q " +
+                        "ORDER BY " +
+                        "   ts_rank(a.search_vector, q) DESC, " +
+                        "   a.name", Achievement.class)
+                .setParameter("query", tsQuery)
+                .getResultList();
     }
 
-    private Query<Achievement> getSearchQuery(String[] tokens) {
-        final List<String> params = new ArrayList<>();
-        StringBuilder whereClause = new StringBuilder();
+    /**
+     * Converts search tokens to a tsquery expression. Every token must match and each word is matched as a prefix.
+     * The words in a quoted phrase must appear next to each other. Only letters and digits are kept, which means that
+     * user input can never be interpreted as tsquery operators.
+     */
+    static String toTsQuery(String[] tokens) {
+        final List<String> expressions = new ArrayList<>();
         for (String token : tokens) {
-            if (whereClause.length() > 0) {
-                whereClause.append(" AND ");
+            final String expression = Arrays.stream(WORD_SEPARATORS.split(token))
+                    .filter(word -> !word.isEmpty())
+                    .map(word -> word + ":*")
+                    .collect(Collectors.joining(" <-> "));
+            if (!expression.isEmpty()) {
+                expressions.add("(" + expression + ")");
             }
-            whereClause.append("(");
-            whereClause.append("   LOWER(a.name) LIKE LOWER(?)");
-            whereClause.append("   OR LOWER(a.description) LIKE LOWER(?)");
-            whereClause.append("   OR LOWER(?) MEMBER OF a.tags");
-            whereClause.append(")");
-
-            params.add("%" + token + "%");
-            params.add("%" + token + "%");
-            params.add(token);
         }
-        final Query<Achievement> dbQuery = query("" +
-                "SELECT " +
-                "   a " +
-                "FROM " +
-                "   Achievement a " +
-                "WHERE " +
-                "   " + whereClause.toString() + " " +
-                "ORDER BY " +
-                "   a.name");
-        for (int i = 0; i < params.size(); i++) {
-            String param = params.get(i);
-            dbQuery.setParameter(i, param);
+        return String.join(" & ", expressions);
+    }
+
+    private static AchievementSearchIndex.Document toDocument(Achievement achievement) {
+        return new AchievementSearchIndex.Document(
+                achievement.getId(),
+                achievement.getName(),
+                achievement.getDescription(),
+                achievement.getTags());
+    }
+
+    private String[] getSearchTokens(String searchQuery) {
+        searchQuery = Strings.nullToEmpty(searchQuery).trim().toLowerCase();
+        if (Strings.isNullOrEmpty(searchQuery)) {
+            throw new IllegalArgumentException("Search condition was not specified.");
         }
-        return dbQuery;
+        return new StrTokenizer(searchQuery, ' ', '"').getTokenArray();
     }
 
     @Override
@@ -121,13 +272,47 @@ public class AchievementsDaoImpl extends DaoImpl<Achievement, UUID> implements A
 
     @Override
     public void addAwardedTo(Achievement achievement, Person person) {
-        achievement.addAwardFor(person);
-        super.persist(achievement);
+        addAwardedTo(achievement, Collections.singletonList(person));
     }
 
     @Override
     public void removeAwardedTo(Achievement achievement, Person person) {
-        achievement.removeAwardFor(person);
-        super.persist(achievement);
+        removeAwardedTo(achievement, Collections.singletonList(person));
+    }
+
+    @Override
+    public void addAwardedTo(Achievement achievement, Collection<Person> people) {
+        // Achievement.addAwardFor would load everyone who has ever been awarded the achievement, and all awards of the
+        // people, just to add one row each to the join table.
+        updateAwards(insertAwards, achievement, people);
+        publishAfterCommit(achievement, people, true);
+    }
+
+    @Override
+    public void removeAwardedTo(Achievement achievement, Collection<Person> people) {
+        updateAwards(DELETE_AWARDS, achievement, people);
+        publishAfterCommit(achievement, people, false);
+    }
+
+    private void updateAwards(String sql, Achievement achievement, Collection<Person> people) {
+        if (people.isEmpty()) {
+            return;
+        }
+        // The people may not have been inserted yet
+        currentSession().flush();
+        currentSession().createNativeQuery(sql)
+                .addSynchronizedQuerySpace(AWARDS_TABLE)
+                .setParameter("achievementId", achievement.getId(), UUIDBinaryType.INSTANCE)
+                .setParameterList("personIds", people.stream().map(Person::getId).collect(Collectors.toList()), IntegerType.INSTANCE)
+                .executeUpdate();
+        rollupDao.refresh(achievement, people);
+    }
+
+    private void publishAfterCommit(Achievement achievement, Collection<Person> people, boolean awarded) {
+        final Map<ProgressEvent, UUID> changes = new LinkedHashMap<>();
+        for (Person person : people) {
+            changes.put(ProgressEvent.award(achievement.getId(), person.getId(), awarded), person.getOrganization().getId());
+        }
+        afterCommit(() -> changes.forEach((event, organizationId) -> events.publish(organizationId, event)));
     }
 }
@@ -2,6 +2,7 @@ package se.devscout.achievements.server.data.dao;
 
 import se.devscout.achievements.server.data.model.AbstractAuditRecord;
 import se.devscout.achievements.server.data.model.HttpAuditRecord;
+import se.devscout.achievements.server.data.model.Organization;
 import se.devscout.achievements.server.data.model.StepProgressAuditRecord;
 
 import javax.ws.rs.core.UriInfo;
@@ -11,7 +12,11 @@ import java.util.UUID;
 public interface AuditingDao {
 //    List<HttpAuditRecord> readSignIn(UUID organizationId);
 
-    List<StepProgressAuditRecord> readStepProgress(UUID achievementId);
+    /**
+     * Returns the progress changes made to people in the organization, oldest first. Pass the id of the last record
+     * already read, or null, as afterId to read the next page.
+     */
+    List<StepProgressAuditRecord> readStepProgress(UUID achievementId, Organization organization, Long afterId, int maxResults);
 
 //    List<StepProgressAuditRecord> readStepProgress(UUID achievementId, Long userId);
 
@@ -25,6 +30,12 @@ public interface AuditingDao {
 
     StepProgressAuditRecord create(UUID trackingId, Integer userId, Integer stepId, Integer personId, String data, String httpMethod, int responseCode);
 
+    /**
+     * Stores new step progress records in the current transaction. The rows are inserted in JDBC batches when
+     * hibernate.jdbc.batch_size is set.
+     */
+    void createAll(List<StepProgressAuditRecord> records);
+
     HttpAuditRecord create(UUID trackingId, Integer userId, UriInfo uriInfo, String data, String httpMethod, String resourceUri, int responseCode);
 
     List<AbstractAuditRecord> readLatest(int limit);
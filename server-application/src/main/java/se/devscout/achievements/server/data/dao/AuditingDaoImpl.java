@@ -14,9 +14,12 @@ public class AuditingDaoImpl extends DaoImpl<AbstractAuditRecord, Integer> imple
     }
 
     @Override
-    public List<StepProgressAuditRecord> readStepProgress(UUID achievementId) {
+    public List<StepProgressAuditRecord> readStepProgress(UUID achievementId, Organization organization, Long afterId, int maxResults) {
         return list(namedQuery("StepProgressAuditRecord.byAchievement")
-                .setParameter("achievementId", achievementId));
+                .setParameter("achievementId", achievementId)
+                .setParameter("organization", organization)
+                .setParameter("afterId", afterId != null ? afterId : 0L)
+                .setMaxResults(maxResults));
     }
 
     @Override
@@ -31,6 +34,13 @@ public class AuditingDaoImpl extends DaoImpl<AbstractAuditRecord, Integer> imple
         return (HttpAuditRecord) persist(record);
     }
 
+    @Override
+    public void createAll(List<StepProgressAuditRecord> records) {
+        // The records are not added to Person.auditRecords since that would load the collection for every user
+        records.forEach(this::persist);
+        currentSession().flush();
+    }
+
     @Override
     public List<AbstractAuditRecord> readLatest(int limit) {
         return list(namedQuery("AbstractAuditRecord.readAllReverse").setMaxResults(limit));
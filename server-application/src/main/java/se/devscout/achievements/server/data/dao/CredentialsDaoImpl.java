@@ -1,7 +1,6 @@
 package se.devscout.achievements.server.data.dao;
 
 import org.hibernate.SessionFactory;
-import org.modelmapper.ModelMapper;
 import se.devscout.achievements.server.data.model.Credentials;
 import se.devscout.achievements.server.data.model.CredentialsProperties;
 import se.devscout.achievements.server.data.model.CredentialsType;
@@ -52,7 +51,7 @@ public class CredentialsDaoImpl extends DaoImpl<Credentials, UUID> implements Cr
 
     @Override
     public Credentials create(Person parent, CredentialsProperties properties) {
-        final Credentials person = new ModelMapper().map(properties, Credentials.class);
+        final Credentials person = new Credentials(properties.getUserId(), properties.getType(), properties.getData());
         person.setPerson(parent);
         return persist(person);
     }
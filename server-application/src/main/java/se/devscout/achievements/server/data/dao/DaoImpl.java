@@ -2,8 +2,13 @@ package se.devscout.achievements.server.data.dao;
 
 import io.dropwizard.hibernate.AbstractDAO;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 
 import javax.persistence.criteria.CriteriaQuery;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import java.io.Serializable;
 import java.util.List;
 
@@ -25,4 +30,45 @@ public class DaoImpl<E, ID extends Serializable> extends AbstractDAO<E> {
         final CriteriaQuery<E> query = criteriaQuery();
         return currentSession().createQuery(query.select(query.from(entityClass))).getResultList();
     }
+
+    /**
+     * Runs the action once the current transaction has been committed, or immediately if there is no transaction. The
+     * action is not run if the transaction is rolled back. Used to keep in-memory data structures in sync with the
+     * database.
+     */
+    protected void afterCommit(Runnable action) {
+        afterTransaction(action, true);
+    }
+
+    /**
+     * Runs the action once the current transaction has been either committed or rolled back, or immediately if there
+     * is no transaction.
+     */
+    protected void afterCompletion(Runnable action) {
+        afterTransaction(action, false);
+    }
+
+    private void afterTransaction(Runnable action, boolean onlyIfCommitted) {
+        final Transaction transaction = currentSession().getTransaction();
+        if (!transaction.isActive()) {
+            action.run();
+            return;
+        }
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!onlyIfCommitted || status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    protected static boolean isPostgreSQL(SessionFactory sessionFactory) {
+        return sessionFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+    }
 }
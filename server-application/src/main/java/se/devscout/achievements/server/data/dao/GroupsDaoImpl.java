@@ -1,7 +1,6 @@
 package se.devscout.achievements.server.data.dao;
 
 import org.hibernate.SessionFactory;
-import org.modelmapper.ModelMapper;
 import se.devscout.achievements.server.data.model.Group;
 import se.devscout.achievements.server.data.model.GroupProperties;
 import se.devscout.achievements.server.data.model.Organization;
@@ -35,7 +34,8 @@ public class GroupsDaoImpl extends DaoImpl<Group, Integer> implements GroupsDao
     @Override
     public Group create(Organization parent, GroupProperties properties) throws DaoException {
         verifyGroupName(parent, properties.getName());
-        final Group group = new ModelMapper().map(properties, Group.class);
+        final Group group = new Group();
+        group.apply(properties);
         group.setOrganization(parent);
         return persist(group);
     }
@@ -4,20 +4,36 @@ import com.google.common.base.Strings;
 import org.hibernate.SessionFactory;
 import se.devscout.achievements.server.data.model.Organization;
 import se.devscout.achievements.server.data.model.OrganizationProperties;
+import se.devscout.achievements.server.data.search.TrigramIndex;
 
 import javax.persistence.EntityExistsException;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 public class OrganizationsDaoImpl extends DaoImpl<Organization, UUID> implements OrganizationsDao {
 
     private Long maxOrganizationCount;
+    private final TrigramIndex searchIndex;
+    private final boolean databaseSearch;
 
     public OrganizationsDaoImpl(SessionFactory sessionFactory, Long maxOrganizationCount) {
+        this(sessionFactory, maxOrganizationCount, new TrigramIndex(), false);
+    }
+
+    /**
+     * @param databaseSearch use a pg_trgm index in the database instead of the in-memory search index. Only supported
+     *                       on PostgreSQL, the in-memory index is used for other databases.
+     */
+    public OrganizationsDaoImpl(SessionFactory sessionFactory, Long maxOrganizationCount, TrigramIndex searchIndex, boolean databaseSearch) {
         super(sessionFactory);
         this.maxOrganizationCount = maxOrganizationCount;
+        this.searchIndex = searchIndex;
+        this.databaseSearch = databaseSearch && isPostgreSQL(sessionFactory);
     }
 
     @Override
@@ -43,8 +59,11 @@ public class OrganizationsDaoImpl extends DaoImpl<Organization, UUID> implements
                 .using("name", properties.getName())
                 .load();
         if (existingOrg == null) {
-            final Organization entity = new Organization(properties.getName());
-            return super.persist(entity);
+            final Organization entity = super.persist(new Organization(properties.getName()));
+            final UUID id = entity.getId();
+            final String name = entity.getName();
+            afterCommit(() -> searchIndex.put(id, name));
+            return entity;
         } else {
             throw new EntityExistsException("Organization " + properties.getName() + " already exists.");
         }
@@ -54,13 +73,22 @@ public class OrganizationsDaoImpl extends DaoImpl<Organization, UUID> implements
     public Organization update(UUID id, OrganizationProperties properties) throws ObjectNotFoundException {
         final Organization organization = read(id);
         organization.apply(properties);
-        return super.persist(organization);
+        final Organization updated = super.persist(organization);
+        final String name = updated.getName();
+        afterCommit(() -> searchIndex.put(id, name));
+        return updated;
     }
 
     @Override
     public void delete(UUID id) throws ObjectNotFoundException {
         final Organization organization = read(id);
+        // The people of the organization are deleted by cascade, but their rollups are not
+        super.currentSession()
+                .createNamedQuery("AchievementProgressRollup.deleteByOrganization")
+                .setParameter("organization", organization)
+                .executeUpdate();
         super.currentSession().delete(organization);
+        afterCommit(() -> searchIndex.remove(id));
     }
 
     private Long getEntityCount() {
@@ -76,8 +104,47 @@ public class OrganizationsDaoImpl extends DaoImpl<Organization, UUID> implements
         if (Strings.isNullOrEmpty(name)) {
             throw new IllegalArgumentException("Search condition was not specified.");
         }
-        return namedQuery("Organization.find")
-                .setParameter("name", "%" + name + "%")
+        if (databaseSearch) {
+            return findInDatabase(name);
+        }
+
+        if (!searchIndex.isLoaded()) {
+            searchIndex.load(() -> all().stream().collect(Collectors.toMap(Organization::getId, Organization::getName)));
+        }
+        final List<UUID> ids = searchIndex.search(name);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Organizations deleted in the current transaction remain in the index until the transaction is committed
+        return currentSession()
+                .byMultipleIds(Organization.class)
+                .multiLoad(ids)
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds organizations which contain the search condition, or have names similar to it, using the trigram index on
+     * the name column. The most similar names are returned first.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Organization> findInDatabase(String name) {
+        return currentSession()
+                .createNativeQuery("" +
+                        "SELECT " +
+                        "   o.* " +
+                        "FROM " +
+                        "   organization o " +
+                        "WHERE " +
+                        "   o.name % :name " +
+                        "   OR o.name ILIKE :pattern " +
+                        "ORDER BY " +
+                        "   similarity(o.name, :name) DESC, " +
+                        "   o.name", Organization.class)
+                .setParameter("name", name)
+                .setParameter("pattern", "%" + name.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%")
                 .getResultList();
     }
 
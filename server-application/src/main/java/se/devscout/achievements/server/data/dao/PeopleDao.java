@@ -5,13 +5,29 @@ import se.devscout.achievements.server.data.model.Organization;
 import se.devscout.achievements.server.data.model.Person;
 import se.devscout.achievements.server.data.model.PersonProperties;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PeopleDao extends CrudDao<Person, PersonProperties, Organization, Integer> {
     Person read(Organization parent, String customId) throws ObjectNotFoundException;
 
+    /**
+     * Returns the people in the organization ordered by name and id, optionally only those whose name contains
+     * nameFilter (ignoring case) and only members of a group. Null filters are ignored.
+     * <p>
+     * The result is paginated using keyset pagination: pass the name and id of the last person on the previous page
+     * as afterName and afterId to get the next page, or null to start from the beginning.
+     */
+    List<Person> getByParent(Organization parent, String nameFilter, Integer groupId, String afterName, Integer afterId, int maxResults);
+
     List<Person> getByEmail(String email);
 
+    /**
+     * Reads a number of people using one query. Ids of people who do not exist, or belong to another organization, are
+     * ignored.
+     */
+    List<Person> getByParent(Organization parent, Collection<Integer> ids);
+
     List<Person> getByAwardedAchievement(Organization organization, Achievement achievement);
 
     void addAwardFor(Person person, Achievement achievement);
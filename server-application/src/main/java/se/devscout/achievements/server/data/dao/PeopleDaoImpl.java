@@ -2,17 +2,22 @@ package se.devscout.achievements.server.data.dao;
 
 import com.google.api.client.util.Strings;
 import org.hibernate.SessionFactory;
-import org.modelmapper.ModelMapper;
-import se.devscout.achievements.server.data.model.Achievement;
-import se.devscout.achievements.server.data.model.Organization;
-import se.devscout.achievements.server.data.model.Person;
-import se.devscout.achievements.server.data.model.PersonProperties;
+import se.devscout.achievements.server.data.model.*;
 
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class PeopleDaoImpl extends DaoImpl<Person, Integer> implements PeopleDao {
+    private static final char LIKE_ESCAPE_CHAR = '!';
+
+    private final AchievementProgressRollupDao rollupDao;
+
     public PeopleDaoImpl(SessionFactory sessionFactory) {
         super(sessionFactory);
+        this.rollupDao = new AchievementProgressRollupDaoImpl(sessionFactory);
     }
 
     @Override
@@ -33,7 +38,8 @@ public class PeopleDaoImpl extends DaoImpl<Person, Integer> implements PeopleDao
     @Override
     public Person create(Organization parent, PersonProperties properties) throws DuplicateCustomIdentifier {
         verifyCustomIdentifier(parent, properties, null);
-        final Person person = new ModelMapper().map(properties, Person.class);
+        final Person person = new Person();
+        person.apply(properties);
         person.setOrganization(parent);
         return persist(person);
     }
@@ -60,6 +66,10 @@ public class PeopleDaoImpl extends DaoImpl<Person, Integer> implements PeopleDao
     @Override
     public void delete(Integer id) throws ObjectNotFoundException {
         final Person person = read(id);
+        super.currentSession()
+                .createNamedQuery("AchievementProgressRollup.deleteByPerson")
+                .setParameter("person", person)
+                .executeUpdate();
         super.currentSession().delete(person);
     }
 
@@ -70,6 +80,53 @@ public class PeopleDaoImpl extends DaoImpl<Person, Integer> implements PeopleDao
                 .getResultList();
     }
 
+    @Override
+    public List<Person> getByParent(Organization parent, String nameFilter, Integer groupId, String afterName, Integer afterId, int maxResults) {
+        final CriteriaBuilder cb = currentSession().getCriteriaBuilder();
+        final CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        final Root<Person> person = query.from(Person.class);
+
+        final List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(person.get("organization"), parent));
+        if (!Strings.isNullOrEmpty(nameFilter) && !nameFilter.trim().isEmpty()) {
+            final String pattern = "%" + escapeLikePattern(nameFilter.trim().toLowerCase()) + "%";
+            predicates.add(cb.like(cb.lower(person.<String>get("name")), pattern, LIKE_ESCAPE_CHAR));
+        }
+        if (groupId != null) {
+            final Subquery<Integer> memberships = query.subquery(Integer.class);
+            final Root<GroupMembership> membership = memberships.from(GroupMembership.class);
+            memberships
+                    .select(membership.get("person").<Integer>get("id"))
+                    .where(
+                            cb.equal(membership.get("person"), person),
+                            cb.equal(membership.get("group").get("id"), groupId));
+            predicates.add(cb.exists(memberships));
+        }
+        if (afterName != null && afterId != null) {
+            // Everything after the last person on the previous page, which is also how the result is sorted
+            predicates.add(cb.or(
+                    cb.greaterThan(person.<String>get("name"), afterName),
+                    cb.and(
+                            cb.equal(person.get("name"), afterName),
+                            cb.greaterThan(person.<Integer>get("id"), afterId))));
+        }
+
+        query.select(person)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(person.get("name")), cb.asc(person.get("id")));
+        return currentSession()
+                .createQuery(query)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    private static String escapeLikePattern(String str) {
+        return str
+                .replace(String.valueOf(LIKE_ESCAPE_CHAR), LIKE_ESCAPE_CHAR + "" + LIKE_ESCAPE_CHAR)
+                .replace("%", LIKE_ESCAPE_CHAR + "%")
+                .replace("_", LIKE_ESCAPE_CHAR + "_");
+    }
+
     boolean isExistingCustomId(Organization parent, String customIdentifier) {
         return !findByCustomId(parent, customIdentifier).isEmpty();
     }
@@ -88,6 +145,17 @@ public class PeopleDaoImpl extends DaoImpl<Person, Integer> implements PeopleDao
                 .getResultList();
     }
 
+    @Override
+    public List<Person> getByParent(Organization parent, Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return namedQuery("Person.getByOrganizationAndIds")
+                .setParameter("organization", parent)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     @Override
     public List<Person> getByAwardedAchievement(Organization organization, Achievement achievement) {
         return namedQuery("Person.hasBeenAwarded")
@@ -100,12 +168,14 @@ public class PeopleDaoImpl extends DaoImpl<Person, Integer> implements PeopleDao
     public void addAwardFor(Person person, Achievement achievement) {
         person.addAwardFor(achievement);
         super.persist(person);
+        rollupDao.refresh(achievement, person);
     }
 
     @Override
     public void removeAwardFor(Person person, Achievement achievement) {
         person.removeAwardFor(achievement);
         super.persist(person);
+        rollupDao.refresh(achievement, person);
     }
 
     @Override
@@ -1,5 +1,8 @@
 package se.devscout.achievements.server.data.model;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.time.OffsetDateTime;
 
@@ -15,7 +18,12 @@ import java.time.OffsetDateTime;
 })
 public class AbstractAuditRecord {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "audit_log_seq")
+    @GenericGenerator(name = "audit_log_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "audit_log_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
     @Column(name = "http_method", length = 10)
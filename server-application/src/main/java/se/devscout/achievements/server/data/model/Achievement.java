@@ -1,6 +1,8 @@
 package se.devscout.achievements.server.data.model;
 
 import com.google.common.base.Objects;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
 
@@ -8,6 +10,8 @@ import javax.persistence.*;
 import java.util.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "achievement")
 @Table(name = "achievements")
 @NamedQueries(
         {
@@ -26,7 +30,35 @@ import java.util.*;
                                 "FROM " +
                                 "  Achievement a JOIN FETCH a.steps s " +
                                 "WHERE " +
-                                "  a.id IN (SELECT DISTINCT ta.id FROM Achievement ta JOIN ta.steps tas JOIN tas.progressList tp WHERE tp.person = :person)")
+                                "  a.id IN (SELECT DISTINCT ta.id FROM Achievement ta JOIN ta.steps tas JOIN tas.progressList tp WHERE tp.person = :person)"),
+                @NamedQuery(
+                        name = "Achievement.summaryInfoById",
+                        query = "SELECT " +
+                                "  a.id, a.name, a.image " +
+                                "FROM " +
+                                "  Achievement a " +
+                                "WHERE " +
+                                "  a.id IN (:ids)"),
+                @NamedQuery(
+                        name = "Achievement.tagsById",
+                        query = "SELECT " +
+                                "  a.id, t " +
+                                "FROM " +
+                                "  Achievement a JOIN a.tags t " +
+                                "WHERE " +
+                                "  a.id IN (:ids)"),
+                @NamedQuery(
+                        name = "Achievement.catalog",
+                        query = "SELECT " +
+                                "  a.id, a.name, a.description, a.image " +
+                                "FROM " +
+                                "  Achievement a"),
+                @NamedQuery(
+                        name = "Achievement.tags",
+                        query = "SELECT " +
+                                "  a.id, t " +
+                                "FROM " +
+                                "  Achievement a JOIN a.tags t")
         }
 )
 public class Achievement extends AchievementProperties {
@@ -38,11 +70,17 @@ public class Achievement extends AchievementProperties {
     private UUID id;
 
     @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "achievement")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "achievement.steps")
     private List<AchievementStep> steps = new ArrayList<>();
 
     @ManyToMany(mappedBy = "awards")
     private Set<Person> awardedTo = new HashSet<>();
 
+    // Read-only. The rollups are written by AchievementProgressRollupDao, and deleted by AchievementsDao.delete, without
+    // loading this collection.
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "achievement")
+    private Set<AchievementProgressRollup> progressRollups = new HashSet<>();
+
     public UUID getId() {
         return id;
     }
@@ -59,6 +97,10 @@ public class Achievement extends AchievementProperties {
         this.steps = steps;
     }
 
+    public Set<AchievementProgressRollup> getProgressRollups() {
+        return progressRollups;
+    }
+
     public Set<Person> getAwardedTo() {
         return awardedTo;
     }
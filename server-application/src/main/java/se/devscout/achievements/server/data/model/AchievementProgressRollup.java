@@ -0,0 +1,186 @@
+package se.devscout.achievements.server.data.model;
+
+import com.google.common.base.Objects;
+import org.hibernate.annotations.Type;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Pre-aggregated progress for one person and one achievement. Kept up-to-date by the DAOs which change progress,
+ * awards or steps so that summaries do not have to aggregate the individual progress records.
+ */
+@Table(name = "achievement_progress_rollup")
+@Entity
+@NamedQueries({
+        @NamedQuery(
+                name = "AchievementProgressRollup.byOrganization",
+                query = "SELECT r.id.achievementId, pr.id, pr.name, r.progressSum, r.progressCount, r.stepCount, r.awarded " +
+                        "FROM AchievementProgressRollup r JOIN r.person pr " +
+                        "WHERE r.organization = :organization " +
+                        "ORDER BY pr.name"
+        ),
+        @NamedQuery(
+                name = "AchievementProgressRollup.byPerson",
+                query = "SELECT r.id.achievementId, pr.id, pr.name, r.progressSum, r.progressCount, r.stepCount, r.awarded " +
+                        "FROM AchievementProgressRollup r JOIN r.person pr " +
+                        "WHERE r.person = :person"
+        ),
+        @NamedQuery(
+                name = "AchievementProgressRollup.byGroup",
+                query = "SELECT r.id.achievementId, pr.id, pr.name, r.progressSum, r.progressCount, r.stepCount, r.awarded " +
+                        "FROM AchievementProgressRollup r JOIN r.person pr JOIN pr.memberships gm " +
+                        "WHERE gm.group = :group " +
+                        "ORDER BY pr.name"
+        ),
+        @NamedQuery(
+                name = "AchievementProgressRollup.getByAchievement",
+                query = "SELECT r FROM AchievementProgressRollup r WHERE r.achievement = :achievement"
+        ),
+        @NamedQuery(
+                name = "AchievementProgressRollup.getByAchievementAndPeople",
+                query = "SELECT r FROM AchievementProgressRollup r WHERE r.achievement = :achievement AND r.person IN (:people)"
+        ),
+        @NamedQuery(
+                name = "AchievementProgressRollup.deleteByPerson",
+                query = "DELETE FROM AchievementProgressRollup r WHERE r.person = :person"
+        ),
+        @NamedQuery(
+                name = "AchievementProgressRollup.deleteByAchievement",
+                query = "DELETE FROM AchievementProgressRollup r WHERE r.achievement = :achievement"
+        ),
+        @NamedQuery(
+                name = "AchievementProgressRollup.deleteByOrganization",
+                query = "DELETE FROM AchievementProgressRollup r WHERE r.organization = :organization"
+        )
+})
+public class AchievementProgressRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @MapsId("achievementId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "achievement_id")
+    private Achievement achievement;
+
+    @MapsId("personId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "person_id")
+    private Person person;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organization_id", nullable = false)
+    private Organization organization;
+
+    @Column(name = "progress_sum", nullable = false)
+    private int progressSum;
+
+    @Column(name = "progress_count", nullable = false)
+    private int progressCount;
+
+    @Column(name = "step_count", nullable = false)
+    private int stepCount;
+
+    @Column(name = "awarded", nullable = false)
+    private boolean awarded;
+
+    public AchievementProgressRollup() {
+    }
+
+    public AchievementProgressRollup(Achievement achievement, Person person, Organization organization) {
+        this.achievement = achievement;
+        this.person = person;
+        this.organization = organization;
+        this.id = new Key(achievement, person);
+    }
+
+    public Key getId() {
+        return id;
+    }
+
+    public Achievement getAchievement() {
+        return achievement;
+    }
+
+    public Person getPerson() {
+        return person;
+    }
+
+    public Organization getOrganization() {
+        return organization;
+    }
+
+    public int getProgressSum() {
+        return progressSum;
+    }
+
+    public void setProgressSum(int progressSum) {
+        this.progressSum = progressSum;
+    }
+
+    public int getProgressCount() {
+        return progressCount;
+    }
+
+    public void setProgressCount(int progressCount) {
+        this.progressCount = progressCount;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public void setStepCount(int stepCount) {
+        this.stepCount = stepCount;
+    }
+
+    public boolean isAwarded() {
+        return awarded;
+    }
+
+    public void setAwarded(boolean awarded) {
+        this.awarded = awarded;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "achievement_id", columnDefinition = "BINARY(16)")
+        @Type(type = "uuid-binary")
+        private UUID achievementId;
+
+        @Column(name = "person_id")
+        private Integer personId;
+
+        public Key() {
+        }
+
+        public Key(Achievement achievement, Person person) {
+            this.achievementId = achievement != null ? achievement.getId() : null;
+            this.personId = person != null ? person.getId() : null;
+        }
+
+        public UUID getAchievementId() {
+            return achievementId;
+        }
+
+        public Integer getPersonId() {
+            return personId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equal(achievementId, key.achievementId) &&
+                    Objects.equal(personId, key.personId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(achievementId, personId);
+        }
+    }
+}
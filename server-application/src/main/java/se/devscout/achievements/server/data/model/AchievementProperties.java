@@ -1,5 +1,7 @@
 package se.devscout.achievements.server.data.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
 
 import javax.persistence.*;
@@ -21,6 +23,7 @@ public class AchievementProperties {
     private String description;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "achievement.tags")
     @CollectionTable(name = "achievement_tags", joinColumns = @JoinColumn(name = "achivement_id"))
     @Column(name = "tag", length = 50)
     private Set<String> tags = new HashSet<>();
@@ -82,7 +85,9 @@ public class AchievementProperties {
         name = that.name;
         description = that.description;
         tags.clear();
-        tags.addAll(that.tags);
+        if (that.tags != null) {
+            tags.addAll(that.tags);
+        }
         image = that.image;
 //        steps.clear();
 //        steps.addAll(that.steps);
@@ -1,5 +1,10 @@
 package se.devscout.achievements.server.data.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.util.ArrayList;
@@ -7,11 +12,19 @@ import java.util.List;
 
 @Table(name = "achievement_steps")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "achievement_step")
 @NamedQueries({
-        @NamedQuery(name = "AchievementStep.getByAchievement", query = "SELECT step FROM AchievementStep step where step.achievement = :achievement")
+        @NamedQuery(name = "AchievementStep.getByAchievement", query = "SELECT step FROM AchievementStep step where step.achievement = :achievement"),
+        @NamedQuery(name = "AchievementStep.catalog", query = "SELECT step.id, step.achievement.id, step.description, prerequisite.id FROM AchievementStep step LEFT JOIN step.prerequisiteAchievement prerequisite ORDER BY step.id")
 })
 public class AchievementStep extends AchievementStepProperties {
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "achievement_steps_seq")
+    @GenericGenerator(name = "achievement_steps_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "achievement_steps_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     @Id
     private Integer id;
 
@@ -11,6 +11,42 @@ import java.io.Serializable;
         @NamedQuery(
                 name = "AchievementStepProgress.byAchievement",
                 query = "SELECT p FROM AchievementStepProgress p WHERE p.step.achievement = :achievement"
+        ),
+        @NamedQuery(
+                name = "AchievementStepProgress.sumByAchievementAndPerson",
+                query = "SELECT SUM(p.value), COUNT(p) " +
+                        "FROM AchievementStepProgress p " +
+                        "WHERE p.step.achievement = :achievement AND p.person = :person"
+        ),
+        @NamedQuery(
+                name = "AchievementStepProgress.sumByAchievementAndPeople",
+                query = "SELECT p.person.id, SUM(p.value), COUNT(p) " +
+                        "FROM AchievementStepProgress p " +
+                        "WHERE p.step.achievement = :achievement AND p.person IN (:people) " +
+                        "GROUP BY p.person.id"
+        ),
+        @NamedQuery(
+                name = "AchievementStepProgress.byStepsAndPeople",
+                query = "SELECT p FROM AchievementStepProgress p WHERE p.step IN (:steps) AND p.person IN (:people)"
+        ),
+        @NamedQuery(
+                name = "AchievementStepProgress.sumByAchievement",
+                query = "SELECT pr.id, pr.organization.id, SUM(p.value), COUNT(p) " +
+                        "FROM AchievementStepProgress p JOIN p.person pr " +
+                        "WHERE p.step.achievement = :achievement " +
+                        "GROUP BY pr.id, pr.organization.id"
+        ),
+        @NamedQuery(
+                name = "AchievementStepProgress.valuesByOrganization",
+                query = "SELECT p.id.stepId, p.id.personId, p.value " +
+                        "FROM AchievementStepProgress p " +
+                        "WHERE p.person.organization = :organization"
+        ),
+        @NamedQuery(
+                name = "AchievementStepProgress.completedByOrganization",
+                query = "SELECT p.id.personId, p.id.stepId " +
+                        "FROM AchievementStepProgress p " +
+                        "WHERE p.person.organization = :organization AND p.value = :completed"
         )
 })
 public class AchievementStepProgress extends AchievementStepProgressProperties {
@@ -1,12 +1,17 @@
 package se.devscout.achievements.server.data.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "credentials")
 @Table(name = "credentials",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = {"type", "user_id"})
@@ -14,7 +19,11 @@ import java.util.UUID;
 @NamedQueries({
         @NamedQuery(
                 name = "Credentials.getByUsername",
-                query = "SELECT c FROM Credentials c WHERE c.type = :type AND c.userId = :userId"
+                query = "SELECT c FROM Credentials c WHERE c.type = :type AND c.userId = :userId",
+                hints = {
+                        @QueryHint(name = QueryHints.CACHEABLE, value = "true"),
+                        @QueryHint(name = QueryHints.CACHE_REGION, value = "queries")
+                }
         ),
         @NamedQuery(
                 name = "Credentials.getByPerson",
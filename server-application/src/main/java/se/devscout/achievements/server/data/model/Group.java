@@ -1,16 +1,25 @@
 package se.devscout.achievements.server.data.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 
 import static se.devscout.achievements.server.data.model.GroupProperties.NAME_COLNAME;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "group")
 @Table(
         name = "groups",
         uniqueConstraints = @UniqueConstraint(name = "idx_group_organization", columnNames = {"organization_id", NAME_COLNAME}))
 @NamedQueries({
-        @NamedQuery(name = "Group.getByOrganization", query = "SELECT g FROM se.devscout.achievements.server.data.model.Group g where g.organization = :organization"),
+        @NamedQuery(name = "Group.getByOrganization", query = "SELECT g FROM se.devscout.achievements.server.data.model.Group g where g.organization = :organization", hints = {
+                @QueryHint(name = QueryHints.CACHEABLE, value = "true"),
+                @QueryHint(name = QueryHints.CACHE_REGION, value = "queries")
+        }),
         @NamedQuery(name = "Group.getByName", query = "SELECT g FROM se.devscout.achievements.server.data.model.Group g where g.name = :name AND g.organization = :organization")
 })
 public class Group extends GroupProperties {
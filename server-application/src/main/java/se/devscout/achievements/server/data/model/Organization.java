@@ -1,6 +1,8 @@
 package se.devscout.achievements.server.data.model;
 
 import com.google.common.base.Objects;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
 
@@ -10,10 +12,11 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "organization")
 @Table(name = "organization")
 @NamedQueries({
-        @NamedQuery(name = "Organization.all", query = "SELECT o FROM Organization o"),
-        @NamedQuery(name = "Organization.find", query = "SELECT o FROM Organization o WHERE o.name LIKE :name")
+        @NamedQuery(name = "Organization.all", query = "SELECT o FROM Organization o")
 })
 public class Organization extends OrganizationProperties {
     public UUID getId() {
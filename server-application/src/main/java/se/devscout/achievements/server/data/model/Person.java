@@ -1,6 +1,11 @@
 package se.devscout.achievements.server.data.model;
 
 import com.google.common.base.Objects;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -10,17 +15,31 @@ import java.util.Set;
 import static se.devscout.achievements.server.data.model.PersonProperties.CUSTOM_IDENTIFIER_COLNAME;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "person")
 @Table(
         name = "person",
         uniqueConstraints = @UniqueConstraint(name = "idx_person_customid", columnNames = {"organization_id", CUSTOM_IDENTIFIER_COLNAME}))
 @NamedQueries({
-        @NamedQuery(name = "Person.getByOrganization", query = "SELECT p FROM Person p where p.organization = :organization"),
+        @NamedQuery(name = "Person.getByOrganization", query = "SELECT p FROM Person p where p.organization = :organization", hints = {
+                @QueryHint(name = QueryHints.CACHEABLE, value = "true"),
+                @QueryHint(name = QueryHints.CACHE_REGION, value = "queries")
+        }),
         @NamedQuery(name = "Person.getByCustomId", query = "SELECT p FROM Person p WHERE p.customIdentifier = :customId AND p.organization = :organization"),
         @NamedQuery(name = "Person.hasBeenAwarded", query = "SELECT p FROM Person p WHERE :achievement MEMBER OF p.awards AND p.organization = :organization"),
-        @NamedQuery(name = "Person.getByEmail", query = "SELECT p FROM Person p WHERE LOWER(p.email) = LOWER(:email)")
+        @NamedQuery(name = "Person.getByEmail", query = "SELECT p FROM Person p WHERE LOWER(p.email) = LOWER(:email)"),
+        @NamedQuery(name = "Person.awardedByAchievement", query = "SELECT p.id, p.organization.id FROM Person p JOIN p.awards a WHERE a = :achievement"),
+        @NamedQuery(name = "Person.awardedByAchievementAndPeople", query = "SELECT p.id FROM Person p JOIN p.awards a WHERE a = :achievement AND p IN (:people)"),
+        @NamedQuery(name = "Person.getByOrganizationAndIds", query = "SELECT p FROM Person p WHERE p.organization = :organization AND p.id IN (:ids)"),
+        @NamedQuery(name = "Person.awardsByOrganization", query = "SELECT p.id, a.id FROM Person p JOIN p.awards a WHERE p.organization = :organization")
 })
 public class Person extends PersonProperties {
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "person_seq")
+    @GenericGenerator(name = "person_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "person_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     @Id
     private Integer id;
 
@@ -41,6 +60,11 @@ public class Person extends PersonProperties {
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "person", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<StepProgressAuditRecord> auditRecords = new HashSet<>();
 
+    // Read-only. The rollups are written by AchievementProgressRollupDao, and deleted by PeopleDao.delete, without
+    // loading this collection.
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "person")
+    private Set<AchievementProgressRollup> progressRollups = new HashSet<>();
+
     @ManyToMany(cascade = {
             CascadeType.PERSIST,
             CascadeType.MERGE})
@@ -109,6 +133,10 @@ public class Person extends PersonProperties {
         this.auditRecords = auditRecords;
     }
 
+    public Set<AchievementProgressRollup> getProgressRollups() {
+        return progressRollups;
+    }
+
     public Set<Achievement> getAwards() {
         return awards;
     }
@@ -10,8 +10,13 @@ import javax.persistence.*;
                 query = "" +
                         "SELECT p " +
                         "FROM StepProgressAuditRecord p " +
-                        // TODO: Also limit to progress for people in user's organization
-                        "WHERE p.step.achievement.id = :achievementId"
+                        "  JOIN FETCH p.step s " +
+                        "  JOIN FETCH p.person person " +
+                        "  LEFT JOIN FETCH p.user " +
+                        "WHERE s.achievement.id = :achievementId " +
+                        "  AND person.organization = :organization " +
+                        "  AND p.id > :afterId " +
+                        "ORDER BY p.id"
         )
 })
 public class StepProgressAuditRecord extends AbstractAuditRecord {
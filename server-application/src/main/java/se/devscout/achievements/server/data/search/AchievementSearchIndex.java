@@ -0,0 +1,228 @@
+package se.devscout.achievements.server.data.search;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over the name, description and tags of all achievements.
+ * <p>
+ * Text is split into terms by {@link SwedishTextNormalizer}. Each term maps to the achievements containing it, along
+ * with a score which depends on where the term was found: matches in the name count more than matches in the tags,
+ * which in turn count more than matches in the description. Search terms match all indexed terms they are a prefix of.
+ * <p>
+ * The index is loaded once, lazily, and then kept up-to-date using {@link #put(Document)} and {@link #remove(UUID)}.
+ */
+public class AchievementSearchIndex {
+
+    private static final int NAME_WEIGHT = 4;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * The searchable properties of one achievement.
+     */
+    public static class Document {
+        private final UUID id;
+        private final String name;
+        private final String description;
+        private final Set<String> tags;
+
+        public Document(UUID id, String name, String description, Set<String> tags) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.tags = tags != null ? ImmutableSet.copyOf(tags) : ImmutableSet.of();
+        }
+
+        public UUID getId() {
+            return id;
+        }
+    }
+
+    private static class IndexedDocument {
+        private final String name;
+        private final Map<String, Integer> termScores = new HashMap<>();
+        private final List<String> fields = new ArrayList<>();
+
+        IndexedDocument(Document document) {
+            this.name = Objects.toString(document.name, "");
+            addField(document.name, NAME_WEIGHT);
+            for (String tag : document.tags) {
+                addField(tag, TAG_WEIGHT);
+            }
+            addField(document.description, DESCRIPTION_WEIGHT);
+        }
+
+        private void addField(String text, int weight) {
+            final List<String> terms = SwedishTextNormalizer.terms(text);
+            for (String term : terms) {
+                termScores.merge(term, weight, Integer::sum);
+            }
+            // Fields are kept as space-separated terms so that phrases can be verified
+            fields.add(" " + String.join(" ", terms) + " ");
+        }
+
+        boolean containsPhrase(List<String> terms) {
+            final String phrase = " " + String.join(" ", terms);
+            return fields.stream().anyMatch(field -> field.contains(phrase));
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, IndexedDocument> documents = new HashMap<>();
+    private final NavigableMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+
+    private boolean loaded;
+
+    /**
+     * Incremented by every change, so that a load which overlaps with a change can be detected.
+     */
+    private long generation;
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with the documents returned by the loader. Loading is retried if the index
+     * is changed while the documents are being read.
+     */
+    public void load(Supplier<Collection<Document>> loader) {
+        while (true) {
+            final long generationBefore;
+            lock.readLock().lock();
+            try {
+                generationBefore = generation;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            final Collection<Document> loadedDocuments = loader.get();
+
+            lock.writeLock().lock();
+            try {
+                if (generation == generationBefore) {
+                    documents.clear();
+                    postings.clear();
+                    loadedDocuments.forEach(this::index);
+                    loaded = true;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            unindex(document.id);
+            index(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the achievements matching all tokens, best matches first. A token containing more than one
+     * word, like a quoted phrase, only matches achievements where the words appear next to each other.
+     */
+    public List<UUID> search(String[] tokens) {
+        lock.readLock().lock();
+        try {
+            Map<UUID, Integer> result = null;
+            for (String token : tokens) {
+                final List<String> terms = SwedishTextNormalizer.terms(token);
+                if (terms.isEmpty()) {
+                    continue;
+                }
+                Map<UUID, Integer> tokenResult = null;
+                for (String term : terms) {
+                    tokenResult = intersect(tokenResult, prefixMatches(term));
+                }
+                if (terms.size() > 1) {
+                    tokenResult.keySet().removeIf(id -> !documents.get(id).containsPhrase(terms));
+                }
+                result = intersect(result, tokenResult);
+            }
+            if (result == null) {
+                return Collections.emptyList();
+            }
+            final Map<UUID, Integer> scores = result;
+            return scores.keySet().stream()
+                    .sorted(Comparator
+                            .comparing((UUID id) -> scores.get(id), Comparator.reverseOrder())
+                            .thenComparing(id -> documents.get(id).name))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<UUID, Integer> prefixMatches(String term) {
+        final Map<UUID, Integer> matches = new HashMap<>();
+        for (Map.Entry<String, Map<UUID, Integer>> entry : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            // Exact matches rank higher than prefix matches
+            final int factor = entry.getKey().equals(term) ? 2 : 1;
+            entry.getValue().forEach((id, score) -> matches.merge(id, score * factor, Integer::sum));
+        }
+        return matches;
+    }
+
+    private static Map<UUID, Integer> intersect(Map<UUID, Integer> current, Map<UUID, Integer> matches) {
+        if (current == null) {
+            return matches;
+        }
+        final Map<UUID, Integer> result = new HashMap<>();
+        current.forEach((id, score) -> {
+            final Integer other = matches.get(id);
+            if (other != null) {
+                result.put(id, score + other);
+            }
+        });
+        return result;
+    }
+
+    private void index(Document document) {
+        final IndexedDocument indexed = new IndexedDocument(document);
+        documents.put(document.id, indexed);
+        indexed.termScores.forEach((term, score) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id, score));
+    }
+
+    private void unindex(UUID id) {
+        final IndexedDocument existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.termScores.keySet()) {
+            final Map<UUID, Integer> ids = postings.get(term);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package se.devscout.achievements.server.data.search;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Immutable index for finding items by the beginning of any of the words in their names, as used by typeahead
+ * pickers. Words are normalized by {@link SwedishTextNormalizer#words(String)} but not stemmed, since the user has
+ * usually not typed a complete word yet.
+ * <p>
+ * All words are kept in one sorted array so a lookup is a binary search followed by a scan of the matching words.
+ * Items whose name starts with the query are returned before items where a later word matches, and items are otherwise
+ * returned in name order.
+ */
+public class PrefixIndex<T> {
+
+    private final List<T> items;
+    private final String[][] itemWords;
+
+    // The words of all items, sorted, and the item each word belongs to
+    private final String[] words;
+    private final int[] wordItems;
+
+    public PrefixIndex(Collection<T> items, Function<T, String> nameFunction) {
+        final List<T> sorted = new ArrayList<>(items);
+        final Map<T, String> names = new IdentityHashMap<>();
+        sorted.forEach(item -> names.put(item, SwedishTextNormalizer.fold(Objects.toString(nameFunction.apply(item), ""))));
+        sorted.sort(Comparator.comparing(names::get));
+
+        this.items = Collections.unmodifiableList(sorted);
+        this.itemWords = new String[sorted.size()][];
+
+        final List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            itemWords[i] = SwedishTextNormalizer.words(names.get(sorted.get(i))).toArray(new String[0]);
+            for (String word : itemWords[i]) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(word, i));
+            }
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+
+        this.words = new String[entries.size()];
+        this.wordItems = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            words[i] = entries.get(i).getKey();
+            wordItems[i] = entries.get(i).getValue();
+        }
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Returns at most {@code limit} items where every word in the query is the beginning of a word in the item's name.
+     */
+    public List<T> search(String query, int limit) {
+        final List<String> queryWords = SwedishTextNormalizer.words(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Scanning the words matching the longest query word gives the fewest candidates to verify
+        final String longest = Collections.max(queryWords, Comparator.comparingInt(String::length));
+
+        final BitSet nameMatches = new BitSet(items.size());
+        final BitSet wordMatches = new BitSet(items.size());
+        for (int i = lowerBound(longest); i < words.length && words[i].startsWith(longest); i++) {
+            final int item = wordItems[i];
+            if (nameMatches.get(item) || wordMatches.get(item) || !matchesAll(itemWords[item], queryWords)) {
+                continue;
+            }
+            if (itemWords[item][0].startsWith(queryWords.get(0))) {
+                nameMatches.set(item);
+            } else {
+                wordMatches.set(item);
+            }
+        }
+
+        final List<T> result = new ArrayList<>(Math.min(limit, nameMatches.cardinality() + wordMatches.cardinality()));
+        for (BitSet matches : new BitSet[]{nameMatches, wordMatches}) {
+            for (int item = matches.nextSetBit(0); item >= 0 && result.size() < limit; item = matches.nextSetBit(item + 1)) {
+                result.add(items.get(item));
+            }
+        }
+        return result;
+    }
+
+    private static boolean matchesAll(String[] itemWords, List<String> queryWords) {
+        for (String queryWord : queryWords) {
+            if (Arrays.stream(itemWords).noneMatch(word -> word.startsWith(queryWord))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = words.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (words[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
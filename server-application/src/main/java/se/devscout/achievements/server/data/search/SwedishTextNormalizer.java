@@ -0,0 +1,76 @@
+package se.devscout.achievements.server.data.search;
+
+import com.google.common.base.Strings;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns Swedish text into search terms. The text is lower-cased, diacritics are removed (so that a-ring, a-umlaut
+ * and o-umlaut become plain "a", "a" and "o") and the most common Swedish inflection suffixes are removed from each
+ * word. The same normalization is applied to both indexed text and search queries, so "Knopar" matches "knop" and
+ * "batar" matches "bat" regardless of how the a is written.
+ */
+public final class SwedishTextNormalizer {
+
+    private static final Locale SWEDISH = new Locale("sv", "SE");
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Suffixes removed by the stemmer, longest first. A suffix is only removed if at least {@link #MIN_STEM_LENGTH}
+     * characters remain, which keeps short words like "bad" and "is" intact.
+     */
+    private static final String[] SUFFIXES = {
+            "heterna", "hetens", "anden", "heten", "heter", "arnas", "ernas", "ornas", "andes", "arens", "andet",
+            "arna", "erna", "orna", "ande", "arne", "aste", "aren", "ades", "erns",
+            "ade", "are", "ern", "ens", "het", "ast",
+            "ad", "en", "ar", "er", "or", "as", "es", "at",
+            "a", "e", "s"
+    };
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private SwedishTextNormalizer() {
+    }
+
+    public static List<String> terms(String text) {
+        final List<String> terms = words(text);
+        terms.replaceAll(SwedishTextNormalizer::stem);
+        return terms;
+    }
+
+    /**
+     * Returns the lower-cased words of the text, without diacritics but otherwise unchanged.
+     */
+    public static List<String> words(String text) {
+        final List<String> words = new ArrayList<>();
+        if (Strings.isNullOrEmpty(text)) {
+            return words;
+        }
+        for (String word : WORD_SEPARATORS.split(fold(text))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    static String fold(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(SWEDISH), Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    static String stem(String word) {
+        for (String suffix : SUFFIXES) {
+            if (word.length() - suffix.length() >= MIN_STEM_LENGTH && word.endsWith(suffix)) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
@@ -0,0 +1,187 @@
+package se.devscout.achievements.server.data.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram index for searching short texts, like organization names, which works the same way as the pg_trgm
+ * extension in PostgreSQL. It is used when the database does not support trigram indexes.
+ * <p>
+ * Each word is padded with two spaces in front and one space after and then split into all three-character sequences.
+ * The similarity of two texts is the number of trigrams they share divided by the number of distinct trigrams in both.
+ * A text matches a query if it is similar enough or if it contains the query, and matches are ranked by similarity.
+ * <p>
+ * The index is loaded once, lazily, and then kept up-to-date using {@link #put(UUID, String)} and
+ * {@link #remove(UUID)}.
+ */
+public class TrigramIndex {
+
+    /**
+     * Same as the default value of pg_trgm.similarity_threshold.
+     */
+    static final double SIMILARITY_THRESHOLD = 0.3;
+
+    private static class IndexedText {
+        private final String text;
+        private final String normalized;
+        private final Set<String> trigrams;
+
+        IndexedText(String text) {
+            this.text = text;
+            this.normalized = normalize(text);
+            this.trigrams = trigrams(text);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, IndexedText> texts = new HashMap<>();
+    private final Map<String, Set<UUID>> postings = new HashMap<>();
+
+    private boolean loaded;
+
+    /**
+     * Incremented by every change, so that a load which overlaps with a change can be detected.
+     */
+    private long generation;
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with the texts returned by the loader. Loading is retried if the index is
+     * changed while the texts are being read.
+     */
+    public void load(Supplier<Map<UUID, String>> loader) {
+        while (true) {
+            final long generationBefore;
+            lock.readLock().lock();
+            try {
+                generationBefore = generation;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            final Map<UUID, String> loadedTexts = loader.get();
+
+            lock.writeLock().lock();
+            try {
+                if (generation == generationBefore) {
+                    texts.clear();
+                    postings.clear();
+                    loadedTexts.forEach(this::index);
+                    loaded = true;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void put(UUID id, String text) {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            unindex(id);
+            index(id, text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the texts which contain the query or are similar to it, the most similar first.
+     */
+    public List<UUID> search(String query) {
+        final String normalizedQuery = normalize(query);
+        final Set<String> queryTrigrams = trigrams(query);
+        if (normalizedQuery.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            final Map<UUID, Integer> sharedTrigrams = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (UUID id : postings.getOrDefault(trigram, Collections.emptySet())) {
+                    sharedTrigrams.merge(id, 1, Integer::sum);
+                }
+            }
+
+            // Queries shorter than a trigram may be found in the middle of a word without sharing any trigrams with it
+            final Collection<UUID> candidates = normalizedQuery.length() < 3 ? texts.keySet() : sharedTrigrams.keySet();
+
+            final Map<UUID, Double> similarities = new HashMap<>();
+            for (UUID id : candidates) {
+                final IndexedText text = texts.get(id);
+                final int shared = sharedTrigrams.getOrDefault(id, 0);
+                final double similarity = (double) shared / (queryTrigrams.size() + text.trigrams.size() - shared);
+                if (similarity >= SIMILARITY_THRESHOLD || text.normalized.contains(normalizedQuery)) {
+                    similarities.put(id, similarity);
+                }
+            }
+            return similarities.keySet().stream()
+                    .sorted(Comparator
+                            .comparing((UUID id) -> similarities.get(id), Comparator.reverseOrder())
+                            .thenComparing(id -> texts.get(id).text))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", SwedishTextNormalizer.words(text));
+    }
+
+    static Set<String> trigrams(String text) {
+        final Set<String> trigrams = new HashSet<>();
+        for (String word : SwedishTextNormalizer.words(text)) {
+            final String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private void index(UUID id, String text) {
+        final IndexedText indexed = new IndexedText(Objects.toString(text, ""));
+        texts.put(id, indexed);
+        indexed.trigrams.forEach(trigram -> postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(id));
+    }
+
+    private void unindex(UUID id) {
+        final IndexedText existing = texts.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (String trigram : existing.trigrams) {
+            final Set<UUID> ids = postings.get(trigram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+}
@@ -29,7 +29,7 @@ class AuditResponseFilter implements ContainerResponseFilter {
     }
 
     @Override
-    @UnitOfWork(transactional = false)
+    @UnitOfWork
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
         try {
             final ByteArrayOutputStream baos = (ByteArrayOutputStream) requestContext.getProperty(AuditFeature.REQUEST_CONTEXT_PROPERTY_NAME);
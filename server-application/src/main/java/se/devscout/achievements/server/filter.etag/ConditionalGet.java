@@ -0,0 +1,29 @@
+package se.devscout.achievements.server.filter.etag;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Marks a GET method whose response only changes when the version number of its scope, as tracked by
+ * {@link se.devscout.achievements.server.data.OrganizationVersions}, changes. Such responses get an ETag, and requests
+ * with a matching If-None-Match header are answered with 304 Not Modified without invoking the method.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    enum Scope {
+        /**
+         * The response only depends on the achievements.
+         */
+        ACHIEVEMENTS,
+        /**
+         * The response depends on the organization given by the organizationId path parameter.
+         */
+        ORGANIZATION,
+        /**
+         * The response depends on the organization of the signed in user.
+         */
+        USER_ORGANIZATION
+    }
+
+    Scope value();
+}
@@ -0,0 +1,47 @@
+package se.devscout.achievements.server.filter.etag;
+
+import io.dropwizard.hibernate.HibernateBundle;
+import io.dropwizard.hibernate.UnitOfWorkAwareProxyFactory;
+import se.devscout.achievements.server.data.OrganizationVersions;
+import se.devscout.achievements.server.data.dao.PeopleDao;
+
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import java.lang.reflect.Method;
+import java.security.SecureRandom;
+
+public class ConditionalGetFeature implements DynamicFeature {
+    private final OrganizationVersions versions;
+    private final PeopleDao peopleDao;
+    private final HibernateBundle hibernate;
+
+    private final byte[] secret = new byte[32];
+
+    /**
+     * @param hibernate used to open a session when the organization of the signed in user has to be looked up. Only
+     *                  needed if {@link ConditionalGet.Scope#USER_ORGANIZATION} is used.
+     */
+    public ConditionalGetFeature(OrganizationVersions versions, PeopleDao peopleDao, HibernateBundle hibernate) {
+        this.versions = versions;
+        this.peopleDao = peopleDao;
+        this.hibernate = hibernate;
+        new SecureRandom().nextBytes(secret);
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        final Method method = resourceInfo.getResourceMethod();
+        if (method.isAnnotationPresent(ConditionalGet.class)) {
+            final ConditionalGet.Scope scope = method.getAnnotation(ConditionalGet.class).value();
+            if (scope == ConditionalGet.Scope.USER_ORGANIZATION) {
+                context.register(new UnitOfWorkAwareProxyFactory(hibernate).create(
+                        ConditionalGetFilter.class,
+                        new Class<?>[]{ConditionalGet.Scope.class, OrganizationVersions.class, PeopleDao.class, byte[].class},
+                        new Object[]{scope, versions, peopleDao, secret}));
+            } else {
+                context.register(new ConditionalGetFilter(scope, versions, peopleDao, secret));
+            }
+        }
+    }
+}
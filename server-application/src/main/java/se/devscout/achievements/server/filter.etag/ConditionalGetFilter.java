@@ -0,0 +1,136 @@
+package se.devscout.achievements.server.filter.etag;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.dropwizard.hibernate.UnitOfWork;
+import se.devscout.achievements.server.data.OrganizationVersions;
+import se.devscout.achievements.server.data.dao.ObjectNotFoundException;
+import se.devscout.achievements.server.data.dao.PeopleDao;
+import se.devscout.achievements.server.resources.UuidString;
+import se.devscout.achievements.server.resources.auth.User;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Computes the ETag of a {@link ConditionalGet} response from the version number of its scope, before the resource
+ * method is invoked, and aborts the request with 304 Not Modified if the client already has the current version.
+ * <p>
+ * The ETag is a hash of the version number, the scope, the signed in user and a secret which is unique for each
+ * server process. Version numbers restart from zero when the server restarts, and including the secret makes sure
+ * that ETags issued by a previous process never match. It also means that a client cannot construct a valid ETag for
+ * data which it has not been allowed to read.
+ * <p>
+ * Runs after authentication and authorization so that a request which would have been rejected is never answered
+ * with 304 Not Modified.
+ */
+@Priority(Priorities.USER)
+public class ConditionalGetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    static final String REQUEST_CONTEXT_PROPERTY_NAME = "ConditionalGetFilter.entityTag";
+
+    private static final int ENTITY_TAG_LENGTH = 32;
+
+    private final ConditionalGet.Scope scope;
+    private final OrganizationVersions versions;
+    private final PeopleDao peopleDao;
+    private final byte[] secret;
+
+    public ConditionalGetFilter(ConditionalGet.Scope scope, OrganizationVersions versions, PeopleDao peopleDao, byte[] secret) {
+        this.scope = scope;
+        this.versions = versions;
+        this.peopleDao = peopleDao;
+        this.secret = secret;
+    }
+
+    @Override
+    @UnitOfWork(transactional = false)
+    public void filter(ContainerRequestContext requestContext) {
+        if (!HttpMethod.GET.equals(requestContext.getMethod())) {
+            return;
+        }
+        final Optional<EntityTag> entityTag = getEntityTag(requestContext);
+        if (!entityTag.isPresent()) {
+            return;
+        }
+        final Response.ResponseBuilder notModified = requestContext.getRequest().evaluatePreconditions(entityTag.get());
+        if (notModified != null) {
+            requestContext.abortWith(notModified.cacheControl(cacheControl()).build());
+        } else {
+            requestContext.setProperty(REQUEST_CONTEXT_PROPERTY_NAME, entityTag.get());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        final EntityTag entityTag = (EntityTag) requestContext.getProperty(REQUEST_CONTEXT_PROPERTY_NAME);
+        if (entityTag != null && responseContext.getStatus() == Response.Status.OK.getStatusCode()) {
+            responseContext.getHeaders().putSingle(HttpHeaders.ETAG, entityTag);
+            responseContext.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, cacheControl());
+        }
+    }
+
+    private Optional<EntityTag> getEntityTag(ContainerRequestContext requestContext) {
+        final User user = (User) requestContext.getSecurityContext().getUserPrincipal();
+
+        final Hasher hasher = Hashing.sha256().newHasher()
+                .putBytes(secret)
+                .putString(scope.name(), StandardCharsets.UTF_8)
+                .putInt(user != null ? user.getPersonId() : -1);
+
+        switch (scope) {
+            case ACHIEVEMENTS:
+                hasher.putLong(versions.getGlobal());
+                break;
+            case ORGANIZATION:
+                final Optional<UUID> organizationId = parseUuid(requestContext.getUriInfo().getPathParameters().getFirst("organizationId"));
+                if (!organizationId.isPresent()) {
+                    // Let the resource method respond to invalid identifiers
+                    return Optional.empty();
+                }
+                hasher.putString(organizationId.get().toString(), StandardCharsets.UTF_8).putLong(versions.get(organizationId.get()));
+                break;
+            case USER_ORGANIZATION:
+                if (user == null) {
+                    return Optional.empty();
+                }
+                try {
+                    final UUID userOrganizationId = peopleDao.read(user.getPersonId()).getOrganization().getId();
+                    hasher.putString(userOrganizationId.toString(), StandardCharsets.UTF_8).putLong(versions.get(userOrganizationId));
+                } catch (ObjectNotFoundException e) {
+                    return Optional.empty();
+                }
+                break;
+        }
+        return Optional.of(new EntityTag(hasher.hash().toString().substring(0, ENTITY_TAG_LENGTH), true));
+    }
+
+    private static Optional<UUID> parseUuid(String value) {
+        try {
+            return Optional.ofNullable(UuidString.toUUID(value));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Clients may keep responses but must always check with the server before using them again.
+     */
+    private static CacheControl cacheControl() {
+        final CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        return cacheControl;
+    }
+}
@@ -5,7 +5,6 @@ import io.dropwizard.hibernate.UnitOfWork;
 import se.devscout.achievements.server.api.ProgressDTO;
 import se.devscout.achievements.server.auth.Roles;
 import se.devscout.achievements.server.data.dao.*;
-import se.devscout.achievements.server.data.model.Achievement;
 import se.devscout.achievements.server.data.model.AchievementStep;
 import se.devscout.achievements.server.data.model.AchievementStepProgressProperties;
 import se.devscout.achievements.server.data.model.Person;
@@ -42,10 +41,10 @@ public class AchievementStepProgressResource extends AbstractResource {
                            @PathParam("personId") Integer personId,
                            @Auth User user) {
         try {
+            verifyParent(achievementId.getUUID(), stepId);
             final AchievementStep step = stepsDao.read(stepId);
-            verifyParent(achievementId.getUUID(), step);
             final Person person = peopleDao.read(personId);
-            return map(dao.get(step, person), ProgressDTO.class);
+            return DtoMappers.toProgressDTO(dao.get(step, person));
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException(e);
         }
@@ -63,21 +62,21 @@ public class AchievementStepProgressResource extends AbstractResource {
                            @Auth User user,
                            ProgressDTO dto) {
         try {
+            verifyParent(achievementId.getUUID(), stepId);
             final AchievementStep step = stepsDao.read(stepId);
-            verifyParent(achievementId.getUUID(), step);
             verifyCompletedProgress(dto);
             final Person person = peopleDao.read(personId);
             final AchievementStepProgressProperties properties =
                     dto.completed != null ?
                             new AchievementStepProgressProperties(dto.completed, dto.note) :
                             new AchievementStepProgressProperties(dto.value, dto.note);
-            return map(dao.set(step, person, properties), ProgressDTO.class);
+            return DtoMappers.toProgressDTO(dao.set(step, person, properties));
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException(e);
         }
     }
 
-    private void verifyCompletedProgress(ProgressDTO progress) {
+    static void verifyCompletedProgress(ProgressDTO progress) {
         if (progress.completed == null && progress.value == null) {
             throw new BadRequestException("Either completed or progress must be set.");
         }
@@ -103,8 +102,8 @@ public class AchievementStepProgressResource extends AbstractResource {
                           @PathParam("personId") Integer personId,
                           @Auth User user) {
         try {
+            verifyParent(achievementId.getUUID(), stepId);
             final AchievementStep step = stepsDao.read(stepId);
-            verifyParent(achievementId.getUUID(), step);
             final Person person = peopleDao.read(personId);
             dao.unset(step, person);
             return Response.noContent().build();
@@ -113,9 +112,13 @@ public class AchievementStepProgressResource extends AbstractResource {
         }
     }
 
-    private void verifyParent(UUID achievementId, AchievementStep step) throws ObjectNotFoundException {
-        Achievement achievement = achievementDao.read(achievementId);
-        if (!step.getAchievement().getId().equals(achievement.getId())) {
+    private void verifyParent(UUID achievementId, Integer stepId) {
+        // Uses the catalog so that requests for steps which do not exist, or belong to another achievement, are
+        // rejected without reading anything from the database
+        final boolean isStepOfAchievement = achievementDao.getCatalog().getStep(stepId)
+                .filter(step -> step.getAchievementId().equals(achievementId))
+                .isPresent();
+        if (!isStepOfAchievement) {
             throw new NotFoundException();
         }
     }
@@ -43,7 +43,7 @@ public class AchievementStepsResource extends AbstractResource {
     @UnitOfWork
     public List<AchievementStepDTO> getByAchievement(@PathParam("achievementId") UuidString achievementId) {
         final Achievement achievement = getAchievement(achievementId.getUUID());
-        return dao.getByParent(achievement).stream().map(p -> map(p, AchievementStepDTO.class)).collect(Collectors.toList());
+        return dao.getByParent(achievement).stream().map(DtoMappers::toAchievementStepDTO).collect(Collectors.toList());
     }
 
     @GET
@@ -54,7 +54,7 @@ public class AchievementStepsResource extends AbstractResource {
         try {
             final AchievementStep person = dao.read(id);
             verifyParent(achievementId.getUUID(), person);
-            return map(person, AchievementStepDTO.class);
+            return DtoMappers.toAchievementStepDTO(person);
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException();
         }
@@ -67,7 +67,7 @@ public class AchievementStepsResource extends AbstractResource {
                            @Auth User user,
                            AchievementStepDTO input) {
         try {
-            final AchievementStepProperties properties = map(input, AchievementStepProperties.class);
+            final AchievementStepProperties properties = DtoMappers.toAchievementStepProperties(input);
             if (input.prerequisite_achievement != null) {
                 properties.setPrerequisiteAchievement(achievementsDao.read(UuidString.toUUID(input.prerequisite_achievement)));
             }
@@ -83,7 +83,7 @@ public class AchievementStepsResource extends AbstractResource {
             final URI location = uriInfo.getRequestUriBuilder().path(person.getId().toString()).build();
             return Response
                     .created(location)
-                    .entity(map(person, AchievementStepDTO.class))
+                    .entity(DtoMappers.toAchievementStepDTO(person))
                     .build();
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException();
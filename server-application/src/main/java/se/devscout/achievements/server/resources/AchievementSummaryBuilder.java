@@ -0,0 +1,139 @@
+package se.devscout.achievements.server.resources;
+
+import se.devscout.achievements.server.api.AchievementBaseDTO;
+import se.devscout.achievements.server.api.OrganizationAchievementSummaryDTO;
+import se.devscout.achievements.server.api.PersonBaseDTO;
+import se.devscout.achievements.server.data.dao.AchievementSummaryDao;
+import se.devscout.achievements.server.data.model.AchievementStepProgress;
+
+import java.util.*;
+
+/**
+ * Builds an achievement summary from rollup rows. Each row is visited exactly once: the counters for an achievement
+ * are plain ints and the detailed lists are appended to while the rows are read, so the cost is linear in the number
+ * of rows regardless of how many people have made progress on the same achievement.
+ */
+public class AchievementSummaryBuilder {
+
+    private static class AchievementAccumulator {
+        private final int stepCount;
+        private final long completedSum;
+        private int peopleStarted;
+        private int peopleCompleted;
+        private int peopleAwarded;
+        private boolean anyStarted;
+        private final List<OrganizationAchievementSummaryDTO.PersonProgressDTO> withProgress = new ArrayList<>();
+        private List<OrganizationAchievementSummaryDTO.PersonProgressDTO> awardedWithoutProgress;
+
+        AchievementAccumulator(int stepCount) {
+            this.stepCount = stepCount;
+            this.completedSum = (long) stepCount * AchievementStepProgress.PROGRESS_COMPLETED;
+        }
+
+        void add(AchievementSummaryDao.PersonProgress row) {
+            anyStarted |= row.isStarted();
+            if (row.isAwarded()) {
+                peopleAwarded++;
+            }
+            final long sum = row.getSum();
+            if (sum > 0) {
+                if (sum == completedSum) {
+                    peopleCompleted++;
+                } else if (sum < completedSum) {
+                    peopleStarted++;
+                }
+                if (stepCount > 0) {
+                    withProgress.add(createPersonProgressDTO(row, (int) Math.round(1.0 * sum / stepCount), row.isAwarded()));
+                }
+            } else if (row.isAwarded()) {
+                if (awardedWithoutProgress == null) {
+                    awardedWithoutProgress = new ArrayList<>();
+                }
+                awardedWithoutProgress.add(createPersonProgressDTO(row, 0, true));
+            }
+        }
+
+        OrganizationAchievementSummaryDTO.AchievementSummaryDTO build(AchievementSummaryDao.AchievementInfo achievement) {
+            final OrganizationAchievementSummaryDTO.ProgressSummaryDTO progressSummary = new OrganizationAchievementSummaryDTO.ProgressSummaryDTO();
+            progressSummary.people_started = peopleStarted;
+            progressSummary.people_completed = peopleCompleted;
+            progressSummary.people_awarded = peopleAwarded;
+
+            if (awardedWithoutProgress != null) {
+                withProgress.addAll(awardedWithoutProgress);
+            }
+
+            final OrganizationAchievementSummaryDTO.AchievementSummaryDTO achievementSummary = new OrganizationAchievementSummaryDTO.AchievementSummaryDTO();
+            achievementSummary.achievement = createAchievementBaseDTO(achievement);
+            achievementSummary.progress_summary = progressSummary;
+            achievementSummary.progress_detailed = withProgress;
+            return achievementSummary;
+        }
+    }
+
+    private final Map<UUID, AchievementAccumulator> accumulators = new HashMap<>();
+
+    public AchievementSummaryBuilder add(AchievementSummaryDao.PersonProgress row) {
+        AchievementAccumulator accumulator = accumulators.get(row.getAchievementId());
+        if (accumulator == null) {
+            accumulator = new AchievementAccumulator(row.getStepCount());
+            accumulators.put(row.getAchievementId(), accumulator);
+        }
+        accumulator.add(row);
+        return this;
+    }
+
+    public AchievementSummaryBuilder addAll(List<AchievementSummaryDao.PersonProgress> rows) {
+        for (AchievementSummaryDao.PersonProgress row : rows) {
+            add(row);
+        }
+        return this;
+    }
+
+    /**
+     * Ids of the achievements which should be included in the summary, i.e. the ones which someone has made progress on.
+     */
+    public Set<UUID> getAchievementIds() {
+        final Set<UUID> ids = new HashSet<>();
+        for (Map.Entry<UUID, AchievementAccumulator> entry : accumulators.entrySet()) {
+            if (entry.getValue().anyStarted && entry.getValue().stepCount > 0) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
+    }
+
+    public OrganizationAchievementSummaryDTO build(Collection<AchievementSummaryDao.AchievementInfo> achievements) {
+        final List<AchievementSummaryDao.AchievementInfo> sorted = new ArrayList<>(achievements);
+        sorted.sort(Comparator.comparing(AchievementSummaryDao.AchievementInfo::getName));
+
+        final OrganizationAchievementSummaryDTO summary = new OrganizationAchievementSummaryDTO();
+        for (AchievementSummaryDao.AchievementInfo achievement : sorted) {
+            final AchievementAccumulator accumulator = accumulators.get(achievement.getId());
+            if (accumulator == null || !accumulator.anyStarted || accumulator.stepCount == 0) {
+                continue;
+            }
+            if (accumulator.peopleStarted + accumulator.peopleCompleted > 0 || accumulator.peopleAwarded > 0) {
+                summary.achievements.add(accumulator.build(achievement));
+            }
+        }
+        return summary;
+    }
+
+    private static OrganizationAchievementSummaryDTO.PersonProgressDTO createPersonProgressDTO(AchievementSummaryDao.PersonProgress row, int percent, boolean awarded) {
+        final OrganizationAchievementSummaryDTO.PersonProgressDTO personProgress = new OrganizationAchievementSummaryDTO.PersonProgressDTO();
+        personProgress.percent = percent;
+        personProgress.person = new PersonBaseDTO(row.getPersonId(), row.getPersonName());
+        personProgress.awarded = awarded;
+        return personProgress;
+    }
+
+    private static AchievementBaseDTO createAchievementBaseDTO(AchievementSummaryDao.AchievementInfo achievement) {
+        final AchievementBaseDTO dto = new AchievementBaseDTO();
+        dto.id = UuidString.toString(achievement.getId());
+        dto.name = achievement.getName();
+        dto.image = achievement.getImage();
+        dto.tags = new ArrayList<>(achievement.getTags());
+        return dto;
+    }
+}
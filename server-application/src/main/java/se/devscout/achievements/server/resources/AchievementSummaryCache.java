@@ -0,0 +1,41 @@
+package se.devscout.achievements.server.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import se.devscout.achievements.server.api.OrganizationAchievementSummaryDTO;
+import se.devscout.achievements.server.data.OrganizationVersions;
+import se.devscout.achievements.server.data.model.Group;
+import se.devscout.achievements.server.data.model.Organization;
+import se.devscout.achievements.server.data.model.Person;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of computed achievement summaries. The cache key includes the organization's current version number so
+ * entries become unreachable, and eventually evicted, as soon as anything affecting the summary has been committed.
+ */
+public class AchievementSummaryCache {
+
+    private final VersionedCache<OrganizationAchievementSummaryDTO> cache;
+
+    private final OrganizationVersions versions;
+
+    public AchievementSummaryCache(OrganizationVersions versions, long maximumSize, MetricRegistry metrics) {
+        this.versions = versions;
+        this.cache = new VersionedCache<>(AchievementSummaryCache.class.getName(), maximumSize, metrics);
+    }
+
+    public OrganizationAchievementSummaryDTO get(Organization organization, Supplier<OrganizationAchievementSummaryDTO> loader) {
+        return cache.get("organization", organization.getId(), versions.get(organization.getId()), loader::get);
+    }
+
+    public OrganizationAchievementSummaryDTO get(Person person, Supplier<OrganizationAchievementSummaryDTO> loader) {
+        final UUID organizationId = person.getOrganization().getId();
+        return cache.get("person", person.getId(), versions.get(organizationId), loader::get);
+    }
+
+    public OrganizationAchievementSummaryDTO get(Group group, Supplier<OrganizationAchievementSummaryDTO> loader) {
+        final UUID organizationId = group.getOrganization().getId();
+        return cache.get("group", group.getId(), versions.get(organizationId), loader::get);
+    }
+}
@@ -5,37 +5,58 @@ import io.dropwizard.auth.Auth;
 import io.dropwizard.hibernate.UnitOfWork;
 import se.devscout.achievements.server.api.*;
 import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.AchievementCatalog;
+import se.devscout.achievements.server.data.AwardEligibility;
+import se.devscout.achievements.server.data.ProgressMatrices;
+import se.devscout.achievements.server.data.ProgressMatrix;
 import se.devscout.achievements.server.data.dao.*;
-import se.devscout.achievements.server.data.model.Achievement;
-import se.devscout.achievements.server.data.model.AchievementProperties;
-import se.devscout.achievements.server.data.model.AchievementStepProgressProperties;
-import se.devscout.achievements.server.data.model.Person;
+import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.data.search.PrefixIndex;
+import se.devscout.achievements.server.filter.etag.ConditionalGet;
 import se.devscout.achievements.server.resources.auth.User;
 
 import javax.annotation.security.RolesAllowed;
 import javax.ws.rs.*;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.net.URI;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 
 @Path("achievements")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class AchievementsResource extends AbstractResource {
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_HISTORY_PAGE_SIZE = 1000;
+    private static final int MAX_PROGRESS_ITEMS = 500;
+    private static final int MAX_AWARD_ITEMS = 500;
+
     private AchievementsDao dao;
     private AchievementStepProgressDao progressDao;
     private final AuditingDao auditingDao;
     private final PeopleDao peopleDao;
+    private final GroupsDao groupsDao;
+    private final GroupMembershipsDao membershipsDao;
+    private final ProgressMatrices progressMatrices;
+    private final AwardEligibility awardEligibility;
+    private final TypeaheadCache typeaheadCache;
+    private final SerializedResponseCache responseCache;
 
-    public AchievementsResource(AchievementsDao dao, AchievementStepProgressDao progressDao, AuditingDao auditingDao, PeopleDao peopleDao) {
+    public AchievementsResource(AchievementsDao dao, AchievementStepProgressDao progressDao, AuditingDao auditingDao, PeopleDao peopleDao, GroupsDao groupsDao, GroupMembershipsDao membershipsDao, ProgressMatrices progressMatrices, AwardEligibility awardEligibility, TypeaheadCache typeaheadCache, SerializedResponseCache responseCache) {
         this.dao = dao;
         this.progressDao = progressDao;
         this.auditingDao = auditingDao;
         this.peopleDao = peopleDao;
+        this.groupsDao = groupsDao;
+        this.membershipsDao = membershipsDao;
+        this.progressMatrices = progressMatrices;
+        this.awardEligibility = awardEligibility;
+        this.typeaheadCache = typeaheadCache;
+        this.responseCache = responseCache;
     }
 
     @GET
@@ -47,24 +68,155 @@ public class AchievementsResource extends AbstractResource {
             return progressDao
                     .get(achievement)
                     .stream()
-                    .collect(Collectors.toMap(key -> key.getStep().getId() + "_" + key.getPerson().getId(), value -> map(value, ProgressDTO.class)));
+                    .collect(Collectors.toMap(key -> key.getStep().getId() + "_" + key.getPerson().getId(), DtoMappers::toProgressDTO));
+        } catch (ObjectNotFoundException e) {
+            throw new NotFoundException();
+        }
+    }
+
+    /**
+     * Sets the progress for a number of steps and people in one request, e.g. when a whole group has completed a step.
+     * Each item is validated on its own and the response reports the outcome for each item, in the same order as the
+     * request. The valid items, and their audit records, are saved in one transaction.
+     */
+    @POST
+    @RolesAllowed(Roles.EDITOR)
+    @UnitOfWork
+    @Path("{achievementId}/progress")
+    public List<StepProgressResultDTO> setProgress(@PathParam("achievementId") UuidString id,
+                                                   @Auth User user,
+                                                   List<StepProgressDTO> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("At least one progress item must be specified.");
+        }
+        if (items.size() > MAX_PROGRESS_ITEMS) {
+            throw new BadRequestException("At most " + MAX_PROGRESS_ITEMS + " progress items can be set at once.");
+        }
+        try {
+            final Achievement achievement = dao.read(id.getUUID());
+            final Person userPerson = peopleDao.read(user.getPersonId());
+
+            final Map<Integer, AchievementStep> steps = achievement.getSteps().stream()
+                    .collect(Collectors.toMap(AchievementStep::getId, Function.identity()));
+            final Map<Integer, Person> people = peopleDao
+                    .getByParent(userPerson.getOrganization(), items.stream()
+                            .map(item -> item.person)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(Person::getId, Function.identity()));
+
+            final List<StepProgressResultDTO> results = new ArrayList<>(items.size());
+            final List<AchievementStepProgressDao.ProgressUpdate> updates = new ArrayList<>();
+            final List<StepProgressAuditRecord> auditRecords = new ArrayList<>();
+            final Set<AchievementStepProgress.Key> updated = new HashSet<>();
+            for (StepProgressDTO item : items) {
+                final AchievementStep step = item.step != null ? steps.get(item.step) : null;
+                final Person person = item.person != null ? people.get(item.person) : null;
+                if (step == null) {
+                    results.add(new StepProgressResultDTO(item.step, item.person, Response.Status.NOT_FOUND.getStatusCode(), "Step not found in achievement."));
+                    continue;
+                }
+                if (person == null) {
+                    results.add(new StepProgressResultDTO(item.step, item.person, Response.Status.NOT_FOUND.getStatusCode(), "Person not found in organization."));
+                    continue;
+                }
+                try {
+                    AchievementStepProgressResource.verifyCompletedProgress(item);
+                } catch (BadRequestException e) {
+                    results.add(new StepProgressResultDTO(item.step, item.person, Response.Status.BAD_REQUEST.getStatusCode(), e.getMessage()));
+                    continue;
+                }
+                if (!updated.add(new AchievementStepProgress.Key(step, person))) {
+                    results.add(new StepProgressResultDTO(item.step, item.person, Response.Status.BAD_REQUEST.getStatusCode(), "Progress already set in this request."));
+                    continue;
+                }
+                updates.add(new AchievementStepProgressDao.ProgressUpdate(step, person, item.completed != null
+                        ? new AchievementStepProgressProperties(item.completed, item.note)
+                        : new AchievementStepProgressProperties(item.value, item.note)));
+                auditRecords.add(new StepProgressAuditRecord(userPerson, DtoMappers.toProgressData(item), step, person, HttpMethod.POST, Response.Status.OK.getStatusCode()));
+                results.add(new StepProgressResultDTO(item.step, item.person, Response.Status.OK.getStatusCode(), null));
+            }
+
+            progressDao.set(achievement, updates);
+            auditingDao.createAll(auditRecords);
+            return results;
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException();
         }
     }
 
+    /**
+     * Progress for the people in the user's organization, optionally limited to the members of one group. Only people
+     * who have started at least one step are included.
+     */
+    @GET
+    @RolesAllowed(Roles.READER)
+    @UnitOfWork
+    @Path("{achievementId}/progress-matrix")
+    public ProgressMatrixDTO getProgressMatrix(@PathParam("achievementId") UuidString id,
+                                               @QueryParam("group") Integer groupId,
+                                               @Auth User user) {
+        try {
+            final Organization organization = peopleDao.read(user.getPersonId()).getOrganization();
+            final Achievement achievement = dao.read(id.getUUID());
+
+            IntPredicate personFilter = personId -> true;
+            if (groupId != null) {
+                final Group group = groupsDao.read(groupId);
+                if (!group.getOrganization().getId().equals(organization.getId())) {
+                    throw new NotFoundException("Group " + groupId + " not found in your organization.");
+                }
+                final Set<Integer> memberIds = membershipsDao.getMemberships(group).stream()
+                        .map(membership -> membership.getPerson().getId())
+                        .collect(Collectors.toSet());
+                personFilter = memberIds::contains;
+            }
+
+            final int[] stepIds = achievement.getSteps().stream().mapToInt(AchievementStep::getId).toArray();
+            final ProgressMatrix matrix = progressMatrices.get(organization.getId(), () -> progressDao.getMatrix(organization));
+            final ProgressMatrix.Slice slice = matrix.slice(stepIds, personFilter);
+            return new ProgressMatrixDTO(stepIds, slice.getPersonIds(), slice.getValues());
+        } catch (ObjectNotFoundException e) {
+            throw new NotFoundException(e);
+        }
+    }
+
+    /**
+     * Returns the progress changes made to people in the user's organization, oldest first. The list is paginated, and
+     * the response has a Link header pointing to the next page unless the last page has been reached.
+     */
     @GET
     @RolesAllowed(Roles.EDITOR)
     @UnitOfWork
     @Path("{achievementId}/progress-history")
-    public List<StepProgressRequestLogRecordDTO> getProgressHistory(@PathParam("achievementId") UuidString id, @Auth User user) {
+    public Response getProgressHistory(@PathParam("achievementId") UuidString id,
+                                       @QueryParam("after") Long after,
+                                       @QueryParam("limit") Integer limit,
+                                       @Auth User user) {
+        if (limit != null && limit < 1) {
+            throw new BadRequestException("The limit must be a positive number.");
+        }
+        final int pageSize = limit != null ? Math.min(limit, MAX_HISTORY_PAGE_SIZE) : DEFAULT_HISTORY_PAGE_SIZE;
         try {
             final Achievement achievement = dao.read(id.getUUID());
-            return auditingDao
-                    .readStepProgress(achievement.getId())
-                    .stream()
-                    .map(record -> map(record, StepProgressRequestLogRecordDTO.class))
-                    .collect(Collectors.toList());
+            final Organization organization = peopleDao.read(user.getPersonId()).getOrganization();
+
+            // One extra record is read to find out if there is a next page
+            final List<StepProgressAuditRecord> records = auditingDao.readStepProgress(achievement.getId(), organization, after, pageSize + 1);
+
+            final List<StepProgressAuditRecord> page = records.subList(0, Math.min(records.size(), pageSize));
+            final Response.ResponseBuilder response = Response.ok(page.stream()
+                    .map(DtoMappers::toStepProgressRequestLogRecordDTO)
+                    .collect(Collectors.toList()));
+            if (records.size() > pageSize) {
+                final URI next = uriInfo.getRequestUriBuilder()
+                        .replaceQueryParam("after", page.get(page.size() - 1).getId())
+                        .replaceQueryParam("limit", pageSize)
+                        .build();
+                response.link(next, "next");
+            }
+            return response.build();
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException();
         }
@@ -80,7 +232,57 @@ public class AchievementsResource extends AbstractResource {
             final Person userPerson = peopleDao.read(user.getPersonId());
             final Achievement achievement = dao.read(id.getUUID());
             return peopleDao.getByAwardedAchievement(userPerson.getOrganization(), achievement).stream()
-                    .map(person -> map(person, PersonBaseDTO.class))
+                    .map(DtoMappers::toPersonBaseDTO)
+                    .collect(Collectors.toList());
+        } catch (ObjectNotFoundException e) {
+            throw new NotFoundException(e);
+        }
+    }
+
+    /**
+     * Awards the achievement to a number of people in one request, either the people listed or all members of a group.
+     * Returns the people who have been awarded the achievement. Fails without awarding anyone if any of the people
+     * cannot be found in the user's organization.
+     */
+    @POST
+    @RolesAllowed(Roles.EDITOR)
+    @UnitOfWork
+    @Path("{achievementId}/awards")
+    public List<PersonBaseDTO> addAwards(@PathParam("achievementId") UuidString id,
+                                         @Auth User user,
+                                         AwardsDTO dto) {
+        final boolean hasPeople = dto != null && dto.people != null && !dto.people.isEmpty();
+        if (dto == null || hasPeople == (dto.group != null)) {
+            throw new BadRequestException("Either a list of people or a group must be specified.");
+        }
+        if (hasPeople && dto.people.size() > MAX_AWARD_ITEMS) {
+            throw new BadRequestException("At most " + MAX_AWARD_ITEMS + " people can be awarded at once.");
+        }
+        try {
+            final Achievement achievement = dao.read(id.getUUID());
+            final Organization organization = peopleDao.read(user.getPersonId()).getOrganization();
+
+            final List<Person> people;
+            if (dto.group != null) {
+                final Group group = groupsDao.read(dto.group);
+                if (!group.getOrganization().getId().equals(organization.getId())) {
+                    throw new NotFoundException("Group " + dto.group + " not found in your organization.");
+                }
+                people = membershipsDao.getMemberships(group).stream()
+                        .map(GroupMembership::getPerson)
+                        .collect(Collectors.toList());
+            } else {
+                final Set<Integer> personIds = new HashSet<>(dto.people);
+                people = peopleDao.getByParent(organization, personIds);
+                if (people.size() != personIds.size()) {
+                    personIds.removeAll(people.stream().map(Person::getId).collect(Collectors.toSet()));
+                    throw new NotFoundException("People " + personIds + " not found in your organization.");
+                }
+            }
+
+            dao.addAwardedTo(achievement, people);
+            return people.stream()
+                    .map(DtoMappers::toPersonBaseDTO)
                     .collect(Collectors.toList());
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException(e);
@@ -134,37 +336,116 @@ public class AchievementsResource extends AbstractResource {
     }
 
     @GET
-    @UnitOfWork
+    @ConditionalGet(ConditionalGet.Scope.ACHIEVEMENTS)
+    @UnitOfWork(transactional = false)
     @Path("{achievementId}")
-    public AchievementDTO get(@PathParam("achievementId") UuidString id) {
+    public Response get(@PathParam("achievementId") UuidString id,
+                        @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+        return responseCache.getAchievements("achievements/" + id.getValue(), acceptEncoding, () -> dao.getCatalog().get(id.getUUID())
+                .map(DtoMappers::toAchievementDTO)
+                .orElseThrow(NotFoundException::new));
+    }
+
+    @GET
+    @ConditionalGet(ConditionalGet.Scope.ACHIEVEMENTS)
+    @UnitOfWork(transactional = false)
+    public Response find(@QueryParam("filter") String filter,
+                         @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
         try {
-            return map(dao.read(id.getUUID()), AchievementDTO.class);
-        } catch (ObjectNotFoundException e) {
-            throw new NotFoundException();
+            if (Strings.isNullOrEmpty(filter)) {
+                return responseCache.getAchievements("achievements", acceptEncoding, () -> dao.getCatalog().getAchievements().stream()
+                        .map(DtoMappers::toAchievementBaseDTO)
+                        .collect(Collectors.toList()));
+            }
+            return Response.ok(dao.find(filter).stream().map(DtoMappers::toAchievementBaseDTO).collect(Collectors.toList())).build();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
         }
     }
 
+    /**
+     * Returns the people in the user's organization who have completed an achievement, counting prerequisites which
+     * have been completed or awarded, but who have not yet been awarded it. Most recently completed achievements are
+     * listed last.
+     */
     @GET
+    @RolesAllowed(Roles.EDITOR)
     @UnitOfWork
-    public List<AchievementBaseDTO> find(@QueryParam("filter") String filter) {
+    @Path("eligible-awards")
+    public List<EligibleAwardDTO> getEligibleAwards(@QueryParam("group") Integer groupId,
+                                                    @Auth User user) {
         try {
-            final List<Achievement> achievements = Strings.isNullOrEmpty(filter) ? dao.readAll() : dao.find(filter);
-            return achievements.stream().map(o -> map(o, AchievementBaseDTO.class)).collect(Collectors.toList());
-        } catch (IllegalArgumentException e) {
-            throw new BadRequestException(e.getMessage());
+            final Organization organization = peopleDao.read(user.getPersonId()).getOrganization();
+
+            IntPredicate personFilter = personId -> true;
+            if (groupId != null) {
+                final Group group = groupsDao.read(groupId);
+                if (!group.getOrganization().getId().equals(organization.getId())) {
+                    throw new NotFoundException("Group " + groupId + " not found in your organization.");
+                }
+                final Set<Integer> memberIds = membershipsDao.getMemberships(group).stream()
+                        .map(membership -> membership.getPerson().getId())
+                        .collect(Collectors.toSet());
+                personFilter = memberIds::contains;
+            }
+
+            final AchievementCatalog catalog = dao.getCatalog();
+            final IntPredicate filter = personFilter;
+            final List<AwardEligibility.Candidate> candidates = awardEligibility
+                    .getEligible(organization.getId(), catalog, () -> new AwardEligibility.Progress(
+                            progressDao.getCompletedSteps(organization),
+                            dao.getAwards(organization)))
+                    .stream()
+                    .filter(candidate -> filter.test(candidate.getPersonId()))
+                    .collect(Collectors.toList());
+            if (candidates.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            // People removed since the state was loaded are left out
+            final Map<Integer, PersonBaseDTO> people = peopleDao.getByParent(organization, candidates.stream()
+                    .map(AwardEligibility.Candidate::getPersonId)
+                    .collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(Person::getId, DtoMappers::toPersonBaseDTO));
+            return candidates.stream()
+                    .filter(candidate -> people.containsKey(candidate.getPersonId()))
+                    .map(candidate -> new EligibleAwardDTO(
+                            DtoMappers.toAchievementBaseDTO(catalog.get(candidate.getAchievementId()).get()),
+                            people.get(candidate.getPersonId())))
+                    .collect(Collectors.toList());
+        } catch (ObjectNotFoundException e) {
+            throw new NotFoundException(e);
         }
     }
 
+    /**
+     * Lightweight alternative to {@link #find(String, String)} for pickers which let the user type the first letters of a name.
+     */
+    @GET
+    @ConditionalGet(ConditionalGet.Scope.ACHIEVEMENTS)
+    @UnitOfWork
+    @Path("typeahead")
+    public List<AchievementBaseDTO> typeahead(@QueryParam("q") String query,
+                                              @QueryParam("limit") @DefaultValue(DEFAULT_TYPEAHEAD_LIMIT) int limit) {
+        return typeaheadCache
+                .getAchievements(() -> new PrefixIndex<>(
+                        dao.getCatalog().getAchievements().stream()
+                                .map(DtoMappers::toAchievementBaseDTO)
+                                .collect(Collectors.toList()),
+                        dto -> dto.name))
+                .search(query, typeaheadLimit(limit));
+    }
+
     @POST
     @RolesAllowed(Roles.EDITOR)
     @UnitOfWork
     public Response create(AchievementDTO input, @Auth User user) {
         try {
-            final Achievement achievement = dao.create(map(input, AchievementProperties.class));
+            final Achievement achievement = dao.create(DtoMappers.toAchievementProperties(input));
             final URI location = uriInfo.getRequestUriBuilder().path(UuidString.toString(achievement.getId())).build();
             return Response
                     .created(location)
-                    .entity(map(achievement, AchievementDTO.class))
+                    .entity(DtoMappers.toAchievementDTO(achievement))
                     .build();
         } catch (DaoException e) {
             return Response.serverError().build();
@@ -0,0 +1,282 @@
+package se.devscout.achievements.server.resources;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Strings;
+import se.devscout.achievements.server.api.*;
+import se.devscout.achievements.server.data.AchievementCatalog;
+import se.devscout.achievements.server.data.ProgressEvent;
+import se.devscout.achievements.server.data.model.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+
+/**
+ * Conversions between the entities and the DTOs in the API. Every property is copied explicitly, so no reflection is
+ * involved and the compiler catches properties which are renamed or removed.
+ * <p>
+ * Like the mapping it replaces, all methods accept null and then return null.
+ */
+final class DtoMappers {
+
+    private static final ObjectReader PROGRESS_READER = new ObjectMapper().readerFor(ProgressDTO.class);
+    private static final ObjectWriter PROGRESS_WRITER = new ObjectMapper().writerFor(ProgressDTO.class);
+
+    private DtoMappers() {
+    }
+
+    static OrganizationBaseDTO toOrganizationBaseDTO(Organization organization) {
+        if (organization == null) {
+            return null;
+        }
+        return new OrganizationBaseDTO(organization.getName());
+    }
+
+    static OrganizationDTO toOrganizationDTO(Organization organization) {
+        if (organization == null) {
+            return null;
+        }
+        return new OrganizationDTO(UuidString.toString(organization.getId()), organization.getName());
+    }
+
+    static OrganizationProperties toOrganizationProperties(OrganizationBaseDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        return new OrganizationProperties(dto.name);
+    }
+
+    static GroupBaseDTO toGroupBaseDTO(Group group) {
+        if (group == null) {
+            return null;
+        }
+        return new GroupBaseDTO(group.getId(), group.getName());
+    }
+
+    static GroupDTO toGroupDTO(Group group) {
+        if (group == null) {
+            return null;
+        }
+        final GroupDTO dto = new GroupDTO();
+        dto.id = group.getId();
+        dto.name = group.getName();
+        dto.organization = toOrganizationBaseDTO(group.getOrganization());
+        return dto;
+    }
+
+    static GroupProperties toGroupProperties(GroupBaseDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        return new GroupProperties(dto.name);
+    }
+
+    static GroupMembershipDTO toGroupMembershipDTO(GroupMembership membership) {
+        if (membership == null) {
+            return null;
+        }
+        return new GroupMembershipDTO(
+                toGroupBaseDTO(membership.getGroup()),
+                toPersonBaseDTO(membership.getPerson()),
+                membership.getRole());
+    }
+
+    static PersonBaseDTO toPersonBaseDTO(Person person) {
+        if (person == null) {
+            return null;
+        }
+        return new PersonBaseDTO(person.getId(), person.getName());
+    }
+
+    static PersonDTO toPersonDTO(Person person) {
+        if (person == null) {
+            return null;
+        }
+        final PersonDTO dto = new PersonDTO();
+        dto.id = person.getId();
+        dto.name = person.getName();
+        dto.email = person.getEmail();
+        dto.organization = toOrganizationBaseDTO(person.getOrganization());
+        dto.custom_identifier = Strings.emptyToNull(person.getCustomIdentifier());
+        dto.role = person.getRole();
+        if (person.getAttributes() != null) {
+            dto.attributes = person.getAttributes().stream()
+                    .map(attr -> new PersonAttributeDTO(attr.getKey(), attr.getValue()))
+                    .collect(Collectors.toList());
+        }
+        dto.groups = person.getMemberships().stream()
+                .map(membership -> toGroupBaseDTO(membership.getGroup()))
+                .collect(Collectors.toList());
+        return dto;
+    }
+
+    static PersonProperties toPersonProperties(PersonDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        final PersonProperties properties = new PersonProperties();
+        properties.setName(dto.name);
+        properties.setEmail(dto.email);
+        properties.setCustomIdentifier(Strings.emptyToNull(dto.custom_identifier));
+        properties.setRole(dto.role);
+        properties.setAttributes(dto.attributes != null
+                ? dto.attributes.stream().map(attr -> new PersonAttribute(attr.key, attr.value)).collect(Collectors.toSet())
+                : null);
+        return properties;
+    }
+
+    /**
+     * Used when a change is previewed but not saved, as a stand-in for the person it would have been saved as.
+     */
+    static Person toPerson(PersonProperties properties) {
+        if (properties == null) {
+            return null;
+        }
+        final Person person = new Person();
+        person.apply(properties);
+        return person;
+    }
+
+    static AchievementBaseDTO toAchievementBaseDTO(Achievement achievement) {
+        if (achievement == null) {
+            return null;
+        }
+        final AchievementBaseDTO dto = new AchievementBaseDTO();
+        setBaseProperties(achievement, dto);
+        return dto;
+    }
+
+    static AchievementDTO toAchievementDTO(Achievement achievement) {
+        if (achievement == null) {
+            return null;
+        }
+        final AchievementDTO dto = new AchievementDTO();
+        setBaseProperties(achievement, dto);
+        dto.description = achievement.getDescription();
+        dto.steps = achievement.getSteps().stream()
+                .map(DtoMappers::toAchievementStepDTO)
+                .collect(Collectors.toList());
+        return dto;
+    }
+
+    private static void setBaseProperties(Achievement achievement, AchievementBaseDTO dto) {
+        dto.id = UuidString.toString(achievement.getId());
+        dto.name = achievement.getName();
+        dto.image = achievement.getImage();
+        dto.tags = achievement.getTags() != null ? new ArrayList<>(achievement.getTags()) : null;
+    }
+
+    static AchievementBaseDTO toAchievementBaseDTO(AchievementCatalog.Entry achievement) {
+        final AchievementBaseDTO dto = new AchievementBaseDTO();
+        setBaseProperties(achievement, dto);
+        return dto;
+    }
+
+    static AchievementDTO toAchievementDTO(AchievementCatalog.Entry achievement) {
+        final AchievementDTO dto = new AchievementDTO();
+        setBaseProperties(achievement, dto);
+        dto.description = achievement.getDescription();
+        dto.steps = achievement.getSteps().stream().map(step -> {
+            final AchievementStepDTO stepDto = new AchievementStepDTO(step.getDescription());
+            stepDto.id = step.getId();
+            if (step.getPrerequisiteAchievementId() != null) {
+                stepDto.prerequisite_achievement = UuidString.toString(step.getPrerequisiteAchievementId());
+            }
+            return stepDto;
+        }).collect(Collectors.toList());
+        return dto;
+    }
+
+    private static void setBaseProperties(AchievementCatalog.Entry achievement, AchievementBaseDTO dto) {
+        dto.id = UuidString.toString(achievement.getId());
+        dto.name = achievement.getName();
+        dto.image = achievement.getImage();
+        dto.tags = new ArrayList<>(achievement.getTags());
+    }
+
+    static AchievementProperties toAchievementProperties(AchievementDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        final AchievementProperties properties = new AchievementProperties(
+                dto.name,
+                dto.description,
+                dto.tags != null ? new HashSet<>(dto.tags) : new HashSet<>());
+        properties.setImage(dto.image);
+        return properties;
+    }
+
+    static AchievementStepDTO toAchievementStepDTO(AchievementStep step) {
+        if (step == null) {
+            return null;
+        }
+        final AchievementStepDTO dto = new AchievementStepDTO(step.getDescription());
+        dto.id = step.getId();
+        if (step.getPrerequisiteAchievement() != null) {
+            dto.prerequisite_achievement = UuidString.toString(step.getPrerequisiteAchievement().getId());
+        }
+        return dto;
+    }
+
+    /**
+     * The prerequisite achievement is not set since it has to be read from the database.
+     */
+    static AchievementStepProperties toAchievementStepProperties(AchievementStepDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        return new AchievementStepProperties(dto.description);
+    }
+
+    static ProgressDTO toProgressDTO(AchievementStepProgressProperties progress) {
+        if (progress == null) {
+            return null;
+        }
+        return new ProgressDTO(progress.isCompleted(), progress.getValue(), progress.getNote());
+    }
+
+    static ProgressEventDTO toProgressEventDTO(ProgressEvent event) {
+        return new ProgressEventDTO(
+                UuidString.toString(event.getAchievementId()),
+                event.getStepId(),
+                event.getPersonId(),
+                event.getValue(),
+                event.getAwarded());
+    }
+
+    /**
+     * The progress as stored in the audit log, i.e. the same JSON as in a request to set the progress of one step.
+     */
+    static String toProgressData(ProgressDTO progress) {
+        try {
+            return PROGRESS_WRITER.writeValueAsString(new ProgressDTO(progress.completed, progress.value, progress.note));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    static StepProgressRequestLogRecordDTO toStepProgressRequestLogRecordDTO(StepProgressAuditRecord record) {
+        if (record == null) {
+            return null;
+        }
+        final StepProgressRequestLogRecordDTO dto = new StepProgressRequestLogRecordDTO();
+        dto.user = toPersonBaseDTO(record.getUser());
+        dto.person = toPersonBaseDTO(record.getPerson());
+        dto.step = toAchievementStepDTO(record.getStep());
+        dto.date_time = record.getDateTime();
+        dto.http_method = record.getHttpMethod();
+        dto.response_code = record.getResponseCode();
+        if (record.getData() != null) {
+            try {
+                dto.data = PROGRESS_READER.readValue(record.getData());
+            } catch (IOException e) {
+                // TODO: Should this exception be accounted for?
+            }
+        }
+        return dto;
+    }
+}
@@ -10,6 +10,7 @@ import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.Group;
 import se.devscout.achievements.server.data.model.Organization;
 import se.devscout.achievements.server.data.model.Person;
+import se.devscout.achievements.server.filter.etag.ConditionalGet;
 import se.devscout.achievements.server.resources.auth.User;
 
 import javax.annotation.security.RolesAllowed;
@@ -37,6 +38,7 @@ public class GroupMembershipsResource extends AbstractResource {
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
     @UnitOfWork
     public List<GroupMembershipDTO> get(@PathParam("organizationId") UuidString organizationId,
                                         @PathParam("groupId") Integer groupId,
@@ -45,7 +47,7 @@ public class GroupMembershipsResource extends AbstractResource {
             final Organization organization = organizationsDao.read(organizationId.getUUID());
             final Group group = groupsDao.read(groupId);
             verifyParent(organization, null, group);
-            return dao.getMemberships(group).stream().map(p -> map(p, GroupMembershipDTO.class)).collect(Collectors.toList());
+            return dao.getMemberships(group).stream().map(DtoMappers::toGroupMembershipDTO).collect(Collectors.toList());
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException();
         }
@@ -4,12 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.dropwizard.auth.Auth;
 import io.dropwizard.hibernate.UnitOfWork;
 import se.devscout.achievements.server.api.GroupDTO;
+import se.devscout.achievements.server.api.OrganizationAchievementSummaryDTO;
 import se.devscout.achievements.server.api.OrganizationBaseDTO;
 import se.devscout.achievements.server.auth.Roles;
 import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.Group;
 import se.devscout.achievements.server.data.model.GroupProperties;
 import se.devscout.achievements.server.data.model.Organization;
+import se.devscout.achievements.server.filter.etag.ConditionalGet;
 import se.devscout.achievements.server.resources.auth.User;
 
 import javax.annotation.security.RolesAllowed;
@@ -28,22 +30,28 @@ public class GroupsResource extends AbstractResource {
     private GroupsDao dao;
     private OrganizationsDao organizationsDao;
     private ObjectMapper objectMapper;
+    private AchievementSummaryDao summaryDao;
+    private AchievementSummaryCache summaryCache;
 
-    public GroupsResource(GroupsDao dao, OrganizationsDao organizationsDao, AchievementsDao achievementsDao, ObjectMapper objectMapper) {
+    public GroupsResource(GroupsDao dao, OrganizationsDao organizationsDao, AchievementsDao achievementsDao, ObjectMapper objectMapper, AchievementSummaryDao summaryDao, AchievementSummaryCache summaryCache) {
         this.dao = dao;
         this.organizationsDao = organizationsDao;
         this.objectMapper = objectMapper;
+        this.summaryDao = summaryDao;
+        this.summaryCache = summaryCache;
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
     @UnitOfWork
     public List<GroupDTO> getByOrganization(@PathParam("organizationId") UuidString organizationId,
                                             @Auth User user) {
         final Organization organization = getOrganization(organizationId.getUUID());
-        return dao.getByParent(organization).stream().map(p -> map(p, GroupDTO.class)).collect(Collectors.toList());
+        return dao.getByParent(organization).stream().map(DtoMappers::toGroupDTO).collect(Collectors.toList());
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
     @Path("{groupId}")
     @UnitOfWork
     public GroupDTO get(@PathParam("organizationId") UuidString organizationId,
@@ -52,15 +60,32 @@ public class GroupsResource extends AbstractResource {
         try {
             final Group group = dao.read(id);
             verifyParent(organizationId.getUUID(), group);
-            final GroupDTO groupDTO = map(group, GroupDTO.class);
-//            groupDTO.people = group.getMembers().stream().map(membership -> map(membership.getPerson(), PersonBaseDTO.class)).collect(Collectors.toList());
-            groupDTO.organization = map(group.getOrganization(), OrganizationBaseDTO.class);
+            final GroupDTO groupDTO = DtoMappers.toGroupDTO(group);
+//            groupDTO.people = group.getMembers().stream().map(membership -> DtoMappers.toPersonBaseDTO(membership.getPerson())).collect(Collectors.toList());
+            groupDTO.organization = DtoMappers.toOrganizationBaseDTO(group.getOrganization());
             return groupDTO;
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException();
         }
     }
 
+    @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
+    @Path("{groupId}/achievement-summary")
+    @UnitOfWork
+    public OrganizationAchievementSummaryDTO getAchievementSummary(@PathParam("organizationId") UuidString organizationId,
+                                                                   @PathParam("groupId") Integer id,
+                                                                   @Auth User user) {
+        try {
+            final Group group = dao.read(id);
+            verifyParent(organizationId.getUUID(), group);
+
+            return summaryCache.get(group, () -> createAchievementSummaryDTO(summaryDao, group));
+        } catch (ObjectNotFoundException e) {
+            throw new NotFoundException();
+        }
+    }
+
     @POST
     @RolesAllowed(Roles.EDITOR)
     @UnitOfWork
@@ -69,12 +94,12 @@ public class GroupsResource extends AbstractResource {
                            GroupDTO input) {
         try {
             Organization organization = getOrganization(organizationId.getUUID());
-            final GroupProperties properties = map(input, GroupProperties.class);
+            final GroupProperties properties = DtoMappers.toGroupProperties(input);
             final Group group = dao.create(organization, properties);
             final URI location = uriInfo.getRequestUriBuilder().path(group.getId().toString()).build();
             return Response
                     .created(location)
-                    .entity(map(group, GroupDTO.class))
+                    .entity(DtoMappers.toGroupDTO(group))
                     .build();
         } catch (DuplicateCustomIdentifier e) {
             throw new WebApplicationException(Response.Status.CONFLICT);
@@ -102,10 +127,10 @@ public class GroupsResource extends AbstractResource {
                            GroupDTO input,
                            @Auth User user) {
         try {
-            final Group group = dao.update(id, map(input, GroupProperties.class));
+            final Group group = dao.update(id, DtoMappers.toGroupProperties(input));
             return Response
                     .ok()
-                    .entity(map(group, GroupDTO.class))
+                    .entity(DtoMappers.toGroupDTO(group))
                     .build();
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException("Could not find " + id.toString());
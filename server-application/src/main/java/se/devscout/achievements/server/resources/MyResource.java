@@ -15,6 +15,7 @@ import se.devscout.achievements.server.auth.password.SecretGenerator;
 import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.*;
 import se.devscout.achievements.server.filter.audit.Audited;
+import se.devscout.achievements.server.filter.etag.ConditionalGet;
 import se.devscout.achievements.server.mail.EmailSender;
 import se.devscout.achievements.server.mail.EmailSenderException;
 import se.devscout.achievements.server.mail.template.SetPasswordTemplate;
@@ -44,13 +45,17 @@ public class MyResource extends AbstractAuthResource {
     private final CredentialsDao credentialsDao;
     private final EmailSender emailSender;
     private final URI guiApplicationHost;
+    private final AchievementSummaryDao summaryDao;
+    private final AchievementSummaryCache summaryCache;
     private final SetPasswordTemplate template = new SetPasswordTemplate();
 
-    public MyResource(PeopleDao peopleDao, GroupsDao groupsDao, AchievementsDao achievementsDao, CredentialsDao credentialsDao, EmailSender emailSender, URI guiApplicationHost, JwtSignInTokenService signInTokenService, I18n i18n) {
+    public MyResource(PeopleDao peopleDao, GroupsDao groupsDao, AchievementsDao achievementsDao, CredentialsDao credentialsDao, EmailSender emailSender, URI guiApplicationHost, JwtSignInTokenService signInTokenService, I18n i18n, AchievementSummaryDao summaryDao, AchievementSummaryCache summaryCache) {
         super(signInTokenService, credentialsDao);
         this.peopleDao = peopleDao;
         this.groupsDao = groupsDao;
         this.achievementsDao = achievementsDao;
+        this.summaryDao = summaryDao;
+        this.summaryCache = summaryCache;
         this.credentialsDao = credentialsDao;
         this.emailSender = emailSender;
         this.guiApplicationHost = guiApplicationHost;
@@ -87,8 +92,8 @@ public class MyResource extends AbstractAuthResource {
         final boolean isGroupCreated = groupsCount > 0;
 
         return new PersonProfileDTO(
-                map(organization, OrganizationDTO.class),
-                map(person, PersonDTO.class),
+                DtoMappers.toOrganizationDTO(organization),
+                DtoMappers.toPersonDTO(person),
                 new GettingStartedDTO(
                         isOnlyPersonInOrganization,
                         // TODO: Implement support for sending, and counting, welcome letters
@@ -211,22 +216,24 @@ public class MyResource extends AbstractAuthResource {
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.USER_ORGANIZATION)
     @Path("people")
     @UnitOfWork
     public List<PersonBaseDTO> getMyPeople(@Auth User user) {
         final Person person = getPerson(user);
         return peopleDao.getByParent(person.getOrganization()).stream()
-                .map(p -> map(p, PersonBaseDTO.class))
+                .map(DtoMappers::toPersonBaseDTO)
                 .collect(Collectors.toList());
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.USER_ORGANIZATION)
     @Path("groups")
     @UnitOfWork
     public List<GroupBaseDTO> getMyGroups(@Auth User user) {
         final Person person = getPerson(user);
         return groupsDao.getByParent(person.getOrganization()).stream()
-                .map(p -> map(p, GroupBaseDTO.class))
+                .map(DtoMappers::toGroupBaseDTO)
                 .collect(Collectors.toList());
     }
 
@@ -240,14 +247,13 @@ public class MyResource extends AbstractAuthResource {
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.USER_ORGANIZATION)
     @Path("achievement-summary")
     @UnitOfWork
     public OrganizationAchievementSummaryDTO getMyAchievementsSummary(@Auth User user) {
         final Person person = getPerson(user);
 
-        final List<Achievement> achievements = achievementsDao.findWithProgressForPerson(person);
-
-        final OrganizationAchievementSummaryDTO summary = createAchievementSummaryDTO(achievements, person, person.getOrganization(), peopleDao);
+        final OrganizationAchievementSummaryDTO summary = summaryCache.get(person, () -> createAchievementSummaryDTO(summaryDao, person));
 
         return summary;
     }
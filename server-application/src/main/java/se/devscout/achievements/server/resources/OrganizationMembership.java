@@ -0,0 +1,26 @@
+package se.devscout.achievements.server.resources;
+
+import io.dropwizard.hibernate.UnitOfWork;
+import se.devscout.achievements.server.data.dao.ObjectNotFoundException;
+import se.devscout.achievements.server.data.dao.PeopleDao;
+import se.devscout.achievements.server.resources.auth.User;
+
+import java.util.UUID;
+
+/**
+ * Looks up the organization of the signed in user in a session of its own. Meant for resource methods which cannot
+ * use {@link UnitOfWork} themselves, like streaming responses which would otherwise keep the session open for as long
+ * as the client is connected. Create instances using {@link io.dropwizard.hibernate.UnitOfWorkAwareProxyFactory}.
+ */
+public class OrganizationMembership {
+    private final PeopleDao peopleDao;
+
+    public OrganizationMembership(PeopleDao peopleDao) {
+        this.peopleDao = peopleDao;
+    }
+
+    @UnitOfWork(transactional = false)
+    public UUID getOrganizationId(User user) throws ObjectNotFoundException {
+        return peopleDao.read(user.getPersonId()).getOrganization().getId();
+    }
+}
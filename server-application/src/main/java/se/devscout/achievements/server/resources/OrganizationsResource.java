@@ -7,13 +7,14 @@ import se.devscout.achievements.server.api.OrganizationBaseDTO;
 import se.devscout.achievements.server.api.OrganizationDTO;
 import se.devscout.achievements.server.auth.Roles;
 import se.devscout.achievements.server.data.dao.*;
-import se.devscout.achievements.server.data.model.Achievement;
 import se.devscout.achievements.server.data.model.Organization;
 import se.devscout.achievements.server.data.model.OrganizationProperties;
+import se.devscout.achievements.server.filter.etag.ConditionalGet;
 import se.devscout.achievements.server.resources.auth.User;
 
 import javax.annotation.security.RolesAllowed;
 import javax.ws.rs.*;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.net.URI;
@@ -27,37 +28,48 @@ public class OrganizationsResource extends AbstractResource {
     private OrganizationsDao dao;
     private AchievementsDao achievementsDao;
     private PeopleDao peopleDao;
+    private AchievementSummaryDao summaryDao;
+    private AchievementSummaryCache summaryCache;
+    private SerializedResponseCache responseCache;
 //    private AuthResourceUtil authResourceUtil;
 
-    public OrganizationsResource(OrganizationsDao dao, AchievementsDao achievementsDao,/*, AuthResourceUtil authResourceUtil*/PeopleDao peopleDao) {
+    public OrganizationsResource(OrganizationsDao dao, AchievementsDao achievementsDao,/*, AuthResourceUtil authResourceUtil*/PeopleDao peopleDao, AchievementSummaryDao summaryDao, AchievementSummaryCache summaryCache, SerializedResponseCache responseCache) {
         this.dao = dao;
         this.achievementsDao = achievementsDao;
 //        this.authResourceUtil = authResourceUtil;
         this.peopleDao = peopleDao;
+        this.summaryDao = summaryDao;
+        this.summaryCache = summaryCache;
+        this.responseCache = responseCache;
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
     @Path("{organizationId}")
     @UnitOfWork
     public OrganizationDTO get(@PathParam("organizationId") UuidString id, @Auth User user) {
         try {
             final Organization organization = dao.read(id.getUUID());
-            return map(organization, OrganizationDTO.class);
+            return DtoMappers.toOrganizationDTO(organization);
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException();
         }
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
     @Path("{organizationId}/basic")
-    @UnitOfWork
-    public OrganizationBaseDTO getBasic(@PathParam("organizationId") UuidString id) {
-        try {
-            final Organization organization = dao.read(id.getUUID());
-            return map(organization, OrganizationBaseDTO.class);
-        } catch (ObjectNotFoundException e) {
-            throw new NotFoundException();
-        }
+    @UnitOfWork(transactional = false)
+    public Response getBasic(@PathParam("organizationId") UuidString id,
+                             @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+        return responseCache.getOrganization(id.getUUID(), "organizations/" + id.getValue() + "/basic", acceptEncoding, () -> {
+            try {
+                final Organization organization = dao.read(id.getUUID());
+                return DtoMappers.toOrganizationBaseDTO(organization);
+            } catch (ObjectNotFoundException e) {
+                throw new NotFoundException();
+            }
+        });
     }
 
 /*
@@ -80,15 +92,14 @@ public class OrganizationsResource extends AbstractResource {
 */
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
     @Path("{organizationId}/achievement-summary")
     @UnitOfWork
     public OrganizationAchievementSummaryDTO getAchievementSummary(@PathParam("organizationId") UuidString id, @Auth User user) {
         try {
             final Organization organization = dao.read(id.getUUID());
 
-            final List<Achievement> achievements = achievementsDao.findWithProgressForOrganization(organization);
-
-            final OrganizationAchievementSummaryDTO summary = createAchievementSummaryDTO(achievements, null, organization, peopleDao);
+            final OrganizationAchievementSummaryDTO summary = summaryCache.get(organization, () -> createAchievementSummaryDTO(summaryDao, organization));
 
             return summary;
         } catch (ObjectNotFoundException e) {
@@ -100,7 +111,7 @@ public class OrganizationsResource extends AbstractResource {
     @UnitOfWork
     public List<OrganizationDTO> find(@QueryParam("filter") String filter, @Auth User user) {
         try {
-            return dao.find(filter).stream().map(o -> map(o, OrganizationDTO.class)).collect(Collectors.toList());
+            return dao.find(filter).stream().map(DtoMappers::toOrganizationDTO).collect(Collectors.toList());
         } catch (IllegalArgumentException e) {
             throw new BadRequestException(e.getMessage());
         }
@@ -112,12 +123,12 @@ public class OrganizationsResource extends AbstractResource {
     public Response create(OrganizationDTO input,
                            @Auth User user) {
         try {
-            final Organization organization = dao.create(map(input, OrganizationProperties.class));
+            final Organization organization = dao.create(DtoMappers.toOrganizationProperties(input));
             // TODO: Send welcome mail?
             final URI location = uriInfo.getRequestUriBuilder().path(UuidString.toString(organization.getId())).build();
             return Response
                     .created(location)
-                    .entity(map(organization, OrganizationDTO.class))
+                    .entity(DtoMappers.toOrganizationDTO(organization))
                     .build();
         } catch (DaoException e) {
             return Response.serverError().build();
@@ -132,10 +143,10 @@ public class OrganizationsResource extends AbstractResource {
                            OrganizationDTO input,
                            @Auth User user) {
         try {
-            final Organization organization = dao.update(id.getUUID(), map(input, OrganizationProperties.class));
+            final Organization organization = dao.update(id.getUUID(), DtoMappers.toOrganizationProperties(input));
             return Response
                     .ok()
-                    .entity(map(organization, OrganizationDTO.class))
+                    .entity(DtoMappers.toOrganizationDTO(organization))
                     .build();
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException("Could not find " + id.toString());
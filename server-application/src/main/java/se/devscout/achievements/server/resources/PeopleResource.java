@@ -3,6 +3,7 @@ package se.devscout.achievements.server.resources;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
+import com.google.common.io.BaseEncoding;
 import com.google.common.io.Files;
 import io.dropwizard.auth.Auth;
 import io.dropwizard.hibernate.UnitOfWork;
@@ -22,6 +23,8 @@ import se.devscout.achievements.server.data.importer.PeopleDataSource;
 import se.devscout.achievements.server.data.importer.PeopleDataSourceException;
 import se.devscout.achievements.server.data.importer.RepetDataSource;
 import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.data.search.PrefixIndex;
+import se.devscout.achievements.server.filter.etag.ConditionalGet;
 import se.devscout.achievements.server.mail.EmailSender;
 import se.devscout.achievements.server.mail.EmailSenderException;
 import se.devscout.achievements.server.mail.template.WelcomeUserTemplate;
@@ -51,6 +54,8 @@ public class PeopleResource extends AbstractResource {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PeopleResource.class);
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private PeopleDao dao;
     private OrganizationsDao organizationsDao;
     private AchievementsDao achievementsDao;
@@ -62,11 +67,17 @@ public class PeopleResource extends AbstractResource {
     private URI guiApplicationHost;
     private EmailSender emailSender;
     private I18n i18n;
+    private AchievementSummaryDao summaryDao;
+    private AchievementSummaryCache summaryCache;
+    private TypeaheadCache typeaheadCache;
 
-    public PeopleResource(PeopleDao dao, OrganizationsDao organizationsDao, AchievementsDao achievementsDao, ObjectMapper objectMapper, GroupsDao groupsDao, GroupMembershipsDao membershipsDao, URI guiApplicationHost, EmailSender emailSender, I18n i18n) {
+    public PeopleResource(PeopleDao dao, OrganizationsDao organizationsDao, AchievementsDao achievementsDao, ObjectMapper objectMapper, GroupsDao groupsDao, GroupMembershipsDao membershipsDao, URI guiApplicationHost, EmailSender emailSender, I18n i18n, AchievementSummaryDao summaryDao, AchievementSummaryCache summaryCache, TypeaheadCache typeaheadCache) {
         this.dao = dao;
         this.organizationsDao = organizationsDao;
         this.achievementsDao = achievementsDao;
+        this.summaryDao = summaryDao;
+        this.summaryCache = summaryCache;
+        this.typeaheadCache = typeaheadCache;
         this.objectMapper = objectMapper;
         this.groupsDao = groupsDao;
         this.membershipsDao = membershipsDao;
@@ -84,21 +95,117 @@ public class PeopleResource extends AbstractResource {
         this.i18n = i18n;
     }
 
+    /**
+     * Returns the people in the organization, sorted by name. The list is paginated if a limit is specified, in which
+     * case the response has a Link header pointing to the next page unless the last page has been reached.
+     */
+    @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
+    @UnitOfWork
+    public Response getByOrganization(@PathParam("organizationId") UuidString organizationId,
+                                      @QueryParam("filter") String filter,
+                                      @QueryParam("group") String group,
+                                      @QueryParam("after") String after,
+                                      @QueryParam("limit") Integer limit,
+                                      @Auth User user) {
+        final Organization organization = getOrganization(organizationId.getUUID());
+        final Integer groupId = parseGroupId(group);
+        final Cursor cursor = !Strings.isNullOrEmpty(after) ? Cursor.parse(after) : null;
+        if (limit != null && limit < 1) {
+            throw new BadRequestException("The limit must be a positive number.");
+        }
+        final int pageSize = limit != null ? Math.min(limit, MAX_PAGE_SIZE) : Integer.MAX_VALUE - 1;
+
+        // One extra person is read to find out if there is a next page
+        final List<Person> people = dao.getByParent(
+                organization,
+                filter,
+                groupId,
+                cursor != null ? cursor.name : null,
+                cursor != null ? cursor.id : null,
+                pageSize + 1);
+
+        final List<Person> page = people.subList(0, Math.min(people.size(), pageSize));
+        final Response.ResponseBuilder response = Response.ok(page.stream()
+                .map(DtoMappers::toPersonBaseDTO)
+                .collect(Collectors.toList()));
+        if (people.size() > pageSize) {
+            final Person last = page.get(page.size() - 1);
+            final URI next = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("after", new Cursor(last.getName(), last.getId()).toString())
+                    .replaceQueryParam("limit", pageSize)
+                    .build();
+            response.link(next, "next");
+        }
+        return response.build();
+    }
+
+    private static Integer parseGroupId(String group) {
+        if (Strings.isNullOrEmpty(group)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(group);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid group id " + group);
+        }
+    }
+
+    /**
+     * Position in the list of people, i.e. the name and id of the last person on the previous page. Clients should
+     * treat it as an opaque string.
+     */
+    private static class Cursor {
+        private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+
+        private final String name;
+        private final Integer id;
+
+        Cursor(String name, Integer id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        static Cursor parse(String str) {
+            try {
+                final String decoded = new String(ENCODING.decode(str), Charsets.UTF_8);
+                final int separator = decoded.indexOf(':');
+                return new Cursor(decoded.substring(separator + 1), Integer.parseInt(decoded.substring(0, separator)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new BadRequestException("Invalid value for after");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return ENCODING.encode((id + ":" + name).getBytes(Charsets.UTF_8));
+        }
+    }
+
+    /**
+     * Lightweight alternative to {@link #getByOrganization} for pickers which let the user type the first letters of a
+     * name.
+     */
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
+    @Path("typeahead")
     @UnitOfWork
-    public List<PersonBaseDTO> getByOrganization(@PathParam("organizationId") UuidString organizationId,
-                                                 @QueryParam("filter") String filter,
-                                                 @QueryParam("group") String group,
-                                                 @Auth User user) {
+    public List<PersonBaseDTO> typeahead(@PathParam("organizationId") UuidString organizationId,
+                                         @QueryParam("q") String query,
+                                         @QueryParam("limit") @DefaultValue(DEFAULT_TYPEAHEAD_LIMIT) int limit,
+                                         @Auth User user) {
         final Organization organization = getOrganization(organizationId.getUUID());
-        return dao.getByParent(organization).stream()
-                .filter(person -> Strings.isNullOrEmpty(filter) || person.getName().toLowerCase().contains(filter.trim().toLowerCase()))
-                .filter(person -> Strings.isNullOrEmpty(group) || person.getMemberships().stream().anyMatch(membership -> membership.getGroup().getId().equals(Integer.parseInt(group))))
-                .map(p -> map(p, PersonBaseDTO.class))
-                .collect(Collectors.toList());
+        return typeaheadCache
+                .getPeople(organization, () -> new PrefixIndex<>(
+                        dao.getByParent(organization).stream()
+                                .map(person -> new PersonBaseDTO(person.getId(), person.getName()))
+                                .collect(Collectors.toList()),
+                        dto -> dto.name))
+                .search(query, typeaheadLimit(limit));
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
     @Path("{personId}")
     @RolesAllowed(Roles.EDITOR)
     @UnitOfWork
@@ -107,8 +214,8 @@ public class PeopleResource extends AbstractResource {
                          @Auth User user) {
         try {
             final Person person = getPerson(organizationId, id);
-            final PersonDTO personDTO = map(person, PersonDTO.class);
-            personDTO.organization = map(person.getOrganization(), OrganizationBaseDTO.class);
+            final PersonDTO personDTO = DtoMappers.toPersonDTO(person);
+            personDTO.organization = DtoMappers.toOrganizationBaseDTO(person.getOrganization());
             return personDTO;
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException();
@@ -205,6 +312,7 @@ public class PeopleResource extends AbstractResource {
     }
 
     @GET
+    @ConditionalGet(ConditionalGet.Scope.ORGANIZATION)
     @Path("{personId}/achievement-summary")
     @UnitOfWork
     public OrganizationAchievementSummaryDTO getAchievementSummary(@PathParam("organizationId") UuidString organizationId,
@@ -214,9 +322,7 @@ public class PeopleResource extends AbstractResource {
             final Person person = dao.read(id);
             verifyParent(organizationId.getUUID(), person);
 
-            final List<Achievement> achievements = achievementsDao.findWithProgressForPerson(person);
-
-            final OrganizationAchievementSummaryDTO summary = createAchievementSummaryDTO(achievements, person, person.getOrganization(), dao);
+            final OrganizationAchievementSummaryDTO summary = summaryCache.get(person, () -> createAchievementSummaryDTO(summaryDao, person));
 
             return summary;
         } catch (ObjectNotFoundException e) {
@@ -234,13 +340,13 @@ public class PeopleResource extends AbstractResource {
         try {
             checkRoleEscalation(input, user);
             Organization organization = getOrganization(organizationId.getUUID());
-            final PersonProperties properties = map(input, PersonProperties.class);
+            final PersonProperties properties = DtoMappers.toPersonProperties(input);
             properties.setRole(Roles.READER);
             final Person person = dao.create(organization, properties);
             final URI location = uriInfo.getRequestUriBuilder().path(person.getId().toString()).build();
             return Response
                     .created(location)
-                    .entity(map(person, PersonDTO.class))
+                    .entity(DtoMappers.toPersonDTO(person))
                     .build();
         } catch (DuplicateCustomIdentifier e) {
             throw new WebApplicationException(Response.Status.CONFLICT);
@@ -268,7 +374,7 @@ public class PeopleResource extends AbstractResource {
         for (PersonDTO dto : people) {
             try {
                 Person person;
-                final PersonProperties newProperties = map(dto, PersonProperties.class);
+                final PersonProperties newProperties = DtoMappers.toPersonProperties(dto);
                 try {
                     if (dto.id != null && dto.id > 0) {
                         person = dao.read(dto.id);
@@ -278,10 +384,10 @@ public class PeopleResource extends AbstractResource {
 
                     checkSelfEditing(person.getId(), user);
 
-                    person = !isDryRun ? dao.update(person.getId(), newProperties) : map(newProperties, Person.class);
+                    person = !isDryRun ? dao.update(person.getId(), newProperties) : DtoMappers.toPerson(newProperties);
                     result.add(new UpsertPersonResultDTO(new PersonBaseDTO(person.getId(), person.getName()), false));
                 } catch (ObjectNotFoundException e) {
-                    person = !isDryRun ? dao.create(organization, newProperties) : map(newProperties, Person.class);
+                    person = !isDryRun ? dao.create(organization, newProperties) : DtoMappers.toPerson(newProperties);
                     result.add(new UpsertPersonResultDTO(new PersonBaseDTO(person.getId(), person.getName()), true));
                 }
                 if (dto.groups != null && !isDryRun) {
@@ -464,10 +570,10 @@ public class PeopleResource extends AbstractResource {
         try {
             checkRoleEscalation(input, user);
             checkSelfEditing(id, user);
-            final Person person = dao.update(id, map(input, PersonProperties.class));
+            final Person person = dao.update(id, DtoMappers.toPersonProperties(input));
             return Response
                     .ok()
-                    .entity(map(person, PersonDTO.class))
+                    .entity(DtoMappers.toPersonDTO(person))
                     .build();
         } catch (ObjectNotFoundException e) {
             throw new NotFoundException("Could not find " + id.toString());
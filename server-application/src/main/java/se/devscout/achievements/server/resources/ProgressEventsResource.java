@@ -0,0 +1,81 @@
+package se.devscout.achievements.server.resources;
+
+import io.dropwizard.auth.Auth;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.glassfish.jersey.media.sse.SseFeature;
+import se.devscout.achievements.server.api.ProgressEventDTO;
+import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.ProgressEvent;
+import se.devscout.achievements.server.data.ProgressEvents;
+import se.devscout.achievements.server.data.dao.ObjectNotFoundException;
+import se.devscout.achievements.server.resources.auth.User;
+
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams changes to the progress of the people in an organization, so that clients showing progress do not have to
+ * poll for it. Clients should reload what they show when they (re)connect since events are not stored.
+ * <p>
+ * The resource method does not use a unit of work since that would keep a database session open for as long as the
+ * client is connected.
+ */
+@Path("organizations/{organizationId}/progress-events")
+public class ProgressEventsResource extends AbstractResource {
+    private final ProgressEvents events;
+    private final OrganizationMembership membership;
+
+    public ProgressEventsResource(ProgressEvents events, OrganizationMembership membership) {
+        this.events = events;
+        this.membership = membership;
+    }
+
+    @GET
+    @RolesAllowed(Roles.READER)
+    @Produces(SseFeature.SERVER_SENT_EVENTS)
+    public EventOutput get(@PathParam("organizationId") UuidString organizationId,
+                           @Auth User user) {
+        try {
+            final UUID userOrganizationId = membership.getOrganizationId(user);
+            if (!userOrganizationId.equals(organizationId.getUUID())) {
+                throw new NotFoundException();
+            }
+        } catch (ObjectNotFoundException e) {
+            throw new NotFoundException();
+        }
+
+        final EventOutput output = new EventOutput();
+        events.subscribe(organizationId.getUUID(), new ProgressEvents.Subscriber() {
+            @Override
+            public void onEvents(List<ProgressEvent> list) throws IOException {
+                for (ProgressEvent event : list) {
+                    output.write(new OutboundEvent.Builder()
+                            .name(event.getType() == ProgressEvent.Type.AWARD ? "award" : "progress")
+                            .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                            .data(ProgressEventDTO.class, DtoMappers.toProgressEventDTO(event))
+                            .build());
+                }
+            }
+
+            @Override
+            public void onHeartbeat() throws IOException {
+                output.write(new OutboundEvent.Builder().comment("heartbeat").build());
+            }
+
+            @Override
+            public void onClose() {
+                try {
+                    output.close();
+                } catch (IOException | IllegalStateException e) {
+                    // The client has most likely gone away already, or Jersey has been shut down
+                }
+            }
+        });
+        return output;
+    }
+}
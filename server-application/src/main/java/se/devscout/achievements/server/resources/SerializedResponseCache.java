@@ -0,0 +1,122 @@
+package se.devscout.achievements.server.resources;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Splitter;
+import se.devscout.achievements.server.data.OrganizationVersions;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounded cache of responses which have already been serialized to JSON, and gzipped, for read-only resources which
+ * are requested much more often than they change. A cache hit skips both the mapping to DTOs and the serialization,
+ * and the bytes are written to the response as-is.
+ * <p>
+ * The responses are kept in a {@link VersionedCache} using the current version numbers from
+ * {@link OrganizationVersions}. The cache is bounded by the total number of bytes stored.
+ */
+public class SerializedResponseCache {
+
+    /**
+     * Smaller responses are not worth compressing. Same as the default minimum size of the gzip handler.
+     */
+    static final int GZIP_MINIMUM_SIZE = 256;
+
+    private static class Entry {
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Entry(byte[] json, byte[] gzip) {
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        int getSize() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    private final VersionedCache<Entry> cache;
+
+    private final OrganizationVersions versions;
+    private final ObjectMapper objectMapper;
+
+    public SerializedResponseCache(OrganizationVersions versions, ObjectMapper objectMapper, long maximumBytes, MetricRegistry metrics) {
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        this.cache = new VersionedCache<>(SerializedResponseCache.class.getName(), maximumBytes, Entry::getSize, metrics);
+
+        metrics.register(MetricRegistry.name(SerializedResponseCache.class, "hit-ratio"), (Gauge<Double>) () -> cache.stats().hitRate());
+        metrics.register(MetricRegistry.name(SerializedResponseCache.class, "bytes"), (Gauge<Long>) () -> cache.values().stream()
+                .mapToLong(Entry::getSize)
+                .sum());
+    }
+
+    /**
+     * Returns a response for a resource which only depends on the achievements.
+     */
+    public Response getAchievements(String resource, String acceptEncoding, Supplier<?> loader) {
+        return get(resource, versions.getGlobal(), acceptEncoding, loader);
+    }
+
+    /**
+     * Returns a response for a resource which only depends on the data in one organization, and the achievements.
+     */
+    public Response getOrganization(UUID organizationId, String resource, String acceptEncoding, Supplier<?> loader) {
+        return get(resource, versions.get(organizationId), acceptEncoding, loader);
+    }
+
+    private Response get(String resource, long version, String acceptEncoding, Supplier<?> loader) {
+        final Entry entry = cache.get(resource, null, version, () -> serialize(loader.get()));
+
+        if (entry.gzip != null && acceptsGzip(acceptEncoding)) {
+            return Response.ok(entry.gzip, MediaType.APPLICATION_JSON_TYPE)
+                    .encoding("gzip")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        return Response.ok(entry.json, MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    private Entry serialize(Object value) throws JsonProcessingException {
+        final byte[] json = objectMapper.writeValueAsBytes(value);
+        return new Entry(json, json.length >= GZIP_MINIMUM_SIZE ? gzip(json) : null);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        } catch (IOException e) {
+            // Cannot happen when writing to a byte array
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : Splitter.on(',').trimResults().omitEmptyStrings().split(acceptEncoding)) {
+            final String[] parts = coding.split(";", 2);
+            final String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
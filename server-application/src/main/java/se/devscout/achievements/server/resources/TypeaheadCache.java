@@ -0,0 +1,38 @@
+package se.devscout.achievements.server.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import se.devscout.achievements.server.api.AchievementBaseDTO;
+import se.devscout.achievements.server.api.PersonBaseDTO;
+import se.devscout.achievements.server.data.OrganizationVersions;
+import se.devscout.achievements.server.data.model.Organization;
+import se.devscout.achievements.server.data.search.PrefixIndex;
+
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the prefix indexes used by the typeahead endpoints. There is one index with the people in each
+ * organization and one with all achievements. The indexes are kept in a {@link VersionedCache} using the current
+ * version numbers from {@link OrganizationVersions}, so an index is rebuilt on first use after a committed change. The
+ * people indexes use the people version, so progress and awards do not cause them to be rebuilt.
+ */
+public class TypeaheadCache {
+
+    private final VersionedCache<PrefixIndex<?>> cache;
+
+    private final OrganizationVersions versions;
+
+    public TypeaheadCache(OrganizationVersions versions, long maximumSize, MetricRegistry metrics) {
+        this.versions = versions;
+        this.cache = new VersionedCache<>(TypeaheadCache.class.getName(), maximumSize, metrics);
+    }
+
+    @SuppressWarnings("unchecked")
+    public PrefixIndex<PersonBaseDTO> getPeople(Organization organization, Supplier<PrefixIndex<PersonBaseDTO>> loader) {
+        return (PrefixIndex<PersonBaseDTO>) cache.get("people", organization.getId(), versions.getPeople(organization.getId()), loader::get);
+    }
+
+    @SuppressWarnings("unchecked")
+    public PrefixIndex<AchievementBaseDTO> getAchievements(Supplier<PrefixIndex<AchievementBaseDTO>> loader) {
+        return (PrefixIndex<AchievementBaseDTO>) cache.get("achievements", null, versions.getGlobal(), loader::get);
+    }
+}
@@ -0,0 +1,108 @@
+package se.devscout.achievements.server.resources;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import se.devscout.achievements.server.data.OrganizationVersions;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded cache where the keys include a version number, usually from {@link OrganizationVersions}. Entries become
+ * unreachable, and eventually evicted, as soon as the version they were loaded for has been replaced by a newer one.
+ * <p>
+ * The version must be read before the value is loaded. A value loaded from data which is changed while it is being
+ * loaded is then stored using an already outdated key, and will never be returned.
+ */
+public class VersionedCache<V> {
+
+    private static class Key {
+        private final String type;
+        private final Object id;
+        private final long version;
+
+        Key(String type, Object id, long version) {
+            this.type = type;
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return version == key.version &&
+                    Objects.equal(type, key.type) &&
+                    Objects.equal(id, key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(type, id, version);
+        }
+    }
+
+    private final Cache<Key, V> cache;
+
+    /**
+     * Creates a cache bounded by the number of entries.
+     *
+     * @param name prefix of the names of the metrics, usually the name of the class using the cache.
+     */
+    public VersionedCache(String name, long maximumSize, MetricRegistry metrics) {
+        this(name, CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build(), metrics);
+    }
+
+    /**
+     * Creates a cache bounded by the total weight of the entries.
+     *
+     * @param name prefix of the names of the metrics, usually the name of the class using the cache.
+     */
+    public VersionedCache(String name, long maximumWeight, ToIntFunction<V> weigher, MetricRegistry metrics) {
+        this(name, CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Key key, V value) -> weigher.applyAsInt(value))
+                .recordStats()
+                .build(), metrics);
+    }
+
+    private VersionedCache(String name, Cache<Key, V> cache, MetricRegistry metrics) {
+        this.cache = cache;
+
+        metrics.register(MetricRegistry.name(name, "hits"), (Gauge<Long>) () -> cache.stats().hitCount());
+        metrics.register(MetricRegistry.name(name, "misses"), (Gauge<Long>) () -> cache.stats().missCount());
+        metrics.register(MetricRegistry.name(name, "evictions"), (Gauge<Long>) () -> cache.stats().evictionCount());
+        metrics.register(MetricRegistry.name(name, "size"), (Gauge<Long>) cache::size);
+    }
+
+    /**
+     * @param type    what kind of value is cached, for when the same kind of identifier is used for different values.
+     * @param id      identifies the value within the type, may be null.
+     * @param version the version number read before calling this method.
+     */
+    public V get(String type, Object id, long version, Callable<? extends V> loader) {
+        try {
+            return cache.get(new Key(type, id, version), loader);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public Collection<V> values() {
+        return cache.asMap().values();
+    }
+}
@@ -57,12 +57,14 @@ public class AchievementStepProgressAcceptanceTest {
         AchievementStepDTO stepDto = responseStep.readEntity(AchievementStepDTO.class);
         assertThat(stepDto.description).isEqualTo("Get yourself a Rubik's cube");
 
-        Response responseOrg = TestUtil.request(client, String.format("http://localhost:%d/api/organizations", RULE.getLocalPort()))
-                .post(Entity.json(new OrganizationDTO(null, "Name")));
+        // The person is added to the editor's own organization since the progress history only includes its members
+        final Response responseProfile = TestUtil.request(client, String.format("http://localhost:%d/api/my/profile", RULE.getLocalPort()))
+                .get();
 
-        assertThat(responseOrg.getStatus()).isEqualTo(HttpStatus.CREATED_201);
+        assertThat(responseProfile.getStatus()).isEqualTo(HttpStatus.OK_200);
+        final String organizationId = responseProfile.readEntity(PersonProfileDTO.class).organization.id;
 
-        final Response responsePerson = TestUtil.request(client, responseOrg.getLocation() + "/people")
+        final Response responsePerson = TestUtil.request(client, String.format("http://localhost:%d/api/organizations/%s/people", RULE.getLocalPort(), organizationId))
                 .post(Entity.json(new PersonDTO(null, "Alice")));
 
         assertThat(responsePerson.getStatus()).isEqualTo(HttpStatus.CREATED_201);
@@ -356,6 +358,50 @@ public class AchievementStepProgressAcceptanceTest {
 
     }
 
+    @Test
+    public void setProgressBatch_someItemsInvalid() {
+        Client client = createClient();
+
+        final List<StepProgressRequestLogRecordDTO> logRecordsBefore = getProgressHistory(client);
+
+        final Response response = TestUtil.request(client, String.format("http://localhost:%d/api/achievements/%s/progress", RULE.getLocalPort(), achievementId))
+                .post(Entity.json(Arrays.asList(
+                        new StepProgressDTO(Integer.valueOf(stepId), Integer.valueOf(personId), null, 60, "Batch update"),
+                        new StepProgressDTO(Integer.valueOf(stepId), Integer.MAX_VALUE, true, null, "Unknown person"),
+                        new StepProgressDTO(Integer.MAX_VALUE, Integer.valueOf(personId), true, null, "Unknown step"),
+                        new StepProgressDTO(Integer.valueOf(stepId), Integer.valueOf(personId), null, 10000, "Too much progress"))));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+        final List<StepProgressResultDTO> results = response.readEntity(new GenericType<List<StepProgressResultDTO>>() {
+        });
+        assertThat(results).extracting(result -> result.status).containsExactly(
+                HttpStatus.OK_200,
+                HttpStatus.NOT_FOUND_404,
+                HttpStatus.NOT_FOUND_404,
+                HttpStatus.BAD_REQUEST_400);
+
+        assertProgress(client, 60, false, "Batch update");
+
+        final List<StepProgressRequestLogRecordDTO> logRecordsAfter = getProgressHistory(client);
+        assertThat(logRecordsAfter).hasSize(logRecordsBefore.size() + 1);
+        final StepProgressRequestLogRecordDTO logRecord = logRecordsAfter.get(logRecordsAfter.size() - 1);
+        assertThat(logRecord.user.name).isEqualTo("Alice Editor");
+        assertThat(logRecord.person.name).isEqualTo("Alice");
+        assertThat(logRecord.http_method).isEqualTo(HttpMethod.POST);
+        assertThat(logRecord.data.value).isEqualTo(60);
+        assertThat(logRecord.data.note).isEqualTo("Batch update");
+    }
+
+    @Test
+    public void setProgressBatch_empty_badRequest() {
+        Client client = createClient();
+
+        final Response response = TestUtil.request(client, String.format("http://localhost:%d/api/achievements/%s/progress", RULE.getLocalPort(), achievementId))
+                .post(Entity.json(Collections.emptyList()));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+
     private String progressEndpoint(String personId, String achievementId, String stepId) {
         return String.format("http://localhost:%d/api/achievements/%s/steps/%s/progress/%s", RULE.getLocalPort(), achievementId, stepId, personId);
     }
@@ -50,6 +50,7 @@ public class AuthenticationAcceptanceTest {
                 .add(String.format("http://localhost:%d/api/organizations/%s/signup", RULE.getLocalPort(), RANDOM_ORG_ID))
                 .add(String.format("http://localhost:%d/api/organizations/%s/basic", RULE.getLocalPort(), RANDOM_ORG_ID))
                 .add(String.format("http://localhost:%d/api/achievements", RULE.getLocalPort()))
+                .add(String.format("http://localhost:%d/api/achievements/typeahead", RULE.getLocalPort()))
                 .add(String.format("http://localhost:%d/api/achievements/%s", RULE.getLocalPort(), RANDOM_ACHIEVEMENT_ID))
                 .add(String.format("http://localhost:%d/api/achievements/%s/steps", RULE.getLocalPort(), RANDOM_ACHIEVEMENT_ID))
                 .add(String.format("http://localhost:%d/api/achievements/%s/steps/1", RULE.getLocalPort(), RANDOM_ACHIEVEMENT_ID))
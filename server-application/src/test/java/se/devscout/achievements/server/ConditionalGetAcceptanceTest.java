@@ -0,0 +1,145 @@
+package se.devscout.achievements.server;
+
+import com.google.common.io.ByteStreams;
+import io.dropwizard.testing.ResourceHelpers;
+import io.dropwizard.testing.junit.DropwizardAppRule;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import se.devscout.achievements.server.api.AchievementDTO;
+import se.devscout.achievements.server.api.GroupDTO;
+import se.devscout.achievements.server.api.PersonDTO;
+import se.devscout.achievements.server.auth.Roles;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConditionalGetAcceptanceTest {
+    @ClassRule
+    public static final DropwizardAppRule<AchievementsApplicationConfiguration> RULE =
+            new DropwizardAppRule<>(
+                    MockAchievementsApplication.class,
+                    ResourceHelpers.resourceFilePath("server-test-configuration.yaml"));
+    private static String organizationId;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Client client = RULE.client();
+
+        final Response response = TestUtil.request(client, String.format("http://localhost:%d/tasks/bootstrap-data", RULE.getAdminPort()))
+                .post(null);
+        final String bootstrapResponse = response.readEntity(String.class);
+        final Matcher matcher = Pattern.compile("Created organization.* \\(id (.+)\\)").matcher(bootstrapResponse);
+        matcher.find();
+        organizationId = matcher.group(1);
+    }
+
+    @Test
+    public void people_unchanged_notModified() {
+        final String peopleUrl = String.format("http://localhost:%d/api/organizations/%s/people", RULE.getLocalPort(), organizationId);
+
+        final String etag = getEntityTag(peopleUrl);
+
+        final Response notModifiedResponse = conditionalGet(peopleUrl, etag);
+        assertThat(notModifiedResponse.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED_304);
+        assertThat(notModifiedResponse.getHeaderString(HttpHeaders.ETAG)).isEqualTo(etag);
+
+        final Response createResponse = TestUtil.request(RULE.client(), peopleUrl)
+                .post(Entity.json(new PersonDTO(null, "Randall", Roles.READER)));
+        assertThat(createResponse.getStatus()).isEqualTo(HttpStatus.CREATED_201);
+
+        final Response modifiedResponse = conditionalGet(peopleUrl, etag);
+        assertThat(modifiedResponse.getStatus()).isEqualTo(HttpStatus.OK_200);
+        assertThat(modifiedResponse.getHeaderString(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(modifiedResponse.readEntity(String.class)).contains("Randall");
+    }
+
+    @Test
+    public void groups_otherOrganizationChanged_notModified() {
+        final String groupsUrl = String.format("http://localhost:%d/api/organizations/%s/groups", RULE.getLocalPort(), organizationId);
+        final String myGroupsUrl = String.format("http://localhost:%d/api/my/groups", RULE.getLocalPort());
+
+        final String etag = getEntityTag(groupsUrl);
+        final String myEtag = getEntityTag(myGroupsUrl);
+
+        // The signed in user belongs to another organization than the bootstrapped one
+        final Response createResponse = TestUtil.request(RULE.client(), groupsUrl)
+                .post(Entity.json(new GroupDTO(null, "Scarers")));
+        assertThat(createResponse.getStatus()).isEqualTo(HttpStatus.CREATED_201);
+
+        assertThat(conditionalGet(groupsUrl, etag).getStatus()).isEqualTo(HttpStatus.OK_200);
+        assertThat(conditionalGet(myGroupsUrl, myEtag).getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED_304);
+    }
+
+    @Test
+    public void achievements_changed_modified() {
+        final String achievementsUrl = String.format("http://localhost:%d/api/achievements", RULE.getLocalPort());
+
+        final String etag = getEntityTag(achievementsUrl);
+        assertThat(conditionalGet(achievementsUrl, etag).getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED_304);
+
+        final Response createResponse = TestUtil.request(RULE.client(), achievementsUrl)
+                .post(Entity.json(new AchievementDTO("Scare a child", null)));
+        assertThat(createResponse.getStatus()).isEqualTo(HttpStatus.CREATED_201);
+
+        assertThat(conditionalGet(achievementsUrl, etag).getStatus()).isEqualTo(HttpStatus.OK_200);
+    }
+
+    @Test
+    public void etag_differentUsers_differentTags() {
+        final String peopleUrl = String.format("http://localhost:%d/api/organizations/%s/people", RULE.getLocalPort(), organizationId);
+
+        final Response editorResponse = TestUtil.request(RULE.client(), peopleUrl).get();
+        final Response readerResponse = RULE.client().target(peopleUrl).register(MockUtil.AUTH_FEATURE_READER).request().get();
+
+        assertThat(editorResponse.getHeaderString(HttpHeaders.ETAG)).isNotEqualTo(readerResponse.getHeaderString(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void etag_invalidTag_ok() {
+        final String peopleUrl = String.format("http://localhost:%d/api/organizations/%s/people", RULE.getLocalPort(), organizationId);
+
+        assertThat(conditionalGet(peopleUrl, "W/\"made-up\"").getStatus()).isEqualTo(HttpStatus.OK_200);
+    }
+
+    @Test
+    public void achievements_gzipAccepted_compressedOnce() throws IOException {
+        final String achievementsUrl = String.format("http://localhost:%d/api/achievements", RULE.getLocalPort());
+
+        final Response plainResponse = TestUtil.request(RULE.client(), achievementsUrl).get();
+        final Response gzipResponse = TestUtil.request(RULE.client(), achievementsUrl)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .get();
+
+        assertThat(gzipResponse.getStatus()).isEqualTo(HttpStatus.OK_200);
+        assertThat(gzipResponse.getHeaderString(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        final byte[] decompressed = ByteStreams.toByteArray(new GZIPInputStream(gzipResponse.readEntity(InputStream.class)));
+        assertThat(new String(decompressed, StandardCharsets.UTF_8)).isEqualTo(plainResponse.readEntity(String.class));
+    }
+
+    private static String getEntityTag(String url) {
+        final Response response = TestUtil.request(RULE.client(), url).get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+        assertThat(response.getHeaderString(HttpHeaders.CACHE_CONTROL)).contains("private", "no-cache");
+        final String etag = response.getHeaderString(HttpHeaders.ETAG);
+        assertThat(etag).isNotEmpty();
+        return etag;
+    }
+
+    private static Response conditionalGet(String url, String etag) {
+        return TestUtil.request(RULE.client(), url)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get();
+    }
+}
@@ -95,9 +95,10 @@ public class PeopleAcceptanceTest {
         });
         assertThat(dto).hasSize(3);
 
-        assertThat(dto.get(0).name).isEqualTo("James P. Sullivan");
-        assertThat(dto.get(1).name).isEqualTo("Mike Wazowski");
-        assertThat(dto.get(2).name).isEqualTo("Celia Mae");
+        // Sorted by name
+        assertThat(dto.get(0).name).isEqualTo("Celia Mae");
+        assertThat(dto.get(1).name).isEqualTo("James P. Sullivan");
+        assertThat(dto.get(2).name).isEqualTo("Mike Wazowski");
     }
 
     @Test
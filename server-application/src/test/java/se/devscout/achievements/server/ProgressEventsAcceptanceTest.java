@@ -0,0 +1,111 @@
+package se.devscout.achievements.server;
+
+import io.dropwizard.jersey.jackson.JacksonBinder;
+import io.dropwizard.testing.ResourceHelpers;
+import io.dropwizard.testing.junit.DropwizardAppRule;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jetty.http.HttpStatus;
+import org.glassfish.jersey.media.sse.EventInput;
+import org.glassfish.jersey.media.sse.InboundEvent;
+import org.glassfish.jersey.media.sse.SseFeature;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import se.devscout.achievements.server.api.*;
+import se.devscout.achievements.server.resources.UuidString;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProgressEventsAcceptanceTest {
+
+    @ClassRule
+    public static final DropwizardAppRule<AchievementsApplicationConfiguration> RULE =
+            new DropwizardAppRule<>(
+                    MockAchievementsApplication.class,
+                    ResourceHelpers.resourceFilePath("server-test-configuration.yaml"));
+
+    private static String organizationId;
+    private static String achievementId;
+    private static String stepId;
+    private static String personId;
+
+    @BeforeClass
+    public static void setupAchievement() {
+        Client client = createClient();
+
+        Response responseAch = TestUtil.request(client, String.format("http://localhost:%d/api/achievements", RULE.getLocalPort()))
+                .post(Entity.json(new AchievementDTO("Watch the stars", Collections.emptyList())));
+        assertThat(responseAch.getStatus()).isEqualTo(HttpStatus.CREATED_201);
+
+        Response responseStep = TestUtil.request(client, responseAch.getLocation() + "/steps")
+                .post(Entity.json(new AchievementStepDTO("Find the North Star")));
+        assertThat(responseStep.getStatus()).isEqualTo(HttpStatus.CREATED_201);
+
+        final Response responseProfile = TestUtil.request(client, String.format("http://localhost:%d/api/my/profile", RULE.getLocalPort()))
+                .get();
+        assertThat(responseProfile.getStatus()).isEqualTo(HttpStatus.OK_200);
+        organizationId = responseProfile.readEntity(PersonProfileDTO.class).organization.id;
+
+        final Response responsePerson = TestUtil.request(client, String.format("http://localhost:%d/api/organizations/%s/people", RULE.getLocalPort(), organizationId))
+                .post(Entity.json(new PersonDTO(null, "Alice")));
+        assertThat(responsePerson.getStatus()).isEqualTo(HttpStatus.CREATED_201);
+
+        achievementId = StringUtils.substringAfter(responseAch.getLocation().toString(), "/achievements/");
+        stepId = StringUtils.substringAfter(responseStep.getLocation().toString(), "/steps/");
+        personId = StringUtils.substringAfter(responsePerson.getLocation().toString(), "/people/");
+    }
+
+    @Test(timeout = 10_000)
+    public void setProgressAndAward_happyPath() {
+        Client client = createClient();
+
+        try (EventInput events = TestUtil.request(client, String.format("http://localhost:%d/api/organizations/%s/progress-events", RULE.getLocalPort(), organizationId))
+                .get(EventInput.class)) {
+
+            final Response setResponse = TestUtil.request(client, String.format("http://localhost:%d/api/achievements/%s/steps/%s/progress/%s", RULE.getLocalPort(), achievementId, stepId, personId))
+                    .post(Entity.json(new ProgressDTO(null, 50, null)));
+            assertThat(setResponse.getStatus()).isEqualTo(HttpStatus.OK_200);
+
+            final InboundEvent progressEvent = events.read();
+            assertThat(progressEvent.getName()).isEqualTo("progress");
+            final ProgressEventDTO progress = progressEvent.readData(ProgressEventDTO.class, MediaType.APPLICATION_JSON_TYPE);
+            assertThat(progress.achievement).isEqualTo(achievementId);
+            assertThat(progress.step).isEqualTo(Integer.parseInt(stepId));
+            assertThat(progress.person).isEqualTo(Integer.parseInt(personId));
+            assertThat(progress.progress).isEqualTo(50);
+
+            final Response awardResponse = TestUtil.request(client, String.format("http://localhost:%d/api/achievements/%s/awards/%s", RULE.getLocalPort(), achievementId, personId))
+                    .post(null);
+            assertThat(awardResponse.getStatus()).isEqualTo(HttpStatus.NO_CONTENT_204);
+
+            final InboundEvent awardEvent = events.read();
+            assertThat(awardEvent.getName()).isEqualTo("award");
+            final ProgressEventDTO award = awardEvent.readData(ProgressEventDTO.class, MediaType.APPLICATION_JSON_TYPE);
+            assertThat(award.person).isEqualTo(Integer.parseInt(personId));
+            assertThat(award.awarded).isTrue();
+        }
+    }
+
+    @Test
+    public void subscribe_otherOrganization_expectNotFound() {
+        Client client = createClient();
+
+        final Response response = TestUtil.request(client, String.format("http://localhost:%d/api/organizations/%s/progress-events", RULE.getLocalPort(), UuidString.toString(UUID.randomUUID())))
+                .get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+    }
+
+    private static Client createClient() {
+        return RULE.client()
+                .register(new JacksonBinder(RULE.getObjectMapper()))
+                .register(SseFeature.class);
+    }
+}
@@ -0,0 +1,86 @@
+package se.devscout.achievements.server;
+
+import com.codahale.metrics.Gauge;
+import io.dropwizard.testing.ResourceHelpers;
+import io.dropwizard.testing.junit.DropwizardAppRule;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import se.devscout.achievements.server.api.GroupDTO;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Response;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SecondLevelCacheAcceptanceTest {
+    @ClassRule
+    public static final DropwizardAppRule<AchievementsApplicationConfiguration> RULE =
+            new DropwizardAppRule<>(
+                    MockAchievementsApplication.class,
+                    ResourceHelpers.resourceFilePath("server-test-configuration.yaml"));
+    private static String organizationId;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Client client = RULE.client();
+
+        final Response response = TestUtil.request(client, String.format("http://localhost:%d/tasks/bootstrap-data", RULE.getAdminPort()))
+                .post(null);
+        final String bootstrapResponse = response.readEntity(String.class);
+        final Matcher matcher = Pattern.compile("Created organization.* \\(id (.+)\\)").matcher(bootstrapResponse);
+        matcher.find();
+        organizationId = matcher.group(1);
+    }
+
+    @Test
+    public void organization_readTwice_cacheHit() {
+        final String organizationUrl = String.format("http://localhost:%d/api/organizations/%s", RULE.getLocalPort(), organizationId);
+
+        final long hitsBefore = gauge("hibernate.cache.region.organization.hits");
+        assertThat(TestUtil.request(RULE.client(), organizationUrl).get().getStatus()).isEqualTo(HttpStatus.OK_200);
+        assertThat(TestUtil.request(RULE.client(), organizationUrl).get().getStatus()).isEqualTo(HttpStatus.OK_200);
+
+        assertThat(gauge("hibernate.cache.region.organization.hits")).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    public void groups_listTwice_queryCacheHit() {
+        final String groupsUrl = String.format("http://localhost:%d/api/organizations/%s/groups", RULE.getLocalPort(), organizationId);
+
+        getGroups(groupsUrl);
+        final long hitsBefore = gauge("hibernate.cache.query.hits");
+        getGroups(groupsUrl);
+
+        assertThat(gauge("hibernate.cache.query.hits")).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    public void groups_groupCreated_queryCacheInvalidated() {
+        final String groupsUrl = String.format("http://localhost:%d/api/organizations/%s/groups", RULE.getLocalPort(), organizationId);
+
+        getGroups(groupsUrl);
+
+        final Response createResponse = TestUtil.request(RULE.client(), groupsUrl)
+                .post(Entity.json(new GroupDTO(null, "Monsters")));
+        assertThat(createResponse.getStatus()).isEqualTo(HttpStatus.CREATED_201);
+
+        assertThat(getGroups(groupsUrl)).contains("Monsters");
+    }
+
+    private static String getGroups(String groupsUrl) {
+        final Response response = TestUtil.request(RULE.client(), groupsUrl).get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+        return response.readEntity(String.class);
+    }
+
+    private static long gauge(String name) {
+        final Gauge gauge = RULE.getEnvironment().metrics().getGauges().get(name);
+        assertThat(gauge).isNotNull();
+        return (Long) gauge.getValue();
+    }
+}
@@ -0,0 +1,208 @@
+package se.devscout.achievements.server.data;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import se.devscout.achievements.server.data.model.Achievement;
+import se.devscout.achievements.server.data.model.AchievementStep;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.devscout.achievements.server.MockUtil.mockAchievement;
+
+public class AwardEligibilityTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+    private static final int ALICE = 100;
+    private static final int BOB = 200;
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final AwardEligibility eligibility = new AwardEligibility(10, metrics);
+
+    // The motorcycle requires the bike and the car requires the motorcycle
+    private final Achievement bike = mockAchievement("Bike", mockStep(1, null), mockStep(2, null));
+    private final Achievement motorcycle = mockAchievement("Motorcycle", mockStep(3, null), mockStep(4, bike));
+    private final Achievement car = mockAchievement("Car", mockStep(5, null), mockStep(6, motorcycle));
+    private final Achievement unrelated = mockAchievement("Unrelated", mockStep(7, null));
+    private final AchievementCatalog catalog = AchievementCatalog.of(Lists.newArrayList(car, bike, motorcycle, unrelated));
+
+    @Test
+    public void getEligible_completedSteps_eligible() {
+        final List<AwardEligibility.Candidate> actual = eligibility.getEligible(ORG, catalog, loader(
+                ImmutableMap.of(ALICE, ImmutableSet.of(1, 2), BOB, ImmutableSet.of(1)),
+                Collections.emptyMap()));
+
+        assertThat(actual).containsExactly(candidate(ALICE, bike));
+    }
+
+    @Test
+    public void getEligible_prerequisiteCompletedByAward_eligible() {
+        final List<AwardEligibility.Candidate> actual = eligibility.getEligible(ORG, catalog, loader(
+                ImmutableMap.of(ALICE, ImmutableSet.of(3)),
+                ImmutableMap.of(ALICE, ImmutableSet.of(bike.getId()))));
+
+        assertThat(actual).containsExactly(candidate(ALICE, motorcycle));
+    }
+
+    @Test
+    public void publish_lastStepCompleted_eligible() {
+        eligibility.getEligible(ORG, catalog, loader(Collections.emptyMap(), Collections.emptyMap()));
+
+        eligibility.publish(ORG, ProgressEvent.progress(bike.getId(), 1, ALICE, 100));
+        eligibility.publish(ORG, ProgressEvent.progress(bike.getId(), 2, ALICE, 50));
+        assertThat(getEligible()).isEmpty();
+
+        eligibility.publish(ORG, ProgressEvent.progress(bike.getId(), 2, ALICE, 100));
+        assertThat(getEligible()).containsExactly(candidate(ALICE, bike));
+    }
+
+    @Test
+    public void publish_prerequisiteCompleted_dependentsEligible() {
+        eligibility.getEligible(ORG, catalog, loader(
+                ImmutableMap.of(ALICE, ImmutableSet.of(1, 3, 5)),
+                Collections.emptyMap()));
+        assertThat(getEligible()).isEmpty();
+
+        eligibility.publish(ORG, ProgressEvent.progress(bike.getId(), 2, ALICE, 100));
+
+        assertThat(getEligible()).containsExactly(
+                candidate(ALICE, bike),
+                candidate(ALICE, motorcycle),
+                candidate(ALICE, car));
+    }
+
+    @Test
+    public void publish_awarded_noLongerEligibleButDependentsAre() {
+        eligibility.getEligible(ORG, catalog, loader(
+                ImmutableMap.of(ALICE, ImmutableSet.of(1, 2, 3)),
+                Collections.emptyMap()));
+
+        eligibility.publish(ORG, ProgressEvent.award(bike.getId(), ALICE, true));
+
+        assertThat(getEligible()).containsExactly(candidate(ALICE, motorcycle));
+    }
+
+    @Test
+    public void publish_progressRemoved_dependentsNoLongerEligible() {
+        eligibility.getEligible(ORG, catalog, loader(
+                ImmutableMap.of(ALICE, ImmutableSet.of(1, 2, 3, 5), BOB, ImmutableSet.of(1, 2)),
+                Collections.emptyMap()));
+        assertThat(getEligible()).hasSize(4);
+
+        eligibility.publish(ORG, ProgressEvent.progress(bike.getId(), 1, ALICE, null));
+
+        assertThat(getEligible()).containsExactly(candidate(BOB, bike));
+    }
+
+    @Test
+    public void publish_awardTakenBack_dependentsNoLongerEligible() {
+        eligibility.getEligible(ORG, catalog, loader(
+                ImmutableMap.of(ALICE, ImmutableSet.of(3)),
+                ImmutableMap.of(ALICE, ImmutableSet.of(bike.getId()))));
+
+        eligibility.publish(ORG, ProgressEvent.award(bike.getId(), ALICE, false));
+
+        assertThat(getEligible()).isEmpty();
+    }
+
+    @Test
+    public void publish_unrelatedAchievement_onlyItIsEvaluated() {
+        eligibility.getEligible(ORG, catalog, loader(Collections.emptyMap(), Collections.emptyMap()));
+
+        eligibility.publish(ORG, ProgressEvent.progress(unrelated.getId(), 7, ALICE, 100));
+
+        assertThat(getEligible()).containsExactly(candidate(ALICE, unrelated));
+        assertThat(metrics.meter(MetricRegistry.name(AwardEligibility.class, "evaluations")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void publish_notResident_ignored() {
+        eligibility.publish(ORG, ProgressEvent.progress(bike.getId(), 1, ALICE, 100));
+
+        final AtomicInteger loads = new AtomicInteger();
+        eligibility.getEligible(ORG, catalog, counting(loads, loader(Collections.emptyMap(), Collections.emptyMap())));
+        eligibility.getEligible(ORG, catalog, counting(loads, loader(Collections.emptyMap(), Collections.emptyMap())));
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void getEligible_otherCatalog_reloaded() {
+        final AtomicInteger loads = new AtomicInteger();
+        eligibility.getEligible(ORG, catalog, counting(loads, loader(Collections.emptyMap(), Collections.emptyMap())));
+
+        final AchievementCatalog changed = AchievementCatalog.of(Lists.newArrayList(bike));
+        final List<AwardEligibility.Candidate> actual = eligibility.getEligible(ORG, changed, counting(loads, loader(
+                ImmutableMap.of(ALICE, ImmutableSet.of(1, 2)),
+                Collections.emptyMap())));
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(actual).containsExactly(candidate(ALICE, bike));
+    }
+
+    @Test
+    public void getEligible_changedWhileLoading_notKept() {
+        final AtomicInteger loads = new AtomicInteger();
+        eligibility.getEligible(ORG, catalog, counting(loads, () -> {
+            eligibility.publish(ORG, ProgressEvent.progress(bike.getId(), 1, ALICE, 100));
+            return new AwardEligibility.Progress(new HashMap<>(), new HashMap<>());
+        }));
+        eligibility.getEligible(ORG, catalog, counting(loads, loader(Collections.emptyMap(), Collections.emptyMap())));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void getEligible_prerequisiteCycle_evaluated() {
+        final AchievementStep first = mockStep(10, null);
+        final Achievement a = mockAchievement("A", first);
+        final Achievement b = mockAchievement("B", mockStep(11, a));
+        when(first.getPrerequisiteAchievement()).thenReturn(b);
+
+        final List<AwardEligibility.Candidate> actual = eligibility.getEligible(ORG, AchievementCatalog.of(Lists.newArrayList(a, b)), loader(
+                ImmutableMap.of(ALICE, ImmutableSet.of(10)),
+                Collections.emptyMap()));
+
+        assertThat(actual).containsExactly(candidate(ALICE, a), candidate(ALICE, b));
+    }
+
+    private List<AwardEligibility.Candidate> getEligible() {
+        return eligibility.getEligible(ORG, catalog, () -> {
+            throw new AssertionError("Should already be loaded");
+        });
+    }
+
+    private static AwardEligibility.Candidate candidate(int personId, Achievement achievement) {
+        return new AwardEligibility.Candidate(personId, achievement.getId());
+    }
+
+    private static Supplier<AwardEligibility.Progress> loader(Map<Integer, Set<Integer>> completedSteps, Map<Integer, Set<UUID>> awards) {
+        // The engine updates the maps it is given
+        final Map<Integer, Set<Integer>> steps = new HashMap<>();
+        completedSteps.forEach((personId, stepIds) -> steps.put(personId, new HashSet<>(stepIds)));
+        final Map<Integer, Set<UUID>> awarded = new HashMap<>();
+        awards.forEach((personId, achievementIds) -> awarded.put(personId, new HashSet<>(achievementIds)));
+        return () -> new AwardEligibility.Progress(steps, awarded);
+    }
+
+    private static Supplier<AwardEligibility.Progress> counting(AtomicInteger counter, Supplier<AwardEligibility.Progress> loader) {
+        return () -> {
+            counter.incrementAndGet();
+            return loader.get();
+        };
+    }
+
+    private static AchievementStep mockStep(int id, Achievement prerequisite) {
+        final AchievementStep step = mock(AchievementStep.class);
+        when(step.getId()).thenReturn(id);
+        when(step.getPrerequisiteAchievement()).thenReturn(prerequisite);
+        return step;
+    }
+}
@@ -0,0 +1,37 @@
+package se.devscout.achievements.server.data;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrganizationVersionsTest {
+
+    private final OrganizationVersions versions = new OrganizationVersions();
+
+    @Test
+    public void get_unknownOrganization_noCounterCreated() {
+        final UUID organizationId = UUID.randomUUID();
+
+        assertThat(versions.get(organizationId)).isEqualTo(0);
+        assertThat(versions.getPeople(organizationId)).isEqualTo(0);
+        assertThat(versions.getOrganizationCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void increment_happyPath() {
+        final UUID organizationId = UUID.randomUUID();
+        final UUID otherOrganizationId = UUID.randomUUID();
+
+        versions.increment(organizationId);
+        versions.incrementPeople(organizationId);
+        versions.incrementAll();
+
+        assertThat(versions.get(organizationId)).isEqualTo(3);
+        assertThat(versions.getPeople(organizationId)).isEqualTo(1);
+        assertThat(versions.get(otherOrganizationId)).isEqualTo(1);
+        assertThat(versions.getPeople(otherOrganizationId)).isEqualTo(0);
+        assertThat(versions.getOrganizationCount()).isEqualTo(1);
+    }
+}
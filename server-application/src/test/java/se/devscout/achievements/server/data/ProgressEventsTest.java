@@ -0,0 +1,150 @@
+package se.devscout.achievements.server.data;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.dropwizard.util.Duration;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ProgressEventsTest {
+
+    private static final UUID ORG_1 = UUID.randomUUID();
+    private static final UUID ORG_2 = UUID.randomUUID();
+    private static final UUID ACHIEVEMENT = UUID.randomUUID();
+
+    private final ProgressEvents events = new ProgressEvents(
+            Duration.milliseconds(250),
+            3,
+            Duration.seconds(30),
+            mock(ScheduledExecutorService.class),
+            MoreExecutors.newDirectExecutorService(),
+            new MetricRegistry());
+
+    @Test
+    public void flush_sameStepAndPerson_coalesced() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        events.subscribe(ORG_1, subscriber);
+
+        events.publish(ORG_1, ProgressEvent.progress(ACHIEVEMENT, 1, 100, 10));
+        events.publish(ORG_1, ProgressEvent.progress(ACHIEVEMENT, 2, 100, 20));
+        events.publish(ORG_1, ProgressEvent.progress(ACHIEVEMENT, 1, 100, 30));
+        events.publish(ORG_1, ProgressEvent.award(ACHIEVEMENT, 100, true));
+        events.flush();
+
+        assertThat(subscriber.events).hasSize(3);
+        assertThat(subscriber.events.get(0).getStepId()).isEqualTo(1);
+        assertThat(subscriber.events.get(0).getValue()).isEqualTo(30);
+        assertThat(subscriber.events.get(1).getStepId()).isEqualTo(2);
+        assertThat(subscriber.events.get(2).getType()).isEqualTo(ProgressEvent.Type.AWARD);
+    }
+
+    @Test
+    public void flush_otherOrganization_notDelivered() {
+        final RecordingSubscriber subscriber1 = new RecordingSubscriber();
+        final RecordingSubscriber subscriber2 = new RecordingSubscriber();
+        events.subscribe(ORG_1, subscriber1);
+        events.subscribe(ORG_2, subscriber2);
+
+        events.publish(ORG_1, ProgressEvent.progress(ACHIEVEMENT, 1, 100, 10));
+        events.flush();
+
+        assertThat(subscriber1.events).hasSize(1);
+        assertThat(subscriber2.events).isEmpty();
+    }
+
+    @Test
+    public void publish_noSubscribers_nothingKept() {
+        events.publish(ORG_1, ProgressEvent.progress(ACHIEVEMENT, 1, 100, 10));
+
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        events.subscribe(ORG_1, subscriber);
+        events.flush();
+
+        assertThat(subscriber.events).isEmpty();
+    }
+
+    @Test
+    public void flush_queueFull_subscriberClosed() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        final ProgressEvents.Subscription subscription = events.subscribe(ORG_1, subscriber);
+
+        for (int i = 0; i < 4; i++) {
+            events.publish(ORG_1, ProgressEvent.progress(ACHIEVEMENT, i, 100, 10));
+        }
+        events.flush();
+
+        assertThat(subscription.isClosed()).isTrue();
+        assertThat(subscriber.closed).isTrue();
+        assertThat(subscriber.events).isEmpty();
+
+        events.publish(ORG_1, ProgressEvent.progress(ACHIEVEMENT, 1, 100, 10));
+        events.flush();
+        assertThat(subscriber.events).isEmpty();
+    }
+
+    @Test
+    public void flush_writeFails_subscriberClosed() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscriber.failing = true;
+        final ProgressEvents.Subscription subscription = events.subscribe(ORG_1, subscriber);
+
+        events.publish(ORG_1, ProgressEvent.progress(ACHIEVEMENT, 1, 100, 10));
+        events.flush();
+
+        assertThat(subscription.isClosed()).isTrue();
+        assertThat(subscriber.closed).isTrue();
+    }
+
+    @Test
+    public void heartbeat_happyPath() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        events.subscribe(ORG_1, subscriber);
+
+        events.heartbeat();
+
+        assertThat(subscriber.heartbeats).isEqualTo(1);
+    }
+
+    @Test
+    public void stop_subscribersClosed() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        events.subscribe(ORG_1, subscriber);
+
+        events.stop();
+
+        assertThat(subscriber.closed).isTrue();
+    }
+
+    private static class RecordingSubscriber implements ProgressEvents.Subscriber {
+        private final List<ProgressEvent> events = new ArrayList<>();
+        private int heartbeats;
+        private boolean closed;
+        private boolean failing;
+
+        @Override
+        public void onEvents(List<ProgressEvent> list) throws IOException {
+            if (failing) {
+                throw new IOException("Client has gone away");
+            }
+            events.addAll(list);
+        }
+
+        @Override
+        public void onHeartbeat() {
+            heartbeats++;
+        }
+
+        @Override
+        public void onClose() {
+            closed = true;
+        }
+    }
+}
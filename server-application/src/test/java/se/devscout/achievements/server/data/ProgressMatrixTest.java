@@ -0,0 +1,67 @@
+package se.devscout.achievements.server.data;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProgressMatrixTest {
+
+    private final ProgressMatrix matrix = new ProgressMatrix();
+
+    @Test
+    public void set_happyPath() {
+        matrix.set(1, 100, 50);
+        matrix.set(2, 100, 0);
+        matrix.set(1, 200, 100);
+
+        assertThat(matrix.get(1, 100)).isEqualTo(50);
+        assertThat(matrix.get(2, 100)).isEqualTo(0);
+        assertThat(matrix.get(1, 200)).isEqualTo(100);
+        assertThat(matrix.get(2, 200)).isEqualTo(-1);
+        assertThat(matrix.get(3, 100)).isEqualTo(-1);
+        assertThat(matrix.get(1, 300)).isEqualTo(-1);
+        assertThat(matrix.getValueCount()).isEqualTo(3);
+        assertThat(matrix.getPersonCount()).isEqualTo(2);
+        assertThat(matrix.getStepCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void set_overwrite_valueCountUnchanged() {
+        matrix.set(1, 100, 50);
+        matrix.set(1, 100, 70);
+
+        assertThat(matrix.get(1, 100)).isEqualTo(70);
+        assertThat(matrix.getValueCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void unset_happyPath() {
+        matrix.set(1, 100, 50);
+        matrix.unset(1, 100);
+        matrix.unset(1, 200);
+        matrix.unset(2, 100);
+
+        assertThat(matrix.get(1, 100)).isEqualTo(-1);
+        assertThat(matrix.getValueCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void set_manyPeople_columnsGrow() {
+        matrix.set(1, 0, 10);
+        for (int personId = 1; personId < 1000; personId++) {
+            matrix.set(2, personId, personId % 101);
+        }
+        matrix.set(1, 999, 20);
+
+        assertThat(matrix.get(1, 0)).isEqualTo(10);
+        assertThat(matrix.get(1, 999)).isEqualTo(20);
+        assertThat(matrix.get(2, 500)).isEqualTo(500 % 101);
+        assertThat(matrix.getValueCount()).isEqualTo(1001);
+        assertThat(matrix.getFootprint()).isGreaterThan(2000L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void set_valueOutOfRange_exception() {
+        matrix.set(1, 100, 200);
+    }
+}
@@ -0,0 +1,216 @@
+package se.devscout.achievements.server.data.dao;
+
+import io.dropwizard.testing.junit.DAOTestRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.model.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.Assert.fail;
+
+public class AchievementProgressRollupDaoImplTest {
+    @Rule
+    public DAOTestRule database = DAOTestRule.newBuilder()
+            .setShowSql(true)
+            .addEntityClass(Organization.class)
+            .addEntityClass(Person.class)
+            .addEntityClass(GroupMembership.class)
+            .addEntityClass(Group.class)
+            .addEntityClass(Credentials.class)
+            .addEntityClass(Achievement.class)
+            .addEntityClass(AchievementStep.class)
+            .addEntityClass(AchievementStepProgress.class)
+            .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
+            .build();
+
+    private AchievementProgressRollupDaoImpl dao;
+    private AchievementSummaryDaoImpl summaryDao;
+    private AchievementStepProgressDaoImpl progressDao;
+    private AchievementStepsDaoImpl stepsDao;
+    private AchievementsDaoImpl achievementsDao;
+    private PeopleDaoImpl peopleDao;
+
+    private Organization org;
+    private Person alice;
+    private Person bob;
+    private Achievement achievement;
+    private AchievementStep step1;
+    private AchievementStep step2;
+
+    @Before
+    public void setUp() throws Exception {
+        dao = new AchievementProgressRollupDaoImpl(database.getSessionFactory());
+        summaryDao = new AchievementSummaryDaoImpl(database.getSessionFactory());
+        progressDao = DaoTestUtil.progressDao(database.getSessionFactory());
+        stepsDao = DaoTestUtil.stepsDao(database.getSessionFactory());
+        achievementsDao = DaoTestUtil.achievementsDao(database.getSessionFactory());
+        peopleDao = new PeopleDaoImpl(database.getSessionFactory());
+
+        final OrganizationsDaoImpl organizationsDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
+        org = database.inTransaction(() -> organizationsDao.create(new OrganizationProperties("Org")));
+        alice = database.inTransaction(() -> peopleDao.create(org, new PersonProperties("Alice", Roles.READER)));
+        bob = database.inTransaction(() -> peopleDao.create(org, new PersonProperties("Bob", Roles.READER)));
+
+        achievement = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Boil an egg")));
+        step1 = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Boil")));
+        step2 = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Eat")));
+    }
+
+    @Test
+    public void progress_setAndUnset_rollupUpdated() throws Exception {
+        database.inTransaction(() -> progressDao.set(step1, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(step2, alice, new AchievementStepProgressProperties(40, null)));
+
+        assertThat(getProgress())
+                .extracting("personId", "sum", "started", "stepCount", "awarded")
+                .containsExactly(tuple(alice.getId(), 140L, true, 2, false));
+
+        database.inTransaction(() -> progressDao.set(step2, alice, new AchievementStepProgressProperties(true, null)));
+        assertThat(getProgress()).extracting("sum").containsExactly(200L);
+
+        database.inTransaction(() -> {
+            try {
+                progressDao.unset(step1, alice);
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+        assertThat(getProgress()).extracting("sum").containsExactly(100L);
+
+        database.inTransaction(() -> {
+            try {
+                progressDao.unset(step2, alice);
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+        assertThat(getProgress()).isEmpty();
+    }
+
+    @Test
+    public void award_addAndRemove_rollupUpdated() throws Exception {
+        database.inTransaction(() -> achievementsDao.addAwardedTo(achievement, bob));
+
+        assertThat(getProgress())
+                .extracting("personId", "sum", "started", "awarded")
+                .containsExactly(tuple(bob.getId(), 0L, false, true));
+
+        database.inTransaction(() -> progressDao.set(step1, bob, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> achievementsDao.removeAwardedTo(achievement, bob));
+
+        assertThat(getProgress())
+                .extracting("personId", "sum", "started", "awarded")
+                .containsExactly(tuple(bob.getId(), 100L, true, false));
+    }
+
+    @Test
+    public void steps_addAndRemove_stepCountUpdated() throws Exception {
+        database.inTransaction(() -> progressDao.set(step1, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(step2, alice, new AchievementStepProgressProperties(true, null)));
+
+        database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Clean up")));
+        assertThat(getProgress()).extracting("sum", "stepCount").containsExactly(tuple(200L, 3));
+
+        // Make sure the step is read from the database, including its progress records, before it is deleted
+        database.getSessionFactory().getCurrentSession().clear();
+        database.inTransaction(() -> {
+            try {
+                stepsDao.delete(step1.getId());
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+        assertThat(getProgress()).extracting("sum", "stepCount").containsExactly(tuple(100L, 2));
+    }
+
+    @Test
+    public void person_delete_rollupRemoved() throws Exception {
+        database.inTransaction(() -> progressDao.set(step1, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(step1, bob, new AchievementStepProgressProperties(true, null)));
+
+        // Make sure the person is read from the database, including its progress records, before it is deleted
+        database.getSessionFactory().getCurrentSession().clear();
+        database.inTransaction(() -> {
+            try {
+                peopleDao.delete(alice.getId());
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+
+        assertThat(getProgress()).extracting("personId").containsExactly(bob.getId());
+    }
+
+    @Test
+    public void achievement_delete_rollupRemoved() throws Exception {
+        final Achievement other = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Fry an egg")));
+        final AchievementStep otherStep = database.inTransaction(() -> stepsDao.create(other, new AchievementStepProperties("Fry")));
+        database.inTransaction(() -> progressDao.set(step1, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(otherStep, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(step2, bob, new AchievementStepProgressProperties(true, null)));
+
+        database.getSessionFactory().getCurrentSession().clear();
+        database.inTransaction(() -> {
+            try {
+                achievementsDao.delete(achievement.getId());
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+
+        assertThat(getProgress()).extracting("achievementId").containsExactly(other.getId());
+    }
+
+    @Test
+    public void organization_delete_rollupRemoved() throws Exception {
+        database.inTransaction(() -> progressDao.set(step1, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> achievementsDao.addAwardedTo(achievement, bob));
+
+        database.getSessionFactory().getCurrentSession().clear();
+        database.inTransaction(() -> {
+            try {
+                new OrganizationsDaoImpl(database.getSessionFactory(), 100L).delete(org.getId());
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+
+        final Long count = database.inTransaction(() -> database.getSessionFactory().getCurrentSession()
+                .createQuery("SELECT COUNT(r) FROM AchievementProgressRollup r", Long.class)
+                .getSingleResult());
+        assertThat(count).isEqualTo(0L);
+    }
+
+    @Test
+    public void refresh_achievement_repairsDrift() throws Exception {
+        database.inTransaction(() -> progressDao.set(step1, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> achievementsDao.addAwardedTo(achievement, bob));
+
+        database.inTransaction(() -> {
+            database.getSessionFactory().getCurrentSession()
+                    .createQuery("DELETE FROM AchievementProgressRollup")
+                    .executeUpdate();
+            database.getSessionFactory().getCurrentSession().clear();
+        });
+        assertThat(getProgress()).isEmpty();
+
+        final Integer count = database.inTransaction(() -> dao.refresh(achievement));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(getProgress())
+                .extracting("personId", "sum", "started", "stepCount", "awarded")
+                .containsExactlyInAnyOrder(
+                        tuple(alice.getId(), 100L, true, 2, false),
+                        tuple(bob.getId(), 0L, false, 2, true));
+    }
+
+    private List<AchievementSummaryDao.PersonProgress> getProgress() {
+        return database.inTransaction(() -> summaryDao.getProgress(org));
+    }
+}
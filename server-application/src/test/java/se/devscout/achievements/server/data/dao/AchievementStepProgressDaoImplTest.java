@@ -1,12 +1,16 @@
 package se.devscout.achievements.server.data.dao;
 
 import io.dropwizard.testing.junit.DAOTestRule;
+import org.hibernate.Hibernate;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import se.devscout.achievements.server.auth.Roles;
 import se.devscout.achievements.server.data.model.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -17,6 +21,7 @@ public class AchievementStepProgressDaoImplTest {
     @Rule
     public DAOTestRule database = DAOTestRule.newBuilder()
             .setShowSql(true)
+            .setProperty("hibernate.generate_statistics", "true")
             .addEntityClass(Organization.class)
             .addEntityClass(Person.class)
             .addEntityClass(GroupMembership.class)
@@ -26,6 +31,7 @@ public class AchievementStepProgressDaoImplTest {
             .addEntityClass(AchievementStep.class)
             .addEntityClass(AchievementStepProgress.class)
             .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
             .build();
 
     private AchievementStepProgressDaoImpl dao;
@@ -39,12 +45,12 @@ public class AchievementStepProgressDaoImplTest {
 
     @Before
     public void setUp() throws Exception {
-        dao = new AchievementStepProgressDaoImpl(database.getSessionFactory());
+        dao = DaoTestUtil.progressDao(database.getSessionFactory());
         OrganizationsDaoImpl organizationDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
         Organization organization = database.inTransaction(() -> organizationDao.create(new OrganizationProperties("Test Organization")));
         peopleDao = new PeopleDaoImpl(database.getSessionFactory());
-        achievementsDao = new AchievementsDaoImpl(database.getSessionFactory());
-        stepsDao = new AchievementStepsDaoImpl(database.getSessionFactory());
+        achievementsDao = DaoTestUtil.achievementsDao(database.getSessionFactory());
+        stepsDao = DaoTestUtil.stepsDao(database.getSessionFactory());
 
         person = peopleDao.create(organization, new PersonProperties("Alice", Roles.READER));
         person2 = peopleDao.create(organization, new PersonProperties("Alice", Roles.READER));
@@ -81,7 +87,7 @@ public class AchievementStepProgressDaoImplTest {
 
     @Test
     public void setAndGet_newProgress_happyPath() throws Exception {
-        final AchievementStepProgress actual = dao.set(achievementStep, person, new AchievementStepProgressProperties(true, "The Note"));
+        final AchievementStepProgress actual = database.inTransaction(() -> dao.set(achievementStep, person, new AchievementStepProgressProperties(true, "The Note")));
         assertThat(actual).isNotNull();
         assertThat(actual.isCompleted()).isTrue();
         assertThat(actual.getNote()).isEqualTo("The Note");
@@ -98,11 +104,50 @@ public class AchievementStepProgressDaoImplTest {
         assertThat(existing.isCompleted()).isFalse();
         assertThat(existing.getNote()).isEqualTo("The Note");
 
-        final AchievementStepProgress actual = dao.set(achievementStep, person, new AchievementStepProgressProperties(true, "A Note"));
+        final AchievementStepProgress actual = database.inTransaction(() -> dao.set(achievementStep, person, new AchievementStepProgressProperties(true, "A Note")));
         assertThat(actual).isNotNull();
         assertThat(actual.getId()).isEqualTo(existing.getId());
         assertThat(actual.isCompleted()).isTrue();
         assertThat(actual.getNote()).isEqualTo("A Note");
+
+        database.getSessionFactory().getCurrentSession().clear();
+        final AchievementStepProgress stored = database.inTransaction(() -> dao.get(achievementStep, person));
+        assertThat(stored.getValue()).isEqualTo(100);
+        assertThat(stored.getNote()).isEqualTo("A Note");
+    }
+
+    @Test
+    public void set_personProgressNotLoaded() throws Exception {
+        database.inTransaction(() -> dao.set(achievementStep, person, new AchievementStepProgressProperties(false, "The Note")));
+        database.getSessionFactory().getCurrentSession().clear();
+
+        final Person loadedPerson = database.inTransaction(() -> peopleDao.read(person.getId()));
+        final AchievementStep loadedStep = database.inTransaction(() -> stepsDao.read(achievementStep.getId()));
+        database.inTransaction(() -> dao.set(loadedStep, loadedPerson, new AchievementStepProgressProperties(40, null)));
+
+        assertThat(Hibernate.isInitialized(loadedPerson.getAchievementStepProgress())).isFalse();
+        assertThat(Hibernate.isInitialized(loadedPerson.getProgressRollups())).isFalse();
+        database.getSessionFactory().getCurrentSession().clear();
+        assertThat(database.inTransaction(() -> dao.get(achievementStep, person)).getValue()).isEqualTo(40);
+    }
+
+    @Test
+    public void unset_personProgressNotLoaded() throws Exception {
+        database.inTransaction(() -> dao.set(achievementStep, person, new AchievementStepProgressProperties(false, "The Note")));
+        database.getSessionFactory().getCurrentSession().clear();
+
+        final Person loadedPerson = database.inTransaction(() -> peopleDao.read(person.getId()));
+        final AchievementStep loadedStep = database.inTransaction(() -> stepsDao.read(achievementStep.getId()));
+        database.inTransaction(() -> {
+            try {
+                dao.unset(loadedStep, loadedPerson);
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+
+        assertThat(Hibernate.isInitialized(loadedPerson.getAchievementStepProgress())).isFalse();
+        assertThat(Hibernate.isInitialized(loadedPerson.getProgressRollups())).isFalse();
     }
 
     @Test
@@ -130,6 +175,90 @@ public class AchievementStepProgressDaoImplTest {
         });
     }
 
+    @Test
+    public void setMany_newAndExistingProgress_rollupsRefreshed() throws Exception {
+        final Achievement achievement = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Make a sandwich")));
+        final AchievementStep step1 = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Get the bread")));
+        final AchievementStep step2 = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Spread butter on it")));
+        database.inTransaction(() -> dao.set(step1, person, new AchievementStepProgressProperties(50, "Started")));
+
+        final List<AchievementStepProgress> actual = database.inTransaction(() -> {
+            final Achievement reloaded = achievementsDao.read(achievement.getId());
+            return dao.set(reloaded, Arrays.asList(
+                    new AchievementStepProgressDao.ProgressUpdate(step1, person, new AchievementStepProgressProperties(true, "Done")),
+                    new AchievementStepProgressDao.ProgressUpdate(step2, person, new AchievementStepProgressProperties(25, "Started")),
+                    new AchievementStepProgressDao.ProgressUpdate(step1, person2, new AchievementStepProgressProperties(true, "Done"))));
+        });
+        assertThat(actual).hasSize(3);
+
+        database.inTransaction(() -> {
+            assertThat(dao.get(step1, person).getValue()).isEqualTo(AchievementStepProgressProperties.PROGRESS_COMPLETED);
+            assertThat(dao.get(step1, person).getNote()).isEqualTo("Done");
+            assertThat(dao.get(step2, person).getValue()).isEqualTo(25);
+            assertThat(dao.get(step1, person2).isCompleted()).isTrue();
+
+            final AchievementProgressRollup rollup = database.getSessionFactory().getCurrentSession()
+                    .get(AchievementProgressRollup.class, new AchievementProgressRollup.Key(achievement, person));
+            assertThat(rollup.getProgressSum()).isEqualTo(125);
+            assertThat(rollup.getProgressCount()).isEqualTo(2);
+            assertThat(rollup.getStepCount()).isEqualTo(2);
+
+            final AchievementProgressRollup rollup2 = database.getSessionFactory().getCurrentSession()
+                    .get(AchievementProgressRollup.class, new AchievementProgressRollup.Key(achievement, person2));
+            assertThat(rollup2.getProgressSum()).isEqualTo(100);
+            assertThat(rollup2.getProgressCount()).isEqualTo(1);
+            return null;
+        });
+    }
+
+    @Test
+    public void setMany_manyPeople_statementCountIndependentOfPeople() throws Exception {
+        final Achievement achievement = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Make a sandwich")));
+        final AchievementStep step1 = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Get the bread")));
+        final AchievementStep step2 = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Spread butter on it")));
+
+        final Statistics few = setForNewPeople(achievement, step1, step2, 3);
+        final long fewStatements = few.getPrepareStatementCount();
+        assertThat(few.getCollectionLoadCount()).isEqualTo(0);
+
+        final Statistics many = setForNewPeople(achievement, step1, step2, 30);
+        assertThat(many.getPrepareStatementCount()).isEqualTo(fewStatements);
+        assertThat(many.getCollectionLoadCount()).isEqualTo(0);
+    }
+
+    /**
+     * Sets progress for two steps for a number of new people in one call. Every other person already has progress, and
+     * a rollup, for the first step. Returns the statistics for the call only. The JDBC batch size is set like
+     * AchievementsResource does.
+     */
+    private Statistics setForNewPeople(Achievement achievement, AchievementStep step1, AchievementStep step2, int count) {
+        final Organization organization = person.getOrganization();
+        final List<Integer> personIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Person created = database.inTransaction(() -> peopleDao.create(organization, new PersonProperties("Person", Roles.READER)));
+            if (i % 2 == 0) {
+                database.inTransaction(() -> dao.set(step1, created, new AchievementStepProgressProperties(50, null)));
+            }
+            personIds.add(created.getId());
+        }
+        database.getSessionFactory().getCurrentSession().clear();
+
+        final Statistics statistics = database.getSessionFactory().getStatistics();
+        database.inTransaction(() -> {
+            final Achievement reloaded = achievementsDao.read(achievement.getId());
+            final List<Person> people = peopleDao.getByParent(organization, personIds);
+            final List<AchievementStepProgressDao.ProgressUpdate> updates = new ArrayList<>();
+            for (Person p : people) {
+                updates.add(new AchievementStepProgressDao.ProgressUpdate(step1, p, new AchievementStepProgressProperties(true, null)));
+                updates.add(new AchievementStepProgressDao.ProgressUpdate(step2, p, new AchievementStepProgressProperties(25, null)));
+            }
+            database.getSessionFactory().getCurrentSession().setJdbcBatchSize(100);
+            statistics.clear();
+            return dao.set(reloaded, updates);
+        });
+        return statistics;
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void unset_badInput() throws Exception {
         dao.unset(null, null);
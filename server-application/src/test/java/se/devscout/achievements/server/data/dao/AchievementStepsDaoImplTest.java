@@ -25,6 +25,7 @@ public class AchievementStepsDaoImplTest {
             .addEntityClass(Organization.class)
             .addEntityClass(Credentials.class)
             .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
             .build();
 
     private AchievementStepsDao dao;
@@ -33,8 +34,8 @@ public class AchievementStepsDaoImplTest {
 
     @Before
     public void setUp() throws Exception {
-        dao = new AchievementStepsDaoImpl(database.getSessionFactory());
-        achievementsDao = new AchievementsDaoImpl(database.getSessionFactory());
+        dao = DaoTestUtil.stepsDao(database.getSessionFactory());
+        achievementsDao = DaoTestUtil.achievementsDao(database.getSessionFactory());
         achievement = achievementsDao.create(new AchievementProperties("Cook Pasta"));
     }
 
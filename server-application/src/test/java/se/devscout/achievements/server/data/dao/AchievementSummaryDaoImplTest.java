@@ -0,0 +1,140 @@
+package se.devscout.achievements.server.data.dao;
+
+import com.google.common.collect.Sets;
+import io.dropwizard.testing.junit.DAOTestRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.model.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class AchievementSummaryDaoImplTest {
+    @Rule
+    public DAOTestRule database = DAOTestRule.newBuilder()
+            .setShowSql(true)
+            .addEntityClass(Organization.class)
+            .addEntityClass(Person.class)
+            .addEntityClass(GroupMembership.class)
+            .addEntityClass(Group.class)
+            .addEntityClass(Credentials.class)
+            .addEntityClass(Achievement.class)
+            .addEntityClass(AchievementStep.class)
+            .addEntityClass(AchievementStepProgress.class)
+            .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
+            .build();
+
+    private AchievementSummaryDaoImpl dao;
+
+    private Organization org1;
+    private Group group;
+    private Person alice;
+    private Person bob;
+    private Person carol;
+    private Achievement egg;
+    private Achievement pasta;
+
+    @Before
+    public void setUp() throws Exception {
+        dao = new AchievementSummaryDaoImpl(database.getSessionFactory());
+
+        final OrganizationsDaoImpl organizationsDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
+        org1 = database.inTransaction(() -> organizationsDao.create(new OrganizationProperties("Org 1")));
+        final Organization org2 = database.inTransaction(() -> organizationsDao.create(new OrganizationProperties("Org 2")));
+
+        final PeopleDaoImpl peopleDao = new PeopleDaoImpl(database.getSessionFactory());
+        alice = database.inTransaction(() -> peopleDao.create(org1, new PersonProperties("Alice", Roles.READER)));
+        bob = database.inTransaction(() -> peopleDao.create(org1, new PersonProperties("Bob", Roles.READER)));
+        carol = database.inTransaction(() -> peopleDao.create(org2, new PersonProperties("Carol", Roles.READER)));
+
+        final AchievementsDaoImpl achievementsDao = DaoTestUtil.achievementsDao(database.getSessionFactory());
+        egg = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Boil an egg", Sets.newHashSet("cooking", "eggs"))));
+        pasta = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Cook pasta", Collections.emptySet())));
+
+        final AchievementStepsDaoImpl stepsDao = DaoTestUtil.stepsDao(database.getSessionFactory());
+        final AchievementStep eggStep1 = database.inTransaction(() -> stepsDao.create(egg, new AchievementStepProperties("Boil")));
+        final AchievementStep eggStep2 = database.inTransaction(() -> stepsDao.create(egg, new AchievementStepProperties("Eat")));
+        final AchievementStep pastaStep1 = database.inTransaction(() -> stepsDao.create(pasta, new AchievementStepProperties("Boil")));
+
+        final AchievementStepProgressDaoImpl progressDao = DaoTestUtil.progressDao(database.getSessionFactory());
+        database.inTransaction(() -> progressDao.set(eggStep1, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(eggStep2, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(eggStep1, bob, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(pastaStep1, bob, new AchievementStepProgressProperties(false, null)));
+        database.inTransaction(() -> progressDao.set(pastaStep1, carol, new AchievementStepProgressProperties(true, null)));
+
+        database.inTransaction(() -> achievementsDao.addAwardedTo(egg, alice));
+        database.inTransaction(() -> achievementsDao.addAwardedTo(pasta, carol));
+
+        final GroupsDaoImpl groupsDao = new GroupsDaoImpl(database.getSessionFactory());
+        group = database.inTransaction(() -> groupsDao.create(org1, new GroupProperties("Cooks")));
+
+        final GroupMembershipsDaoImpl membershipsDao = new GroupMembershipsDaoImpl(database.getSessionFactory());
+        database.inTransaction(() -> membershipsDao.add(bob, group, GroupRole.MEMBER));
+    }
+
+    @Test
+    public void getProgress_organization_happyPath() {
+        final List<AchievementSummaryDao.PersonProgress> progress = database.inTransaction(() -> dao.getProgress(org1));
+
+        assertThat(progress)
+                .extracting("achievementId", "personId", "personName", "sum", "started", "stepCount", "awarded")
+                .containsExactlyInAnyOrder(
+                        tuple(egg.getId(), alice.getId(), "Alice", 200L, true, 2, true),
+                        tuple(egg.getId(), bob.getId(), "Bob", 100L, true, 2, false),
+                        tuple(pasta.getId(), bob.getId(), "Bob", 0L, true, 1, false));
+    }
+
+    @Test
+    public void getProgress_person_happyPath() {
+        final List<AchievementSummaryDao.PersonProgress> progress = database.inTransaction(() -> dao.getProgress(carol));
+
+        assertThat(progress)
+                .extracting("achievementId", "personId", "sum", "awarded")
+                .containsExactly(tuple(pasta.getId(), carol.getId(), 100L, true));
+    }
+
+    @Test
+    public void getProgress_group_onlyMembers() {
+        final List<AchievementSummaryDao.PersonProgress> progress = database.inTransaction(() -> dao.getProgress(group));
+
+        assertThat(progress)
+                .extracting("achievementId", "personId", "sum", "started", "awarded")
+                .containsExactlyInAnyOrder(
+                        tuple(egg.getId(), bob.getId(), 100L, true, false),
+                        tuple(pasta.getId(), bob.getId(), 0L, true, false));
+    }
+
+    @Test
+    public void getProgress_groupWithoutMembers_emptyResult() throws Exception {
+        final GroupsDaoImpl groupsDao = new GroupsDaoImpl(database.getSessionFactory());
+        final Group emptyGroup = database.inTransaction(() -> groupsDao.create(org1, new GroupProperties("Empty")));
+
+        assertThat(database.inTransaction(() -> dao.getProgress(emptyGroup))).isEmpty();
+    }
+
+    @Test
+    public void getAchievements_happyPath() {
+        final List<AchievementSummaryDao.AchievementInfo> infos = database.inTransaction(() -> dao.getAchievements(Arrays.asList(egg.getId(), pasta.getId())));
+
+        assertThat(infos)
+                .extracting("id", "name")
+                .containsExactlyInAnyOrder(
+                        tuple(egg.getId(), "Boil an egg"),
+                        tuple(pasta.getId(), "Cook pasta"));
+        assertThat(infos.stream().filter(info -> info.getId().equals(egg.getId())).findFirst().get().getTags())
+                .containsOnly("cooking", "eggs");
+    }
+
+    @Test
+    public void getAchievements_noIds_emptyResult() {
+        assertThat(database.inTransaction(() -> dao.getAchievements(Collections.emptyList()))).isEmpty();
+    }
+}
@@ -0,0 +1,135 @@
+package se.devscout.achievements.server.data.dao;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Sets;
+import io.dropwizard.testing.junit.DAOTestRule;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import se.devscout.achievements.server.data.AchievementCatalogHolder;
+import se.devscout.achievements.server.data.ProgressEventPublisher;
+import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.data.search.AchievementSearchIndex;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the PostgreSQL full-text search. Skipped unless a database is available. Start the database defined in
+ * docker-compose.yml and run the tests with -Dpostgres.url=jdbc:postgresql://localhost:6543/achievements to include
+ * them. The schema is migrated using Liquibase, just like when the application starts.
+ */
+public class AchievementsDaoImplPostgresTest {
+
+    private static final String URL = System.getProperty("postgres.url");
+    private static final String USERNAME = System.getProperty("postgres.username", "achievements_app");
+    private static final String PASSWORD = System.getProperty("postgres.password", "password");
+
+    @Rule
+    public DAOTestRule database = DAOTestRule.newBuilder()
+            .setUrl(URL)
+            .setUsername(USERNAME)
+            .setProperty("hibernate.connection.password", PASSWORD)
+            .setDriver(org.postgresql.Driver.class)
+            .setHbm2DdlAuto("none")
+            .setShowSql(true)
+            .addEntityClass(Organization.class)
+            .addEntityClass(Person.class)
+            .addEntityClass(GroupMembership.class)
+            .addEntityClass(Group.class)
+            .addEntityClass(Credentials.class)
+            .addEntityClass(Achievement.class)
+            .addEntityClass(AchievementStep.class)
+            .addEntityClass(AchievementStepProgress.class)
+            .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
+            .build();
+
+    private AchievementsDaoImpl dao;
+
+    // The database might be shared with a locally running application so only the test's own data is removed
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+    private final List<UUID> created = new ArrayList<>();
+
+    @BeforeClass
+    public static void migrate() throws Exception {
+        assumeTrue("PostgreSQL not configured", URL != null);
+
+        try (Connection connection = DriverManager.getConnection(URL, USERNAME, PASSWORD)) {
+            new Liquibase("migrations.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection)).update("");
+        }
+    }
+
+    @Before
+    public void setUp() {
+        dao = new AchievementsDaoImpl(database.getSessionFactory(), new AchievementSearchIndex(), true, new AchievementCatalogHolder(new MetricRegistry()), ProgressEventPublisher.NONE);
+    }
+
+    @After
+    public void tearDown() {
+        database.inTransaction(() -> created.forEach(id -> {
+            try {
+                dao.delete(id);
+            } catch (ObjectNotFoundException e) {
+                // Already removed by the test
+            }
+        }));
+    }
+
+    @Test
+    public void find_swedishStemming_happyPath() {
+        final UUID boats = create("B\u00e5tar " + suffix, "Ro en b\u00e5t", Collections.emptySet());
+        create("Knopar " + suffix, "Knyt en p\u00e5lstek", Collections.emptySet());
+
+        assertThat(find("b\u00e5ten " + suffix)).containsExactly(boats);
+    }
+
+    @Test
+    public void find_nameRanksHigherThanDescription() {
+        final UUID description = create("Segling " + suffix, "Kunna knopar", Collections.emptySet());
+        final UUID name = create("Knopar " + suffix, null, Collections.emptySet());
+
+        assertThat(find("knop " + suffix)).containsExactly(name, description);
+    }
+
+    @Test
+    public void find_tagsChanged_searchVectorUpdated() throws Exception {
+        final UUID fire = create("Eld " + suffix, null, Sets.newHashSet("friluftsliv"));
+        assertThat(find("friluftsliv " + suffix)).containsExactly(fire);
+
+        database.inTransaction(() -> dao.update(fire, new AchievementProperties("Eld " + suffix, null, Sets.newHashSet("matlagning"))));
+
+        assertThat(find("friluftsliv " + suffix)).isEmpty();
+        assertThat(find("matlagning " + suffix)).containsExactly(fire);
+    }
+
+    @Test
+    public void find_phrase() {
+        final UUID fire = create("G\u00f6r upp eld " + suffix, null, Collections.emptySet());
+
+        assertThat(find("\"upp eld\" " + suffix)).containsExactly(fire);
+        assertThat(find("\"eld upp\" " + suffix)).isEmpty();
+    }
+
+    private UUID create(String name, String description, java.util.Set<String> tags) {
+        final UUID id = database.inTransaction(() -> dao.create(new AchievementProperties(name, description, tags))).getId();
+        created.add(id);
+        return id;
+    }
+
+    private List<UUID> find(String query) {
+        return database.inTransaction(() -> dao.find(query)).stream().map(Achievement::getId).collect(java.util.stream.Collectors.toList());
+    }
+}
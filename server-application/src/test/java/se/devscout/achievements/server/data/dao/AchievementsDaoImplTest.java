@@ -1,24 +1,35 @@
 package se.devscout.achievements.server.data.dao;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Sets;
 import io.dropwizard.testing.junit.DAOTestRule;
+import org.hibernate.Hibernate;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.AchievementCatalog;
+import se.devscout.achievements.server.data.AchievementCatalogHolder;
+import se.devscout.achievements.server.data.ProgressEventPublisher;
 import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.data.search.AchievementSearchIndex;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.Assert.fail;
 
 public class AchievementsDaoImplTest {
     @Rule
     public DAOTestRule database = DAOTestRule.newBuilder()
             .setShowSql(true)
+            .setProperty("hibernate.generate_statistics", "true")
             .addEntityClass(Organization.class)
             .addEntityClass(Person.class)
             .addEntityClass(GroupMembership.class)
@@ -28,6 +39,7 @@ public class AchievementsDaoImplTest {
             .addEntityClass(AchievementStep.class)
             .addEntityClass(AchievementStepProgress.class)
             .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
             .build();
 
     private AchievementsDaoImpl dao;
@@ -35,7 +47,7 @@ public class AchievementsDaoImplTest {
 
     @Before
     public void setUp() throws Exception {
-        dao = new AchievementsDaoImpl(database.getSessionFactory());
+        dao = DaoTestUtil.achievementsDao(database.getSessionFactory());
         peopleDao = new PeopleDaoImpl(database.getSessionFactory());
     }
 
@@ -60,7 +72,7 @@ public class AchievementsDaoImplTest {
         final Achievement achievement3 = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Have pizza")));
 
         // Setup: Create achievement steps
-        AchievementStepsDaoImpl stepsDao = new AchievementStepsDaoImpl(database.getSessionFactory());
+        AchievementStepsDaoImpl stepsDao = DaoTestUtil.stepsDao(database.getSessionFactory());
         AchievementStep achievement1Step1 = database.inTransaction(() -> stepsDao.create(achievement1, new AchievementStepProperties("Follow the instructions on the package")));
         AchievementStep achievement1Step2 = database.inTransaction(() -> stepsDao.create(achievement1, new AchievementStepProperties("Clean up afterwards")));
         AchievementStep achievement2Step1 = database.inTransaction(() -> stepsDao.create(achievement2, new AchievementStepProperties("Pour water into pot")));
@@ -73,7 +85,7 @@ public class AchievementsDaoImplTest {
         AchievementStep achievement3Step2 = database.inTransaction(() -> stepsDao.create(achievement3, new AchievementStepProperties("Eat and enjoy")));
 
         // Setup: Create progress records
-        AchievementStepProgressDaoImpl progressDao = new AchievementStepProgressDaoImpl(database.getSessionFactory());
+        AchievementStepProgressDaoImpl progressDao = DaoTestUtil.progressDao(database.getSessionFactory());
         database.inTransaction(() -> progressDao.set(achievement1Step1, personAliceWithProgress, new AchievementStepProgressProperties(true, "Finally done")));
         database.inTransaction(() -> progressDao.set(achievement1Step2, personAliceWithProgress, new AchievementStepProgressProperties(false, "Still eating the egg")));
         database.inTransaction(() -> progressDao.set(achievement2Step1, personAliceWithProgress, new AchievementStepProgressProperties(true, null)));
@@ -171,6 +183,56 @@ public class AchievementsDaoImplTest {
         assertThat(returnedUuids).containsExactlyInAnyOrder(fire1, fire2);
     }
 
+    @Test
+    public void find_swedishInflection_happyPath() {
+        UUID boats = database.inTransaction(() -> dao.create(new AchievementProperties("B\u00e5tar", "Ro en b\u00e5t", Sets.newHashSet("vatten")))).getId();
+        UUID knots = database.inTransaction(() -> dao.create(new AchievementProperties("Knopar"))).getId();
+        final List<Achievement> actual = dao.find("baten");
+        List<UUID> returnedUuids = actual.stream().map(Achievement::getId).collect(Collectors.toList());
+        assertThat(returnedUuids).containsExactly(boats);
+    }
+
+    @Test
+    public void find_afterUpdateAndDelete_indexUpdated() throws Exception {
+        UUID fire = database.inTransaction(() -> dao.create(new AchievementProperties("Make Fire"))).getId();
+        assertThat(dao.find("fire")).extracting("id").containsExactly(fire);
+
+        database.inTransaction(() -> dao.update(fire, new AchievementProperties("Make Campfire")));
+        assertThat(dao.find("fire")).isEmpty();
+        assertThat(dao.find("campfire")).extracting("id").containsExactly(fire);
+
+        database.inTransaction(() -> {
+            try {
+                dao.delete(fire);
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+        assertThat(dao.find("campfire")).isEmpty();
+    }
+
+    @Test
+    public void find_rolledBackCreate_notIndexed() {
+        dao.find("anything");
+        try {
+            database.inTransaction(() -> {
+                dao.create(new AchievementProperties("Make Raft"));
+                throw new IllegalStateException("Rollback");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+        assertThat(dao.find("raft")).isEmpty();
+    }
+
+    @Test
+    public void toTsQuery_happyPath() {
+        assertThat(AchievementsDaoImpl.toTsQuery(new String[]{"make", "fire"})).isEqualTo("(make:*) & (fire:*)");
+        assertThat(AchievementsDaoImpl.toTsQuery(new String[]{"make fire"})).isEqualTo("(make:* <-> fire:*)");
+        assertThat(AchievementsDaoImpl.toTsQuery(new String[]{"fire&!|:*", "()"})).isEqualTo("(fire:*)");
+    }
+
     @Test
     public void readAll_achievementsExists_happyPath() throws Exception {
         UUID fire = database.inTransaction(() -> dao.create(new AchievementProperties("Make Fire"))).getId();
@@ -291,13 +353,62 @@ public class AchievementsDaoImplTest {
         verifyHasBeenAwarded(personBob.getId());
     }
 
+    @Test
+    public void awardedTo_many_happyPath() throws Exception {
+        final Achievement achievement = database.inTransaction(() -> dao.create(new AchievementProperties("Cook Pasta")));
+        OrganizationsDaoImpl organizationDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
+        Organization org = database.inTransaction(() -> organizationDao.create(new OrganizationProperties("Test Organization")));
+        Person personAlice = database.inTransaction(() -> peopleDao.create(org, new PersonProperties("Alice", Roles.READER)));
+        Person personBob = database.inTransaction(() -> peopleDao.create(org, new PersonProperties("Bob", Roles.READER)));
+        Person personCarol = database.inTransaction(() -> peopleDao.create(org, new PersonProperties("Carol", Roles.READER)));
+
+        database.inTransaction(() -> dao.addAwardedTo(achievement, personAlice));
+        // Alice has already been awarded the achievement
+        database.inTransaction(() -> dao.addAwardedTo(achievement, Arrays.asList(personAlice, personBob, personCarol)));
+
+        verifyIsAwardedTo(achievement.getId(), personAlice, personBob, personCarol);
+        assertThat(isAwardedInRollup(achievement, personBob)).isTrue();
+
+        database.inTransaction(() -> dao.removeAwardedTo(achievement, Arrays.asList(personAlice, personBob)));
+
+        verifyIsAwardedTo(achievement.getId(), personCarol);
+        assertThat(isAwardedInRollup(achievement, personBob)).isFalse();
+        assertThat(isAwardedInRollup(achievement, personCarol)).isTrue();
+    }
+
+    @Test
+    public void addAwardedTo_collectionsNotLoaded() throws Exception {
+        final Achievement achievement = database.inTransaction(() -> dao.create(new AchievementProperties("Cook Pasta")));
+        OrganizationsDaoImpl organizationDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
+        Organization org = database.inTransaction(() -> organizationDao.create(new OrganizationProperties("Test Organization")));
+        Person person = database.inTransaction(() -> peopleDao.create(org, new PersonProperties("Alice", Roles.READER)));
+        database.getSessionFactory().getCurrentSession().clear();
+
+        final Achievement loadedAchievement = database.inTransaction(() -> dao.read(achievement.getId()));
+        final Person loadedPerson = database.inTransaction(() -> peopleDao.read(person.getId()));
+        database.inTransaction(() -> dao.addAwardedTo(loadedAchievement, loadedPerson));
+
+        assertThat(Hibernate.isInitialized(loadedAchievement.getAwardedTo())).isFalse();
+        assertThat(Hibernate.isInitialized(loadedPerson.getAwards())).isFalse();
+        assertThat(isAwardedInRollup(achievement, person)).isTrue();
+    }
+
+    private boolean isAwardedInRollup(Achievement achievement, Person person) {
+        final AchievementProgressRollup rollup = database.inTransaction(() -> database.getSessionFactory().getCurrentSession()
+                .get(AchievementProgressRollup.class, new AchievementProgressRollup.Key(achievement, person)));
+        return rollup != null && rollup.isAwarded();
+    }
+
     private void verifyHasBeenAwarded(int id, Achievement... achievements) {
+        // Awards are written directly to the join table, so collections already loaded in the session are not updated
+        database.getSessionFactory().getCurrentSession().clear();
         final Person actual = database.inTransaction(() -> peopleDao.read(id));
         assertThat(actual.getId()).isEqualTo(id);
         assertThat(actual.getAwards()).containsOnly(achievements);
     }
 
     private void verifyIsAwardedTo(UUID id, Person... people) {
+        database.getSessionFactory().getCurrentSession().clear();
         final Achievement actual = database.inTransaction(() -> dao.read(id));
         assertThat(actual.getId()).isEqualTo(id);
         assertThat(actual.getAwardedTo()).containsOnly(people);
@@ -324,4 +435,93 @@ public class AchievementsDaoImplTest {
         assertThat(actual.getName()).isEqualTo("Cook Spagetti");
         assertThat(actual.getTags()).containsExactlyInAnyOrder("italian", "quick");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getCatalog_reloadedAfterCommittedChanges() throws Exception {
+        final AchievementCatalogHolder catalogHolder = new AchievementCatalogHolder(new MetricRegistry());
+        final AchievementsDaoImpl dao = new AchievementsDaoImpl(database.getSessionFactory(), new AchievementSearchIndex(), false, catalogHolder, ProgressEventPublisher.NONE);
+        final AchievementStepsDaoImpl stepsDao = new AchievementStepsDaoImpl(database.getSessionFactory(), catalogHolder);
+
+        final Achievement pasta = database.inTransaction(() -> dao.create(new AchievementProperties("Cook pasta", Sets.newHashSet("italian", "cooking"))));
+        final Achievement egg = database.inTransaction(() -> dao.create(new AchievementProperties("Boil an egg")));
+
+        final AchievementCatalog first = database.inTransaction(dao::getCatalog);
+        assertThat(first.getAchievements()).extracting(AchievementCatalog.Entry::getName).containsExactly("Boil an egg", "Cook pasta");
+        assertThat(first.get(pasta.getId()).get().getTags()).containsExactly("cooking", "italian");
+        assertThat(database.inTransaction(dao::getCatalog)).isSameAs(first);
+
+        final AchievementStep step = database.inTransaction(() -> stepsDao.create(pasta, new AchievementStepProperties(egg)));
+
+        final AchievementCatalog second = database.inTransaction(dao::getCatalog);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.get(pasta.getId()).get().getSteps()).hasSize(1);
+        assertThat(second.getStep(step.getId()).get().getAchievementId()).isEqualTo(pasta.getId());
+        assertThat(second.getStep(step.getId()).get().getPrerequisiteAchievementId()).isEqualTo(egg.getId());
+        assertThat(first.getStep(step.getId()).isPresent()).isFalse();
+
+        database.inTransaction(() -> {
+            try {
+                stepsDao.delete(step.getId());
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+
+        assertThat(database.inTransaction(dao::getCatalog).getStep(step.getId()).isPresent()).isFalse();
+    }
+
+    @Test
+    public void getCatalog_threeStatementsAndNoEntities() throws Exception {
+        final AchievementStepsDaoImpl stepsDao = DaoTestUtil.stepsDao(database.getSessionFactory());
+        final Achievement egg = database.inTransaction(() -> dao.create(new AchievementProperties("Boil an egg", Sets.newHashSet("cooking", "eggs"))));
+        for (int i = 0; i < 10; i++) {
+            final String name = "Knot " + i;
+            final Achievement achievement = database.inTransaction(() -> dao.create(new AchievementProperties(name, Sets.newHashSet("knots"))));
+            database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Tie")));
+            database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties(egg)));
+        }
+        database.getSessionFactory().getCurrentSession().clear();
+
+        final Statistics statistics = database.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        final AchievementCatalog catalog = database.inTransaction(dao::getCatalog);
+
+        assertThat(catalog.getAchievements()).hasSize(11);
+        assertThat(catalog.getAchievements().get(0).getName()).isEqualTo("Boil an egg");
+        assertThat(catalog.getAchievements().get(0).getTags()).containsExactly("cooking", "eggs");
+        assertThat(catalog.getAchievements().get(0).getSteps()).isEmpty();
+        assertThat(catalog.getAchievements().get(1).getTags()).containsExactly("knots");
+        assertThat(catalog.getAchievements().get(1).getSteps())
+                .extracting(AchievementCatalog.Step::getDescription, AchievementCatalog.Step::getPrerequisiteAchievementId)
+                .containsExactly(tuple("Tie", null), tuple(null, egg.getId()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(0);
+        assertThat(statistics.getCollectionLoadCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void getCatalog_rolledBackChangesNotKept() throws Exception {
+        final AchievementCatalogHolder catalogHolder = new AchievementCatalogHolder(new MetricRegistry());
+        final AchievementsDaoImpl dao = new AchievementsDaoImpl(database.getSessionFactory(), new AchievementSearchIndex(), false, catalogHolder, ProgressEventPublisher.NONE);
+
+        final UUID id = database.inTransaction(() -> dao.create(new AchievementProperties("Cook pasta"))).getId();
+
+        final Callable<Achievement> updateAndRollBack = () -> {
+            dao.update(id, new AchievementProperties("Cook spaghetti"));
+            // The catalog read within the transaction includes the uncommitted change
+            assertThat(dao.getCatalog().get(id).get().getName()).isEqualTo("Cook spaghetti");
+            throw new IllegalStateException("Rollback");
+        };
+        try {
+            database.inTransaction(updateAndRollBack);
+            fail("Expected transaction to be rolled back");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        // The session is normally discarded after a rollback
+        database.getSessionFactory().getCurrentSession().clear();
+
+        assertThat(database.inTransaction(dao::getCatalog).get(id).get().getName()).isEqualTo("Cook pasta");
+    }
+}
@@ -0,0 +1,116 @@
+package se.devscout.achievements.server.data.dao;
+
+import io.dropwizard.testing.junit.DAOTestRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.model.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuditingDaoImplTest {
+
+    @Rule
+    public DAOTestRule database = DAOTestRule.newBuilder()
+            .setShowSql(true)
+            .addEntityClass(Organization.class)
+            .addEntityClass(Achievement.class)
+            .addEntityClass(AchievementStep.class)
+            .addEntityClass(AchievementStepProgress.class)
+            .addEntityClass(AbstractAuditRecord.class)
+            .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(HttpAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
+            .addEntityClass(Person.class)
+            .addEntityClass(GroupMembership.class)
+            .addEntityClass(Group.class)
+            .addEntityClass(Credentials.class)
+            .build();
+
+    private AuditingDaoImpl dao;
+
+    private Organization testOrganization;
+    private Organization otherOrganization;
+    private Person alice;
+    private Person bob;
+    private Achievement achievement;
+    private AchievementStep step;
+
+    @Before
+    public void setUp() throws Exception {
+        dao = new AuditingDaoImpl(database.getSessionFactory());
+
+        final OrganizationsDaoImpl organizationDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
+        testOrganization = database.inTransaction(() -> organizationDao.create(new OrganizationProperties("Test Organization")));
+        otherOrganization = database.inTransaction(() -> organizationDao.create(new OrganizationProperties("Other Organization")));
+
+        final PeopleDaoImpl peopleDao = new PeopleDaoImpl(database.getSessionFactory());
+        alice = database.inTransaction(() -> peopleDao.create(testOrganization, new PersonProperties("Alice", Roles.EDITOR)));
+        bob = database.inTransaction(() -> peopleDao.create(otherOrganization, new PersonProperties("Bob", Roles.EDITOR)));
+
+        final AchievementsDaoImpl achievementsDao = DaoTestUtil.achievementsDao(database.getSessionFactory());
+        achievement = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Boil an egg")));
+
+        final AchievementStepsDaoImpl stepsDao = DaoTestUtil.stepsDao(database.getSessionFactory());
+        step = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Follow the instructions on the package")));
+    }
+
+    @Test
+    public void readStepProgress_otherOrganization_notIncluded() {
+        createRecord(alice, "{\"note\":\"Alice 1\"}");
+        createRecord(bob, "{\"note\":\"Bob 1\"}");
+        createRecord(alice, "{\"note\":\"Alice 2\"}");
+
+        final List<StepProgressAuditRecord> actual = database.inTransaction(() -> dao.readStepProgress(achievement.getId(), testOrganization, null, 10));
+
+        assertThat(actual).extracting(StepProgressAuditRecord::getData).containsExactly(
+                "{\"note\":\"Alice 1\"}",
+                "{\"note\":\"Alice 2\"}");
+    }
+
+    @Test
+    public void readStepProgress_afterId_nextPage() {
+        final Long first = createRecord(alice, "{\"note\":\"1\"}");
+        final Long second = createRecord(alice, "{\"note\":\"2\"}");
+        final Long third = createRecord(alice, "{\"note\":\"3\"}");
+
+        final List<StepProgressAuditRecord> page1 = database.inTransaction(() -> dao.readStepProgress(achievement.getId(), testOrganization, null, 2));
+        assertThat(page1).extracting(StepProgressAuditRecord::getId).containsExactly(first, second);
+
+        final List<StepProgressAuditRecord> page2 = database.inTransaction(() -> dao.readStepProgress(achievement.getId(), testOrganization, second, 2));
+        assertThat(page2).extracting(StepProgressAuditRecord::getId).containsExactly(third);
+    }
+
+    @Test
+    public void readStepProgress_otherAchievement_empty() {
+        createRecord(alice, "{\"note\":\"1\"}");
+
+        final List<StepProgressAuditRecord> actual = database.inTransaction(() -> dao.readStepProgress(UUID.randomUUID(), testOrganization, null, 10));
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    public void createAll_happyPath() {
+        database.inTransaction(() -> dao.createAll(Arrays.asList(
+                new StepProgressAuditRecord(alice, "{\"note\":\"1\"}", step, alice, "POST", 200),
+                new StepProgressAuditRecord(alice, "{\"note\":\"2\"}", step, bob, "POST", 200))));
+
+        final List<StepProgressAuditRecord> actual = database.inTransaction(() -> dao.readStepProgress(achievement.getId(), testOrganization, null, 10));
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getData()).isEqualTo("{\"note\":\"1\"}");
+        assertThat(actual.get(0).getUser().getName()).isEqualTo("Alice");
+        assertThat(actual.get(0).getHttpMethod()).isEqualTo("POST");
+        assertThat(actual.get(0).getResponseCode()).isEqualTo(200);
+        assertThat(actual.get(0).getDateTime()).isNotNull();
+    }
+
+    private Long createRecord(Person person, String data) {
+        return database.inTransaction(() -> dao.create(UUID.randomUUID(), alice.getId(), step.getId(), person.getId(), data, "POST", 200)).getId();
+    }
+}
@@ -31,6 +31,7 @@ public class CredentialsDaoImplTest {
             .addEntityClass(AchievementStep.class)
             .addEntityClass(AchievementStepProgress.class)
             .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
             .build();
 
     private CredentialsDaoImpl dao;
@@ -0,0 +1,27 @@
+package se.devscout.achievements.server.data.dao;
+
+import com.codahale.metrics.MetricRegistry;
+import org.hibernate.SessionFactory;
+import se.devscout.achievements.server.data.AchievementCatalogHolder;
+import se.devscout.achievements.server.data.ProgressEventPublisher;
+import se.devscout.achievements.server.data.ProgressMatrices;
+import se.devscout.achievements.server.data.search.AchievementSearchIndex;
+
+/**
+ * Creates DAOs which keep their shared in-memory state to themselves. The application always shares that state
+ * between the DAOs, so these are only meant for tests which do not depend on it.
+ */
+public class DaoTestUtil {
+
+    public static AchievementsDaoImpl achievementsDao(SessionFactory sessionFactory) {
+        return new AchievementsDaoImpl(sessionFactory, new AchievementSearchIndex(), false, new AchievementCatalogHolder(new MetricRegistry()), ProgressEventPublisher.NONE);
+    }
+
+    public static AchievementStepsDaoImpl stepsDao(SessionFactory sessionFactory) {
+        return new AchievementStepsDaoImpl(sessionFactory, new AchievementCatalogHolder(new MetricRegistry()));
+    }
+
+    public static AchievementStepProgressDaoImpl progressDao(SessionFactory sessionFactory) {
+        return new AchievementStepProgressDaoImpl(sessionFactory, new ProgressMatrices(100, new MetricRegistry()), ProgressEventPublisher.NONE);
+    }
+}
@@ -25,6 +25,7 @@ public class GroupMembershipsDaoTest {
             .addEntityClass(AchievementStep.class)
             .addEntityClass(AchievementStepProgress.class)
             .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
             .build();
 
     private GroupMembershipsDaoImpl dao;
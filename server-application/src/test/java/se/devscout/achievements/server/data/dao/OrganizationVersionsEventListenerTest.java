@@ -0,0 +1,129 @@
+package se.devscout.achievements.server.data.dao;
+
+import io.dropwizard.testing.junit.DAOTestRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.OrganizationVersions;
+import se.devscout.achievements.server.data.OrganizationVersionsEventListener;
+import se.devscout.achievements.server.data.model.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class OrganizationVersionsEventListenerTest {
+    @Rule
+    public DAOTestRule database = DAOTestRule.newBuilder()
+            .setShowSql(true)
+            .addEntityClass(Organization.class)
+            .addEntityClass(Person.class)
+            .addEntityClass(GroupMembership.class)
+            .addEntityClass(Group.class)
+            .addEntityClass(Credentials.class)
+            .addEntityClass(Achievement.class)
+            .addEntityClass(AchievementStep.class)
+            .addEntityClass(AchievementStepProgress.class)
+            .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
+            .build();
+
+    private final OrganizationVersions versions = new OrganizationVersions();
+
+    private Organization org1;
+    private Organization org2;
+    private Person alice;
+    private AchievementStep step;
+
+    @Before
+    public void setUp() throws Exception {
+        OrganizationVersionsEventListener.register(database.getSessionFactory(), versions);
+
+        final OrganizationsDaoImpl organizationsDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
+        org1 = database.inTransaction(() -> organizationsDao.create(new OrganizationProperties("Org 1")));
+        org2 = database.inTransaction(() -> organizationsDao.create(new OrganizationProperties("Org 2")));
+        alice = database.inTransaction(() -> new PeopleDaoImpl(database.getSessionFactory()).create(org1, new PersonProperties("Alice", Roles.READER)));
+
+        final Achievement achievement = database.inTransaction(() -> DaoTestUtil.achievementsDao(database.getSessionFactory()).create(new AchievementProperties("Boil an egg")));
+        step = database.inTransaction(() -> DaoTestUtil.stepsDao(database.getSessionFactory()).create(achievement, new AchievementStepProperties("Boil")));
+    }
+
+    @Test
+    public void progress_set_organizationVersionIncremented() throws Exception {
+        final long org1Before = versions.get(org1.getId());
+        final long org2Before = versions.get(org2.getId());
+        final long org1PeopleBefore = versions.getPeople(org1.getId());
+
+        database.inTransaction(() -> DaoTestUtil.progressDao(database.getSessionFactory()).set(step, alice, new AchievementStepProgressProperties(true, null)));
+
+        assertThat(versions.get(org1.getId())).isGreaterThan(org1Before);
+        assertThat(versions.get(org2.getId())).isEqualTo(org2Before);
+        assertThat(versions.getPeople(org1.getId())).isEqualTo(org1PeopleBefore);
+    }
+
+    @Test
+    public void person_created_organizationVersionIncremented() throws Exception {
+        final long org1Before = versions.get(org1.getId());
+        final long org1PeopleBefore = versions.getPeople(org1.getId());
+        final long org2PeopleBefore = versions.getPeople(org2.getId());
+
+        database.inTransaction(() -> new PeopleDaoImpl(database.getSessionFactory()).create(org1, new PersonProperties("Bob", Roles.READER)));
+
+        assertThat(versions.get(org1.getId())).isGreaterThan(org1Before);
+        assertThat(versions.getPeople(org1.getId())).isGreaterThan(org1PeopleBefore);
+        assertThat(versions.getPeople(org2.getId())).isEqualTo(org2PeopleBefore);
+    }
+
+    @Test
+    public void achievement_updated_allVersionsIncremented() throws Exception {
+        final long org1Before = versions.get(org1.getId());
+        final long org2Before = versions.get(org2.getId());
+
+        database.inTransaction(() -> DaoTestUtil.achievementsDao(database.getSessionFactory()).create(new AchievementProperties("Cook pasta")));
+
+        assertThat(versions.get(org1.getId())).isGreaterThan(org1Before);
+        assertThat(versions.get(org2.getId())).isGreaterThan(org2Before);
+    }
+
+    @Test
+    public void group_created_organizationVersionIncremented() throws Exception {
+        final long org1Before = versions.get(org1.getId());
+        final long org2Before = versions.get(org2.getId());
+
+        database.inTransaction(() -> new GroupsDaoImpl(database.getSessionFactory()).create(org1, new GroupProperties("Developers")));
+
+        assertThat(versions.get(org1.getId())).isGreaterThan(org1Before);
+        assertThat(versions.get(org2.getId())).isEqualTo(org2Before);
+    }
+
+    @Test
+    public void person_attributesUpdated_organizationVersionIncremented() throws Exception {
+        final long org1Before = versions.get(org1.getId());
+
+        database.inTransaction(() -> {
+            final Person person = database.getSessionFactory().getCurrentSession().get(Person.class, alice.getId());
+            person.getAttributes().add(new PersonAttribute("title", "Scarer"));
+        });
+
+        assertThat(versions.get(org1.getId())).isGreaterThan(org1Before);
+    }
+
+    @Test
+    public void person_attributesUpdated_rolledBack_organizationVersionUnchanged() throws Exception {
+        final long org1Before = versions.get(org1.getId());
+
+        try {
+            database.inTransaction(() -> {
+                final Person person = database.getSessionFactory().getCurrentSession().get(Person.class, alice.getId());
+                person.getAttributes().add(new PersonAttribute("title", "Scarer"));
+                database.getSessionFactory().getCurrentSession().flush();
+                throw new IllegalStateException("Rollback");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        assertThat(versions.get(org1.getId())).isEqualTo(org1Before);
+    }
+}
@@ -0,0 +1,112 @@
+package se.devscout.achievements.server.data.dao;
+
+import io.dropwizard.testing.junit.DAOTestRule;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.data.search.TrigramIndex;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the pg_trgm organization search. Skipped unless -Dpostgres.url is set, see
+ * {@link AchievementsDaoImplPostgresTest}.
+ */
+public class OrganizationsDaoImplPostgresTest {
+
+    private static final String URL = System.getProperty("postgres.url");
+    private static final String USERNAME = System.getProperty("postgres.username", "achievements_app");
+    private static final String PASSWORD = System.getProperty("postgres.password", "password");
+
+    @Rule
+    public DAOTestRule database = DAOTestRule.newBuilder()
+            .setUrl(URL)
+            .setUsername(USERNAME)
+            .setProperty("hibernate.connection.password", PASSWORD)
+            .setDriver(org.postgresql.Driver.class)
+            .setHbm2DdlAuto("none")
+            .setShowSql(true)
+            .addEntityClass(Organization.class)
+            .addEntityClass(Person.class)
+            .addEntityClass(GroupMembership.class)
+            .addEntityClass(Group.class)
+            .addEntityClass(Credentials.class)
+            .addEntityClass(Achievement.class)
+            .addEntityClass(AchievementStep.class)
+            .addEntityClass(AchievementStepProgress.class)
+            .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
+            .build();
+
+    private OrganizationsDaoImpl dao;
+
+    // The database might be shared with a locally running application so only the test's own data is removed
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+    private final List<UUID> created = new ArrayList<>();
+
+    @BeforeClass
+    public static void migrate() throws Exception {
+        assumeTrue("PostgreSQL not configured", URL != null);
+
+        try (Connection connection = DriverManager.getConnection(URL, USERNAME, PASSWORD)) {
+            new Liquibase("migrations.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection)).update("");
+        }
+    }
+
+    @Before
+    public void setUp() {
+        dao = new OrganizationsDaoImpl(database.getSessionFactory(), null, new TrigramIndex(), true);
+    }
+
+    @After
+    public void tearDown() {
+        database.inTransaction(() -> created.forEach(id -> {
+            try {
+                dao.delete(id);
+            } catch (ObjectNotFoundException e) {
+                // Already removed by the test
+            }
+        }));
+    }
+
+    @Test
+    public void find_similarNames_mostSimilarFirst() {
+        final UUID monsters = create("Monsters, Inc. " + suffix);
+        final UUID university = create("Monsters University " + suffix);
+
+        assertThat(find("Monstres Inc " + suffix).get(0)).isEqualTo(monsters);
+        assertThat(find("Monsters University " + suffix).get(0)).isEqualTo(university);
+    }
+
+    @Test
+    public void find_substring() {
+        final UUID burns = create("Burns Industries " + suffix);
+
+        assertThat(find("industries " + suffix.substring(0, 4))).containsExactly(burns);
+        assertThat(find("100%" + suffix)).isEmpty();
+    }
+
+    private UUID create(String name) {
+        final UUID id = database.inTransaction(() -> dao.create(new OrganizationProperties(name))).getId();
+        created.add(id);
+        return id;
+    }
+
+    private List<UUID> find(String query) {
+        return database.inTransaction(() -> dao.find(query)).stream().map(Organization::getId).collect(Collectors.toList());
+    }
+}
@@ -31,6 +31,7 @@ public class OrganizationsDaoImplTest {
             .addEntityClass(AchievementStep.class)
             .addEntityClass(AchievementStepProgress.class)
             .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
             .build();
 
     private OrganizationsDaoImpl dao;
@@ -58,6 +59,59 @@ public class OrganizationsDaoImplTest {
         assertThat(returnedUuids).containsExactlyInAnyOrder(burnsUuid, buynlargeUuid);
     }
 
+    @Test
+    public void find_similarNames_mostSimilarFirst() throws Exception {
+        UUID monstersUuid = database.inTransaction(() -> dao.create(new OrganizationProperties("Monsters, Inc."))).getId();
+        UUID universityUuid = database.inTransaction(() -> dao.create(new OrganizationProperties("Monsters University"))).getId();
+        database.inTransaction(() -> dao.create(new OrganizationProperties("Planet Express, Inc.")));
+
+        final List<UUID> actual = dao.find("Monstres Inc").stream().map(Organization::getId).collect(Collectors.toList());
+        assertThat(actual).containsExactly(monstersUuid);
+
+        final List<UUID> actualSubstring = dao.find("monsters").stream().map(Organization::getId).collect(Collectors.toList());
+        assertThat(actualSubstring).containsExactlyInAnyOrder(monstersUuid, universityUuid);
+    }
+
+    @Test
+    public void find_renamedAndDeleted_indexUpdated() throws Exception {
+        UUID burnsUuid = database.inTransaction(() -> dao.create(new OrganizationProperties("Burns Industries"))).getId();
+        assertThat(dao.find("burns")).extracting(Organization::getId).containsExactly(burnsUuid);
+
+        database.inTransaction(() -> {
+            try {
+                dao.update(burnsUuid, new OrganizationProperties("Springfield Nuclear Power Plant"));
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+        assertThat(dao.find("burns")).isEmpty();
+        assertThat(dao.find("nuclear")).extracting(Organization::getId).containsExactly(burnsUuid);
+
+        database.inTransaction(() -> {
+            try {
+                dao.delete(burnsUuid);
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+        assertThat(dao.find("nuclear")).isEmpty();
+    }
+
+    @Test
+    public void find_rolledBackCreate_notIndexed() throws Exception {
+        dao.find("anything");
+        try {
+            database.inTransaction(() -> {
+                dao.create(new OrganizationProperties("Buy n Large"));
+                throw new IllegalStateException("Rollback");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+        assertThat(dao.find("large")).isEmpty();
+    }
+
     @Test
     public void all_happyPath() throws Exception {
         UUID burnsUuid = database.inTransaction(() -> dao.create(new OrganizationProperties("Burns Industries"))).getId();
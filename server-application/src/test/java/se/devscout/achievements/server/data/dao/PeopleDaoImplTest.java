@@ -26,6 +26,7 @@ public class PeopleDaoImplTest {
             .addEntityClass(AchievementStep.class)
             .addEntityClass(AchievementStepProgress.class)
             .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
             .addEntityClass(Person.class)
             .addEntityClass(GroupMembership.class)
             .addEntityClass(Group.class)
@@ -41,7 +42,7 @@ public class PeopleDaoImplTest {
     @Before
     public void setUp() throws Exception {
         dao = new PeopleDaoImpl(database.getSessionFactory());
-        achievementsDao = new AchievementsDaoImpl(database.getSessionFactory());
+        achievementsDao = DaoTestUtil.achievementsDao(database.getSessionFactory());
 
         OrganizationsDaoImpl organizationDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
         testOrganization = database.inTransaction(() -> organizationDao.create(new OrganizationProperties("Test Organization")));
@@ -73,6 +74,48 @@ public class PeopleDaoImplTest {
         assertThat(actualB.stream().map(Person::getId).collect(Collectors.toList())).containsExactlyInAnyOrder(bobUuid);
     }
 
+    @Test
+    public void getByOrganization_filtered_happyPath() throws Exception {
+        final GroupsDaoImpl groupsDao = new GroupsDaoImpl(database.getSessionFactory());
+        final GroupMembershipsDaoImpl membershipsDao = new GroupMembershipsDaoImpl(database.getSessionFactory());
+
+        final Person alice = database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Alice", Roles.READER)));
+        final Person amanda = database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Amanda", Roles.READER)));
+        final Person bob = database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Bob 100%", Roles.READER)));
+        database.inTransaction(() -> dao.create(otherOrganization, new PersonProperties("Alex", Roles.READER)));
+        final Group group = database.inTransaction(() -> groupsDao.create(testOrganization, new GroupProperties("Developers")));
+        database.inTransaction(() -> {
+            membershipsDao.add(amanda, group, GroupRole.MEMBER);
+            membershipsDao.add(bob, group, GroupRole.MEMBER);
+        });
+
+        assertThat(dao.getByParent(testOrganization, null, null, null, null, 100)).containsExactly(alice, amanda, bob);
+        assertThat(dao.getByParent(testOrganization, " A ", null, null, null, 100)).containsExactly(alice, amanda);
+        assertThat(dao.getByParent(testOrganization, "LIC", null, null, null, 100)).containsExactly(alice);
+        assertThat(dao.getByParent(testOrganization, "%", null, null, null, 100)).containsExactly(bob);
+        assertThat(dao.getByParent(testOrganization, null, group.getId(), null, null, 100)).containsExactly(amanda, bob);
+        assertThat(dao.getByParent(testOrganization, "a", group.getId(), null, null, 100)).containsExactly(amanda);
+        assertThat(dao.getByParent(testOrganization, "x", null, null, null, 100)).isEmpty();
+    }
+
+    @Test
+    public void getByOrganization_paginated_happyPath() throws Exception {
+        final Person bob1 = database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Bob", Roles.READER)));
+        final Person alice = database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Alice", Roles.READER)));
+        final Person bob2 = database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Bob", Roles.READER)));
+        final Person carol = database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Carol", Roles.READER)));
+
+        final List<Person> page1 = dao.getByParent(testOrganization, null, null, null, null, 2);
+        assertThat(page1).containsExactly(alice, bob1);
+
+        // People with the same name are ordered by id, so the page boundary can be between them
+        final List<Person> page2 = dao.getByParent(testOrganization, null, null, bob1.getName(), bob1.getId(), 2);
+        assertThat(page2).containsExactly(bob2, carol);
+
+        final List<Person> page3 = dao.getByParent(testOrganization, null, null, carol.getName(), carol.getId(), 2);
+        assertThat(page3).isEmpty();
+    }
+
     @Test
     public void getByOrganization_incorrectId_expectEmptyList() throws Exception {
         final List<Person> actual = dao.getByParent(null);
@@ -110,17 +153,17 @@ public class PeopleDaoImplTest {
         final Person personAliceWithProgress = database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Alice", Roles.READER)));
 
         // Setup: Create achievements
-        AchievementsDaoImpl achievementsDao = new AchievementsDaoImpl(database.getSessionFactory());
+        AchievementsDaoImpl achievementsDao = DaoTestUtil.achievementsDao(database.getSessionFactory());
         final Achievement achievement1 = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Boil an egg")));
 
         // Setup: Create achievement steps
-        AchievementStepsDaoImpl stepsDao = new AchievementStepsDaoImpl(database.getSessionFactory());
+        AchievementStepsDaoImpl stepsDao = DaoTestUtil.stepsDao(database.getSessionFactory());
         AchievementStep achievement1Step1 = database.inTransaction(() -> stepsDao.create(achievement1, new AchievementStepProperties("Follow the instructions on the package")));
         AchievementStep achievement1Step2 = database.inTransaction(() -> stepsDao.create(achievement1, new AchievementStepProperties("Clean up afterwards")));
 
         // Setup: Create progress records
         AuditingDaoImpl auditingDao = new AuditingDaoImpl(database.getSessionFactory());
-        AchievementStepProgressDaoImpl progressDao = new AchievementStepProgressDaoImpl(database.getSessionFactory());
+        AchievementStepProgressDaoImpl progressDao = DaoTestUtil.progressDao(database.getSessionFactory());
         database.inTransaction(() -> {
             progressDao.set(achievement1Step1, personAliceWithProgress, new AchievementStepProgressProperties(true, "Finally done"));
             auditingDao.create(UUID.randomUUID(), 1, achievement1Step1.getId(), personAliceWithProgress.getId(), null, "PUT", 200);
@@ -128,6 +171,8 @@ public class PeopleDaoImplTest {
         });
         database.inTransaction(() -> progressDao.set(achievement1Step2, personAliceWithProgress, new AchievementStepProgressProperties(false, "Still eating the egg")));
 
+        // Make sure the person is read from the database, including its progress records, before it is deleted
+        database.getSessionFactory().getCurrentSession().clear();
         database.inTransaction(() -> {
             try {
                 dao.delete(personAliceWithProgress.getId());
@@ -172,7 +217,7 @@ public class PeopleDaoImplTest {
     @Test(expected = DuplicateCustomIdentifier.class)
     public void create_duplicateCustomId_notAllowed() throws Exception {
         try {
-            dao.create(testOrganization, new PersonProperties("Carol1", "carol1@example.com", Sets.newHashSet(new PersonAttribute("favourite_colour", "green"), new PersonAttribute("role", "administrator")), "carol", Roles.READER));
+            database.inTransaction(() -> dao.create(testOrganization, new PersonProperties("Carol1", "carol1@example.com", Sets.newHashSet(new PersonAttribute("favourite_colour", "green"), new PersonAttribute("role", "administrator")), "carol", Roles.READER)));
         } catch (Exception e) {
             fail("Exception was not expected");
         }
@@ -194,7 +239,7 @@ public class PeopleDaoImplTest {
     @Test
     public void awards_happyPath() throws Exception {
         // Setup: Create achievements
-        AchievementsDaoImpl achievementsDao = new AchievementsDaoImpl(database.getSessionFactory());
+        AchievementsDaoImpl achievementsDao = DaoTestUtil.achievementsDao(database.getSessionFactory());
         final Achievement achievement1 = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Boil an egg")));
         final Achievement achievement2 = database.inTransaction(() -> achievementsDao.create(new AchievementProperties("Make an omelette")));
 
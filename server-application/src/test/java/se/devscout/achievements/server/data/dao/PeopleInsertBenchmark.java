@@ -0,0 +1,124 @@
+package se.devscout.achievements.server.data.dao;
+
+import ch.qos.logback.classic.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.data.model.Group;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to insert 5,000 people in one transaction, with and without JDBC batching, using an
+ * in-memory H2 database. H2 runs in the same process so the scores show the cost of the extra statements rather than
+ * the network round trips, which is what batching saves the most of when running against PostgreSQL.
+ * <p>
+ * Run using the main method, or with "java -cp ... org.openjdk.jmh.Main PeopleInsertBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PeopleInsertBenchmark {
+
+    private static final int PEOPLE_COUNT = 5_000;
+
+    @Param({"0", "50"})
+    public int batchSize;
+
+    private SessionFactory sessionFactory;
+    private PeopleDaoImpl peopleDao;
+    private Organization organization;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Logback logs everything, including each statement Hibernate runs, unless it is configured otherwise
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+
+        sessionFactory = new Configuration()
+                // The MVStore engine checks the unique custom identifier index by scanning all rows with the same
+                // organization and a null identifier, which would make the scores depend on the size of the table
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MV_STORE=FALSE")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.driver_class", "org.h2.Driver")
+                .setProperty("hibernate.current_session_context_class", "managed")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize))
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true")
+                .addAnnotatedClass(Organization.class)
+                .addAnnotatedClass(Achievement.class)
+                .addAnnotatedClass(AchievementStep.class)
+                .addAnnotatedClass(AchievementStepProgress.class)
+                .addAnnotatedClass(AchievementProgressRollup.class)
+                .addAnnotatedClass(AbstractAuditRecord.class)
+                .addAnnotatedClass(StepProgressAuditRecord.class)
+                .addAnnotatedClass(HttpAuditRecord.class)
+                .addAnnotatedClass(Person.class)
+                .addAnnotatedClass(GroupMembership.class)
+                .addAnnotatedClass(Group.class)
+                .addAnnotatedClass(Credentials.class)
+                .buildSessionFactory();
+        peopleDao = new PeopleDaoImpl(sessionFactory);
+        organization = inTransaction(() -> new OrganizationsDaoImpl(sessionFactory, 100L).create(new OrganizationProperties("Monsters, Inc.")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deletePeople() throws Exception {
+        inTransaction(() -> sessionFactory.getCurrentSession().createQuery("DELETE FROM Person").executeUpdate());
+    }
+
+    @Benchmark
+    public int insertPeople() throws Exception {
+        return inTransaction(() -> {
+            for (int i = 0; i < PEOPLE_COUNT; i++) {
+                peopleDao.create(organization, new PersonProperties("Person " + i, Roles.READER));
+            }
+            return PEOPLE_COUNT;
+        });
+    }
+
+    private <T> T inTransaction(ThrowingSupplier<T> supplier) throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            ManagedSessionContext.bind(session);
+            final Transaction transaction = session.beginTransaction();
+            try {
+                final T result = supplier.get();
+                transaction.commit();
+                return result;
+            } catch (Exception e) {
+                transaction.rollback();
+                throw e;
+            } finally {
+                ManagedSessionContext.unbind(sessionFactory);
+            }
+        }
+    }
+
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PeopleInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
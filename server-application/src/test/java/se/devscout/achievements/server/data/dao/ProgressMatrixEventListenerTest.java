@@ -0,0 +1,121 @@
+package se.devscout.achievements.server.data.dao;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.testing.junit.DAOTestRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.ProgressEventPublisher;
+import se.devscout.achievements.server.data.ProgressMatrices;
+import se.devscout.achievements.server.data.ProgressMatrix;
+import se.devscout.achievements.server.data.ProgressMatrixEventListener;
+import se.devscout.achievements.server.data.model.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ProgressMatrixEventListenerTest {
+    @Rule
+    public DAOTestRule database = DAOTestRule.newBuilder()
+            .setShowSql(true)
+            .addEntityClass(Organization.class)
+            .addEntityClass(Person.class)
+            .addEntityClass(GroupMembership.class)
+            .addEntityClass(Group.class)
+            .addEntityClass(Credentials.class)
+            .addEntityClass(Achievement.class)
+            .addEntityClass(AchievementStep.class)
+            .addEntityClass(AchievementStepProgress.class)
+            .addEntityClass(StepProgressAuditRecord.class)
+            .addEntityClass(AchievementProgressRollup.class)
+            .build();
+
+    private final ProgressMatrices matrices = new ProgressMatrices(10, new MetricRegistry());
+
+    private AchievementStepProgressDaoImpl progressDao;
+
+    private Organization org1;
+    private Person alice;
+    private Person carol;
+    private AchievementStep step1;
+    private AchievementStep step2;
+
+    @Before
+    public void setUp() throws Exception {
+        ProgressMatrixEventListener.register(database.getSessionFactory(), matrices);
+        progressDao = new AchievementStepProgressDaoImpl(database.getSessionFactory(), matrices, ProgressEventPublisher.NONE);
+
+        final OrganizationsDaoImpl organizationsDao = new OrganizationsDaoImpl(database.getSessionFactory(), 100L);
+        org1 = database.inTransaction(() -> organizationsDao.create(new OrganizationProperties("Org 1")));
+        final Organization org2 = database.inTransaction(() -> organizationsDao.create(new OrganizationProperties("Org 2")));
+
+        final PeopleDaoImpl peopleDao = new PeopleDaoImpl(database.getSessionFactory());
+        alice = database.inTransaction(() -> peopleDao.create(org1, new PersonProperties("Alice", Roles.READER)));
+        carol = database.inTransaction(() -> peopleDao.create(org2, new PersonProperties("Carol", Roles.READER)));
+
+        final Achievement achievement = database.inTransaction(() -> DaoTestUtil.achievementsDao(database.getSessionFactory()).create(new AchievementProperties("Boil an egg")));
+        final AchievementStepsDaoImpl stepsDao = DaoTestUtil.stepsDao(database.getSessionFactory());
+        step1 = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Boil")));
+        step2 = database.inTransaction(() -> stepsDao.create(achievement, new AchievementStepProperties("Eat")));
+
+        database.inTransaction(() -> progressDao.set(step1, alice, new AchievementStepProgressProperties(40, null)));
+        database.inTransaction(() -> progressDao.set(step1, carol, new AchievementStepProgressProperties(true, null)));
+    }
+
+    @Test
+    public void getMatrix_onlyOrganization() {
+        final ProgressMatrix matrix = database.inTransaction(() -> progressDao.getMatrix(org1));
+
+        assertThat(matrix.get(step1.getId(), alice.getId())).isEqualTo(40);
+        assertThat(matrix.get(step1.getId(), carol.getId())).isEqualTo(-1);
+        assertThat(matrix.getValueCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void progress_setAndUnset_residentMatrixUpdated() throws Exception {
+        final ProgressMatrix matrix = getMatrix();
+
+        database.inTransaction(() -> progressDao.set(step2, alice, new AchievementStepProgressProperties(true, null)));
+        database.inTransaction(() -> progressDao.set(step1, alice, new AchievementStepProgressProperties(60, null)));
+
+        assertThat(matrix.get(step1.getId(), alice.getId())).isEqualTo(60);
+        assertThat(matrix.get(step2.getId(), alice.getId())).isEqualTo(100);
+
+        database.inTransaction(() -> {
+            try {
+                progressDao.unset(step1, alice);
+            } catch (ObjectNotFoundException e) {
+                fail();
+            }
+        });
+
+        assertThat(matrix.get(step1.getId(), alice.getId())).isEqualTo(-1);
+        assertThat(getMatrix()).isSameAs(matrix);
+    }
+
+    @Test
+    public void progress_setInOtherOrganization_residentMatrixUnchanged() throws Exception {
+        final ProgressMatrix matrix = getMatrix();
+
+        database.inTransaction(() -> progressDao.set(step2, carol, new AchievementStepProgressProperties(true, null)));
+
+        assertThat(matrix.get(step2.getId(), carol.getId())).isEqualTo(-1);
+        assertThat(matrix.getValueCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_changeCommittedWhileLoading_matrixNotKept() throws Exception {
+        final ProgressMatrix first = matrices.get(org1.getId(), () -> {
+            final ProgressMatrix matrix = database.inTransaction(() -> progressDao.getMatrix(org1));
+            matrices.set(org1.getId(), step2.getId(), alice.getId(), 100);
+            return matrix;
+        });
+
+        assertThat(getMatrix()).isNotSameAs(first);
+    }
+
+    private ProgressMatrix getMatrix() {
+        return matrices.get(org1.getId(), () -> database.inTransaction(() -> progressDao.getMatrix(org1)));
+    }
+}
@@ -0,0 +1,73 @@
+package se.devscout.achievements.server.data.search;
+
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AchievementSearchIndexTest {
+
+    private final UUID knots = UUID.randomUUID();
+    private final UUID boats = UUID.randomUUID();
+    private final UUID fire = UUID.randomUUID();
+
+    private final AchievementSearchIndex index = new AchievementSearchIndex();
+
+    @Before
+    public void setUp() {
+        index.load(() -> Arrays.asList(
+                new AchievementSearchIndex.Document(knots, "Knopar", "L\u00e4r dig knyta r\u00e5bandsknop och p\u00e5lstek", Sets.newHashSet("friluftsliv")),
+                new AchievementSearchIndex.Document(boats, "B\u00e5tar", "Ro en b\u00e5t och l\u00e4r dig knopar f\u00f6r f\u00f6rt\u00f6jning", Sets.newHashSet("vatten")),
+                new AchievementSearchIndex.Document(fire, "Eld", "G\u00f6r upp eld utan t\u00e4ndstickor", Sets.newHashSet("friluftsliv"))));
+    }
+
+    @Test
+    public void terms_swedishNormalization() {
+        assertThat(SwedishTextNormalizer.terms("B\u00e5tarna \u00c4R stora")).containsExactly("bat", "ar", "stor");
+        assertThat(SwedishTextNormalizer.terms("knop, KNOPAR & knoparna")).containsExactly("knop", "knop", "knop");
+        assertThat(SwedishTextNormalizer.terms("  ")).isEmpty();
+    }
+
+    @Test
+    public void search_inflectedAndWithoutDiacritics() {
+        assertThat(index.search(new String[]{"bat"})).containsExactly(boats);
+        assertThat(index.search(new String[]{"b\u00e5ten"})).containsExactly(boats);
+    }
+
+    @Test
+    public void search_nameRanksHigherThanDescription() {
+        assertThat(index.search(new String[]{"knop"})).containsExactly(knots, boats);
+    }
+
+    @Test
+    public void search_allTokensMustMatch() {
+        assertThat(index.search(new String[]{"friluftsliv"})).containsExactlyInAnyOrder(knots, fire);
+        assertThat(index.search(new String[]{"friluftsliv", "eld"})).containsExactly(fire);
+    }
+
+    @Test
+    public void search_prefix() {
+        assertThat(index.search(new String[]{"t\u00e4nd"})).containsExactly(fire);
+    }
+
+    @Test
+    public void search_phrase() {
+        assertThat(index.search(new String[]{"upp eld"})).containsExactly(fire);
+        assertThat(index.search(new String[]{"eld upp"})).isEmpty();
+    }
+
+    @Test
+    public void putAndRemove_indexUpdated() {
+        index.put(new AchievementSearchIndex.Document(fire, "L\u00e4gereld", null, Collections.emptySet()));
+        assertThat(index.search(new String[]{"t\u00e4ndstickor"})).isEmpty();
+        assertThat(index.search(new String[]{"l\u00e4gereld"})).containsExactly(fire);
+
+        index.remove(fire);
+        assertThat(index.search(new String[]{"l\u00e4gereld"})).isEmpty();
+    }
+}
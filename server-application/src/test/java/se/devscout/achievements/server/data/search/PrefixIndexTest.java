@@ -0,0 +1,52 @@
+package se.devscout.achievements.server.data.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrefixIndexTest {
+
+    private final PrefixIndex<String> index = new PrefixIndex<>(Arrays.asList(
+            "Eva \u00c5berg",
+            "Anna Svensson",
+            "Erik Andersson",
+            "Anders Eriksson",
+            "Annika"), Function.identity());
+
+    @Test
+    public void search_nameMatchesBeforeWordMatches() {
+        assertThat(index.search("and", 10)).containsExactly("Anders Eriksson", "Erik Andersson");
+        assertThat(index.search("an", 10)).containsExactly("Anders Eriksson", "Anna Svensson", "Annika", "Erik Andersson");
+    }
+
+    @Test
+    public void search_allWordsMustMatch() {
+        assertThat(index.search("an sv", 10)).containsExactly("Anna Svensson");
+        assertThat(index.search("svensson an", 10)).containsExactly("Anna Svensson");
+        assertThat(index.search("anna erik", 10)).isEmpty();
+    }
+
+    @Test
+    public void search_caseAndDiacriticsIgnored() {
+        assertThat(index.search("ABERG", 10)).containsExactly("Eva \u00c5berg");
+        assertThat(index.search("\u00e5b", 10)).containsExactly("Eva \u00c5berg");
+    }
+
+    @Test
+    public void search_limit() {
+        assertThat(index.search("an", 2)).containsExactly("Anders Eriksson", "Anna Svensson");
+        assertThat(index.search("an", 0)).isEmpty();
+    }
+
+    @Test
+    public void search_noMatches() {
+        assertThat(index.search("x", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+        assertThat(index.search(null, 10)).isEmpty();
+        assertThat(new PrefixIndex<String>(Collections.emptyList(), Function.identity()).search("a", 10)).isEmpty();
+    }
+}
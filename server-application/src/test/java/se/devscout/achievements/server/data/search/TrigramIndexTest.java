@@ -0,0 +1,73 @@
+package se.devscout.achievements.server.data.search;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrigramIndexTest {
+
+    private final UUID monsters = UUID.randomUUID();
+    private final UUID burns = UUID.randomUUID();
+    private final UUID buyNLarge = UUID.randomUUID();
+    private final UUID scouts = UUID.randomUUID();
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @Before
+    public void setUp() {
+        index.load(() -> ImmutableMap.of(
+                monsters, "Monsters, Inc.",
+                burns, "Burns Industries",
+                buyNLarge, "Buy n Large",
+                scouts, "M\u00e5lilla scoutk\u00e5r"));
+    }
+
+    @Test
+    public void trigrams_paddedWords() {
+        assertThat(TrigramIndex.trigrams("Cat")).containsExactlyInAnyOrder("  c", " ca", "cat", "at ");
+        assertThat(TrigramIndex.trigrams("a b")).containsExactlyInAnyOrder("  a", " a ", "  b", " b ");
+    }
+
+    @Test
+    public void search_substring() {
+        assertThat(index.search("bu")).containsExactlyInAnyOrder(burns, buyNLarge);
+        assertThat(index.search("dust")).containsExactly(burns);
+        assertThat(index.search("INC")).containsExactly(monsters);
+    }
+
+    @Test
+    public void search_similar() {
+        assertThat(index.search("Monstres Inc")).containsExactly(monsters);
+        assertThat(index.search("malilla")).containsExactly(scouts);
+    }
+
+    @Test
+    public void search_mostSimilarFirst() {
+        index.put(UUID.randomUUID(), "Monsters University");
+        final UUID exact = UUID.randomUUID();
+        index.put(exact, "Monsters");
+
+        assertThat(index.search("monsters").get(0)).isEqualTo(exact);
+        assertThat(index.search("monsters")).hasSize(3);
+    }
+
+    @Test
+    public void search_noMatch() {
+        assertThat(index.search("planet express")).isEmpty();
+        assertThat(index.search(" ")).isEmpty();
+    }
+
+    @Test
+    public void putAndRemove_indexUpdated() {
+        index.put(monsters, "Monsters University");
+        assertThat(index.search("inc")).isEmpty();
+        assertThat(index.search("university")).containsExactly(monsters);
+
+        index.remove(monsters);
+        assertThat(index.search("university")).isEmpty();
+    }
+}
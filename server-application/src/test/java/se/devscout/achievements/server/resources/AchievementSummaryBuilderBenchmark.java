@@ -0,0 +1,81 @@
+package se.devscout.achievements.server.resources;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import se.devscout.achievements.server.api.OrganizationAchievementSummaryDTO;
+import se.devscout.achievements.server.data.dao.AchievementSummaryDao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to build an organization summary from rollup rows. Compare the scores for the different
+ * organization sizes to verify that the build time grows linearly with the number of people.
+ * <p>
+ * Run using the main method, or with "java -cp ... org.openjdk.jmh.Main AchievementSummaryBuilderBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AchievementSummaryBuilderBenchmark {
+
+    private static final int STEP_COUNT = 4;
+
+    @Param({"500", "1000", "2000"})
+    public int people;
+
+    @Param({"200"})
+    public int achievements;
+
+    private List<AchievementSummaryDao.PersonProgress> rows;
+    private List<AchievementSummaryDao.AchievementInfo> infos;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        infos = new ArrayList<>();
+        rows = new ArrayList<>();
+        for (int a = 0; a < achievements; a++) {
+            final UUID achievementId = new UUID(0, a);
+            infos.add(new AchievementSummaryDao.AchievementInfo(achievementId, "Achievement " + a, null, Collections.emptySet()));
+            for (int p = 0; p < people; p++) {
+                // Roughly half of the people have made some progress on each achievement
+                if (random.nextBoolean()) {
+                    final int completedSteps = 1 + random.nextInt(STEP_COUNT);
+                    rows.add(new AchievementSummaryDao.PersonProgress(
+                            achievementId,
+                            p,
+                            "Person " + p,
+                            completedSteps * 100L,
+                            true,
+                            STEP_COUNT,
+                            completedSteps == STEP_COUNT && random.nextBoolean()));
+                } else if (random.nextInt(20) == 0) {
+                    rows.add(new AchievementSummaryDao.PersonProgress(achievementId, p, "Person " + p, 0L, false, STEP_COUNT, true));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public OrganizationAchievementSummaryDTO build() {
+        final AchievementSummaryBuilder builder = new AchievementSummaryBuilder().addAll(rows);
+        builder.getAchievementIds();
+        return builder.build(infos);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AchievementSummaryBuilderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,60 @@
+package se.devscout.achievements.server.resources;
+
+import org.junit.Test;
+import se.devscout.achievements.server.api.OrganizationAchievementSummaryDTO;
+import se.devscout.achievements.server.data.dao.AchievementSummaryDao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class AchievementSummaryBuilderTest {
+
+    private final UUID eggId = UUID.randomUUID();
+    private final UUID pastaId = UUID.randomUUID();
+    private final UUID toastId = UUID.randomUUID();
+
+    private final AchievementSummaryDao.AchievementInfo egg = new AchievementSummaryDao.AchievementInfo(eggId, "Boil an egg", null, Collections.emptySet());
+    private final AchievementSummaryDao.AchievementInfo pasta = new AchievementSummaryDao.AchievementInfo(pastaId, "Cook pasta", null, Collections.emptySet());
+    private final AchievementSummaryDao.AchievementInfo toast = new AchievementSummaryDao.AchievementInfo(toastId, "Make toast", null, Collections.emptySet());
+
+    @Test
+    public void build_happyPath() {
+        final AchievementSummaryBuilder builder = new AchievementSummaryBuilder().addAll(Arrays.asList(
+                new AchievementSummaryDao.PersonProgress(pastaId, 1, "Alice", 100L, true, 1, false),
+                new AchievementSummaryDao.PersonProgress(eggId, 2, "Carol", 0L, false, 2, true),
+                new AchievementSummaryDao.PersonProgress(eggId, 1, "Alice", 200L, true, 2, true),
+                new AchievementSummaryDao.PersonProgress(eggId, 3, "Bob", 100L, true, 2, false),
+                new AchievementSummaryDao.PersonProgress(toastId, 3, "Bob", 0L, false, 1, true)));
+
+        // Toast is excluded since nobody has started it, even though it has been awarded
+        assertThat(builder.getAchievementIds()).containsOnly(eggId, pastaId);
+
+        final OrganizationAchievementSummaryDTO summary = builder.build(Arrays.asList(pasta, toast, egg));
+
+        assertThat(summary.achievements).extracting("achievement.name").containsExactly("Boil an egg", "Cook pasta");
+
+        final OrganizationAchievementSummaryDTO.AchievementSummaryDTO eggSummary = summary.achievements.get(0);
+        assertThat(eggSummary.progress_summary.people_completed).isEqualTo(1);
+        assertThat(eggSummary.progress_summary.people_started).isEqualTo(1);
+        assertThat(eggSummary.progress_summary.people_awarded).isEqualTo(2);
+        assertThat(eggSummary.progress_detailed)
+                .extracting("person.name", "percent", "awarded")
+                .containsExactly(
+                        tuple("Alice", 100, true),
+                        tuple("Bob", 50, false),
+                        tuple("Carol", 0, true));
+    }
+
+    @Test
+    public void build_noSteps_achievementSkipped() {
+        final AchievementSummaryBuilder builder = new AchievementSummaryBuilder()
+                .add(new AchievementSummaryDao.PersonProgress(eggId, 1, "Alice", 0L, true, 0, false));
+
+        assertThat(builder.getAchievementIds()).isEmpty();
+        assertThat(builder.build(Collections.singletonList(egg)).achievements).isEmpty();
+    }
+}
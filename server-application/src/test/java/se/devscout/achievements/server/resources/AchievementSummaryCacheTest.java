@@ -0,0 +1,101 @@
+package se.devscout.achievements.server.resources;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import se.devscout.achievements.server.MockUtil;
+import se.devscout.achievements.server.api.OrganizationAchievementSummaryDTO;
+import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.OrganizationVersions;
+import se.devscout.achievements.server.data.model.Organization;
+import se.devscout.achievements.server.data.model.Person;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AchievementSummaryCacheTest {
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final OrganizationVersions versions = new OrganizationVersions();
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private final Supplier<OrganizationAchievementSummaryDTO> loader = () -> {
+        loadCount.incrementAndGet();
+        return new OrganizationAchievementSummaryDTO();
+    };
+
+    private AchievementSummaryCache cache;
+    private Organization org1;
+    private Organization org2;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new AchievementSummaryCache(versions, 100, metrics);
+        org1 = MockUtil.mockOrganization("Org 1");
+        org2 = MockUtil.mockOrganization("Org 2");
+    }
+
+    @Test
+    public void get_sameVersion_cached() {
+        final OrganizationAchievementSummaryDTO first = cache.get(org1, loader);
+        final OrganizationAchievementSummaryDTO second = cache.get(org1, loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loadCount.get()).isEqualTo(1);
+        assertThat(gauge("hits")).isEqualTo(1L);
+        assertThat(gauge("misses")).isEqualTo(1L);
+    }
+
+    @Test
+    public void get_organizationVersionIncremented_reloaded() {
+        final Person person = MockUtil.mockPerson(org1, "Alice", Roles.READER);
+        cache.get(org1, loader);
+        cache.get(org2, loader);
+        cache.get(person, loader);
+
+        versions.increment(org1.getId());
+
+        cache.get(org1, loader);
+        cache.get(org2, loader);
+        cache.get(person, loader);
+
+        // Only the summaries for the changed organization are computed again
+        assertThat(loadCount.get()).isEqualTo(5);
+    }
+
+    @Test
+    public void get_allVersionsIncremented_reloaded() {
+        cache.get(org1, loader);
+        cache.get(org2, loader);
+
+        versions.incrementAll();
+
+        cache.get(org1, loader);
+        cache.get(org2, loader);
+
+        assertThat(loadCount.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void get_maximumSizeReached_evicted() {
+        final MetricRegistry smallCacheMetrics = new MetricRegistry();
+        final AchievementSummaryCache smallCache = new AchievementSummaryCache(versions, 1, smallCacheMetrics);
+
+        smallCache.get(org1, loader);
+        smallCache.get(org2, loader);
+
+        assertThat(gauge(smallCacheMetrics, "evictions")).isEqualTo(1L);
+        assertThat(gauge(smallCacheMetrics, "size")).isEqualTo(1L);
+    }
+
+    private Object gauge(String name) {
+        return gauge(metrics, name);
+    }
+
+    private static Object gauge(MetricRegistry metrics, String name) {
+        final Gauge gauge = metrics.getGauges().get(MetricRegistry.name(AchievementSummaryCache.class, name));
+        return gauge.getValue();
+    }
+}
@@ -1,7 +1,11 @@
 package se.devscout.achievements.server.resources;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import io.dropwizard.jackson.Jackson;
 import io.dropwizard.testing.junit.ResourceTestRule;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.eclipse.jetty.http.HttpStatus;
@@ -10,9 +14,19 @@ import org.junit.Rule;
 import org.junit.Test;
 import se.devscout.achievements.server.MockUtil;
 import se.devscout.achievements.server.TestUtil;
+import se.devscout.achievements.server.api.AchievementBaseDTO;
 import se.devscout.achievements.server.api.AchievementDTO;
+import se.devscout.achievements.server.api.AwardsDTO;
+import se.devscout.achievements.server.api.EligibleAwardDTO;
 import se.devscout.achievements.server.api.PersonBaseDTO;
+import se.devscout.achievements.server.api.ProgressMatrixDTO;
+import se.devscout.achievements.server.api.StepProgressRequestLogRecordDTO;
 import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.AchievementCatalog;
+import se.devscout.achievements.server.data.AwardEligibility;
+import se.devscout.achievements.server.data.OrganizationVersions;
+import se.devscout.achievements.server.data.ProgressMatrices;
+import se.devscout.achievements.server.data.ProgressMatrix;
 import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.*;
 
@@ -22,11 +36,14 @@ import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.*;
 import static se.devscout.achievements.server.MockUtil.*;
 
@@ -38,10 +55,12 @@ public class AchievementsResourceTest {
 
     private final CredentialsDao credentialsDao = mock(CredentialsDao.class);
     private final PeopleDao peopleDao = mock(PeopleDao.class);
+    private final GroupsDao groupsDao = mock(GroupsDao.class);
+    private final GroupMembershipsDao membershipsDao = mock(GroupMembershipsDao.class);
 
     @Rule
     public final ResourceTestRule resources = TestUtil.resourceTestRule(credentialsDao)
-            .addResource(new AchievementsResource(dao, progressDao, auditingDao, peopleDao))
+            .addResource(new AchievementsResource(dao, progressDao, auditingDao, peopleDao, groupsDao, membershipsDao, new ProgressMatrices(10, new MetricRegistry()), new AwardEligibility(10, new MetricRegistry()), new TypeaheadCache(new OrganizationVersions(), 10, new MetricRegistry()), new SerializedResponseCache(new OrganizationVersions(), Jackson.newObjectMapper(), 1024 * 1024, new MetricRegistry())))
             .build();
 
     @Before
@@ -51,10 +70,15 @@ public class AchievementsResourceTest {
 
     @Test
     public void get_happyPath() throws Exception {
-        final Achievement achievement = mock(Achievement.class);
-        final UUID uuid = UUID.randomUUID();
-        when(achievement.getId()).thenReturn(uuid);
-        when(dao.read(eq(uuid))).thenReturn(achievement);
+        final Achievement prerequisite = mockAchievement("Learn to ride a bike");
+        final Achievement achievement = mockAchievement("Learn to ride a motorcycle");
+        final AchievementStep step = mockStep(2, null);
+        final AchievementStep prerequisiteStep = mockStep(3, prerequisite);
+        when(achievement.getSteps()).thenReturn(Lists.newArrayList(step, prerequisiteStep));
+        final UUID uuid = achievement.getId();
+        final AchievementCatalog catalog = AchievementCatalog.of(Lists.newArrayList(prerequisite, achievement));
+        when(dao.getCatalog()).thenReturn(catalog);
+
         final Response response = resources
                 .target("/achievements/" + UuidString.toString(uuid))
                 .register(MockUtil.AUTH_FEATURE_READER)
@@ -62,17 +86,27 @@ public class AchievementsResourceTest {
                 .get();
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
         final AchievementDTO dto = response.readEntity(AchievementDTO.class);
-        assertThat(dto.id).isEqualTo(UuidString.toString(achievement.getId()));
+        assertThat(dto.id).isEqualTo(UuidString.toString(uuid));
+        assertThat(dto.name).isEqualTo("Learn to ride a motorcycle");
+        assertThat(dto.tags).containsExactly("outdoors", "vehicles");
+        assertThat(dto.steps).hasSize(2);
+        assertThat(dto.steps.get(0).id).isEqualTo(2);
+        assertThat(dto.steps.get(0).description).isNotEmpty();
+        assertThat(dto.steps.get(0).prerequisite_achievement).isNull();
+        assertThat(dto.steps.get(1).id).isEqualTo(3);
+        assertThat(dto.steps.get(1).prerequisite_achievement).isEqualTo(UuidString.toString(prerequisite.getId()));
+
+        verify(dao, never()).read(any(UUID.class));
     }
 
     @Test
     public void getAll_happyPath() throws Exception {
-        final List<Achievement> all = Lists.newArrayList(
+        final AchievementCatalog catalog = AchievementCatalog.of(Lists.newArrayList(
                 mockAchievement("Learn to ride a bike"),
                 mockAchievement("Learn to ride a motorcycle"),
                 mockAchievement("Learn to drive a car")
-        );
-        when(dao.readAll()).thenReturn(all);
+        ));
+        when(dao.getCatalog()).thenReturn(catalog);
         final Response response = resources
                 .target("/achievements")
                 .request()
@@ -80,11 +114,39 @@ public class AchievementsResourceTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
         final ArrayNode dto = response.readEntity(ArrayNode.class);
         assertThat(dto.size()).isEqualTo(3);
+        assertThat(dto.get(0).get("name").asText()).isEqualTo("Learn to drive a car");
         assertThat(dto.get(0).has("id")).isTrue();
         assertThat(dto.get(0).has("name")).isTrue();
         assertThat(dto.get(0).has("tags")).isTrue();
         assertThat(dto.get(0).has("description")).isFalse();
         assertThat(dto.get(0).has("steps")).isFalse();
+        assertThat(dto.get(0).get("tags")).hasSize(2);
+
+        verify(dao, never()).readAll();
+    }
+
+    @Test
+    public void typeahead_happyPath() throws Exception {
+        final Achievement bike = mockAchievement("Learn to ride a bike");
+        final AchievementCatalog catalog = AchievementCatalog.of(Lists.newArrayList(
+                bike,
+                mockAchievement("Learn to ride a motorcycle"),
+                mockAchievement("Learn to drive a car")
+        ));
+        when(dao.getCatalog()).thenReturn(catalog);
+
+        final Response response = resources
+                .target("/achievements/typeahead")
+                .queryParam("q", "ride")
+                .queryParam("limit", 1)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+        final List<AchievementBaseDTO> dto = response.readEntity(new GenericType<List<AchievementBaseDTO>>() {
+        });
+        assertThat(dto).hasSize(1);
+        assertThat(dto.get(0).name).isEqualTo("Learn to ride a bike");
+        assertThat(dto.get(0).id).isEqualTo(UuidString.toString(bike.getId()));
     }
 
     private Achievement mockAchievement(String name) {
@@ -92,17 +154,26 @@ public class AchievementsResourceTest {
         when(achievement.getId()).thenReturn(UUID.randomUUID());
         when(achievement.getName()).thenReturn(name);
         when(achievement.getDescription()).thenReturn(RandomStringUtils.randomAlphabetic(1000));
-        final AchievementStep step = mock(AchievementStep.class);
-        when(step.getDescription()).thenReturn(RandomStringUtils.randomAlphabetic(100));
+        when(achievement.getTags()).thenReturn(Sets.newHashSet("vehicles", "outdoors"));
+        final AchievementStep step = mockStep(1, null);
         when(achievement.getSteps()).thenReturn(Collections.singletonList(step));
         return achievement;
     }
 
+    private static AchievementStep mockStep(int id, Achievement prerequisite) {
+        final AchievementStep step = mock(AchievementStep.class);
+        when(step.getId()).thenReturn(id);
+        when(step.getDescription()).thenReturn(RandomStringUtils.randomAlphabetic(100));
+        when(step.getPrerequisiteAchievement()).thenReturn(prerequisite);
+        return step;
+    }
+
     @Test
     public void get_notFound() throws Exception {
-        when(dao.read(any(UUID.class))).thenThrow(new NotFoundException());
+        final AchievementCatalog catalog = AchievementCatalog.of(Collections.emptyList());
+        when(dao.getCatalog()).thenReturn(catalog);
         final Response response = resources
-                .target("/achievements/id")
+                .target("/achievements/" + UuidString.toString(UUID.randomUUID()))
                 .register(MockUtil.AUTH_FEATURE_READER)
                 .request()
                 .get();
@@ -152,6 +223,218 @@ public class AchievementsResourceTest {
         assertThat(dto.name).isEqualTo("abc");
     }
 
+    @Test
+    public void progressMatrix_organization_happyPath() throws ObjectNotFoundException {
+        final Person mockedReader = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_READER).getPerson();
+        when(peopleDao.read(eq(mockedReader.getId()))).thenReturn(mockedReader);
+
+        final Achievement achievement = mockProgressMatrixAchievement();
+        when(progressDao.getMatrix(eq(mockedReader.getOrganization()))).thenReturn(createProgressMatrix());
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievement.getId()) + "/progress-matrix")
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+
+        final ProgressMatrixDTO dto = response.readEntity(ProgressMatrixDTO.class);
+        assertThat(dto.steps).containsExactly(1, 2);
+        assertThat(dto.people).containsExactly(10, 20);
+        assertThat(dto.values).containsExactly(
+                100, 50,
+                -1, 0);
+    }
+
+    @Test
+    public void progressMatrix_group_onlyMembers() throws ObjectNotFoundException {
+        final Person mockedReader = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_READER).getPerson();
+        when(peopleDao.read(eq(mockedReader.getId()))).thenReturn(mockedReader);
+
+        final Achievement achievement = mockProgressMatrixAchievement();
+        when(progressDao.getMatrix(eq(mockedReader.getOrganization()))).thenReturn(createProgressMatrix());
+
+        final Group group = mockGroup(mockedReader.getOrganization(), "Patrol");
+        when(groupsDao.read(eq(group.getId()))).thenReturn(group);
+        final Person member = mock(Person.class);
+        when(member.getId()).thenReturn(20);
+        final GroupMembership membership = mockMembership(group, member, GroupRole.MEMBER);
+        when(membershipsDao.getMemberships(eq(group))).thenReturn(Collections.singletonList(membership));
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievement.getId()) + "/progress-matrix")
+                .queryParam("group", group.getId())
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+
+        final ProgressMatrixDTO dto = response.readEntity(ProgressMatrixDTO.class);
+        assertThat(dto.people).containsExactly(20);
+        assertThat(dto.values).containsExactly(-1, 0);
+    }
+
+    @Test
+    public void progressMatrix_groupInOtherOrganization_notFound() throws ObjectNotFoundException {
+        final Person mockedReader = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_READER).getPerson();
+        when(peopleDao.read(eq(mockedReader.getId()))).thenReturn(mockedReader);
+
+        final Achievement achievement = mockProgressMatrixAchievement();
+
+        final Group group = mockGroup(mockOrganization("Other"), "Patrol");
+        when(groupsDao.read(eq(group.getId()))).thenReturn(group);
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievement.getId()) + "/progress-matrix")
+                .queryParam("group", group.getId())
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+
+        verify(progressDao, never()).getMatrix(any(Organization.class));
+    }
+
+    @Test
+    public void eligibleAwards_happyPath() throws ObjectNotFoundException {
+        final Person mockedEditor = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_EDITOR).getPerson();
+        when(peopleDao.read(eq(mockedEditor.getId()))).thenReturn(mockedEditor);
+
+        final Organization organization = mockedEditor.getOrganization();
+        final AchievementStep step = mockStep(1, null);
+        final Achievement achievement = mockAchievement("Learn to ride a bike");
+        when(achievement.getSteps()).thenReturn(Collections.singletonList(step));
+        final AchievementCatalog catalog = AchievementCatalog.of(Collections.singletonList(achievement));
+        when(dao.getCatalog()).thenReturn(catalog);
+
+        final Person alice = mockPerson(organization, "Alice", Roles.READER);
+        final Person bob = mockPerson(organization, "Bob", Roles.READER);
+        final Integer aliceId = alice.getId();
+        final Integer bobId = bob.getId();
+        final UUID achievementId = achievement.getId();
+        when(progressDao.getCompletedSteps(eq(organization))).thenReturn(ImmutableMap.of(
+                aliceId, Sets.newHashSet(1),
+                bobId, Sets.newHashSet(1)));
+        when(dao.getAwards(eq(organization))).thenReturn(ImmutableMap.of(
+                bobId, Sets.newHashSet(achievementId)));
+        when(peopleDao.getByParent(eq(organization), eq(Collections.singleton(aliceId)))).thenReturn(Collections.singletonList(alice));
+
+        final Response response = resources
+                .target("/achievements/eligible-awards")
+                .register(MockUtil.AUTH_FEATURE_EDITOR)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+
+        final List<EligibleAwardDTO> dto = response.readEntity(new GenericType<List<EligibleAwardDTO>>() {
+        });
+        assertThat(dto).hasSize(1);
+        assertThat(dto.get(0).person.name).isEqualTo("Alice");
+        assertThat(dto.get(0).achievement.id).isEqualTo(UuidString.toString(achievementId));
+        assertThat(dto.get(0).achievement.name).isEqualTo("Learn to ride a bike");
+    }
+
+    @Test
+    public void eligibleAwards_groupInOtherOrganization_notFound() throws ObjectNotFoundException {
+        final Person mockedEditor = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_EDITOR).getPerson();
+        when(peopleDao.read(eq(mockedEditor.getId()))).thenReturn(mockedEditor);
+
+        final Group group = mockGroup(mockOrganization("Other"), "Patrol");
+        when(groupsDao.read(eq(group.getId()))).thenReturn(group);
+
+        final Response response = resources
+                .target("/achievements/eligible-awards")
+                .queryParam("group", group.getId())
+                .register(MockUtil.AUTH_FEATURE_EDITOR)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+
+        verify(progressDao, never()).getCompletedSteps(any(Organization.class));
+    }
+
+    private Achievement mockProgressMatrixAchievement() throws ObjectNotFoundException {
+        final AchievementStep step1 = mock(AchievementStep.class);
+        when(step1.getId()).thenReturn(1);
+        final AchievementStep step2 = mock(AchievementStep.class);
+        when(step2.getId()).thenReturn(2);
+        final Achievement achievement = MockUtil.mockAchievement("The Achievement", step1, step2);
+        when(dao.read(eq(achievement.getId()))).thenReturn(achievement);
+        return achievement;
+    }
+
+    private static ProgressMatrix createProgressMatrix() {
+        final ProgressMatrix matrix = new ProgressMatrix();
+        matrix.set(1, 10, 100);
+        matrix.set(2, 10, 50);
+        matrix.set(2, 20, 0);
+        // Progress for a step in some other achievement
+        matrix.set(3, 30, 100);
+        return matrix;
+    }
+
+    @Test
+    public void progressHistory_morePages_linkToNextPage() throws ObjectNotFoundException {
+        final Person mockedEditor = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_EDITOR).getPerson();
+        when(peopleDao.read(eq(mockedEditor.getId()))).thenReturn(mockedEditor);
+
+        final Achievement achievement = mockAchievement("The Achievement");
+        when(dao.read(eq(achievement.getId()))).thenReturn(achievement);
+
+        final UUID achievementId = achievement.getId();
+        final Organization organization = mockedEditor.getOrganization();
+        final List<StepProgressAuditRecord> records = Lists.newArrayList(mockAuditRecord(11L), mockAuditRecord(12L), mockAuditRecord(13L));
+        when(auditingDao.readStepProgress(eq(achievementId), eq(organization), eq(10L), eq(3))).thenReturn(records);
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievementId) + "/progress-history")
+                .queryParam("after", 10)
+                .queryParam("limit", 2)
+                .register(MockUtil.AUTH_FEATURE_EDITOR)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+
+        final List<StepProgressRequestLogRecordDTO> dto = response.readEntity(new GenericType<List<StepProgressRequestLogRecordDTO>>() {
+        });
+        assertThat(dto).hasSize(2);
+        assertThat(response.getLink("next").getUri().getQuery()).contains("after=12").contains("limit=2");
+    }
+
+    @Test
+    public void progressHistory_lastPage_noLink() throws ObjectNotFoundException {
+        final Person mockedEditor = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_EDITOR).getPerson();
+        when(peopleDao.read(eq(mockedEditor.getId()))).thenReturn(mockedEditor);
+
+        final Achievement achievement = mockAchievement("The Achievement");
+        when(dao.read(eq(achievement.getId()))).thenReturn(achievement);
+
+        final UUID achievementId = achievement.getId();
+        final Organization organization = mockedEditor.getOrganization();
+        final List<StepProgressAuditRecord> records = Lists.newArrayList(mockAuditRecord(11L));
+        when(auditingDao.readStepProgress(eq(achievementId), eq(organization), isNull(Long.class), eq(101))).thenReturn(records);
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievementId) + "/progress-history")
+                .register(MockUtil.AUTH_FEATURE_EDITOR)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+
+        final List<StepProgressRequestLogRecordDTO> dto = response.readEntity(new GenericType<List<StepProgressRequestLogRecordDTO>>() {
+        });
+        assertThat(dto).hasSize(1);
+        assertThat(response.getLink("next")).isNull();
+    }
+
+    private static StepProgressAuditRecord mockAuditRecord(Long id) {
+        final StepProgressAuditRecord record = mock(StepProgressAuditRecord.class);
+        when(record.getId()).thenReturn(id);
+        when(record.getHttpMethod()).thenReturn("POST");
+        when(record.getResponseCode()).thenReturn(HttpStatus.OK_200);
+        return record;
+    }
+
     @Test
     public void awards_get_happyPath() throws ObjectNotFoundException {
         final Person mockedReader = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_READER).getPerson();
@@ -238,6 +521,93 @@ public class AchievementsResourceTest {
 
     }
 
+    @Test
+    public void awards_addMany_people_happyPath() throws ObjectNotFoundException {
+        final Person mockedEditor = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_EDITOR).getPerson();
+
+        final Organization organization = mockedEditor.getOrganization();
+        final Achievement achievement = mockAchievement("The Achievement");
+        final Person alice = mockPerson(organization, "Alice", Roles.READER);
+        final Person bob = mockPerson(organization, "Bob", Roles.READER);
+
+        when(peopleDao.read(eq(mockedEditor.getId()))).thenReturn(mockedEditor);
+        final Set<Integer> personIds = Sets.newHashSet(alice.getId(), bob.getId());
+        when(peopleDao.getByParent(eq(organization), eq(personIds))).thenReturn(Lists.newArrayList(alice, bob));
+        when(dao.read(eq(achievement.getId()))).thenReturn(achievement);
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievement.getId()) + "/awards")
+                .register(MockUtil.AUTH_FEATURE_EDITOR)
+                .request()
+                .post(Entity.json(new AwardsDTO(Lists.newArrayList(alice.getId(), bob.getId()), null)));
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+
+        final List<PersonBaseDTO> dto = response.readEntity(new GenericType<List<PersonBaseDTO>>() {
+        });
+        assertThat(dto).extracting(p -> p.name).containsExactly("Alice", "Bob");
+        verify(dao).addAwardedTo(eq(achievement), eq(Lists.newArrayList(alice, bob)));
+    }
+
+    @Test
+    public void awards_addMany_group_happyPath() throws ObjectNotFoundException {
+        final Person mockedEditor = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_EDITOR).getPerson();
+
+        final Organization organization = mockedEditor.getOrganization();
+        final Achievement achievement = mockAchievement("The Achievement");
+        final Person alice = mockPerson(organization, "Alice", Roles.READER);
+        final Group group = mockGroup(organization, "Patrol");
+        final GroupMembership membership = mockMembership(group, alice, GroupRole.MEMBER);
+
+        when(peopleDao.read(eq(mockedEditor.getId()))).thenReturn(mockedEditor);
+        when(groupsDao.read(eq(group.getId()))).thenReturn(group);
+        when(membershipsDao.getMemberships(eq(group))).thenReturn(Collections.singletonList(membership));
+        when(dao.read(eq(achievement.getId()))).thenReturn(achievement);
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievement.getId()) + "/awards")
+                .register(MockUtil.AUTH_FEATURE_EDITOR)
+                .request()
+                .post(Entity.json(new AwardsDTO(null, group.getId())));
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+        verify(dao).addAwardedTo(eq(achievement), eq(Collections.singletonList(alice)));
+    }
+
+    @Test
+    public void awards_addMany_personInOtherOrganization_notFound() throws ObjectNotFoundException {
+        final Person mockedEditor = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_EDITOR).getPerson();
+
+        final Organization organization = mockedEditor.getOrganization();
+        final Achievement achievement = mockAchievement("The Achievement");
+        final Person alice = mockPerson(organization, "Alice", Roles.READER);
+        final Person carol = mockPerson(mockOrganization("Other Org"), "Carol", Roles.READER);
+
+        when(peopleDao.read(eq(mockedEditor.getId()))).thenReturn(mockedEditor);
+        final Set<Integer> personIds = Sets.newHashSet(alice.getId(), carol.getId());
+        when(peopleDao.getByParent(eq(organization), eq(personIds))).thenReturn(Lists.newArrayList(alice));
+        when(dao.read(eq(achievement.getId()))).thenReturn(achievement);
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievement.getId()) + "/awards")
+                .register(MockUtil.AUTH_FEATURE_EDITOR)
+                .request()
+                .post(Entity.json(new AwardsDTO(Lists.newArrayList(alice.getId(), carol.getId()), null)));
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+        verify(dao, never()).addAwardedTo(any(Achievement.class), anyCollection());
+    }
+
+    @Test
+    public void awards_addMany_peopleAndGroup_badRequest() throws ObjectNotFoundException {
+        final Achievement achievement = mockAchievement("The Achievement");
+
+        final Response response = resources
+                .target("/achievements/" + UuidString.toString(achievement.getId()) + "/awards")
+                .register(MockUtil.AUTH_FEATURE_EDITOR)
+                .request()
+                .post(Entity.json(new AwardsDTO(Lists.newArrayList(1, 2), 3)));
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+        verify(dao, never()).addAwardedTo(any(Achievement.class), anyCollection());
+    }
+
     @Test
     public void awards_delete_happyPath() throws ObjectNotFoundException {
         final Person mockedEditor = credentialsDao.get(CredentialsType.PASSWORD, USERNAME_EDITOR).getPerson();
@@ -0,0 +1,105 @@
+package se.devscout.achievements.server.resources;
+
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.NameTokenizers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import se.devscout.achievements.server.api.AchievementDTO;
+import se.devscout.achievements.server.api.PersonDTO;
+import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.data.model.Group;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of converting a person and an achievement to DTOs using {@link DtoMappers} and using a ModelMapper
+ * configured the way the resources used to configure it (field matching, camel case to underscore names). The
+ * ModelMapper scores do not include the id and step fix-ups the resources did after mapping, so they are lower bounds.
+ * <p>
+ * Run using the main method, or with "java -cp ... org.openjdk.jmh.Main DtoMappersBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappersBenchmark {
+
+    private ModelMapper modelMapper;
+    private Person person;
+    private Achievement achievement;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setFieldMatchingEnabled(true);
+        modelMapper.getConfiguration().setSourceNameTokenizer(NameTokenizers.CAMEL_CASE);
+        modelMapper.getConfiguration().setDestinationNameTokenizer(NameTokenizers.UNDERSCORE);
+
+        final Organization organization = new Organization(UUID.randomUUID(), "Monsters, Inc.");
+
+        person = new Person(1, "Alice", "reader");
+        person.setOrganization(organization);
+        person.setEmail("alice@example.com");
+        person.setCustomIdentifier("alice");
+        person.getAttributes().add(new PersonAttribute("patrol", "Wolves"));
+        person.getAttributes().add(new PersonAttribute("born", "2008"));
+        for (int i = 0; i < 3; i++) {
+            final Group group = new Group(i, "Group " + i);
+            group.setOrganization(organization);
+            person.getMemberships().add(new GroupMembership(group, person, GroupRole.MEMBER));
+        }
+
+        final Achievement prerequisite = new Achievement();
+        prerequisite.setId(UUID.randomUUID());
+        achievement = new Achievement();
+        achievement.setId(UUID.randomUUID());
+        achievement.setName("Climbing");
+        achievement.setDescription("Climb a tree");
+        achievement.setImage(URI.create("http://example.com/climbing.png"));
+        achievement.setTags(new HashSet<>(Arrays.asList("outdoors", "sports")));
+        for (int i = 0; i < 5; i++) {
+            final AchievementStep step = new AchievementStep();
+            step.setId(i);
+            step.setDescription("Step " + i);
+            step.setAchievement(achievement);
+            if (i == 0) {
+                step.setPrerequisiteAchievement(prerequisite);
+            }
+            achievement.getSteps().add(step);
+        }
+    }
+
+    @Benchmark
+    public PersonDTO personModelMapper() {
+        return modelMapper.map(person, PersonDTO.class);
+    }
+
+    @Benchmark
+    public PersonDTO personDtoMappers() {
+        return DtoMappers.toPersonDTO(person);
+    }
+
+    @Benchmark
+    public AchievementDTO achievementModelMapper() {
+        return modelMapper.map(achievement, AchievementDTO.class);
+    }
+
+    @Benchmark
+    public AchievementDTO achievementDtoMappers() {
+        return DtoMappers.toAchievementDTO(achievement);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DtoMappersBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
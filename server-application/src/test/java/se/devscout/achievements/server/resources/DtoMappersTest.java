@@ -0,0 +1,141 @@
+package se.devscout.achievements.server.resources;
+
+import org.junit.Test;
+import se.devscout.achievements.server.api.*;
+import se.devscout.achievements.server.data.model.*;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DtoMappersTest {
+
+    private static final UUID ORGANIZATION_ID = UUID.fromString("47498aea-4291-43b8-8277-4d480d5ed84a");
+
+    @Test
+    public void nullValues() {
+        assertThat(DtoMappers.toOrganizationDTO(null)).isNull();
+        assertThat(DtoMappers.toPersonDTO(null)).isNull();
+        assertThat(DtoMappers.toGroupDTO(null)).isNull();
+        assertThat(DtoMappers.toAchievementDTO((Achievement) null)).isNull();
+        assertThat(DtoMappers.toAchievementStepDTO(null)).isNull();
+        assertThat(DtoMappers.toPersonProperties(null)).isNull();
+        assertThat(DtoMappers.toAchievementProperties(null)).isNull();
+    }
+
+    @Test
+    public void toOrganizationDTO() {
+        final OrganizationDTO dto = DtoMappers.toOrganizationDTO(new Organization(ORGANIZATION_ID, "Monsters"));
+
+        assertThat(dto.id).isEqualTo("i5eyv2scsfb3ratxjvea2xwyji");
+        assertThat(dto.name).isEqualTo("Monsters");
+    }
+
+    @Test
+    public void toPersonDTO() {
+        final Organization organization = new Organization(ORGANIZATION_ID, "Monsters");
+        final Person person = new Person(1, "Alice", "editor");
+        person.setOrganization(organization);
+        person.setEmail("alice@example.com");
+        person.setCustomIdentifier("");
+        person.getAttributes().add(new PersonAttribute("patrol", "Wolves"));
+        final Group group = new Group(2, "Scouts");
+        group.setOrganization(organization);
+        person.getMemberships().add(new GroupMembership(group, person, GroupRole.MEMBER));
+
+        final PersonDTO dto = DtoMappers.toPersonDTO(person);
+
+        assertThat(dto.id).isEqualTo(1);
+        assertThat(dto.name).isEqualTo("Alice");
+        assertThat(dto.email).isEqualTo("alice@example.com");
+        assertThat(dto.role).isEqualTo("editor");
+        assertThat(dto.custom_identifier).isNull();
+        assertThat(dto.organization.name).isEqualTo("Monsters");
+        assertThat(dto.attributes).hasSize(1);
+        assertThat(dto.attributes.get(0).key).isEqualTo("patrol");
+        assertThat(dto.attributes.get(0).value).isEqualTo("Wolves");
+        assertThat(dto.groups).hasSize(1);
+        assertThat(dto.groups.get(0).id).isEqualTo(2);
+        assertThat(dto.groups.get(0).name).isEqualTo("Scouts");
+    }
+
+    @Test
+    public void toPersonProperties() {
+        final PersonDTO dto = new PersonDTO();
+        dto.name = "Alice";
+        dto.email = "alice@example.com";
+        dto.custom_identifier = "";
+        dto.role = "reader";
+        dto.attributes = Collections.singletonList(new PersonAttributeDTO("patrol", "Wolves"));
+
+        final PersonProperties properties = DtoMappers.toPersonProperties(dto);
+
+        assertThat(properties.getName()).isEqualTo("Alice");
+        assertThat(properties.getEmail()).isEqualTo("alice@example.com");
+        assertThat(properties.getCustomIdentifier()).isNull();
+        assertThat(properties.getRole()).isEqualTo("reader");
+        assertThat(properties.getAttributes()).containsExactly(new PersonAttribute("patrol", "Wolves"));
+    }
+
+    @Test
+    public void toAchievementDTO() {
+        final Achievement prerequisite = new Achievement();
+        prerequisite.setId(ORGANIZATION_ID);
+        final Achievement achievement = new Achievement();
+        achievement.setId(UUID.randomUUID());
+        achievement.setName("Climbing");
+        achievement.setDescription("Climb a tree");
+        achievement.setImage(URI.create("http://example.com/climbing.png"));
+        achievement.setTags(new HashSet<>(Arrays.asList("outdoors")));
+        final AchievementStep step = new AchievementStep();
+        step.setId(3);
+        step.setDescription("Find a tree");
+        step.setPrerequisiteAchievement(prerequisite);
+        achievement.getSteps().add(step);
+
+        final AchievementDTO dto = DtoMappers.toAchievementDTO(achievement);
+
+        assertThat(dto.id).isEqualTo(UuidString.toString(achievement.getId()));
+        assertThat(dto.name).isEqualTo("Climbing");
+        assertThat(dto.description).isEqualTo("Climb a tree");
+        assertThat(dto.image).isEqualTo(URI.create("http://example.com/climbing.png"));
+        assertThat(dto.tags).containsExactly("outdoors");
+        assertThat(dto.steps).hasSize(1);
+        assertThat(dto.steps.get(0).id).isEqualTo(3);
+        assertThat(dto.steps.get(0).description).isEqualTo("Find a tree");
+        assertThat(dto.steps.get(0).prerequisite_achievement).isEqualTo("i5eyv2scsfb3ratxjvea2xwyji");
+    }
+
+    @Test
+    public void toAchievementProperties_noTags() {
+        final AchievementProperties properties = DtoMappers.toAchievementProperties(new AchievementDTO("Climbing", null));
+
+        assertThat(properties.getName()).isEqualTo("Climbing");
+        assertThat(properties.getTags()).isEmpty();
+    }
+
+    @Test
+    public void toStepProgressRequestLogRecordDTO() {
+        final Person user = new Person(1, "Alice", "editor");
+        final Person person = new Person(2, "Bob", "reader");
+        final AchievementStep step = new AchievementStep();
+        step.setId(3);
+        final StepProgressAuditRecord record = new StepProgressAuditRecord(user, "{\"completed\":true,\"note\":\"Done\"}", step, person, "PUT", 200);
+        record.setDateTime(OffsetDateTime.parse("2018-01-01T10:00:00Z"));
+
+        final StepProgressRequestLogRecordDTO dto = DtoMappers.toStepProgressRequestLogRecordDTO(record);
+
+        assertThat(dto.user.name).isEqualTo("Alice");
+        assertThat(dto.person.name).isEqualTo("Bob");
+        assertThat(dto.step.id).isEqualTo(3);
+        assertThat(dto.http_method).isEqualTo("PUT");
+        assertThat(dto.response_code).isEqualTo(200);
+        assertThat(dto.data.completed).isTrue();
+        assertThat(dto.data.note).isEqualTo("Done");
+    }
+}
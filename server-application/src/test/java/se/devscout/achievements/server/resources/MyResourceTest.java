@@ -1,5 +1,6 @@
 package se.devscout.achievements.server.resources;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -17,6 +18,7 @@ import se.devscout.achievements.server.auth.jwt.JwtSignInToken;
 import se.devscout.achievements.server.auth.jwt.JwtSignInTokenService;
 import se.devscout.achievements.server.auth.password.PasswordValidator;
 import se.devscout.achievements.server.auth.password.SecretGenerator;
+import se.devscout.achievements.server.data.OrganizationVersions;
 import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.*;
 import se.devscout.achievements.server.mail.EmailSender;
@@ -40,6 +42,7 @@ public class MyResourceTest {
     private final GroupsDao groupsDao = mock(GroupsDao.class);
     private final OrganizationsDao organizationsDao = mock(OrganizationsDao.class);
     private final AchievementsDao achievementsDao = mock(AchievementsDao.class);
+    private final AchievementSummaryDao summaryDao = mock(AchievementSummaryDao.class);
     private final EmailSender emailSender = mock(EmailSender.class);
     private final JwtSignInTokenService signInTokenService = mock(JwtSignInTokenService.class);
 
@@ -47,7 +50,7 @@ public class MyResourceTest {
 
     @Rule
     public final ResourceTestRule resources = TestUtil.resourceTestRule(credentialsDao)
-            .addResource(new MyResource(peopleDao, groupsDao, achievementsDao, credentialsDao, emailSender, URI.create("http://gui/"), signInTokenService, new I18n("texts.sv.yaml")))
+            .addResource(new MyResource(peopleDao, groupsDao, achievementsDao, credentialsDao, emailSender, URI.create("http://gui/"), signInTokenService, new I18n("texts.sv.yaml"), summaryDao, new AchievementSummaryCache(new OrganizationVersions(), 100, new MetricRegistry())))
             .build();
 
     public MyResourceTest() throws IOException {
@@ -1,5 +1,7 @@
 package se.devscout.achievements.server.resources;
 
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.jackson.Jackson;
 import io.dropwizard.testing.junit.ResourceTestRule;
 import org.eclipse.jetty.http.HttpStatus;
 import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
@@ -12,8 +14,10 @@ import se.devscout.achievements.server.api.OrganizationAchievementSummaryDTO;
 import se.devscout.achievements.server.api.OrganizationBaseDTO;
 import se.devscout.achievements.server.api.OrganizationDTO;
 import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.OrganizationVersions;
 import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.*;
+import se.devscout.achievements.server.filter.etag.ConditionalGetFeature;
 
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
@@ -23,6 +27,7 @@ import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
@@ -38,11 +43,16 @@ public class OrganizationsResourceTest {
 
     private final PeopleDao peopleDao = mock(PeopleDao.class);
 
+    private final AchievementSummaryDao summaryDao = mock(AchievementSummaryDao.class);
+
 //    private final AuthResourceUtil authResourceUtil = new AuthResourceUtil(mock(JwtAuthenticator.class), credentialsDao, peopleDao, dao, new CredentialsValidatorFactory("google_client_id"));
 
+    private final OrganizationVersions versions = new OrganizationVersions();
+
     @Rule
     public final ResourceTestRule resources = TestUtil.resourceTestRule(credentialsDao)
-            .addResource(new OrganizationsResource(dao, achievementsDao,/*, authResourceUtil*/peopleDao))
+            .addResource(new OrganizationsResource(dao, achievementsDao,/*, authResourceUtil*/peopleDao, summaryDao, new AchievementSummaryCache(versions, 100, new MetricRegistry()), new SerializedResponseCache(versions, Jackson.newObjectMapper(), 1024 * 1024, new MetricRegistry())))
+            .addProvider(new ConditionalGetFeature(versions, peopleDao, null))
             .build();
 
     @Before
@@ -59,6 +69,15 @@ public class OrganizationsResourceTest {
         assertThat(dto.name).isEqualTo("Alice's Organization");
     }
 
+    @Test
+    public void get_unknownOrganization_noVersionCreated() throws Exception {
+        final UUID uuid = UUID.randomUUID();
+        when(dao.read(eq(uuid))).thenThrow(new ObjectNotFoundException());
+        final Response response = request("/organizations/" + UuidString.toString(uuid), MockUtil.AUTH_FEATURE_READER).get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+        assertThat(versions.getOrganizationCount()).isEqualTo(0);
+    }
+
     @Test
     public void getBasic_noUser_happyPath() throws Exception {
         final UUID uuid = UUID.randomUUID();
@@ -116,40 +135,32 @@ public class OrganizationsResourceTest {
 
     @Test
     public void achievementSummary_twoAchievementTwoSteps_successful() throws Exception {
-        final Organization orgOther = mockOrganization("Trudy's Organization");
-        final Person personOther = mockPerson(orgOther, "Trudy", Roles.READER);
-
         final Organization org = mockOrganization("Alice's Organization");
         when(dao.read(eq(org.getId()))).thenReturn(org);
         final Person person1 = mockPerson(org, "Alice", Roles.READER);
         final Person person2 = mockPerson(org, "Bob", Roles.READER);
         final Person person3 = mockPerson(org, "Carol", Roles.READER);
-        final AchievementStepProgress a1p1 = mockProgress(true, person1);
-        final AchievementStepProgress a1p2 = mockProgress(false, person2);
-        final AchievementStepProgress a1p3 = mockProgress(true, person1);
-        final AchievementStepProgress a1p4 = mockProgress(true, person2);
-        final AchievementStepProgress a1p5 = mockProgress(true, personOther);
-        final AchievementStep a1s1 = mockStep(a1p1, a1p2);
-        final AchievementStep a1s2 = mockStep(a1p3, a1p4, a1p5);
-        final Achievement a1 = mockAchievement("Climb mountain", a1s1, a1s2);
-
-        final AchievementStepProgress a2p1 = mockProgress(false, person2);
-        final AchievementStepProgress a2p2 = mockProgress(true, person3);
-        final AchievementStepProgress a2p3 = mockProgress(false, person2);
-        final AchievementStepProgress a2p4 = mockProgress(50, person3);
-        final AchievementStep s2 = mockStep(a2p1, a2p2);
-        final AchievementStep s3 = mockStep(a2p3, a2p4);
-        final Achievement a2 = mockAchievement("Cook egg", s2, s3);
-
-        final AchievementStep a3s1 = mockStep();
-        final Achievement a3 = mockAchievement("Peel a banana", a3s1);
-
-        when(achievementsDao.findWithProgressForOrganization(any(Organization.class)))
-                .thenReturn(Arrays.asList(a1, a2, a3));
-
-        when(peopleDao.getByAwardedAchievement(eq(org), eq(a1))).thenReturn(Collections.emptyList());
-        when(peopleDao.getByAwardedAchievement(eq(org), eq(a2))).thenReturn(Collections.singletonList(person3));
-        when(peopleDao.getByAwardedAchievement(eq(org), eq(a3))).thenReturn(Collections.singletonList(person3));
+
+        final Integer person1Id = person1.getId();
+        final String person1Name = person1.getName();
+        final Integer person2Id = person2.getId();
+        final String person2Name = person2.getName();
+        final Integer person3Id = person3.getId();
+        final String person3Name = person3.getName();
+
+        final AchievementSummaryDao.AchievementInfo a1 = mockAchievementInfo("Climb mountain");
+        final AchievementSummaryDao.AchievementInfo a2 = mockAchievementInfo("Cook egg");
+        final AchievementSummaryDao.AchievementInfo a3 = mockAchievementInfo("Peel a banana");
+
+        when(summaryDao.getProgress(eq(org))).thenReturn(Arrays.asList(
+                new AchievementSummaryDao.PersonProgress(a1.getId(), person1Id, person1Name, 200, true, 2, false),
+                new AchievementSummaryDao.PersonProgress(a1.getId(), person2Id, person2Name, 100, true, 2, false),
+                new AchievementSummaryDao.PersonProgress(a2.getId(), person2Id, person2Name, 0, true, 2, false),
+                new AchievementSummaryDao.PersonProgress(a2.getId(), person3Id, person3Name, 150, true, 2, true),
+                new AchievementSummaryDao.PersonProgress(a3.getId(), person2Id, person2Name, 0, true, 1, false),
+                new AchievementSummaryDao.PersonProgress(a3.getId(), person3Id, person3Name, 0, false, 1, true)
+        ));
+        when(summaryDao.getAchievements(anyCollection())).thenReturn(Arrays.asList(a3, a1, a2));
 
         final OrganizationAchievementSummaryDTO dto = resources.client()
                 .target("/organizations/" + UuidString.toString(org.getId()) + "/achievement-summary")
@@ -187,4 +198,7 @@ public class OrganizationsResourceTest {
         assertThat(dto.achievements.get(2).progress_detailed.get(0).awarded).isTrue();
     }
 
-}
\ No newline at end of file
+    private static AchievementSummaryDao.AchievementInfo mockAchievementInfo(String name) {
+        return new AchievementSummaryDao.AchievementInfo(UUID.randomUUID(), name, null, Collections.emptySet());
+    }
+}
@@ -1,5 +1,7 @@
 package se.devscout.achievements.server.resources;
 
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.jackson.Jackson;
 import io.dropwizard.testing.junit.ResourceTestRule;
 import org.eclipse.jetty.http.HttpStatus;
 import org.junit.Ignore;
@@ -11,6 +13,7 @@ import se.devscout.achievements.server.api.AuthTokenDTO;
 import se.devscout.achievements.server.api.SignupBaseDTO;
 import se.devscout.achievements.server.api.SignupDTO;
 import se.devscout.achievements.server.auth.Roles;
+import se.devscout.achievements.server.data.OrganizationVersions;
 import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.*;
 
@@ -34,7 +37,7 @@ public class OrganizationsSignUpResourceTest {
 
     @Rule
     public final ResourceTestRule resources = TestUtil.resourceTestRule(credentialsDao)
-            .addResource(new OrganizationsResource(organizationsDao, mock(AchievementsDao.class),/*, authResourceUtil*/peopleDao))
+            .addResource(new OrganizationsResource(organizationsDao, mock(AchievementsDao.class),/*, authResourceUtil*/peopleDao, mock(AchievementSummaryDao.class), new AchievementSummaryCache(new OrganizationVersions(), 100, new MetricRegistry()), new SerializedResponseCache(new OrganizationVersions(), Jackson.newObjectMapper(), 1024 * 1024, new MetricRegistry())))
             .build();
 
     public OrganizationsSignUpResourceTest() throws UnsupportedEncodingException {
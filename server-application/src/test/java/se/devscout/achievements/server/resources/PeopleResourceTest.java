@@ -1,5 +1,6 @@
 package se.devscout.achievements.server.resources;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
@@ -22,6 +23,7 @@ import se.devscout.achievements.server.api.*;
 import se.devscout.achievements.server.auth.Roles;
 import se.devscout.achievements.server.auth.password.PasswordValidator;
 import se.devscout.achievements.server.auth.password.SecretGenerator;
+import se.devscout.achievements.server.data.OrganizationVersions;
 import se.devscout.achievements.server.data.dao.*;
 import se.devscout.achievements.server.data.model.*;
 import se.devscout.achievements.server.mail.EmailSender;
@@ -42,6 +44,7 @@ import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Mockito.*;
 import static se.devscout.achievements.server.MockUtil.*;
 
@@ -65,6 +68,8 @@ public class PeopleResourceTest {
 
     private final GroupMembershipsDao membershipsDao = mock(GroupMembershipsDao.class);
 
+    private final AchievementSummaryDao summaryDao = mock(AchievementSummaryDao.class);
+
     @Rule
     public final ResourceTestRule resources = TestUtil.resourceTestRule(credentialsDao)
             .addProvider(MultiPartFeature.class)
@@ -77,7 +82,10 @@ public class PeopleResourceTest {
                     membershipsDao,
                     URI.create("http://gui/"),
                     emailSender,
-                    i18n))
+                    i18n,
+                    summaryDao,
+                    new AchievementSummaryCache(new OrganizationVersions(), 100, new MetricRegistry()),
+                    new TypeaheadCache(new OrganizationVersions(), 100, new MetricRegistry())))
             .build();
 
     @Before
@@ -232,7 +240,7 @@ public class PeopleResourceTest {
     public void getByOrganization_authReader_happyPath() throws Exception {
         final Organization org = mockOrganization("org");
         final Person person = mockPerson(org, "Alice");
-        when(dao.getByParent(eq(org))).thenReturn(Collections.singletonList(person));
+        when(dao.getByParent(eq(org), any(), any(), any(), any(), anyInt())).thenReturn(Collections.singletonList(person));
 
         final Response response = resources
                 .target("/organizations/" + UuidString.toString(org.getId()) + "/people")
@@ -249,8 +257,40 @@ public class PeopleResourceTest {
         assertThat(dto.get(0).id).isNotNull();
         assertThat(dto.get(0).id).isNotEqualTo(ZERO);
         assertThat(dto.get(0).custom_identifier).isNullOrEmpty();
+        assertThat(response.getLinks()).isEmpty();
+
+        verify(dao).getByParent(eq(org), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void typeahead_happyPath() throws Exception {
+        final Organization org = mockOrganization("org");
+        final Person alice = mockPerson(org, "Alice Andersson");
+        final Person bob = mockPerson(org, "Bob Alm");
+        final Person carol = mockPerson(org, "Carol");
+        when(dao.getByParent(eq(org))).thenReturn(Arrays.asList(alice, bob, carol));
+
+        final List<PersonBaseDTO> first = typeahead(org, "al");
+        assertThat(first.stream().map(dto -> dto.name)).containsExactly("Alice Andersson", "Bob Alm");
+        assertThat(first.get(0).id).isEqualTo(alice.getId());
+
+        assertThat(typeahead(org, "car")).extracting(dto -> dto.name).containsExactly("Carol");
+        assertThat(typeahead(org, "x")).isEmpty();
 
-        verify(dao).getByParent(eq(org));
+        // The index is only built once
+        verify(dao, times(1)).getByParent(eq(org));
+    }
+
+    private List<PersonBaseDTO> typeahead(Organization org, String query) {
+        final Response response = resources
+                .target("/organizations/" + UuidString.toString(org.getId()) + "/people/typeahead")
+                .queryParam("q", query)
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+        return response.readEntity(new GenericType<List<PersonBaseDTO>>() {
+        });
     }
 
     @Test
@@ -267,6 +307,7 @@ public class PeopleResourceTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
 
         verify(dao, never()).getByParent(any(Organization.class));
+        verify(dao, never()).getByParent(any(Organization.class), any(), any(), any(), any(), anyInt());
     }
 
     @Test
@@ -277,15 +318,14 @@ public class PeopleResourceTest {
         final Group group2 = mockGroup(org, "Marketing");
 
         final Person person1 = mockPerson(org, "Alice");
-        when(person1.getMemberships()).thenReturn(Collections.singleton(new GroupMembership(group1, person1, GroupRole.MEMBER)));
-
         final Person person2 = mockPerson(org, "Bob");
-        when(person2.getMemberships()).thenReturn(Collections.singleton(new GroupMembership(group1, person2, GroupRole.MANAGER)));
-
         final Person person3 = mockPerson(org, "Carol");
-        when(person3.getMemberships()).thenReturn(Collections.singleton(new GroupMembership(group2, person3, GroupRole.MEMBER)));
 
-        when(dao.getByParent(eq(org))).thenReturn(Arrays.asList(person1, person2, person3));
+        // The filtering itself is done by the database
+        final Integer group1Id = group1.getId();
+        when(dao.getByParent(eq(org), any(), any(), any(), any(), anyInt())).thenReturn(Arrays.asList(person1, person2, person3));
+        when(dao.getByParent(eq(org), any(), eq(group1Id), any(), any(), anyInt())).thenReturn(Arrays.asList(person1, person2));
+        when(dao.getByParent(eq(org), eq("a"), any(), any(), any(), anyInt())).thenReturn(Arrays.asList(person1, person3));
 
         final Response response1 = resources
                 .target("/organizations/" + UuidString.toString(org.getId()) + "/people")
@@ -325,6 +365,75 @@ public class PeopleResourceTest {
         });
         assertThat(dto3.stream().map(personBaseDTO -> personBaseDTO.name).collect(Collectors.toList())).containsExactlyInAnyOrder("Alice", "Bob", "Carol");
 
+        final Response response4 = resources
+                .target("/organizations/" + UuidString.toString(org.getId()) + "/people")
+                .queryParam("group", "developers")
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+
+        assertThat(response4.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    public void getByOrganization_paginated_happyPath() throws Exception {
+        final Organization org = mockOrganization("org");
+        final Person alice = mockPerson(org, "Alice");
+        final Person bob = mockPerson(org, "Bob");
+        final Person carol = mockPerson(org, "Carol");
+
+        final Integer bobId = bob.getId();
+        when(dao.getByParent(eq(org), any(), any(), any(), any(), eq(3))).thenReturn(Arrays.asList(alice, bob, carol));
+        when(dao.getByParent(eq(org), any(), any(), eq("Bob"), eq(bobId), eq(3))).thenReturn(Collections.singletonList(carol));
+
+        final Response response1 = resources
+                .target("/organizations/" + UuidString.toString(org.getId()) + "/people")
+                .queryParam("limit", 2)
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+
+        assertThat(response1.getStatus()).isEqualTo(HttpStatus.OK_200);
+        final List<PersonBaseDTO> page1 = response1.readEntity(new GenericType<List<PersonBaseDTO>>() {
+        });
+        assertThat(page1.stream().map(dto -> dto.name)).containsExactly("Alice", "Bob");
+        assertThat(response1.getLink("next")).isNotNull();
+
+        final Response response2 = resources
+                .client()
+                .target(response1.getLink("next").getUri())
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+
+        assertThat(response2.getStatus()).isEqualTo(HttpStatus.OK_200);
+        final List<PersonBaseDTO> page2 = response2.readEntity(new GenericType<List<PersonBaseDTO>>() {
+        });
+        assertThat(page2.stream().map(dto -> dto.name)).containsExactly("Carol");
+        assertThat(response2.getLink("next")).isNull();
+    }
+
+    @Test
+    public void getByOrganization_invalidPaginationParameters_expectBadRequest() throws Exception {
+        final Organization org = mockOrganization("org");
+
+        final Response response1 = resources
+                .target("/organizations/" + UuidString.toString(org.getId()) + "/people")
+                .queryParam("after", "not a cursor")
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+        assertThat(response1.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+
+        final Response response2 = resources
+                .target("/organizations/" + UuidString.toString(org.getId()) + "/people")
+                .queryParam("limit", 0)
+                .register(MockUtil.AUTH_FEATURE_READER)
+                .request()
+                .get();
+        assertThat(response2.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+
+        verify(dao, never()).getByParent(any(Organization.class), any(), any(), any(), any(), anyInt());
     }
 
     @Test
@@ -979,26 +1088,16 @@ public class PeopleResourceTest {
     public void achievementSummary_twoAchievementTwoSteps_successful() throws Exception {
         final Organization org = mockOrganization("Alice's Organization");
         final Person person1 = mockPerson(org, "Alice");
-        final Person person2 = mockPerson(org, "Bob");
-        final Person person3 = mockPerson(org, "Carol");
-        final AchievementStepProgress a1p1 = mockProgress(true, person1);
-        final AchievementStepProgress a1p2 = mockProgress(true, person2);
-        final AchievementStepProgress a1p3 = mockProgress(true, person1);
-        final AchievementStepProgress a1p4 = mockProgress(true, person2);
-        final AchievementStep a1s1 = mockStep(a1p1, a1p2);
-        final AchievementStep a1s2 = mockStep(a1p3, a1p4);
-        final Achievement a1 = mockAchievement("Climb mountain", a1s1, a1s2);
-
-        final AchievementStepProgress a2p1 = mockProgress(false, person2);
-        final AchievementStepProgress a2p2 = mockProgress(true, person1);
-        final AchievementStepProgress a2p3 = mockProgress(false, person2);
-        final AchievementStepProgress a2p4 = mockProgress(false, person1);
-        final AchievementStep s2 = mockStep(a2p1, a2p2);
-        final AchievementStep s3 = mockStep(a2p3, a2p4);
-        final Achievement a2 = mockAchievement("Cook egg", s2, s3);
-
-        when(achievementsDao.findWithProgressForPerson(eq(person1)))
-                .thenReturn(Arrays.asList(a1, a2));
+        final Integer person1Id = person1.getId();
+        final String person1Name = person1.getName();
+        final AchievementSummaryDao.AchievementInfo a1 = new AchievementSummaryDao.AchievementInfo(UUID.randomUUID(), "Climb mountain", null, Collections.emptySet());
+        final AchievementSummaryDao.AchievementInfo a2 = new AchievementSummaryDao.AchievementInfo(UUID.randomUUID(), "Cook egg", null, Collections.emptySet());
+
+        when(summaryDao.getProgress(eq(person1))).thenReturn(Arrays.asList(
+                new AchievementSummaryDao.PersonProgress(a1.getId(), person1Id, person1Name, 200, true, 2, false),
+                new AchievementSummaryDao.PersonProgress(a2.getId(), person1Id, person1Name, 100, true, 2, false)
+        ));
+        when(summaryDao.getAchievements(anyCollection())).thenReturn(Arrays.asList(a2, a1));
 
         final OrganizationAchievementSummaryDTO dto = resources.client()
                 .target("/organizations/" + UuidString.toString(org.getId()) + "/people/" + person1.getId() + "/achievement-summary")
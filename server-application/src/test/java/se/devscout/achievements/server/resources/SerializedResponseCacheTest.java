@@ -0,0 +1,153 @@
+package se.devscout.achievements.server.resources;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import io.dropwizard.jackson.Jackson;
+import org.junit.Before;
+import org.junit.Test;
+import se.devscout.achievements.server.data.OrganizationVersions;
+
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class SerializedResponseCacheTest {
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final OrganizationVersions versions = new OrganizationVersions();
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private final Supplier<Object> loader = () -> {
+        loadCount.incrementAndGet();
+        return Collections.singletonMap("name", "Alice");
+    };
+
+    private SerializedResponseCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new SerializedResponseCache(versions, Jackson.newObjectMapper(), 1024 * 1024, metrics);
+    }
+
+    @Test
+    public void get_sameVersion_cached() {
+        final Response first = cache.getAchievements("achievements", null, loader);
+        final Response second = cache.getAchievements("achievements", null, loader);
+
+        assertThat(new String((byte[]) first.getEntity(), StandardCharsets.UTF_8)).isEqualTo("{\"name\":\"Alice\"}");
+        assertThat(second.getEntity()).isSameAs(first.getEntity());
+        assertThat(second.getHeaderString(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(loadCount.get()).isEqualTo(1);
+        assertThat(gauge("hits")).isEqualTo(1L);
+        assertThat(gauge("misses")).isEqualTo(1L);
+        assertThat(gauge("bytes")).isEqualTo(16L);
+    }
+
+    @Test
+    public void get_organizationVersionIncremented_reloaded() {
+        final UUID org1 = UUID.randomUUID();
+        final UUID org2 = UUID.randomUUID();
+        cache.getOrganization(org1, "organizations/1/basic", null, loader);
+        cache.getOrganization(org2, "organizations/2/basic", null, loader);
+        cache.getAchievements("achievements", null, loader);
+
+        versions.increment(org1);
+
+        cache.getOrganization(org1, "organizations/1/basic", null, loader);
+        cache.getOrganization(org2, "organizations/2/basic", null, loader);
+        cache.getAchievements("achievements", null, loader);
+
+        assertThat(loadCount.get()).isEqualTo(4);
+
+        versions.incrementAll();
+
+        cache.getOrganization(org2, "organizations/2/basic", null, loader);
+        cache.getAchievements("achievements", null, loader);
+
+        assertThat(loadCount.get()).isEqualTo(6);
+    }
+
+    @Test
+    public void get_gzipAccepted_compressedResponse() throws IOException {
+        final String longName = Strings.repeat("Alice ", 100);
+        final Supplier<Object> largeLoader = () -> Collections.singletonMap("name", longName);
+
+        final Response plain = cache.getAchievements("achievements", null, largeLoader);
+        final Response compressed = cache.getAchievements("achievements", "deflate, gzip;q=0.8", largeLoader);
+
+        assertThat(plain.getHeaderString(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(compressed.getHeaderString(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        final byte[] compressedBytes = (byte[]) compressed.getEntity();
+        assertThat(compressedBytes.length).isLessThan(((byte[]) plain.getEntity()).length);
+        final byte[] decompressed = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressedBytes)));
+        assertThat(decompressed).isEqualTo(plain.getEntity());
+    }
+
+    @Test
+    public void get_smallResponse_notCompressed() {
+        final Response response = cache.getAchievements("achievements", "gzip", loader);
+
+        assertThat(response.getHeaderString(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    public void get_loaderFails_exceptionRethrownAndNotCached() {
+        try {
+            cache.getAchievements("achievements/1", null, () -> {
+                throw new NotFoundException();
+            });
+            fail("Expected NotFoundException");
+        } catch (NotFoundException e) {
+            // Expected
+        }
+        assertThat(gauge("size")).isEqualTo(0L);
+    }
+
+    @Test
+    public void get_maximumSizeReached_evicted() {
+        final MetricRegistry smallCacheMetrics = new MetricRegistry();
+        // Below 20 the cache is not split into segments, which would each get a smaller share of the maximum
+        final SerializedResponseCache smallCache = new SerializedResponseCache(versions, Jackson.newObjectMapper(), 19, smallCacheMetrics);
+
+        smallCache.getAchievements("achievements/1", null, loader);
+        smallCache.getAchievements("achievements/2", null, loader);
+
+        assertThat(gauge(smallCacheMetrics, "evictions")).isEqualTo(1L);
+        assertThat(gauge(smallCacheMetrics, "size")).isEqualTo(1L);
+    }
+
+    @Test
+    public void acceptsGzip() {
+        assertThat(SerializedResponseCache.acceptsGzip(null)).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip("")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip("identity")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip("gzip")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("GZIP;q=0.5")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("*")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip("deflate, gzip; q=0.0")).isFalse();
+    }
+
+    private Object gauge(String name) {
+        return gauge(metrics, name);
+    }
+
+    private static Object gauge(MetricRegistry metrics, String name) {
+        final Gauge gauge = metrics.getGauges().get(MetricRegistry.name(SerializedResponseCache.class, name));
+        return gauge.getValue();
+    }
+}